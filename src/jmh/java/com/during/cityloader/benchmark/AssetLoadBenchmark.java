@@ -0,0 +1,64 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AssetRegistries#load} 全量加载基准（单次耗时）
+ * 每次调用前重置注册表，分别测量串行与分层并行加载。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AssetLoadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private World world;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StandIn.installServer();
+        world = StandIn.world(GenerationFixture.WORLD_NAME);
+        AssetRegistries.setParallelLoading(parallel);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        AssetRegistries.reset();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        AssetRegistries.reset();
+        AssetRegistries.setParallelLoading(true);
+    }
+
+    @Benchmark
+    public boolean load() {
+        AssetRegistries.load(world);
+        return AssetRegistries.isLoaded();
+    }
+}
@@ -0,0 +1,129 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.util.ChunkCoord;
+import com.during.cityloader.worldgen.ChunkHeightmap;
+import com.during.cityloader.worldgen.IDimensionInfo;
+import com.during.cityloader.worldgen.LostCityProfile;
+import com.during.cityloader.worldgen.LostCityTerrainFeature;
+import com.during.cityloader.worldgen.lost.cityassets.WorldStyle;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * 基准测试用的维度信息
+ * 地形默认为确定性的缓坡（64 到 72 格），也可传入任意地表高度函数（如 {@link SyntheticTerrain}）；
+ * 生物群系固定为平原，高度图按区块缓存，与运行期的 {@code HeightmapStore} 命中后行为一致。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class BenchmarkDimension implements IDimensionInfo {
+
+    private final ConcurrentHashMap<Long, ChunkHeightmap> heightmaps = new ConcurrentHashMap<>();
+    private final LostCityProfile profile = new LostCityProfile("benchmark");
+    private final Random random = new Random(StandIn.SEED);
+    private final WorldStyle worldStyle;
+    private final IntBinaryOperator surface;
+    private World world;
+
+    public BenchmarkDimension(World world, WorldStyle worldStyle) {
+        this(world, worldStyle, BenchmarkDimension::slope);
+    }
+
+    /**
+     * @param world      世界
+     * @param worldStyle 世界样式
+     * @param surface    地表高度函数（方块X, 方块Z → 高度）
+     */
+    public BenchmarkDimension(World world, WorldStyle worldStyle, IntBinaryOperator surface) {
+        this.world = world;
+        this.worldStyle = worldStyle;
+        this.surface = surface;
+    }
+
+    @Override
+    public void setWorld(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public long getSeed() {
+        return StandIn.SEED;
+    }
+
+    @Override
+    public World getWorld() {
+        return world;
+    }
+
+    @Override
+    public String getType() {
+        return "normal";
+    }
+
+    @Override
+    public LostCityProfile getProfile() {
+        return profile;
+    }
+
+    @Override
+    public LostCityProfile getOutsideProfile() {
+        return null;
+    }
+
+    @Override
+    public WorldStyle getWorldStyle() {
+        return worldStyle;
+    }
+
+    @Override
+    public Random getRandom() {
+        return random;
+    }
+
+    @Override
+    public LostCityTerrainFeature getFeature() {
+        return LostCityTerrainFeature.DEFAULT;
+    }
+
+    @Override
+    public ChunkHeightmap getHeightmap(int chunkX, int chunkZ) {
+        long key = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+        ChunkHeightmap cached = heightmaps.get(key);
+        return cached != null ? cached : heightmaps.computeIfAbsent(key, ignored -> sample(chunkX, chunkZ));
+    }
+
+    @Override
+    public ChunkHeightmap getHeightmap(ChunkCoord coord) {
+        return getHeightmap(coord.chunkX(), coord.chunkZ());
+    }
+
+    @Override
+    public Biome getBiome(int x, int y, int z) {
+        return Biome.PLAINS;
+    }
+
+    @Override
+    public String dimension() {
+        return world.getName();
+    }
+
+    private ChunkHeightmap sample(int chunkX, int chunkZ) {
+        ChunkHeightmap heightmap = new ChunkHeightmap();
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                heightmap.setHeight(x, z, surface.applyAsInt((chunkX << 4) + x, (chunkZ << 4) + z));
+            }
+        }
+        return heightmap;
+    }
+
+    private static int slope(int blockX, int blockZ) {
+        int base = 64 + Math.floorMod((blockX >> 4) * 31 + (blockZ >> 4) * 17, 8);
+        return base + (((blockX & 15) + (blockZ & 15)) >> 4);
+    }
+}
@@ -0,0 +1,65 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.util.ChunkCoord;
+import com.during.cityloader.worldgen.lost.BuildingInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BuildingInfo#getBuildingInfo} 基准
+ * 冷缓存：每次调用取一个尚未规划的区块（步长足够大，邻居也未缓存），
+ * 每轮迭代开始时清空缓存以限制内存；热缓存：反复查询同一批已规划区块。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildingInfoBenchmark {
+
+    private static final int COLD_STRIDE = 5;
+    private static final int WARM_CHUNKS = 64;
+
+    private final ChunkCoord[] warm = new ChunkCoord[WARM_CHUNKS];
+    private int coldIndex;
+    private int warmIndex;
+
+    @Setup(Level.Iteration)
+    public void setUp(GenerationFixture fixture) {
+        BuildingInfo.resetCache();
+        coldIndex = 0;
+        for (int i = 0; i < WARM_CHUNKS; i++) {
+            warm[i] = new ChunkCoord(GenerationFixture.WORLD_NAME, i % 8, i / 8);
+            BuildingInfo.getBuildingInfo(warm[i], fixture.dimension);
+        }
+    }
+
+    @Benchmark
+    public BuildingInfo coldCache(GenerationFixture fixture) {
+        int i = coldIndex++;
+        ChunkCoord coord = new ChunkCoord(GenerationFixture.WORLD_NAME,
+                1000 + (i & 1023) * COLD_STRIDE, 1000 + (i >> 10) * COLD_STRIDE);
+        return BuildingInfo.getBuildingInfo(coord, fixture.dimension);
+    }
+
+    @Benchmark
+    public BuildingInfo warmCache(GenerationFixture fixture) {
+        ChunkCoord coord = warm[warmIndex++ & (WARM_CHUNKS - 1)];
+        return BuildingInfo.getBuildingInfo(coord, fixture.dimension);
+    }
+}
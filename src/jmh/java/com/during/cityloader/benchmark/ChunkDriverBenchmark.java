@@ -0,0 +1,87 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.worldgen.ChunkDriver;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ChunkDriver} 写入与落盘基准
+ * 以建筑区块典型的形态写入：地基整层、四面外墙、每四层一块楼板，共 16 层。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkDriverBenchmark {
+
+    private static final int BASE_Y = 64;
+    private static final int HEIGHT = 16;
+
+    private final ChunkDriver driver = new ChunkDriver();
+    private InMemoryRegion region;
+    private GenerationFixture fixture;
+    private BlockData stone;
+    private BlockData bricks;
+    private BlockData glass;
+
+    @Setup(Level.Trial)
+    public void setUp(GenerationFixture fixture) {
+        this.fixture = fixture;
+        region = new InMemoryRegion(0, 0);
+        stone = StandIn.blockData(Material.STONE);
+        bricks = StandIn.blockData(Material.STONE_BRICKS);
+        glass = StandIn.blockData(Material.GLASS);
+    }
+
+    @Benchmark
+    public int write() {
+        fill();
+        int y = driver.getY();
+        driver.clear();
+        return y;
+    }
+
+    @Benchmark
+    public int writeAndFlush() {
+        region.clear();
+        fill();
+        driver.actuallyGenerate();
+        driver.clear();
+        return region.size();
+    }
+
+    private void fill() {
+        driver.setPrimer(fixture.world, region.view(), 0, 0);
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                driver.current(x, BASE_Y, z).block(stone);
+                boolean wall = x == 0 || x == 15 || z == 0 || z == 15;
+                for (int y = 1; y < HEIGHT; y++) {
+                    if (wall) {
+                        driver.current(x, BASE_Y + y, z).block((y & 1) == 0 ? bricks : glass);
+                    } else if ((y & 3) == 0) {
+                        driver.current(x, BASE_Y + y, z).block(stone);
+                    }
+                }
+            }
+        }
+    }
+}
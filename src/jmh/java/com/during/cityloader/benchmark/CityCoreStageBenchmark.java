@@ -0,0 +1,72 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.util.ChunkCoord;
+import com.during.cityloader.worldgen.lost.BuildingInfo;
+import com.during.cityloader.worldgen.gen.CityCoreStage;
+import com.during.cityloader.worldgen.gen.GenerationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CityCoreStage#generate} 基准
+ * 分别在建筑、街道与空地区块上执行核心阶段并落盘到内存区域，
+ * 每次调用使用相同种子的随机数源，保证写入内容一致。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CityCoreStageBenchmark {
+
+    @Param({"building", "street", "vacant"})
+    public String chunk;
+
+    private final CityCoreStage stage = new CityCoreStage();
+    private BuildingInfo info;
+    private InMemoryRegion region;
+
+    @Setup(Level.Trial)
+    public void setUp(GenerationFixture fixture) {
+        ChunkCoord coord = switch (chunk) {
+            case "building" -> fixture.buildingChunk;
+            case "street" -> fixture.streetChunk;
+            default -> fixture.vacantChunk;
+        };
+        info = BuildingInfo.getBuildingInfo(coord, fixture.dimension);
+        region = new InMemoryRegion(coord.chunkX(), coord.chunkZ());
+    }
+
+    @Benchmark
+    public int generate(GenerationFixture fixture) {
+        region.clear();
+        GenerationContext context = new GenerationContext(fixture.world, region.view(), fixture.dimension,
+                info, new Random(StandIn.SEED), info.coord.chunkX(), info.coord.chunkZ());
+        try {
+            stage.generate(context);
+            context.flush();
+        } finally {
+            context.release();
+        }
+        info.drainPostTodo();
+        info.drainPalettePostTodo();
+        return region.size();
+    }
+}
@@ -0,0 +1,79 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
+import com.during.cityloader.worldgen.lost.cityassets.CompiledPalette;
+import com.during.cityloader.worldgen.lost.cityassets.Palette;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CompiledPalette} 构造与查询基准
+ * 构造使用与建筑区块相同的调色板组合（公共、砖墙、玻璃、石材）；
+ * 查询遍历组合后调色板的全部字符。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledPaletteBenchmark {
+
+    private static final String[] PALETTES = {
+            "lostcities:palette_common",
+            "lostcities:bricks_standard",
+            "lostcities:glass_full",
+            "lostcities:stone_building"
+    };
+
+    private Palette[] palettes;
+    private CompiledPalette compiled;
+    private char[] characters;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp(GenerationFixture fixture) {
+        palettes = new Palette[PALETTES.length];
+        for (int i = 0; i < PALETTES.length; i++) {
+            palettes[i] = AssetRegistries.PALETTES.get(fixture.world, PALETTES[i]);
+            if (palettes[i] == null) {
+                throw new IllegalStateException("无法加载调色板: " + PALETTES[i]);
+            }
+        }
+        compiled = new CompiledPalette(palettes);
+        characters = new char[compiled.getCharacters().size()];
+        int i = 0;
+        for (Character c : compiled.getCharacters()) {
+            characters[i++] = c;
+        }
+        random = new Random(StandIn.SEED);
+    }
+
+    @Benchmark
+    public CompiledPalette construct() {
+        return new CompiledPalette(palettes);
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        for (char c : characters) {
+            blackhole.consume(compiled.get(c, random));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.util.ChunkCoord;
+import com.during.cityloader.worldgen.lost.BuildingInfo;
+import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
+import com.during.cityloader.worldgen.lost.cityassets.WorldStyle;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * 基准测试共享的生成环境
+ * 安装替身服务端、加载内置资产，并在固定种子下找出建筑、街道与空地三类代表区块。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+@State(Scope.Benchmark)
+public class GenerationFixture {
+
+    public static final String WORLD_NAME = "benchmark";
+    public static final String WORLD_STYLE = "lostcities:standard";
+    private static final int SEARCH_RADIUS = 64;
+
+    public World world;
+    public BenchmarkDimension dimension;
+    public ChunkCoord buildingChunk;
+    public ChunkCoord streetChunk;
+    public ChunkCoord vacantChunk;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StandIn.installServer();
+        world = StandIn.world(WORLD_NAME);
+        AssetRegistries.reset();
+        AssetRegistries.load(world);
+        WorldStyle worldStyle = AssetRegistries.WORLDSTYLES.get(world, WORLD_STYLE);
+        if (worldStyle == null) {
+            throw new IllegalStateException("无法加载世界样式: " + WORLD_STYLE);
+        }
+        dimension = new BenchmarkDimension(world, worldStyle);
+        findRepresentativeChunks();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BuildingInfo.resetCache();
+        AssetRegistries.reset();
+    }
+
+    private void findRepresentativeChunks() {
+        for (int i = 0; i < SEARCH_RADIUS * SEARCH_RADIUS
+                && (buildingChunk == null || streetChunk == null || vacantChunk == null); i++) {
+            ChunkCoord coord = new ChunkCoord(WORLD_NAME, i % SEARCH_RADIUS, i / SEARCH_RADIUS);
+            BuildingInfo info = BuildingInfo.getBuildingInfo(coord, dimension);
+            if (info.isCity && info.hasBuilding) {
+                buildingChunk = buildingChunk == null ? coord : buildingChunk;
+            } else if (info.isCity && info.hasStreet) {
+                streetChunk = streetChunk == null ? coord : streetChunk;
+            } else if (!info.isCity) {
+                vacantChunk = vacantChunk == null ? coord : vacantChunk;
+            }
+        }
+        if (buildingChunk == null || streetChunk == null || vacantChunk == null) {
+            throw new IllegalStateException("固定种子下未找到全部代表区块: building=" + buildingChunk
+                    + ", street=" + streetChunk + ", vacant=" + vacantChunk);
+        }
+    }
+}
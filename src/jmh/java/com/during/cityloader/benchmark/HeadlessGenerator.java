@@ -0,0 +1,215 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.util.ChunkMap;
+import com.during.cityloader.worldgen.GenerationMetrics;
+import com.during.cityloader.worldgen.GenerationStatsExporter;
+import com.during.cityloader.worldgen.LostCityTerrainFeature;
+import com.during.cityloader.worldgen.gen.GlobalCompletionQueue;
+import com.during.cityloader.worldgen.lost.BuildingInfo;
+import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
+import com.during.cityloader.worldgen.lost.cityassets.WorldStyle;
+import org.bukkit.World;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无头城市生成器
+ * 不启动服务端，在内存世界与合成地形上用 N 个线程驱动 {@link LostCityTerrainFeature#generate}，
+ * 报告区块吞吐、分配速率与各阶段耗时，可选导出方块统计、俯视图与指标 JSON。
+ *
+ * <pre>
+ * mvn -Pbenchmarks -DskipTests test-compile exec:exec@headless -Dheadless.args="--radius 16 --threads 8 --png target/city.png"
+ * </pre>
+ *
+ * <p>参数：{@code --radius <区块>}（默认 16）、{@code --center <cx,cz>}、{@code --threads <n>}
+ * （默认 CPU 核数）、{@code --warmup <区块数>}（先在区域外生成以预热 JIT，默认 256）、
+ * {@code --style <worldstyle>}、{@code --counts <csv>}、{@code --png <png>}、{@code --stats <json>}。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class HeadlessGenerator {
+
+    private static final String WORLD_NAME = "headless";
+    private static final int WARMUP_OFFSET = 100_000;
+
+    private int radius = 16;
+    private int centerX;
+    private int centerZ;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int warmup = 256;
+    private String style = GenerationFixture.WORLD_STYLE;
+    private Path countsFile;
+    private Path pngFile;
+    private Path statsFile;
+
+    private HeadlessGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        HeadlessGenerator generator = new HeadlessGenerator();
+        generator.parse(args);
+        generator.run();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--radius" -> radius = Integer.parseInt(require(args[i], value));
+                case "--center" -> {
+                    String[] parts = require(args[i], value).split(",");
+                    centerX = Integer.parseInt(parts[0].trim());
+                    centerZ = Integer.parseInt(parts[1].trim());
+                }
+                case "--threads" -> threads = Math.max(1, Integer.parseInt(require(args[i], value)));
+                case "--warmup" -> warmup = Math.max(0, Integer.parseInt(require(args[i], value)));
+                case "--style" -> style = require(args[i], value);
+                case "--counts" -> countsFile = Path.of(require(args[i], value));
+                case "--png" -> pngFile = Path.of(require(args[i], value));
+                case "--stats" -> statsFile = Path.of(require(args[i], value));
+                default -> throw new IllegalArgumentException("未知参数: " + args[i]);
+            }
+            i++;
+        }
+    }
+
+    private static String require(String name, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("参数缺少取值: " + name);
+        }
+        return value;
+    }
+
+    private void run() throws Exception {
+        StandIn.installServer();
+        World world = StandIn.world(WORLD_NAME);
+
+        long loadStart = System.nanoTime();
+        AssetRegistries.reset();
+        AssetRegistries.load(world);
+        System.out.printf(Locale.ROOT, "资产加载: %.1f ms%n", (System.nanoTime() - loadStart) / 1_000_000.0);
+        WorldStyle worldStyle = AssetRegistries.WORLDSTYLES.get(world, style);
+        if (worldStyle == null) {
+            throw new IllegalStateException("无法加载世界样式: " + style);
+        }
+
+        SyntheticTerrain terrain = new SyntheticTerrain(StandIn.SEED);
+        BenchmarkDimension dimension = new BenchmarkDimension(world, worldStyle, terrain::height);
+        HeadlessWorld headless = new HeadlessWorld(
+                (x, z) -> dimension.getHeightmap(x >> 4, z >> 4).getHeight(x & 15, z & 15));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            if (warmup > 0) {
+                List<Long> warmupChunks = square(WARMUP_OFFSET, WARMUP_OFFSET, (int) Math.ceil(Math.sqrt(warmup) / 2.0));
+                generate(executor, world, dimension, headless, warmupChunks);
+                GenerationMetrics.reset();
+            }
+
+            List<Long> chunks = square(centerX, centerZ, radius);
+            Result result = generate(executor, world, dimension, headless, chunks);
+            report(result);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (countsFile != null) {
+            HeadlessReport.writeBlockCounts(headless, countsFile);
+            System.out.println("方块统计: " + countsFile.toAbsolutePath());
+        }
+        if (pngFile != null) {
+            HeadlessReport.writeTopDown(headless, centerX - radius, centerZ - radius,
+                    centerX + radius, centerZ + radius, pngFile);
+            System.out.println("俯视图: " + pngFile.toAbsolutePath());
+        }
+        if (statsFile != null) {
+            GenerationStatsExporter.writeJson(statsFile);
+            System.out.println("阶段指标: " + statsFile.toAbsolutePath());
+        }
+        GlobalCompletionQueue.clear();
+        BuildingInfo.resetCache();
+    }
+
+    private Result generate(ExecutorService executor, World world, BenchmarkDimension dimension,
+                            HeadlessWorld headless, List<Long> chunks) throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        LongAdder allocated = new LongAdder();
+        AtomicLong failed = new AtomicLong();
+        LostCityTerrainFeature feature = dimension.getFeature();
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(chunks.size());
+        for (long key : chunks) {
+            int chunkX = ChunkMap.chunkX(key);
+            int chunkZ = ChunkMap.chunkZ(key);
+            futures.add(executor.submit(() -> {
+                long before = threadBean.getCurrentThreadAllocatedBytes();
+                try {
+                    feature.generate(world, new Random(StandIn.SEED ^ key), chunkX, chunkZ,
+                            headless.region(chunkX, chunkZ), dimension);
+                } catch (RuntimeException e) {
+                    if (failed.getAndIncrement() == 0) {
+                        e.printStackTrace();
+                    }
+                }
+                allocated.add(threadBean.getCurrentThreadAllocatedBytes() - before);
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(chunks.size(), failed.get(), elapsed, allocated.sum());
+    }
+
+    private void report(Result result) {
+        double seconds = result.elapsedNanos() / 1_000_000_000.0;
+        System.out.printf(Locale.ROOT, "区块: %d（失败 %d），线程: %d，耗时: %.2f s%n",
+                result.chunks(), result.failed(), threads, seconds);
+        System.out.printf(Locale.ROOT, "吞吐: %.1f 区块/秒%n", result.chunks() / seconds);
+        System.out.printf(Locale.ROOT, "分配: %.1f MB/s，%.1f KB/区块%n",
+                result.allocatedBytes() / seconds / (1024.0 * 1024.0),
+                result.allocatedBytes() / 1024.0 / Math.max(1, result.chunks()));
+
+        GenerationMetrics.WorldStats stats = GenerationMetrics.snapshot(WORLD_NAME);
+        if (stats == null) {
+            return;
+        }
+        System.out.printf(Locale.ROOT, "%-22s %8s %10s %10s %10s %8s%n",
+                "阶段", "次数", "平均ms", "p99ms", "累计ms", "占比");
+        double total = Math.max(1e-9, stats.total().totalMillis());
+        for (GenerationMetrics.StageStats stage : stats.stages()) {
+            System.out.printf(Locale.ROOT, "%-22s %8d %10.3f %10.3f %10.1f %7.1f%%%n",
+                    stage.stage(), stage.count(), stage.meanMillis(), stage.p99Millis(),
+                    stage.totalMillis(), stage.totalMillis() * 100.0 / total);
+        }
+        System.out.printf(Locale.ROOT, "%-22s %8d %10.3f %10.3f %10.1f%n",
+                "Total", stats.total().count(), stats.total().meanMillis(), stats.total().p99Millis(),
+                stats.total().totalMillis());
+    }
+
+    private static List<Long> square(int centerX, int centerZ, int radius) {
+        List<Long> chunks = new ArrayList<>((2 * radius + 1) * (2 * radius + 1));
+        for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+            for (int x = centerX - radius; x <= centerX + radius; x++) {
+                chunks.add(ChunkMap.key(x, z));
+            }
+        }
+        return chunks;
+    }
+
+    private record Result(int chunks, long failed, long elapsedNanos, long allocatedBytes) {
+    }
+}
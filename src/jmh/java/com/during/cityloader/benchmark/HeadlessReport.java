@@ -0,0 +1,167 @@
+package com.during.cityloader.benchmark;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 无头生成的结果导出
+ * 方块统计只计生成器写入的方块（不含原始地形）；
+ * 俯视图取每列最高的非空气方块，按材质着色并按高度调节明暗。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class HeadlessReport {
+
+    private static final int SHADE_RANGE = 96;
+
+    private HeadlessReport() {
+    }
+
+    /**
+     * 按材质统计生成器写入的方块并写出 CSV（按数量降序）
+     *
+     * @param world 无头世界
+     * @param file  目标文件
+     * @throws IOException 写入失败
+     */
+    public static void writeBlockCounts(HeadlessWorld world, Path file) throws IOException {
+        Map<Material, long[]> counts = new EnumMap<>(Material.class);
+        for (long key : world.writtenChunks()) {
+            short[][] sections = world.sections(key);
+            if (sections == null) {
+                continue;
+            }
+            for (short[] section : sections) {
+                if (section == null) {
+                    continue;
+                }
+                for (short id : section) {
+                    if (id != 0) {
+                        counts.computeIfAbsent(world.byId(id).getMaterial(), ignored -> new long[1])[0]++;
+                    }
+                }
+            }
+        }
+        List<Map.Entry<Material, long[]>> sorted = new ArrayList<>(counts.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        createParent(file);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("material,count\n");
+            for (Map.Entry<Material, long[]> entry : sorted) {
+                writer.write(entry.getKey().getKey().getKey() + "," + entry.getValue()[0] + "\n");
+            }
+        }
+    }
+
+    /**
+     * 写出俯视图 PNG（每个方块一个像素）
+     *
+     * @param world      无头世界
+     * @param minChunkX  最小区块X
+     * @param minChunkZ  最小区块Z
+     * @param maxChunkX  最大区块X
+     * @param maxChunkZ  最大区块Z
+     * @param file       目标文件
+     * @throws IOException 写入失败
+     */
+    public static void writeTopDown(HeadlessWorld world, int minChunkX, int minChunkZ,
+                                    int maxChunkX, int maxChunkZ, Path file) throws IOException {
+        int width = (maxChunkX - minChunkX + 1) << 4;
+        int height = (maxChunkZ - minChunkZ + 1) << 4;
+        int originX = minChunkX << 4;
+        int originZ = minChunkZ << 4;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int px = 0; px < width; px++) {
+            for (int pz = 0; pz < height; pz++) {
+                int x = originX + px;
+                int z = originZ + pz;
+                int top = topBlock(world, x, z);
+                Material material = world.get(x, top, z).getMaterial();
+                image.setRGB(px, pz, shade(color(material), top));
+            }
+        }
+        createParent(file);
+        ImageIO.write(image, "png", file.toFile());
+    }
+
+    private static int topBlock(HeadlessWorld world, int x, int z) {
+        int terrainTop = Math.max(world.surface(x, z), StandIn.SEA_LEVEL);
+        for (int y = StandIn.MAX_HEIGHT - 1; y > StandIn.MIN_HEIGHT; y--) {
+            int id = world.written(x, y, z);
+            if (id != 0) {
+                BlockData data = world.byId(id);
+                if (!data.getMaterial().isAir()) {
+                    return y;
+                }
+            } else if (y <= terrainTop) {
+                return y;
+            }
+        }
+        return StandIn.MIN_HEIGHT;
+    }
+
+    private static int color(Material material) {
+        String name = material.name();
+        if (name.contains("WATER")) {
+            return 0x3F76E4;
+        }
+        if (name.equals("GRASS_BLOCK") || name.contains("MOSS")) {
+            return 0x7FB238;
+        }
+        if (name.contains("LEAVES")) {
+            return 0x007C00;
+        }
+        if (name.contains("SAND")) {
+            return 0xF7E9A3;
+        }
+        if (name.contains("GLASS")) {
+            return 0xC0E0F0;
+        }
+        if (name.contains("BRICK")) {
+            return 0x993333;
+        }
+        if (name.contains("PLANKS") || name.contains("LOG") || name.contains("WOOD")) {
+            return 0x8F7748;
+        }
+        if (name.contains("DIRT") || name.contains("PATH")) {
+            return 0x976D4D;
+        }
+        if (name.contains("STONE") || name.contains("COBBLE") || name.contains("ANDESITE")) {
+            return 0x707070;
+        }
+        if (name.contains("IRON") || name.contains("RAIL")) {
+            return 0xA7A7A7;
+        }
+        int hash = name.toLowerCase(Locale.ROOT).hashCode();
+        return 0x404040 | (hash & 0x7F7F7F);
+    }
+
+    private static int shade(int rgb, int y) {
+        double factor = 0.6 + 0.4 * Math.min(1.0, Math.max(0.0, (y - StandIn.SEA_LEVEL + SHADE_RANGE / 2.0) / SHADE_RANGE));
+        int r = (int) (((rgb >> 16) & 0xFF) * factor);
+        int g = (int) (((rgb >> 8) & 0xFF) * factor);
+        int b = (int) ((rgb & 0xFF) * factor);
+        return (r << 16) | (g << 8) | b;
+    }
+
+    private static void createParent(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.util.ChunkMap;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.generator.LimitedRegion;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * 无头生成使用的内存世界
+ * 每个区块按 16 格高的区段存放方块编号（short），区段在首次写入时才分配；
+ * 编号 0 表示未被生成器写过，读取时回退到原始地形。
+ * 不同线程可同时写入相邻区块的重叠边缘，与真实服务端一样不保证先后。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class HeadlessWorld {
+
+    private static final int SECTION_COUNT = (StandIn.MAX_HEIGHT - StandIn.MIN_HEIGHT) >> 4;
+    private static final int MAX_IDS = Short.MAX_VALUE;
+
+    private final Map<Long, short[][]> chunks = new ConcurrentHashMap<>();
+    private final Map<BlockData, Short> ids = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<BlockData> byId = new AtomicReferenceArray<>(MAX_IDS);
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final IntBinaryOperator surface;
+
+    /**
+     * @param surface 地表高度函数（方块X, 方块Z → 高度）
+     */
+    public HeadlessWorld(IntBinaryOperator surface) {
+        this.surface = surface;
+    }
+
+    /**
+     * 创建以指定区块为中心的写入区域（中心区块及四周各一格区块）
+     *
+     * @param chunkX 中心区块X
+     * @param chunkZ 中心区块Z
+     * @return 区域
+     */
+    public LimitedRegion region(int chunkX, int chunkZ) {
+        return (LimitedRegion) Proxy.newProxyInstance(
+                LimitedRegion.class.getClassLoader(),
+                new Class<?>[] {LimitedRegion.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getBlockData" -> args.length == 1 ? get((Location) args[0]) : get(args);
+                    case "getType" -> (args.length == 1 ? get((Location) args[0]) : get(args)).getMaterial();
+                    case "setBlockData" -> {
+                        if (args.length == 2) {
+                            Location location = (Location) args[0];
+                            set(location.getBlockX(), location.getBlockY(), location.getBlockZ(), (BlockData) args[1]);
+                        } else {
+                            set((Integer) args[0], (Integer) args[1], (Integer) args[2], (BlockData) args[3]);
+                        }
+                        yield null;
+                    }
+                    case "setType" -> {
+                        if (args.length == 2) {
+                            Location location = (Location) args[0];
+                            set(location.getBlockX(), location.getBlockY(), location.getBlockZ(),
+                                    StandIn.blockData((Material) args[1]));
+                        } else {
+                            set((Integer) args[0], (Integer) args[1], (Integer) args[2],
+                                    StandIn.blockData((Material) args[3]));
+                        }
+                        yield null;
+                    }
+                    case "isInRegion" -> args.length == 1
+                            ? isInRegion(chunkX, chunkZ, ((Location) args[0]).getBlockX(), ((Location) args[0]).getBlockZ())
+                            : isInRegion(chunkX, chunkZ, (Integer) args[0], (Integer) args[2]);
+                    case "getBuffer" -> 16;
+                    case "getCenterChunkX" -> chunkX;
+                    case "getCenterChunkZ" -> chunkZ;
+                    case "getCenterBlockX" -> (chunkX << 4) + 8;
+                    case "getCenterBlockZ" -> (chunkZ << 4) + 8;
+                    case "getTileEntities" -> List.of();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "HeadlessRegion[" + chunkX + "," + chunkZ + "]";
+                    default -> StandIn.zero(method);
+                });
+    }
+
+    /**
+     * 读取方块（未写过的位置返回原始地形）
+     *
+     * @param x 方块X
+     * @param y 方块Y
+     * @param z 方块Z
+     * @return 方块数据
+     */
+    public BlockData get(int x, int y, int z) {
+        int id = written(x, y, z);
+        if (id != 0) {
+            return byId.get(id);
+        }
+        return StandIn.blockData(SyntheticTerrain.blockAt(y, surface.applyAsInt(x, z)));
+    }
+
+    /**
+     * 读取生成器写入的方块编号
+     *
+     * @return 编号，未写过或越界时为0
+     */
+    int written(int x, int y, int z) {
+        if (y < StandIn.MIN_HEIGHT || y >= StandIn.MAX_HEIGHT) {
+            return 0;
+        }
+        short[][] sections = chunks.get(ChunkMap.key(x >> 4, z >> 4));
+        if (sections == null) {
+            return 0;
+        }
+        short[] section = sections[(y - StandIn.MIN_HEIGHT) >> 4];
+        return section == null ? 0 : section[index(x, y, z)];
+    }
+
+    BlockData byId(int id) {
+        return byId.get(id);
+    }
+
+    int surface(int x, int z) {
+        return surface.applyAsInt(x, z);
+    }
+
+    /**
+     * 已写入的区块坐标
+     *
+     * @return 区块键（{@link ChunkMap#key}）
+     */
+    public Iterable<Long> writtenChunks() {
+        return chunks.keySet();
+    }
+
+    /**
+     * 区块的区段数组
+     *
+     * @param key 区块键
+     * @return 区段数组，未写入时为null
+     */
+    short[][] sections(long key) {
+        return chunks.get(key);
+    }
+
+    private void set(int x, int y, int z, BlockData data) {
+        if (y < StandIn.MIN_HEIGHT || y >= StandIn.MAX_HEIGHT || data == null) {
+            return;
+        }
+        short[][] sections = chunks.computeIfAbsent(ChunkMap.key(x >> 4, z >> 4), ignored -> new short[SECTION_COUNT][]);
+        int sectionIndex = (y - StandIn.MIN_HEIGHT) >> 4;
+        short[] section = sections[sectionIndex];
+        if (section == null) {
+            synchronized (sections) {
+                section = sections[sectionIndex];
+                if (section == null) {
+                    section = new short[4096];
+                    sections[sectionIndex] = section;
+                }
+            }
+        }
+        section[index(x, y, z)] = id(data);
+    }
+
+    private short id(BlockData data) {
+        Short existing = ids.get(data);
+        if (existing != null) {
+            return existing;
+        }
+        return ids.computeIfAbsent(data, key -> {
+            int id = nextId.getAndIncrement();
+            if (id >= MAX_IDS) {
+                throw new IllegalStateException("方块状态种类超过 " + MAX_IDS);
+            }
+            byId.set(id, key);
+            return (short) id;
+        });
+    }
+
+    private BlockData get(Location location) {
+        return get(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private BlockData get(Object[] args) {
+        return get((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+    }
+
+    private static boolean isInRegion(int chunkX, int chunkZ, int blockX, int blockZ) {
+        return Math.abs((blockX >> 4) - chunkX) <= 1 && Math.abs((blockZ >> 4) - chunkZ) <= 1;
+    }
+
+    private static int index(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+}
@@ -0,0 +1,121 @@
+package com.during.cityloader.benchmark;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.generator.LimitedRegion;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存中的 {@link LimitedRegion} 替身
+ * 覆盖中心区块及四周各一格区块，方块按坐标存放在哈希表中；
+ * 未写入的位置视为空气。每次基准调用前用 {@link #clear()} 复位。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class InMemoryRegion implements InvocationHandler {
+
+    private static final int BUFFER_CHUNKS = 1;
+
+    private final Map<Long, BlockData> blocks = new HashMap<>();
+    private final LimitedRegion view;
+    private final int chunkX;
+    private final int chunkZ;
+
+    public InMemoryRegion(int chunkX, int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.view = (LimitedRegion) Proxy.newProxyInstance(
+                LimitedRegion.class.getClassLoader(),
+                new Class<?>[] {LimitedRegion.class},
+                this);
+    }
+
+    public LimitedRegion view() {
+        return view;
+    }
+
+    public int size() {
+        return blocks.size();
+    }
+
+    public void clear() {
+        blocks.clear();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getBlockData":
+                return args.length == 1 ? blocks.get(key((Location) args[0])) : blocks.get(key(args));
+            case "setBlockData":
+                if (args.length == 2) {
+                    blocks.put(key((Location) args[0]), (BlockData) args[1]);
+                } else {
+                    blocks.put(key(args), (BlockData) args[3]);
+                }
+                return null;
+            case "getType": {
+                BlockData data = args.length == 1 ? blocks.get(key((Location) args[0])) : blocks.get(key(args));
+                return data == null ? Material.AIR : data.getMaterial();
+            }
+            case "setType":
+                if (args.length == 2) {
+                    blocks.put(key((Location) args[0]), StandIn.blockData((Material) args[1]));
+                } else {
+                    blocks.put(key(args), StandIn.blockData((Material) args[3]));
+                }
+                return null;
+            case "isInRegion":
+                if (args.length == 1) {
+                    Location location = (Location) args[0];
+                    return isInRegion(location.getBlockX(), location.getBlockZ());
+                }
+                return isInRegion((Integer) args[0], (Integer) args[2]);
+            case "getBuffer":
+                return BUFFER_CHUNKS << 4;
+            case "getCenterChunkX":
+                return chunkX;
+            case "getCenterChunkZ":
+                return chunkZ;
+            case "getCenterBlockX":
+                return (chunkX << 4) + 8;
+            case "getCenterBlockZ":
+                return (chunkZ << 4) + 8;
+            case "getTileEntities":
+                return List.of();
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryRegion[" + chunkX + "," + chunkZ + "]";
+            default:
+                return StandIn.zero(method);
+        }
+    }
+
+    private boolean isInRegion(int blockX, int blockZ) {
+        return Math.abs((blockX >> 4) - chunkX) <= BUFFER_CHUNKS
+                && Math.abs((blockZ >> 4) - chunkZ) <= BUFFER_CHUNKS;
+    }
+
+    private static long key(Location location) {
+        return key(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private static long key(Object[] args) {
+        return key((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+    }
+
+    private static long key(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (y & 0xFFFL);
+    }
+}
@@ -0,0 +1,50 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.util.NoiseGeneratorPerlin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NoiseGeneratorPerlin#getValue} 基准
+ * 沿一条斜线逐点采样，坐标步长与区块内逐格采样一致。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseGeneratorPerlinBenchmark {
+
+    @Param({"1", "4", "8"})
+    public int levels;
+
+    private NoiseGeneratorPerlin noise;
+    private double x;
+
+    @Setup
+    public void setUp() {
+        noise = new NoiseGeneratorPerlin(StandIn.SEED, levels);
+        x = 0.0;
+    }
+
+    @Benchmark
+    public double getValue() {
+        x += 1.0 / 16.0;
+        return noise.getValue(x, x * 0.5);
+    }
+}
@@ -0,0 +1,170 @@
+package com.during.cityloader.benchmark;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * 基准测试用的内存服务端替身
+ * 以动态代理提供 {@link Server}、{@link World} 与 {@link BlockData} 的最小实现，
+ * 不依赖 Mockito（避免把 mock 的调用开销计入测量结果）。
+ * 未覆盖的方法返回零值，固定种子保证每次运行的输入一致。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class StandIn {
+
+    public static final long SEED = 20240601L;
+    public static final int MIN_HEIGHT = -64;
+    public static final int MAX_HEIGHT = 320;
+    public static final int SEA_LEVEL = 63;
+
+    private static final Map<String, BlockData> BLOCK_DATA = new ConcurrentHashMap<>();
+    private static final Logger LOGGER = Logger.getLogger("CityLoaderBenchmark");
+
+    private StandIn() {
+    }
+
+    /**
+     * 安装替身服务端（重复调用无副作用）
+     */
+    public static synchronized void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        Server server = (Server) Proxy.newProxyInstance(
+                Server.class.getClassLoader(),
+                new Class<?>[] {Server.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "createBlockData" -> args[0] instanceof Material material
+                            ? blockData(material)
+                            : parse((String) args[0]);
+                    case "getLogger" -> LOGGER;
+                    case "getName" -> "StandIn";
+                    case "getVersion", "getBukkitVersion", "getMinecraftVersion" -> "1.21.1-R0.1-SNAPSHOT";
+                    case "isPrimaryThread" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StandInServer";
+                    default -> zero(method);
+                });
+        try {
+            Field field = Bukkit.class.getDeclaredField("server");
+            field.setAccessible(true);
+            field.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法安装替身服务端", e);
+        }
+    }
+
+    /**
+     * 创建替身世界（同时可作为 {@link org.bukkit.generator.WorldInfo} 使用）
+     *
+     * @param name 世界名
+     * @return 世界
+     */
+    public static World world(String name) {
+        UUID uid = UUID.nameUUIDFromBytes(name.getBytes());
+        return (World) Proxy.newProxyInstance(
+                World.class.getClassLoader(),
+                new Class<?>[] {World.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getName" -> name;
+                    case "getUID" -> uid;
+                    case "getSeed" -> SEED;
+                    case "getMinHeight" -> MIN_HEIGHT;
+                    case "getMaxHeight" -> MAX_HEIGHT;
+                    case "getSeaLevel" -> SEA_LEVEL;
+                    case "getEnvironment" -> World.Environment.NORMAL;
+                    case "isChunkLoaded", "isChunkGenerated" -> true;
+                    case "hashCode" -> uid.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StandInWorld[" + name + "]";
+                    default -> zero(method);
+                });
+    }
+
+    /**
+     * 获取方块数据（同一材质共享实例，与真实服务端的驻留行为一致）
+     *
+     * @param material 材质
+     * @return 方块数据
+     */
+    public static BlockData blockData(Material material) {
+        return blockData(material, material.getKey().toString());
+    }
+
+    private static BlockData parse(String definition) {
+        String normalized = definition.indexOf(':') < 0 ? "minecraft:" + definition : definition;
+        int bracket = normalized.indexOf('[');
+        String base = bracket < 0 ? normalized : normalized.substring(0, bracket);
+        Material material = Material.matchMaterial(base);
+        if (material == null) {
+            throw new IllegalArgumentException("Could not parse data: " + definition);
+        }
+        return blockData(material, normalized.toLowerCase(Locale.ROOT));
+    }
+
+    private static BlockData blockData(Material material, String asString) {
+        BlockData existing = BLOCK_DATA.get(asString);
+        if (existing != null) {
+            return existing;
+        }
+        return BLOCK_DATA.computeIfAbsent(asString, key -> (BlockData) Proxy.newProxyInstance(
+                BlockData.class.getClassLoader(),
+                new Class<?>[] {BlockData.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getMaterial", "getPlacementMaterial" -> material;
+                    case "getAsString" -> key;
+                    case "clone", "merge" -> proxy;
+                    case "matches", "equals" -> proxy == args[0];
+                    case "hashCode" -> key.hashCode();
+                    case "toString" -> "StandInBlockData[" + key + "]";
+                    default -> zero(method);
+                }));
+    }
+
+    /**
+     * 未覆盖方法的返回值：引用类型为null，基本类型为零
+     */
+    static Object zero(Method method) {
+        Class<?> type = method.getReturnType();
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.during.cityloader.benchmark;
+
+import com.during.cityloader.util.NoiseGeneratorPerlin;
+import org.bukkit.Material;
+
+/**
+ * 合成地形
+ * 以多八度噪声生成起伏的地表（大致在海平面上下 24 格之间），
+ * 地表以下依次为草方块、泥土、石头与基岩，海平面以下的空气位置填水。
+ * 相同种子总是得到相同的地形。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class SyntheticTerrain {
+
+    private static final double HORIZONTAL_SCALE = 1.0 / 256.0;
+    private static final double AMPLITUDE = 24.0;
+    private static final int DIRT_DEPTH = 3;
+
+    private final NoiseGeneratorPerlin noise;
+
+    public SyntheticTerrain(long seed) {
+        this.noise = new NoiseGeneratorPerlin(seed, 4);
+    }
+
+    /**
+     * 地表高度（最高的实心方块）
+     *
+     * @param blockX 方块X
+     * @param blockZ 方块Z
+     * @return 高度
+     */
+    public int height(int blockX, int blockZ) {
+        double value = noise.getValue(blockX * HORIZONTAL_SCALE, blockZ * HORIZONTAL_SCALE);
+        return StandIn.SEA_LEVEL + 2 + (int) Math.round(value * AMPLITUDE);
+    }
+
+    /**
+     * 指定位置的原始地形方块
+     *
+     * @param y       Y坐标
+     * @param surface 该列的地表高度
+     * @return 材质
+     */
+    public static Material blockAt(int y, int surface) {
+        if (y <= StandIn.MIN_HEIGHT) {
+            return Material.BEDROCK;
+        }
+        if (y > surface) {
+            return y <= StandIn.SEA_LEVEL ? Material.WATER : Material.AIR;
+        }
+        if (y == surface) {
+            return surface < StandIn.SEA_LEVEL ? Material.SAND : Material.GRASS_BLOCK;
+        }
+        return y > surface - DIRT_DEPTH ? Material.DIRT : Material.STONE;
+    }
+}
@@ -1,31 +1,56 @@
 package com.during.cityloader;
 
 import com.during.cityloader.command.CommandHandler;
+import com.during.cityloader.config.AssetConfig;
 import com.during.cityloader.config.ConfigManager;
+import com.during.cityloader.config.DeferredConfig;
+import com.during.cityloader.config.PlannerConfig;
 import com.during.cityloader.config.PluginConfig;
 import com.during.cityloader.config.ProfileConfig;
+import com.during.cityloader.config.StatsConfig;
 import com.during.cityloader.exception.ConfigException;
 import com.during.cityloader.generator.CityBlockPopulator;
+import com.during.cityloader.generator.PregenEngine;
 import com.during.cityloader.listener.ChunkCompletionListener;
 import com.during.cityloader.listener.WorldInitListener;
 import com.during.cityloader.season.DummySeasonAdapter;
 import com.during.cityloader.season.RealisticSeasonsAdapter;
 import com.during.cityloader.season.SeasonAdapter;
+import com.during.cityloader.util.CacheRegistry;
 import com.during.cityloader.util.CityLoaderLogger;
 import com.during.cityloader.util.PaperResourceLoader;
 import com.during.cityloader.version.VersionManager;
+import com.during.cityloader.worldgen.ChunkBudget;
+import com.during.cityloader.worldgen.ChunkCompletionMarkers;
+import com.during.cityloader.worldgen.ChunkPlanner;
+import com.during.cityloader.worldgen.GenerationMetrics;
+import com.during.cityloader.worldgen.GenerationStatsExporter;
+import com.during.cityloader.worldgen.IDimensionInfo;
+import com.during.cityloader.worldgen.gen.DeferredPopulationQueue;
 import com.during.cityloader.worldgen.gen.GlobalCompletionQueue;
+import com.during.cityloader.worldgen.gen.ParallelStages;
+import com.during.cityloader.worldgen.gen.StageContinuationQueue;
 import com.during.cityloader.worldgen.lost.BuildingInfo;
+import com.during.cityloader.worldgen.lost.cityassets.AssetPreloader;
 import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
 import org.bukkit.World;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
+import javax.management.JMException;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.logging.Level;
 
 /**
@@ -41,6 +66,10 @@ public class CityLoaderPlugin extends JavaPlugin {
     private WorldInitListener worldInitListener;
     private ChunkCompletionListener chunkCompletionListener;
     private PluginConfig config;
+    private BukkitTask cacheSweepTask;
+    private BukkitTask plannerScanTask;
+    private BukkitTask statsFlushTask;
+    private PregenEngine pregenEngine;
 
     @Override
     public void onEnable() {
@@ -63,6 +92,10 @@ public class CityLoaderPlugin extends JavaPlugin {
             getLogger().info("[1/5] 正在加载配置...");
             configManager = new ConfigManager(this);
             config = configManager.loadConfig();
+            CacheRegistry.configure(config.getCacheConfig());
+            ChunkPlanner.configure(config.getPlannerConfig());
+            GenerationMetrics.setEnabled(config.getStatsConfig().isEnabled());
+            applyDeferredConfig(config.getDeferredConfig());
             getLogger().info("✓ 配置加载完成");
 
             getLogger().info("[2/5] 正在初始化季节系统...");
@@ -85,8 +118,11 @@ public class CityLoaderPlugin extends JavaPlugin {
             CityLoaderLogger assetLogger = new CityLoaderLogger(getLogger(),
                     config.isLogResourceLoading() || config.isDebugEnabled());
             AssetRegistries.setLogger(assetLogger);
+            AssetRegistries.setParallelLoading(config.isAsyncLoading());
+            AssetRegistries.setSealAfterLoad(config.getAssetConfig().isSealAfterLoad());
             AssetRegistries.reset();
-            getLogger().info("  → 资产将在首次世界生成时加载（延迟加载优化）");
+            AssetPreloader.start(null, getLogger()).thenRun(this::onAssetsReady);
+            getLogger().info("  → 资产正在后台预加载，就绪前生成的区块将在就绪后补生成");
             getLogger().info("✓ 新架构资产系统初始化完成");
 
             getLogger().info("[4/5] 正在注册生成链路与命令...");
@@ -99,20 +135,39 @@ public class CityLoaderPlugin extends JavaPlugin {
             getLogger().info("  → 创建WorldInitListener...");
 
             worldInitListener = new WorldInitListener(getLogger(), cityBlockPopulator, this::shouldEnableCityGeneration);
-            chunkCompletionListener = new ChunkCompletionListener(cityBlockPopulator, this::shouldEnableCityGeneration);
+            chunkCompletionListener = new ChunkCompletionListener(cityBlockPopulator, this::shouldEnableCityGeneration,
+                    new ChunkCompletionMarkers(new NamespacedKey(this, "completion")));
             getLogger().info("  → 注册事件...");
             getServer().getPluginManager().registerEvents(worldInitListener, this);
             getServer().getPluginManager().registerEvents(chunkCompletionListener, this);
+            StageContinuationQueue.setProviderResolver(cityBlockPopulator::getOrCreateDimensionInfo);
+            for (World world : Bukkit.getWorlds()) {
+                worldInitListener.restoreCompletionJournal(world);
+            }
 
             getServer().getScheduler().runTaskTimer(this, () -> {
                 final int budgetPerWorld = Math.max(8, Integer.getInteger("cityloader.globalCompletionBudget", 64));
+                final long continuationDeadline = System.nanoTime() + ChunkBudget.drainBudgetNanos();
                 for (World world : Bukkit.getWorlds()) {
                     if (!shouldEnableCityGeneration(world)) {
                         continue;
                     }
                     GlobalCompletionQueue.drain(world, budgetPerWorld);
+                    StageContinuationQueue.drain(world, continuationDeadline);
+                    if (cityBlockPopulator != null) {
+                        cityBlockPopulator.replayDeferred(world, continuationDeadline);
+                    }
                 }
             }, 1L, 1L);
+            getServer().getScheduler().runTaskTimer(this,
+                    () -> ChunkBudget.update(getServer().getAverageTickTime()), 20L, 20L);
+            scheduleCacheSweep();
+            schedulePlannerScan();
+            applyStatsConfig();
+            pregenEngine = new PregenEngine(this,
+                    () -> config.getPregenConfig(),
+                    world -> cityBlockPopulator.getOrCreateDimensionInfo(world));
+            pregenEngine.start();
 
             getLogger().info("  → 注册命令...");
             CommandHandler commandHandler = new CommandHandler(this, versionManager);
@@ -136,6 +191,25 @@ public class CityLoaderPlugin extends JavaPlugin {
         }
     }
 
+    /**
+     * 资产预加载完成回调（在加载线程上执行）
+     * 延迟区块由每 tick 的主线程任务按预算补生成，这里只记录待补生成的数量。
+     */
+    private void onAssetsReady() {
+        if (!isEnabled()) {
+            return;
+        }
+        getServer().getScheduler().runTask(this, () -> {
+            int pending = 0;
+            for (World world : Bukkit.getWorlds()) {
+                pending += DeferredPopulationQueue.pending(world);
+            }
+            if (pending > 0) {
+                getLogger().info("资产已就绪，开始补生成 " + pending + " 个延迟区块");
+            }
+        });
+    }
+
     public boolean shouldEnableCityGeneration(World world) {
         if (world == null) {
             return false;
@@ -153,7 +227,17 @@ public class CityLoaderPlugin extends JavaPlugin {
     public void refreshRuntimeConfig(PluginConfig newConfig) {
         if (newConfig != null) {
             this.config = newConfig;
+            CacheRegistry.configure(newConfig.getCacheConfig());
+            AssetRegistries.setParallelLoading(newConfig.isAsyncLoading());
+            AssetRegistries.setSealAfterLoad(newConfig.getAssetConfig().isSealAfterLoad());
+            ChunkPlanner.configure(newConfig.getPlannerConfig());
+            GenerationMetrics.setEnabled(newConfig.getStatsConfig().isEnabled());
+            applyDeferredConfig(newConfig.getDeferredConfig());
+            scheduleCacheSweep();
+            schedulePlannerScan();
+            applyStatsConfig();
         }
+        ChunkPlanner.clear();
         applyResourceRoots(new File(getDataFolder(), "data"), this.config);
         if (cityBlockPopulator != null) {
             cityBlockPopulator.invalidateWorldCache();
@@ -178,11 +262,99 @@ public class CityLoaderPlugin extends JavaPlugin {
             }
         }
         PaperResourceLoader.setExternalDataRoots(roots);
+        AssetConfig assetConfig = runtimeConfig == null ? AssetConfig.defaults() : runtimeConfig.getAssetConfig();
+        PaperResourceLoader.setBundleFile(assetConfig.isBundleEnabled()
+                ? new File(getDataFolder(), assetConfig.getBundleFile()).toPath()
+                : null);
         if (!roots.isEmpty()) {
             getLogger().info("  → 外部资产叠加目录数: " + roots.size());
         }
     }
 
+    private void scheduleCacheSweep() {
+        if (cacheSweepTask != null) {
+            cacheSweepTask.cancel();
+        }
+        long intervalTicks = CacheRegistry.getConfig().getSweepIntervalSeconds() * 20L;
+        cacheSweepTask = getServer().getScheduler().runTaskTimerAsynchronously(
+                this, CacheRegistry::sweep, intervalTicks, intervalTicks);
+    }
+
+    private void schedulePlannerScan() {
+        if (plannerScanTask != null) {
+            plannerScanTask.cancel();
+            plannerScanTask = null;
+        }
+        PlannerConfig plannerConfig = config.getPlannerConfig();
+        if (!plannerConfig.isEnabled() || plannerConfig.getLookaheadChunks() <= 0) {
+            return;
+        }
+        long intervalTicks = plannerConfig.getScanIntervalTicks();
+        plannerScanTask = getServer().getScheduler().runTaskTimer(this, this::planAheadOfPlayers, intervalTicks, intervalTicks);
+    }
+
+    private static void applyDeferredConfig(DeferredConfig deferredConfig) {
+        ChunkBudget.configure(deferredConfig);
+        StageContinuationQueue.setMaxPending(deferredConfig.getMaxPending());
+    }
+
+    private void applyStatsConfig() {
+        if (statsFlushTask != null) {
+            statsFlushTask.cancel();
+            statsFlushTask = null;
+        }
+        StatsConfig statsConfig = config.getStatsConfig();
+        if (statsConfig.isEnabled() && statsConfig.isJmx()) {
+            try {
+                GenerationStatsExporter.registerMBean();
+            } catch (JMException e) {
+                getLogger().log(Level.WARNING, "注册生成指标 MBean 失败", e);
+            }
+        } else {
+            GenerationStatsExporter.unregisterMBean();
+        }
+        if (!statsConfig.isEnabled() || statsConfig.getFlushIntervalSeconds() <= 0) {
+            return;
+        }
+        long intervalTicks = statsConfig.getFlushIntervalSeconds() * 20L;
+        statsFlushTask = getServer().getScheduler().runTaskTimerAsynchronously(
+                this, this::flushStats, intervalTicks, intervalTicks);
+    }
+
+    private void flushStats() {
+        StatsConfig statsConfig = config.getStatsConfig();
+        Path directory = new File(getDataFolder(), statsConfig.getDirectory()).toPath();
+        try {
+            if (statsConfig.getFormat().includesJson()) {
+                GenerationStatsExporter.writeJson(directory.resolve("latest.json"));
+            }
+            if (statsConfig.getFormat().includesCsv()) {
+                GenerationStatsExporter.appendCsv(directory.resolve("stages.csv"));
+            }
+        } catch (IOException e) {
+            getLogger().log(Level.WARNING, "写出生成指标失败", e);
+        }
+    }
+
+    private void planAheadOfPlayers() {
+        Set<UUID> online = new HashSet<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            online.add(player.getUniqueId());
+            World world = player.getWorld();
+            if (!shouldEnableCityGeneration(world) || cityBlockPopulator == null) {
+                continue;
+            }
+            IDimensionInfo dimensionInfo = cityBlockPopulator.getOrCreateDimensionInfo(world);
+            if (dimensionInfo == null) {
+                continue;
+            }
+            Location location = player.getLocation();
+            ChunkPlanner.observe(player.getUniqueId(), dimensionInfo,
+                    location.getX(), location.getZ(), world.getViewDistance());
+        }
+        ChunkPlanner.retainPlayers(online);
+    }
+
     @Override
     public void onDisable() {
         getLogger().info("=================================");
@@ -190,9 +362,22 @@ public class CityLoaderPlugin extends JavaPlugin {
         getLogger().info("=================================");
 
         try {
+            if (pregenEngine != null) {
+                pregenEngine.shutdown();
+                pregenEngine = null;
+            }
+            ChunkPlanner.shutdown();
+            ParallelStages.shutdown();
+            GenerationStatsExporter.unregisterMBean();
             AssetRegistries.reset();
             BuildingInfo.resetCache();
+            if (worldInitListener != null) {
+                for (World world : Bukkit.getWorlds()) {
+                    worldInitListener.saveCompletionJournal(world);
+                }
+            }
             GlobalCompletionQueue.clear();
+            StageContinuationQueue.clear();
             getLogger().info("✓ 新架构缓存清理完成");
         } catch (Exception e) {
             getLogger().log(Level.WARNING, "清理资源时发生错误", e);
@@ -222,4 +407,8 @@ public class CityLoaderPlugin extends JavaPlugin {
     public CityBlockPopulator getCityBlockPopulator() {
         return cityBlockPopulator;
     }
+
+    public PregenEngine getPregenEngine() {
+        return pregenEngine;
+    }
 }
@@ -50,6 +50,8 @@ public class CommandHandler implements CommandExecutor, TabCompleter {
         registerSubCommand(new InspectCommand(plugin));
         registerSubCommand(new VersionCommand(plugin, versionManager));
         registerSubCommand(new GenerateCommand(plugin));
+        registerSubCommand(new PregenCommand(plugin));
+        registerSubCommand(new StatsCommand(plugin));
     }
     
     /**
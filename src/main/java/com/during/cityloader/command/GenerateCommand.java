@@ -1,23 +1,34 @@
 package com.during.cityloader.command;
 
 import com.during.cityloader.CityLoaderPlugin;
+import com.during.cityloader.generator.CityBlockPopulator;
+import com.during.cityloader.generator.PregenArea;
+import com.during.cityloader.worldgen.ChunkBudget;
+import com.during.cityloader.worldgen.lost.cityassets.AssetPreloader;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 生成命令
- * 在指定位置生成城市结构
+ * 以指定位置为中心，由内向外逐圈在已生成的区块上重跑城市生成链路（经
+ * {@link com.during.cityloader.worldgen.gen.LoadedRegion} 写入已加载的世界）。
+ * 重建在主线程按每 tick 的续跑预算分批执行；尚未生成的区块跳过，交由 {@code /cityloader pregen} 生成。
  * 
  * @author During
  * @since 1.4.0
  */
 public class GenerateCommand implements SubCommand {
 
+    private static final int DEFAULT_RADIUS = 2;
+    private static final int MAX_RADIUS = 32;
+
     private final CityLoaderPlugin plugin;
 
     public GenerateCommand(CityLoaderPlugin plugin) {
@@ -31,12 +42,12 @@ public class GenerateCommand implements SubCommand {
 
     @Override
     public String getDescription() {
-        return "在指定位置生成城市结构";
+        return "在指定位置周围已生成的区块上重建城市结构";
     }
 
     @Override
     public String getUsage() {
-        return "/cityloader generate [x] [y] [z]";
+        return "/cityloader generate [x y z] [半径区块数]";
     }
 
     @Override
@@ -53,28 +64,50 @@ public class GenerateCommand implements SubCommand {
 
         Player player = (Player) sender;
         Location location;
+        int radius = DEFAULT_RADIUS;
 
-        if (args.length >= 3) {
-            try {
+        try {
+            if (args.length >= 3) {
                 int x = Integer.parseInt(args[0]);
                 int y = Integer.parseInt(args[1]);
                 int z = Integer.parseInt(args[2]);
                 location = new Location(player.getWorld(), x, y, z);
-            } catch (NumberFormatException e) {
-                sender.sendMessage(ChatColor.RED + "无效的坐标格式");
-                return true;
+                if (args.length >= 4) {
+                    radius = Integer.parseInt(args[3]);
+                }
+            } else {
+                location = player.getLocation();
+                if (args.length == 1) {
+                    radius = Integer.parseInt(args[0]);
+                }
             }
-        } else {
-            location = player.getLocation();
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "无效的坐标格式");
+            return true;
+        }
+        if (radius < 0 || radius > MAX_RADIUS) {
+            sender.sendMessage(ChatColor.RED + "半径需在 0-" + MAX_RADIUS + " 个区块之间，更大范围请使用 /cityloader pregen");
+            return true;
         }
 
-        sender.sendMessage(ChatColor.YELLOW + "正在生成城市结构...");
-        sender.sendMessage(ChatColor.GRAY + "位置: " + location.getBlockX() + ", " +
-                location.getBlockY() + ", " + location.getBlockZ());
+        CityBlockPopulator populator = plugin.getCityBlockPopulator();
+        World world = location.getWorld();
+        if (populator == null || !plugin.shouldEnableCityGeneration(world)) {
+            sender.sendMessage(ChatColor.RED + "当前世界未启用城市生成");
+            return true;
+        }
+        if (!AssetPreloader.isReady()) {
+            sender.sendMessage(ChatColor.RED + "资产仍在加载中（" + Math.round(AssetPreloader.getProgress() * 100) + "%），请稍后再试");
+            return true;
+        }
+        PregenArea area = PregenArea.aroundChunk(location.getBlockX() >> 4, location.getBlockZ() >> 4, radius);
+        new RegenerateTask(player, world, populator, location.getBlockX() >> 4, location.getBlockZ() >> 4, radius)
+                .runTaskTimer(plugin, 1L, 1L);
 
-        // TODO: 实现手动生成
-        sender.sendMessage(ChatColor.GRAY + "提示: 城市结构会在新区块生成时自动创建");
-        sender.sendMessage(ChatColor.GRAY + "请传送到新区块 (例如 /tp 10000 80 10000) 查看生成效果");
+        sender.sendMessage(ChatColor.YELLOW + "正在重建城市结构...");
+        sender.sendMessage(ChatColor.GRAY + "位置: " + location.getBlockX() + ", " +
+                location.getBlockY() + ", " + location.getBlockZ() + "，区块 " + area + "，共 " + area.chunkCount() + " 个");
+        sender.sendMessage(ChatColor.GRAY + "提示: 尚未生成的区块会被跳过，请使用 /cityloader pregen 生成");
 
         return true;
     }
@@ -91,7 +124,94 @@ public class GenerateCommand implements SubCommand {
                 completions.add(String.valueOf(loc.getBlockY()));
             else if (args.length == 3)
                 completions.add(String.valueOf(loc.getBlockZ()));
+            else if (args.length == 4)
+                completions.add(String.valueOf(DEFAULT_RADIUS));
         }
         return completions;
     }
+
+    /**
+     * 逐圈重建区块的主线程任务，每 tick 至少处理一个区块，超过续跑预算后让出
+     */
+    private static final class RegenerateTask extends BukkitRunnable {
+
+        private final Player player;
+        private final World world;
+        private final CityBlockPopulator populator;
+        private final int centerX;
+        private final int centerZ;
+        private final int radius;
+        private int ring;
+        private int index;
+        private int regenerated;
+        private int skipped;
+
+        private RegenerateTask(Player player, World world, CityBlockPopulator populator,
+                               int centerX, int centerZ, int radius) {
+            this.player = player;
+            this.world = world;
+            this.populator = populator;
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.radius = radius;
+        }
+
+        @Override
+        public void run() {
+            long deadline = System.nanoTime() + ChunkBudget.drainBudgetNanos();
+            do {
+                if (ring > radius) {
+                    finish();
+                    return;
+                }
+                int side = ring * 2 + 1;
+                int perimeter = ring == 0 ? 1 : side * 4 - 4;
+                int[] offset = ringOffset(ring, index);
+                regenerate(centerX + offset[0], centerZ + offset[1]);
+                if (++index >= perimeter) {
+                    ring++;
+                    index = 0;
+                }
+            } while (System.nanoTime() < deadline);
+        }
+
+        private void regenerate(int chunkX, int chunkZ) {
+            if (!world.isChunkGenerated(chunkX, chunkZ)) {
+                skipped++;
+                return;
+            }
+            world.getChunkAt(chunkX, chunkZ);
+            if (populator.regenerate(world, chunkX, chunkZ)) {
+                regenerated++;
+            } else {
+                skipped++;
+            }
+        }
+
+        private void finish() {
+            cancel();
+            if (player.isOnline()) {
+                player.sendMessage(ChatColor.GREEN + "城市结构重建完成: 重建 " + regenerated + " 个区块，跳过 "
+                        + skipped + " 个（未生成或资产未就绪）");
+            }
+        }
+
+        /**
+         * 第 ring 圈上第 index 个区块相对中心的偏移（沿上、右、下、左四条边顺时针）
+         */
+        private static int[] ringOffset(int ring, int index) {
+            if (ring == 0) {
+                return new int[] {0, 0};
+            }
+            int edge = ring * 2;
+            int side = index / edge;
+            int step = index % edge;
+            return switch (side) {
+                case 0 -> new int[] {-ring + step, -ring};
+                case 1 -> new int[] {ring, -ring + step};
+                case 2 -> new int[] {ring - step, ring};
+                default -> new int[] {-ring, ring - step};
+            };
+        }
+    }
 }
@@ -1,9 +1,19 @@
 package com.during.cityloader.command;
 
 import com.during.cityloader.CityLoaderPlugin;
+import com.during.cityloader.generator.PregenEngine;
+import com.during.cityloader.generator.PregenJob;
+import com.during.cityloader.util.BoundedCache;
+import com.during.cityloader.util.CacheRegistry;
 import com.during.cityloader.util.PaperResourceLoader;
+import com.during.cityloader.worldgen.BlockDataInterner;
+import com.during.cityloader.worldgen.ChunkDriver;
+import com.during.cityloader.worldgen.ChunkPlanner;
+import com.during.cityloader.worldgen.gen.DeferredPopulationQueue;
 import com.during.cityloader.worldgen.gen.GlobalCompletionQueue;
+import com.during.cityloader.worldgen.lost.cityassets.AssetPreloader;
 import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
+import com.during.cityloader.worldgen.lost.cityassets.ComposedPaletteCache;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -93,6 +103,10 @@ public class InfoCommand implements SubCommand {
         // 资源信息
         sender.sendMessage("");
         sender.sendMessage("§e已加载资源:");
+        sender.sendMessage(String.format("§7  就绪状态: §f%s (%.0f%%), 延迟区块: %d",
+                AssetPreloader.isReady() ? "§a已就绪§f" : "§e加载中§f",
+                AssetPreloader.getProgress() * 100.0,
+                DeferredPopulationQueue.totalDeferred()));
         if (AssetRegistries.isLoaded()) {
             sender.sendMessage("§7  调色板: §f" + AssetRegistries.PALETTES.size());
             sender.sendMessage("§7  调色板加载失败数: §f" + AssetRegistries.PALETTES.getLastLoadFailureCount());
@@ -104,6 +118,7 @@ public class InfoCommand implements SubCommand {
             sender.sendMessage("§7  部件: §f0");
             sender.sendMessage("§7  建筑: §f0");
         }
+        sender.sendMessage("§7  资产查询: §f" + AssetRegistries.getLookupStatistics());
         sender.sendMessage("§7  外部资产目录: §f" + PaperResourceLoader.getExternalDataRoots().size());
         sender.sendMessage("§7  覆盖冲突(最近扫描): §f" + PaperResourceLoader.getLastScanConflicts().size());
 
@@ -111,9 +126,43 @@ public class InfoCommand implements SubCommand {
             GlobalCompletionQueue.Snapshot queue = GlobalCompletionQueue.snapshot(player.getWorld());
             sender.sendMessage("");
             sender.sendMessage("§e后处理队列:");
-            sender.sendMessage("§7  pending: §f" + queue.pending());
-            sender.sendMessage("§7  enqueued/executed/requeued: §f"
-                    + queue.totalEnqueued() + " / " + queue.totalExecuted() + " / " + queue.totalRequeued());
+            sender.sendMessage("§7  pending: §f" + queue.pending()
+                    + " §7(区块 " + queue.buckets() + "，就绪 " + queue.readyBuckets() + ")");
+            sender.sendMessage("§7  enqueued/executed/requeued/dropped: §f"
+                    + queue.totalEnqueued() + " / " + queue.totalExecuted() + " / " + queue.totalRequeued()
+                    + " / " + queue.totalDropped());
+        }
+
+        ChunkDriver.WriteStats writes = ChunkDriver.writeStats();
+        sender.sendMessage("");
+        sender.sendMessage("§e区块写入:");
+        sender.sendMessage("§7  chunks/writes/skipped/corrected: §f" + writes.chunks() + " / "
+                + writes.regionWrites() + " / " + writes.skippedWrites() + " / " + writes.correctedBlocks());
+        sender.sendMessage(String.format("§7  平均每区块写入: §f%.1f", writes.averageWritesPerChunk()));
+        sender.sendMessage("§7  BlockData 驻留 (size/hit/miss): §f" + BlockDataInterner.size() + " / "
+                + BlockDataInterner.hits() + " / " + BlockDataInterner.misses());
+        sender.sendMessage("§7  组合调色板 (size/hit/miss): §f" + ComposedPaletteCache.size() + " / "
+                + ComposedPaletteCache.hits() + " / " + ComposedPaletteCache.misses());
+        ChunkPlanner.Stats planner = ChunkPlanner.getStatistics();
+        sender.sendMessage("");
+        sender.sendMessage("§e预规划:");
+        sender.sendMessage(String.format("§7  运行: §f%s§7, 排队: §f%d§7, 生成命中率: §f%.1f%% (%d/%d)",
+                planner.running() ? "是" : "否", planner.pending(), planner.hitRate() * 100.0,
+                planner.readyHits(), planner.readyHits() + planner.readyMisses()));
+        sender.sendMessage("§7  submitted/planned/deferred/rejected/failed: §f" + planner.submitted() + " / "
+                + planner.planned() + " / " + planner.deferred() + " / " + planner.rejected() + " / " + planner.failed());
+        if (plugin.getPregenEngine() != null && !plugin.getPregenEngine().getJobs().isEmpty()) {
+            sender.sendMessage("§e预生成:");
+            for (PregenJob job : plugin.getPregenEngine().getJobs()) {
+                sender.sendMessage("§7  " + PregenEngine.describe(job));
+            }
+        }
+        sender.sendMessage("");
+        sender.sendMessage("§e生成缓存 (size/max, hit%, evict/expire):");
+        for (BoundedCache.Stats stats : CacheRegistry.snapshot()) {
+            sender.sendMessage(String.format("§7  %s: §f%d/%d, %.1f%%, %d/%d",
+                    stats.name(), stats.size(), stats.maxEntries(), stats.hitRatio() * 100.0,
+                    stats.evictions(), stats.expirations()));
         }
 
         sender.sendMessage("");
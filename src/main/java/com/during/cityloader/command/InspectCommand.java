@@ -7,6 +7,7 @@ import com.during.cityloader.worldgen.IDimensionInfo;
 import com.during.cityloader.worldgen.gen.GlobalCompletionQueue;
 import com.during.cityloader.worldgen.lost.BuildingInfo;
 import com.during.cityloader.worldgen.lost.City;
+import com.during.cityloader.worldgen.lost.cityassets.AssetPreloader;
 import com.during.cityloader.worldgen.lost.cityassets.CityStyle;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
@@ -62,6 +63,12 @@ public class InspectCommand implements SubCommand {
             return true;
         }
 
+        if (!AssetPreloader.isReady()) {
+            sender.sendMessage(String.format(Locale.ROOT, "§e资产仍在后台加载中 (%.0f%%)，请稍后再试",
+                    AssetPreloader.getProgress() * 100.0));
+            return true;
+        }
+
         IDimensionInfo dimensionInfo = populator.getOrCreateDimensionInfo(target.world());
         if (dimensionInfo == null) {
             sender.sendMessage("§c无法创建维度上下文");
@@ -95,7 +102,8 @@ public class InspectCommand implements SubCommand {
         sender.sendMessage("§7queue.pending=§f" + queue.pending()
                 + " §7enqueued=§f" + queue.totalEnqueued()
                 + " §7executed=§f" + queue.totalExecuted()
-                + " §7requeued=§f" + queue.totalRequeued());
+                + " §7requeued=§f" + queue.totalRequeued()
+                + " §7dropped=§f" + queue.totalDropped());
         sender.sendMessage("§6§l==========================");
         return true;
     }
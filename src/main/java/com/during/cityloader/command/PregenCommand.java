@@ -0,0 +1,177 @@
+package com.during.cityloader.command;
+
+import com.during.cityloader.CityLoaderPlugin;
+import com.during.cityloader.generator.PregenArea;
+import com.during.cityloader.generator.PregenEngine;
+import com.during.cityloader.generator.PregenJob;
+import com.during.cityloader.generator.PregenOrder;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 预生成命令
+ * 启动、暂停、恢复、停止与查看预生成任务
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class PregenCommand implements SubCommand {
+
+    private static final List<String> ACTIONS = List.of("status", "stop", "pause", "resume");
+
+    private final CityLoaderPlugin plugin;
+
+    public PregenCommand(CityLoaderPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "pregen";
+    }
+
+    @Override
+    public String getDescription() {
+        return "预生成区域（按 MSPT 自动限流，可断点续跑）";
+    }
+
+    @Override
+    public String getUsage() {
+        return "/cityloader pregen <world> <半径|x1,z1,x2,z2> [每秒区块数] [spiral|region] | pregen <stop|pause|resume> <world> | pregen status";
+    }
+
+    @Override
+    public String getPermission() {
+        return "cityloader.pregen";
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args) {
+        PregenEngine engine = plugin.getPregenEngine();
+        if (engine == null) {
+            sender.sendMessage(ChatColor.RED + "预生成引擎未启动");
+            return true;
+        }
+        if (args.length == 0 || args[0].equalsIgnoreCase("status")) {
+            sendStatus(sender, engine.getJobs());
+            return true;
+        }
+
+        String action = args[0].toLowerCase(Locale.ROOT);
+        if (action.equals("stop") || action.equals("pause") || action.equals("resume")) {
+            if (args.length < 2) {
+                sender.sendMessage(ChatColor.RED + "用法: /cityloader pregen " + action + " <world>");
+                return true;
+            }
+            boolean found = action.equals("stop")
+                    ? engine.stop(args[1])
+                    : engine.setPaused(args[1], action.equals("pause"));
+            if (!found) {
+                sender.sendMessage(ChatColor.RED + "该世界没有预生成任务: " + args[1]);
+                return true;
+            }
+            String verb = switch (action) {
+                case "stop" -> "停止";
+                case "pause" -> "暂停";
+                default -> "恢复";
+            };
+            sender.sendMessage(ChatColor.GREEN + "已" + verb + "预生成: " + args[1]);
+            return true;
+        }
+
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "用法: " + getUsage());
+            return true;
+        }
+        World world = Bukkit.getWorld(args[0]);
+        if (world == null) {
+            sender.sendMessage(ChatColor.RED + "世界不存在: " + args[0]);
+            return true;
+        }
+        PregenArea area = parseArea(world, args[1]);
+        if (area == null) {
+            sender.sendMessage(ChatColor.RED + "无效的范围: " + args[1] + "（半径方块数或 x1,z1,x2,z2）");
+            return true;
+        }
+        Integer rate = null;
+        if (args.length >= 3) {
+            try {
+                rate = Math.max(0, Integer.parseInt(args[2]));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + "无效的速率: " + args[2]);
+                return true;
+            }
+        }
+        PregenOrder order = args.length >= 4 ? PregenOrder.parse(args[3], null) : null;
+        if (args.length >= 4 && order == null) {
+            sender.sendMessage(ChatColor.RED + "无效的顺序: " + args[3] + "（spiral 或 region）");
+            return true;
+        }
+
+        PregenJob job = engine.submit(world, area, rate, order);
+        if (job == null) {
+            sender.sendMessage(ChatColor.RED + "该世界已有预生成任务，请先 stop 或等待完成");
+            return true;
+        }
+        sender.sendMessage(ChatColor.GREEN + "已开始预生成 " + world.getName() + " " + area
+                + "，共 " + area.chunkCount() + " 个区块");
+        return true;
+    }
+
+    private static PregenArea parseArea(World world, String raw) {
+        if (raw.indexOf(',') >= 0) {
+            return PregenArea.parseBlockBounds(raw);
+        }
+        try {
+            int radius = Integer.parseInt(raw);
+            if (radius < 0) {
+                return null;
+            }
+            return PregenArea.around(world.getSpawnLocation().getBlockX(),
+                    world.getSpawnLocation().getBlockZ(), radius);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static void sendStatus(CommandSender sender, Collection<PregenJob> jobs) {
+        if (jobs.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "没有进行中的预生成任务");
+            return;
+        }
+        for (PregenJob job : jobs) {
+            sender.sendMessage(ChatColor.YELLOW + PregenEngine.describe(job));
+        }
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 1) {
+            completions.addAll(ACTIONS);
+            for (World world : Bukkit.getWorlds()) {
+                completions.add(world.getName());
+            }
+        } else if (args.length == 2 && ACTIONS.contains(args[0].toLowerCase(Locale.ROOT))) {
+            for (World world : Bukkit.getWorlds()) {
+                completions.add(world.getName());
+            }
+        } else if (args.length == 2) {
+            completions.add("1000");
+            completions.add("5000");
+        } else if (args.length == 4) {
+            completions.add("spiral");
+            completions.add("region");
+        }
+        String partial = args.length == 0 ? "" : args[args.length - 1].toLowerCase(Locale.ROOT);
+        completions.removeIf(option -> !option.toLowerCase(Locale.ROOT).startsWith(partial));
+        return completions;
+    }
+}
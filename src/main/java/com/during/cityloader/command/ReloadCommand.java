@@ -4,8 +4,8 @@ import com.during.cityloader.CityLoaderPlugin;
 import com.during.cityloader.config.PluginConfig;
 import com.during.cityloader.util.PaperResourceLoader;
 import com.during.cityloader.worldgen.lost.BuildingInfo;
+import com.during.cityloader.worldgen.lost.cityassets.AssetPreloader;
 import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
-import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 
 import java.util.ArrayList;
@@ -68,23 +68,23 @@ public class ReloadCommand implements SubCommand {
             sender.sendMessage("§a✓ 配置重载成功");
             sender.sendMessage("§7  外部资产目录数: " + PaperResourceLoader.getExternalDataRoots().size());
             
-            // 重载新架构资产
-            AssetRegistries.reset();
+            // 重载新架构资产（后台完成，主线程不等待资产 I/O）
             BuildingInfo.resetCache();
-
-            int preloadedWorlds = 0;
-            for (World world : plugin.getServer().getWorlds()) {
-                if (!plugin.shouldEnableCityGeneration(world)) {
-                    continue;
+            sender.sendMessage("§7  资产正在后台重新加载...");
+            AssetPreloader.reload(null, plugin.getLogger()).whenComplete((ignored, error) -> {
+                if (!plugin.isEnabled()) {
+                    return;
                 }
-                AssetRegistries.load(world);
-                preloadedWorlds++;
-            }
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    if (error != null) {
+                        sender.sendMessage("§c资源重载失败: " + error.getMessage());
+                        return;
+                    }
+                    sender.sendMessage("§a✓ 资源重载成功: " + AssetRegistries.getStatistics());
+                    sender.sendMessage("§7  资产覆盖冲突数: " + PaperResourceLoader.getLastScanConflicts().size());
+                });
+            });
 
-            sender.sendMessage("§a✓ 资源重载成功: " + AssetRegistries.getStatistics());
-            sender.sendMessage("§7  已预加载世界数: " + preloadedWorlds);
-            sender.sendMessage("§7  资产覆盖冲突数: " + PaperResourceLoader.getLastScanConflicts().size());
-            
             sender.sendMessage("§a重载完成！");
             return true;
             
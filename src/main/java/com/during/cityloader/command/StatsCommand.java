@@ -0,0 +1,136 @@
+package com.during.cityloader.command;
+
+import com.during.cityloader.CityLoaderPlugin;
+import com.during.cityloader.util.BoundedCache;
+import com.during.cityloader.util.CacheRegistry;
+import com.during.cityloader.worldgen.ChunkBudget;
+import com.during.cityloader.worldgen.ChunkDriver;
+import com.during.cityloader.worldgen.GenerationMetrics;
+import com.during.cityloader.worldgen.gen.GlobalCompletionQueue;
+import com.during.cityloader.worldgen.gen.StageContinuationQueue;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 统计命令
+ * 显示各生成阶段的耗时分布、方块写入、缓存命中率与后处理队列深度
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class StatsCommand implements SubCommand {
+
+    private final CityLoaderPlugin plugin;
+
+    public StatsCommand(CityLoaderPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "stats";
+    }
+
+    @Override
+    public String getDescription() {
+        return "显示各生成阶段的耗时分布与缓存命中率";
+    }
+
+    @Override
+    public String getUsage() {
+        return "/cityloader stats [world|reset]";
+    }
+
+    @Override
+    public String getPermission() {
+        return "cityloader.stats";
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args) {
+        if (args.length >= 1 && args[0].equalsIgnoreCase("reset")) {
+            GenerationMetrics.reset();
+            sender.sendMessage("§a生成指标已清空");
+            return true;
+        }
+        if (!GenerationMetrics.isEnabled()) {
+            sender.sendMessage("§e生成指标记录已在配置中关闭 (performance.stats.enabled)");
+        }
+
+        List<GenerationMetrics.WorldStats> worlds = new ArrayList<>();
+        if (args.length >= 1) {
+            GenerationMetrics.WorldStats stats = GenerationMetrics.snapshot(args[0]);
+            if (stats == null) {
+                sender.sendMessage("§c该世界没有生成记录: " + args[0]);
+                return true;
+            }
+            worlds.add(stats);
+        } else {
+            worlds.addAll(GenerationMetrics.snapshot());
+        }
+
+        sender.sendMessage("§6§l=== CityLoader 生成统计 ===");
+        if (worlds.isEmpty()) {
+            sender.sendMessage("§7  尚无区块生成记录");
+        }
+        for (GenerationMetrics.WorldStats world : worlds) {
+            sender.sendMessage("");
+            sender.sendMessage(String.format(Locale.ROOT, "§e%s §7区块: §f%d§7, 延后: §f%d§7, 写入/跳过: §f%d / %d",
+                    world.world(), world.chunks(), world.budgetCutoffs(), world.blockWrites(), world.skippedWrites()));
+            sender.sendMessage("§7  阶段 (count, mean/p50/p99/max ms, 累计占比):");
+            sendStage(sender, world.total(), world.total().totalMillis());
+            for (GenerationMetrics.StageStats stage : world.stages()) {
+                sendStage(sender, stage, world.total().totalMillis());
+            }
+        }
+
+        ChunkDriver.WriteStats writes = ChunkDriver.writeStats();
+        sender.sendMessage("");
+        sender.sendMessage(String.format(Locale.ROOT, "§e区块写入: §f%d§7 区块, 平均每区块 §f%.1f§7 次",
+                writes.chunks(), writes.averageWritesPerChunk()));
+        int queueDepth = sender instanceof Player player
+                ? GlobalCompletionQueue.snapshot(player.getWorld()).pending()
+                : GlobalCompletionQueue.totalPending();
+        sender.sendMessage("§e后处理队列深度: §f" + queueDepth);
+        StageContinuationQueue.Snapshot continuations = StageContinuationQueue.snapshot();
+        sender.sendMessage(String.format(Locale.ROOT,
+                "§e延后阶段: §7预算 §f%.1fms§7, 等待/就绪 §f%d / %d§7, 完成/替换/失败 §f%d / %d / %d§7, 满载未延后 §f%d",
+                ChunkBudget.budgetNanos() / 1_000_000.0, continuations.waiting(), continuations.ready(),
+                continuations.completed(), continuations.dropped(), continuations.failed(),
+                continuations.throttled()));
+        sender.sendMessage("§e缓存命中率:");
+        for (BoundedCache.Stats stats : CacheRegistry.snapshot()) {
+            sender.sendMessage(String.format(Locale.ROOT, "§7  %s: §f%.1f%% §7(%d/%d)",
+                    stats.name(), stats.hitRatio() * 100.0, stats.size(), stats.maxEntries()));
+        }
+        sender.sendMessage("§6§l========================");
+        return true;
+    }
+
+    private static void sendStage(CommandSender sender, GenerationMetrics.StageStats stage, double totalMillis) {
+        double share = totalMillis <= 0.0 ? 0.0 : stage.totalMillis() / totalMillis * 100.0;
+        sender.sendMessage(String.format(Locale.ROOT, "§7  %-18s §f%6d  %.2f / %.2f / %.2f / %.2f  %.1f%%",
+                stage.stage(), stage.count(), stage.meanMillis(), stage.p50Millis(), stage.p99Millis(),
+                stage.maxMillis(), share));
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 1) {
+            completions.add("reset");
+            for (World world : Bukkit.getWorlds()) {
+                completions.add(world.getName());
+            }
+            String partial = args[0].toLowerCase(Locale.ROOT);
+            completions.removeIf(option -> !option.toLowerCase(Locale.ROOT).startsWith(partial));
+        }
+        return completions;
+    }
+}
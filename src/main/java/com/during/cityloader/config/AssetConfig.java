@@ -0,0 +1,104 @@
+package com.during.cityloader.config;
+
+import java.util.Locale;
+
+/**
+ * 资产加载配置
+ * 对应 config.yml 中的 performance.assets 段
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class AssetConfig {
+
+    public static final boolean DEFAULT_BUNDLE_ENABLED = true;
+    public static final String DEFAULT_BUNDLE_FILE = "cache/assets.bin";
+    public static final NotReadyMode DEFAULT_NOT_READY_MODE = NotReadyMode.SKIP;
+    public static final long DEFAULT_READY_TIMEOUT_MS = 5000L;
+    public static final boolean DEFAULT_SEAL_AFTER_LOAD = false;
+
+    /**
+     * 资产尚未就绪时区块生成的处理方式
+     */
+    public enum NotReadyMode {
+        /**
+         * 等待后台加载完成（不持有任何锁），超时后按 SKIP 处理
+         */
+        WAIT,
+        /**
+         * 立即跳过城市生成，并将区块记入延迟队列，资产就绪后补生成
+         */
+        SKIP;
+
+        /**
+         * 解析配置值
+         *
+         * @param raw 配置字符串
+         * @return 处理方式，无法识别时返回默认值
+         */
+        public static NotReadyMode parse(String raw) {
+            if (raw == null || raw.isBlank()) {
+                return DEFAULT_NOT_READY_MODE;
+            }
+            try {
+                return valueOf(raw.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return DEFAULT_NOT_READY_MODE;
+            }
+        }
+    }
+
+    private final boolean bundleEnabled;
+    private final String bundleFile;
+    private final NotReadyMode notReadyMode;
+    private final long readyTimeoutMs;
+    private final boolean sealAfterLoad;
+
+    /**
+     * 构造函数
+     *
+     * @param bundleEnabled 是否启用预编译资产包
+     * @param bundleFile    资产包路径（相对插件数据目录）
+     * @param notReadyMode  资产未就绪时的处理方式
+     * @param readyTimeoutMs WAIT 模式的最长等待时间（毫秒）
+     * @param sealAfterLoad 加载完成后是否封存注册表（生成期间不再回退读取文件）
+     */
+    public AssetConfig(boolean bundleEnabled, String bundleFile, NotReadyMode notReadyMode, long readyTimeoutMs,
+                       boolean sealAfterLoad) {
+        this.bundleEnabled = bundleEnabled;
+        this.bundleFile = bundleFile == null || bundleFile.isBlank() ? DEFAULT_BUNDLE_FILE : bundleFile;
+        this.notReadyMode = notReadyMode == null ? DEFAULT_NOT_READY_MODE : notReadyMode;
+        this.readyTimeoutMs = Math.max(0L, readyTimeoutMs);
+        this.sealAfterLoad = sealAfterLoad;
+    }
+
+    /**
+     * 默认资产加载配置
+     *
+     * @return 默认配置
+     */
+    public static AssetConfig defaults() {
+        return new AssetConfig(DEFAULT_BUNDLE_ENABLED, DEFAULT_BUNDLE_FILE, DEFAULT_NOT_READY_MODE, DEFAULT_READY_TIMEOUT_MS,
+                DEFAULT_SEAL_AFTER_LOAD);
+    }
+
+    public boolean isBundleEnabled() {
+        return bundleEnabled;
+    }
+
+    public String getBundleFile() {
+        return bundleFile;
+    }
+
+    public NotReadyMode getNotReadyMode() {
+        return notReadyMode;
+    }
+
+    public long getReadyTimeoutMs() {
+        return readyTimeoutMs;
+    }
+
+    public boolean isSealAfterLoad() {
+        return sealAfterLoad;
+    }
+}
@@ -0,0 +1,104 @@
+package com.during.cityloader.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 世界生成缓存配置
+ * 对应 config.yml 中的 performance.world-cache 段
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class CacheConfig {
+
+    public static final int DEFAULT_MAX_ENTRIES = 16384;
+    public static final int DEFAULT_EXPIRE_AFTER_SECONDS = 300;
+    public static final int DEFAULT_SWEEP_INTERVAL_SECONDS = 30;
+    public static final int DEFAULT_MAX_MEMORY_MB = 256;
+
+    private final int defaultMaxEntries;
+    private final int expireAfterSeconds;
+    private final int sweepIntervalSeconds;
+    private final int maxMemoryMb;
+    private final Map<String, Integer> budgets;
+
+    /**
+     * 构造函数
+     *
+     * @param defaultMaxEntries    未单独配置的缓存的最大条目数
+     * @param expireAfterSeconds   写入后存活秒数（<=0 表示不过期）
+     * @param sweepIntervalSeconds 后台清理间隔（秒）
+     * @param maxMemoryMb          所有缓存估算内存上限（MB，<=0 表示不限制）
+     * @param budgets              按缓存名称覆盖的最大条目数
+     */
+    public CacheConfig(int defaultMaxEntries,
+                       int expireAfterSeconds,
+                       int sweepIntervalSeconds,
+                       int maxMemoryMb,
+                       Map<String, Integer> budgets) {
+        this.defaultMaxEntries = Math.max(1, defaultMaxEntries);
+        this.expireAfterSeconds = expireAfterSeconds;
+        this.sweepIntervalSeconds = Math.max(1, sweepIntervalSeconds);
+        this.maxMemoryMb = maxMemoryMb;
+        Map<String, Integer> normalized = new HashMap<>();
+        if (budgets != null) {
+            budgets.forEach((key, value) -> {
+                if (key != null && value != null) {
+                    normalized.put(key.toLowerCase(Locale.ROOT), value);
+                }
+            });
+        }
+        this.budgets = normalized;
+    }
+
+    /**
+     * 默认缓存配置
+     *
+     * @return 默认配置
+     */
+    public static CacheConfig defaults() {
+        return new CacheConfig(
+                DEFAULT_MAX_ENTRIES,
+                DEFAULT_EXPIRE_AFTER_SECONDS,
+                DEFAULT_SWEEP_INTERVAL_SECONDS,
+                DEFAULT_MAX_MEMORY_MB,
+                Map.of());
+    }
+
+    public int getDefaultMaxEntries() {
+        return defaultMaxEntries;
+    }
+
+    public int getExpireAfterSeconds() {
+        return expireAfterSeconds;
+    }
+
+    public int getSweepIntervalSeconds() {
+        return sweepIntervalSeconds;
+    }
+
+    public int getMaxMemoryMb() {
+        return maxMemoryMb;
+    }
+
+    public Map<String, Integer> getBudgets() {
+        return Collections.unmodifiableMap(budgets);
+    }
+
+    /**
+     * 获取指定缓存的最大条目数
+     *
+     * @param cacheName 缓存名称
+     * @return 最大条目数
+     */
+    public int getMaxEntries(String cacheName) {
+        if (cacheName == null) {
+            return defaultMaxEntries;
+        }
+        Integer override = budgets.get(cacheName.toLowerCase(Locale.ROOT));
+        return override == null || override <= 0 ? defaultMaxEntries : override;
+    }
+}
@@ -1,6 +1,7 @@
 package com.during.cityloader.config;
 
 import com.during.cityloader.exception.ConfigException;
+import com.during.cityloader.generator.PregenOrder;
 import com.during.cityloader.season.Season;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -161,12 +162,19 @@ public class ConfigManager {
             boolean asyncLoading = yamlConfig.getBoolean("performance.async-loading", true);
 
             ProfileConfig profileConfig = parseProfileConfig(yamlConfig);
+            CacheConfig cacheConfig = parseCacheConfig(yamlConfig);
+            AssetConfig assetConfig = parseAssetConfig(yamlConfig);
+            PlannerConfig plannerConfig = parsePlannerConfig(yamlConfig);
+            PregenConfig pregenConfig = parsePregenConfig(yamlConfig);
+            StatsConfig statsConfig = parseStatsConfig(yamlConfig);
+            DeferredConfig deferredConfig = parseDeferredConfig(yamlConfig);
 
             return new PluginConfig(
                     defaultSeason, cityDensity, minBuildingHeight, maxBuildingHeight,
                     streetWidth, generateUnderground, generateStreets, vanillaCompatible,
                     resourcePacks, debugEnabled, logResourceLoading, logGeneration,
-                    cacheSize, asyncLoading, profileConfig);
+                    cacheSize, asyncLoading, profileConfig, cacheConfig, assetConfig, plannerConfig,
+                    pregenConfig, statsConfig, deferredConfig);
 
         } catch (Exception e) {
             logger.log(Level.WARNING, "解析配置时发生错误，使用默认配置", e);
@@ -198,10 +206,106 @@ public class ConfigManager {
                 false, // 记录生成详情
                 1000, // 缓存大小
                 true, // 异步加载
-                createDefaultProfileConfig()
+                createDefaultProfileConfig(),
+                CacheConfig.defaults(),
+                AssetConfig.defaults(),
+                PlannerConfig.defaults(),
+                PregenConfig.defaults(),
+                StatsConfig.defaults(),
+                DeferredConfig.defaults()
         );
     }
 
+    private CacheConfig parseCacheConfig(FileConfiguration yamlConfig) {
+        ConfigurationSection section = yamlConfig.getConfigurationSection("performance.world-cache");
+        if (section == null) {
+            return CacheConfig.defaults();
+        }
+
+        Map<String, Integer> budgets = new HashMap<>();
+        ConfigurationSection budgetSection = section.getConfigurationSection("budgets");
+        if (budgetSection != null) {
+            for (String key : budgetSection.getKeys(false)) {
+                budgets.put(key, budgetSection.getInt(key));
+            }
+        }
+
+        return new CacheConfig(
+                section.getInt("max-entries", CacheConfig.DEFAULT_MAX_ENTRIES),
+                section.getInt("expire-after-seconds", CacheConfig.DEFAULT_EXPIRE_AFTER_SECONDS),
+                section.getInt("sweep-interval-seconds", CacheConfig.DEFAULT_SWEEP_INTERVAL_SECONDS),
+                section.getInt("max-memory-mb", CacheConfig.DEFAULT_MAX_MEMORY_MB),
+                budgets);
+    }
+
+    private AssetConfig parseAssetConfig(FileConfiguration yamlConfig) {
+        ConfigurationSection section = yamlConfig.getConfigurationSection("performance.assets");
+        if (section == null) {
+            return AssetConfig.defaults();
+        }
+        return new AssetConfig(
+                section.getBoolean("bundle", AssetConfig.DEFAULT_BUNDLE_ENABLED),
+                section.getString("bundle-file", AssetConfig.DEFAULT_BUNDLE_FILE),
+                AssetConfig.NotReadyMode.parse(section.getString("not-ready-mode", AssetConfig.DEFAULT_NOT_READY_MODE.name())),
+                section.getLong("ready-timeout-ms", AssetConfig.DEFAULT_READY_TIMEOUT_MS),
+                section.getBoolean("seal-after-load", AssetConfig.DEFAULT_SEAL_AFTER_LOAD));
+    }
+
+    private PlannerConfig parsePlannerConfig(FileConfiguration yamlConfig) {
+        ConfigurationSection section = yamlConfig.getConfigurationSection("performance.planner");
+        if (section == null) {
+            return PlannerConfig.defaults();
+        }
+        return new PlannerConfig(
+                section.getBoolean("enabled", PlannerConfig.DEFAULT_ENABLED),
+                section.getInt("threads", PlannerConfig.DEFAULT_THREADS),
+                section.getInt("max-pending", PlannerConfig.DEFAULT_MAX_PENDING),
+                section.getInt("lookahead-chunks", PlannerConfig.DEFAULT_LOOKAHEAD_CHUNKS),
+                section.getInt("scan-interval-ticks", PlannerConfig.DEFAULT_SCAN_INTERVAL_TICKS));
+    }
+
+    private PregenConfig parsePregenConfig(FileConfiguration yamlConfig) {
+        ConfigurationSection section = yamlConfig.getConfigurationSection("performance.pregen");
+        if (section == null) {
+            return PregenConfig.defaults();
+        }
+        return new PregenConfig(
+                section.getDouble("target-mspt", PregenConfig.DEFAULT_TARGET_MSPT),
+                section.getInt("min-concurrency", PregenConfig.DEFAULT_MIN_CONCURRENCY),
+                section.getInt("max-concurrency", PregenConfig.DEFAULT_MAX_CONCURRENCY),
+                section.getInt("rate", PregenConfig.DEFAULT_RATE),
+                PregenOrder.parse(section.getString("order"), PregenConfig.DEFAULT_ORDER),
+                section.getBoolean("city-first", PregenConfig.DEFAULT_CITY_FIRST),
+                section.getInt("save-interval-seconds", PregenConfig.DEFAULT_SAVE_INTERVAL_SECONDS));
+    }
+
+    private StatsConfig parseStatsConfig(FileConfiguration yamlConfig) {
+        ConfigurationSection section = yamlConfig.getConfigurationSection("performance.stats");
+        if (section == null) {
+            return StatsConfig.defaults();
+        }
+        return new StatsConfig(
+                section.getBoolean("enabled", StatsConfig.DEFAULT_ENABLED),
+                section.getInt("flush-interval-seconds", StatsConfig.DEFAULT_FLUSH_INTERVAL_SECONDS),
+                StatsConfig.Format.parse(section.getString("format"), StatsConfig.DEFAULT_FORMAT),
+                section.getString("directory", StatsConfig.DEFAULT_DIRECTORY),
+                section.getBoolean("jmx", StatsConfig.DEFAULT_JMX));
+    }
+
+    private DeferredConfig parseDeferredConfig(FileConfiguration yamlConfig) {
+        ConfigurationSection section = yamlConfig.getConfigurationSection("performance.deferred");
+        if (section == null) {
+            return DeferredConfig.defaults();
+        }
+        return new DeferredConfig(
+                section.getBoolean("enabled", DeferredConfig.DEFAULT_ENABLED),
+                section.getDouble("target-mspt", DeferredConfig.DEFAULT_TARGET_MSPT),
+                section.getInt("min-chunk-budget-ms", DeferredConfig.DEFAULT_MIN_CHUNK_BUDGET_MS),
+                section.getInt("max-chunk-budget-ms", DeferredConfig.DEFAULT_MAX_CHUNK_BUDGET_MS),
+                section.getInt("drain-budget-ms", DeferredConfig.DEFAULT_DRAIN_BUDGET_MS),
+                section.getInt("max-pending", DeferredConfig.DEFAULT_MAX_PENDING));
+    }
+
     private ProfileConfig parseProfileConfig(FileConfiguration yamlConfig) {
         ConfigurationSection profilesSection = yamlConfig.getConfigurationSection("profiles");
         if (profilesSection == null) {
@@ -0,0 +1,79 @@
+package com.during.cityloader.config;
+
+/**
+ * 延后阶段配置
+ * 对应 config.yml 中的 performance.deferred 段
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class DeferredConfig {
+
+    public static final boolean DEFAULT_ENABLED = true;
+    public static final double DEFAULT_TARGET_MSPT = 45.0;
+    public static final int DEFAULT_MIN_CHUNK_BUDGET_MS = 4;
+    public static final int DEFAULT_MAX_CHUNK_BUDGET_MS = 40;
+    public static final int DEFAULT_DRAIN_BUDGET_MS = 5;
+    public static final int DEFAULT_MAX_PENDING = 4096;
+
+    private final boolean enabled;
+    private final double targetMspt;
+    private final int minChunkBudgetMs;
+    private final int maxChunkBudgetMs;
+    private final int drainBudgetMs;
+    private final int maxPending;
+
+    /**
+     * 构造函数
+     *
+     * @param enabled          是否在超出预算时延后非核心阶段
+     * @param targetMspt       目标 MSPT，超过时收紧单区块预算
+     * @param minChunkBudgetMs 单区块预算下限（毫秒）
+     * @param maxChunkBudgetMs 单区块预算上限（毫秒）
+     * @param drainBudgetMs    主线程每 tick 用于续跑延后阶段的时间（毫秒）
+     * @param maxPending       等待续跑的区块数上限（达到后不再延后阶段）
+     */
+    public DeferredConfig(boolean enabled, double targetMspt, int minChunkBudgetMs, int maxChunkBudgetMs,
+                          int drainBudgetMs, int maxPending) {
+        this.enabled = enabled;
+        this.targetMspt = targetMspt <= 0 ? DEFAULT_TARGET_MSPT : targetMspt;
+        this.minChunkBudgetMs = Math.max(1, minChunkBudgetMs);
+        this.maxChunkBudgetMs = Math.max(this.minChunkBudgetMs, maxChunkBudgetMs);
+        this.drainBudgetMs = Math.max(1, drainBudgetMs);
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    /**
+     * 默认延后阶段配置
+     *
+     * @return 默认配置
+     */
+    public static DeferredConfig defaults() {
+        return new DeferredConfig(DEFAULT_ENABLED, DEFAULT_TARGET_MSPT, DEFAULT_MIN_CHUNK_BUDGET_MS,
+                DEFAULT_MAX_CHUNK_BUDGET_MS, DEFAULT_DRAIN_BUDGET_MS, DEFAULT_MAX_PENDING);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getTargetMspt() {
+        return targetMspt;
+    }
+
+    public int getMinChunkBudgetMs() {
+        return minChunkBudgetMs;
+    }
+
+    public int getMaxChunkBudgetMs() {
+        return maxChunkBudgetMs;
+    }
+
+    public int getDrainBudgetMs() {
+        return drainBudgetMs;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+}
@@ -0,0 +1,70 @@
+package com.during.cityloader.config;
+
+/**
+ * 预规划配置
+ * 对应 config.yml 中的 performance.planner 段
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class PlannerConfig {
+
+    public static final boolean DEFAULT_ENABLED = true;
+    public static final int DEFAULT_THREADS = 2;
+    public static final int DEFAULT_MAX_PENDING = 512;
+    public static final int DEFAULT_LOOKAHEAD_CHUNKS = 6;
+    public static final int DEFAULT_SCAN_INTERVAL_TICKS = 20;
+
+    private final boolean enabled;
+    private final int threads;
+    private final int maxPending;
+    private final int lookaheadChunks;
+    private final int scanIntervalTicks;
+
+    /**
+     * 构造函数
+     *
+     * @param enabled           是否启用预规划
+     * @param threads           规划线程数
+     * @param maxPending        排队中的规划任务上限（超出时丢弃新任务）
+     * @param lookaheadChunks   沿玩家移动方向、视距之外预规划的区块数
+     * @param scanIntervalTicks 采样玩家移动的间隔（tick）
+     */
+    public PlannerConfig(boolean enabled, int threads, int maxPending, int lookaheadChunks, int scanIntervalTicks) {
+        this.enabled = enabled;
+        this.threads = Math.max(1, threads);
+        this.maxPending = Math.max(1, maxPending);
+        this.lookaheadChunks = Math.max(0, lookaheadChunks);
+        this.scanIntervalTicks = Math.max(1, scanIntervalTicks);
+    }
+
+    /**
+     * 默认预规划配置
+     *
+     * @return 默认配置
+     */
+    public static PlannerConfig defaults() {
+        return new PlannerConfig(DEFAULT_ENABLED, DEFAULT_THREADS, DEFAULT_MAX_PENDING,
+                DEFAULT_LOOKAHEAD_CHUNKS, DEFAULT_SCAN_INTERVAL_TICKS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public int getLookaheadChunks() {
+        return lookaheadChunks;
+    }
+
+    public int getScanIntervalTicks() {
+        return scanIntervalTicks;
+    }
+}
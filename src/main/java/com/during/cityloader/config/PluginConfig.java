@@ -57,6 +57,24 @@ public class PluginConfig {
     // Profile配置
     private final ProfileConfig profileConfig;
 
+    // 世界生成缓存配置
+    private final CacheConfig cacheConfig;
+
+    // 资产加载配置
+    private final AssetConfig assetConfig;
+
+    // 预规划配置
+    private final PlannerConfig plannerConfig;
+
+    // 预生成配置
+    private final PregenConfig pregenConfig;
+
+    // 生成指标配置
+    private final StatsConfig statsConfig;
+
+    // 延后阶段配置
+    private final DeferredConfig deferredConfig;
+
     /**
      * 构造函数
      * 
@@ -75,13 +93,21 @@ public class PluginConfig {
      * @param cacheSize           缓存大小
      * @param asyncLoading        是否启用异步加载
      * @param profileConfig       Profile配置
+     * @param cacheConfig         世界生成缓存配置
+     * @param assetConfig         资产加载配置
+     * @param plannerConfig       预规划配置
+     * @param pregenConfig        预生成配置
+     * @param statsConfig         生成指标配置
+     * @param deferredConfig      延后阶段配置
      */
     public PluginConfig(Season defaultSeason, double cityDensity, int minBuildingHeight,
             int maxBuildingHeight, int streetWidth, boolean generateUnderground,
             boolean generateStreets, boolean vanillaCompatible,
             List<String> resourcePacks, boolean debugEnabled,
             boolean logResourceLoading, boolean logGeneration,
-            int cacheSize, boolean asyncLoading, ProfileConfig profileConfig) {
+            int cacheSize, boolean asyncLoading, ProfileConfig profileConfig,
+            CacheConfig cacheConfig, AssetConfig assetConfig, PlannerConfig plannerConfig,
+            PregenConfig pregenConfig, StatsConfig statsConfig, DeferredConfig deferredConfig) {
         this.defaultSeason = defaultSeason;
         this.cityDensity = cityDensity;
         this.minBuildingHeight = minBuildingHeight;
@@ -97,6 +123,111 @@ public class PluginConfig {
         this.cacheSize = cacheSize;
         this.asyncLoading = asyncLoading;
         this.profileConfig = profileConfig;
+        this.cacheConfig = cacheConfig == null ? CacheConfig.defaults() : cacheConfig;
+        this.assetConfig = assetConfig == null ? AssetConfig.defaults() : assetConfig;
+        this.plannerConfig = plannerConfig == null ? PlannerConfig.defaults() : plannerConfig;
+        this.pregenConfig = pregenConfig == null ? PregenConfig.defaults() : pregenConfig;
+        this.statsConfig = statsConfig == null ? StatsConfig.defaults() : statsConfig;
+        this.deferredConfig = deferredConfig == null ? DeferredConfig.defaults() : deferredConfig;
+    }
+
+    /**
+     * 兼容旧代码的构造函数（不包含DeferredConfig）
+     */
+    public PluginConfig(Season defaultSeason, double cityDensity, int minBuildingHeight,
+            int maxBuildingHeight, int streetWidth, boolean generateUnderground,
+            boolean generateStreets, boolean vanillaCompatible,
+            List<String> resourcePacks, boolean debugEnabled,
+            boolean logResourceLoading, boolean logGeneration,
+            int cacheSize, boolean asyncLoading, ProfileConfig profileConfig,
+            CacheConfig cacheConfig, AssetConfig assetConfig, PlannerConfig plannerConfig,
+            PregenConfig pregenConfig, StatsConfig statsConfig) {
+        this(defaultSeason, cityDensity, minBuildingHeight, maxBuildingHeight, streetWidth,
+                generateUnderground, generateStreets, vanillaCompatible,
+                resourcePacks, debugEnabled, logResourceLoading, logGeneration,
+                cacheSize, asyncLoading, profileConfig, cacheConfig, assetConfig, plannerConfig,
+                pregenConfig, statsConfig, null);
+    }
+
+    /**
+     * 兼容旧代码的构造函数（不包含StatsConfig）
+     */
+    public PluginConfig(Season defaultSeason, double cityDensity, int minBuildingHeight,
+            int maxBuildingHeight, int streetWidth, boolean generateUnderground,
+            boolean generateStreets, boolean vanillaCompatible,
+            List<String> resourcePacks, boolean debugEnabled,
+            boolean logResourceLoading, boolean logGeneration,
+            int cacheSize, boolean asyncLoading, ProfileConfig profileConfig,
+            CacheConfig cacheConfig, AssetConfig assetConfig, PlannerConfig plannerConfig,
+            PregenConfig pregenConfig) {
+        this(defaultSeason, cityDensity, minBuildingHeight, maxBuildingHeight, streetWidth,
+                generateUnderground, generateStreets, vanillaCompatible,
+                resourcePacks, debugEnabled, logResourceLoading, logGeneration,
+                cacheSize, asyncLoading, profileConfig, cacheConfig, assetConfig, plannerConfig,
+                pregenConfig, null);
+    }
+
+    /**
+     * 兼容旧代码的构造函数（不包含PregenConfig）
+     */
+    public PluginConfig(Season defaultSeason, double cityDensity, int minBuildingHeight,
+            int maxBuildingHeight, int streetWidth, boolean generateUnderground,
+            boolean generateStreets, boolean vanillaCompatible,
+            List<String> resourcePacks, boolean debugEnabled,
+            boolean logResourceLoading, boolean logGeneration,
+            int cacheSize, boolean asyncLoading, ProfileConfig profileConfig,
+            CacheConfig cacheConfig, AssetConfig assetConfig, PlannerConfig plannerConfig) {
+        this(defaultSeason, cityDensity, minBuildingHeight, maxBuildingHeight, streetWidth,
+                generateUnderground, generateStreets, vanillaCompatible,
+                resourcePacks, debugEnabled, logResourceLoading, logGeneration,
+                cacheSize, asyncLoading, profileConfig, cacheConfig, assetConfig, plannerConfig, null);
+    }
+
+    /**
+     * 兼容旧代码的构造函数（不包含PlannerConfig）
+     */
+    public PluginConfig(Season defaultSeason, double cityDensity, int minBuildingHeight,
+            int maxBuildingHeight, int streetWidth, boolean generateUnderground,
+            boolean generateStreets, boolean vanillaCompatible,
+            List<String> resourcePacks, boolean debugEnabled,
+            boolean logResourceLoading, boolean logGeneration,
+            int cacheSize, boolean asyncLoading, ProfileConfig profileConfig,
+            CacheConfig cacheConfig, AssetConfig assetConfig) {
+        this(defaultSeason, cityDensity, minBuildingHeight, maxBuildingHeight, streetWidth,
+                generateUnderground, generateStreets, vanillaCompatible,
+                resourcePacks, debugEnabled, logResourceLoading, logGeneration,
+                cacheSize, asyncLoading, profileConfig, cacheConfig, assetConfig, null);
+    }
+
+    /**
+     * 兼容旧代码的构造函数（不包含AssetConfig）
+     */
+    public PluginConfig(Season defaultSeason, double cityDensity, int minBuildingHeight,
+            int maxBuildingHeight, int streetWidth, boolean generateUnderground,
+            boolean generateStreets, boolean vanillaCompatible,
+            List<String> resourcePacks, boolean debugEnabled,
+            boolean logResourceLoading, boolean logGeneration,
+            int cacheSize, boolean asyncLoading, ProfileConfig profileConfig,
+            CacheConfig cacheConfig) {
+        this(defaultSeason, cityDensity, minBuildingHeight, maxBuildingHeight, streetWidth,
+                generateUnderground, generateStreets, vanillaCompatible,
+                resourcePacks, debugEnabled, logResourceLoading, logGeneration,
+                cacheSize, asyncLoading, profileConfig, cacheConfig, null);
+    }
+
+    /**
+     * 兼容旧代码的构造函数（不包含CacheConfig）
+     */
+    public PluginConfig(Season defaultSeason, double cityDensity, int minBuildingHeight,
+            int maxBuildingHeight, int streetWidth, boolean generateUnderground,
+            boolean generateStreets, boolean vanillaCompatible,
+            List<String> resourcePacks, boolean debugEnabled,
+            boolean logResourceLoading, boolean logGeneration,
+            int cacheSize, boolean asyncLoading, ProfileConfig profileConfig) {
+        this(defaultSeason, cityDensity, minBuildingHeight, maxBuildingHeight, streetWidth,
+                generateUnderground, generateStreets, vanillaCompatible,
+                resourcePacks, debugEnabled, logResourceLoading, logGeneration,
+                cacheSize, asyncLoading, profileConfig, null);
     }
 
     /**
@@ -111,7 +242,7 @@ public class PluginConfig {
         this(defaultSeason, cityDensity, minBuildingHeight, maxBuildingHeight, streetWidth,
                 generateUnderground, generateStreets, vanillaCompatible,
                 resourcePacks, debugEnabled, logResourceLoading, logGeneration,
-                cacheSize, asyncLoading, null);
+                cacheSize, asyncLoading, null, null);
     }
 
     /**
@@ -215,6 +346,30 @@ public class PluginConfig {
         return profileConfig;
     }
 
+    public CacheConfig getCacheConfig() {
+        return cacheConfig;
+    }
+
+    public AssetConfig getAssetConfig() {
+        return assetConfig;
+    }
+
+    public PlannerConfig getPlannerConfig() {
+        return plannerConfig;
+    }
+
+    public PregenConfig getPregenConfig() {
+        return pregenConfig;
+    }
+
+    public StatsConfig getStatsConfig() {
+        return statsConfig;
+    }
+
+    public DeferredConfig getDeferredConfig() {
+        return deferredConfig;
+    }
+
     /**
      * 获取基础高度（地面高度）
      * 
@@ -0,0 +1,89 @@
+package com.during.cityloader.config;
+
+import com.during.cityloader.generator.PregenOrder;
+
+/**
+ * 预生成配置
+ * 对应 config.yml 中的 performance.pregen 段
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class PregenConfig {
+
+    public static final double DEFAULT_TARGET_MSPT = 45.0;
+    public static final int DEFAULT_MIN_CONCURRENCY = 1;
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+    public static final int DEFAULT_RATE = 0;
+    public static final PregenOrder DEFAULT_ORDER = PregenOrder.REGION;
+    public static final boolean DEFAULT_CITY_FIRST = true;
+    public static final int DEFAULT_SAVE_INTERVAL_SECONDS = 30;
+
+    private final double targetMspt;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final int defaultRate;
+    private final PregenOrder order;
+    private final boolean cityFirst;
+    private final int saveIntervalSeconds;
+
+    /**
+     * 构造函数
+     *
+     * @param targetMspt          目标 MSPT，超过时降低并发度
+     * @param minConcurrency      最小并发区块数
+     * @param maxConcurrency      最大并发区块数
+     * @param defaultRate         未指定时的每秒区块数上限（<=0 表示只受并发度限制）
+     * @param order               遍历顺序
+     * @param cityFirst           是否优先生成可能出现城市的区域
+     * @param saveIntervalSeconds 进度保存间隔（秒）
+     */
+    public PregenConfig(double targetMspt, int minConcurrency, int maxConcurrency, int defaultRate,
+                        PregenOrder order, boolean cityFirst, int saveIntervalSeconds) {
+        this.targetMspt = targetMspt <= 0 ? DEFAULT_TARGET_MSPT : targetMspt;
+        this.minConcurrency = Math.max(1, minConcurrency);
+        this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+        this.defaultRate = Math.max(0, defaultRate);
+        this.order = order == null ? DEFAULT_ORDER : order;
+        this.cityFirst = cityFirst;
+        this.saveIntervalSeconds = Math.max(1, saveIntervalSeconds);
+    }
+
+    /**
+     * 默认预生成配置
+     *
+     * @return 默认配置
+     */
+    public static PregenConfig defaults() {
+        return new PregenConfig(DEFAULT_TARGET_MSPT, DEFAULT_MIN_CONCURRENCY, DEFAULT_MAX_CONCURRENCY,
+                DEFAULT_RATE, DEFAULT_ORDER, DEFAULT_CITY_FIRST, DEFAULT_SAVE_INTERVAL_SECONDS);
+    }
+
+    public double getTargetMspt() {
+        return targetMspt;
+    }
+
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getDefaultRate() {
+        return defaultRate;
+    }
+
+    public PregenOrder getOrder() {
+        return order;
+    }
+
+    public boolean isCityFirst() {
+        return cityFirst;
+    }
+
+    public int getSaveIntervalSeconds() {
+        return saveIntervalSeconds;
+    }
+}
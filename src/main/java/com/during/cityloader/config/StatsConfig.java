@@ -0,0 +1,107 @@
+package com.during.cityloader.config;
+
+import java.util.Locale;
+
+/**
+ * 生成指标配置
+ * 对应 config.yml 中的 performance.stats 段
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class StatsConfig {
+
+    /**
+     * 指标文件格式
+     */
+    public enum Format {
+        JSON,
+        CSV,
+        BOTH;
+
+        /**
+         * 解析配置值
+         *
+         * @param raw      文本
+         * @param fallback 无法识别时的默认值
+         * @return 格式
+         */
+        public static Format parse(String raw, Format fallback) {
+            if (raw == null || raw.isBlank()) {
+                return fallback;
+            }
+            try {
+                return valueOf(raw.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return fallback;
+            }
+        }
+
+        public boolean includesJson() {
+            return this != CSV;
+        }
+
+        public boolean includesCsv() {
+            return this != JSON;
+        }
+    }
+
+    public static final boolean DEFAULT_ENABLED = true;
+    public static final int DEFAULT_FLUSH_INTERVAL_SECONDS = 60;
+    public static final Format DEFAULT_FORMAT = Format.JSON;
+    public static final String DEFAULT_DIRECTORY = "stats";
+    public static final boolean DEFAULT_JMX = true;
+
+    private final boolean enabled;
+    private final int flushIntervalSeconds;
+    private final Format format;
+    private final String directory;
+    private final boolean jmx;
+
+    /**
+     * 构造函数
+     *
+     * @param enabled              是否记录生成指标
+     * @param flushIntervalSeconds 指标文件写出间隔（秒），<=0 表示不写文件
+     * @param format               文件格式
+     * @param directory            输出目录（相对插件数据目录）
+     * @param jmx                  是否注册 JMX MBean
+     */
+    public StatsConfig(boolean enabled, int flushIntervalSeconds, Format format, String directory, boolean jmx) {
+        this.enabled = enabled;
+        this.flushIntervalSeconds = Math.max(0, flushIntervalSeconds);
+        this.format = format == null ? DEFAULT_FORMAT : format;
+        this.directory = directory == null || directory.isBlank() ? DEFAULT_DIRECTORY : directory;
+        this.jmx = jmx;
+    }
+
+    /**
+     * 默认指标配置
+     *
+     * @return 默认配置
+     */
+    public static StatsConfig defaults() {
+        return new StatsConfig(DEFAULT_ENABLED, DEFAULT_FLUSH_INTERVAL_SECONDS, DEFAULT_FORMAT,
+                DEFAULT_DIRECTORY, DEFAULT_JMX);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getFlushIntervalSeconds() {
+        return flushIntervalSeconds;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public boolean isJmx() {
+        return jmx;
+    }
+}
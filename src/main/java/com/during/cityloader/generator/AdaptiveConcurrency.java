@@ -0,0 +1,49 @@
+package com.during.cityloader.generator;
+
+/**
+ * 按 MSPT 自适应的并发度控制
+ * 超过目标 MSPT 时并发度减半，低于目标的 80% 时逐步加一（加性增、乘性减）。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class AdaptiveConcurrency {
+
+    private final int min;
+    private final int max;
+    private final double targetMspt;
+    private int current;
+
+    /**
+     * 构造函数
+     *
+     * @param min        最小并发度
+     * @param max        最大并发度
+     * @param targetMspt 目标每 tick 毫秒数
+     */
+    public AdaptiveConcurrency(int min, int max, double targetMspt) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.targetMspt = targetMspt;
+        this.current = this.min;
+    }
+
+    /**
+     * 按最近测得的 MSPT 调整并发度
+     *
+     * @param mspt 平均每 tick 毫秒数
+     * @return 调整后的并发度
+     */
+    public int update(double mspt) {
+        if (mspt > targetMspt) {
+            current = Math.max(min, current / 2);
+        } else if (mspt < targetMspt * 0.8) {
+            current = Math.min(max, current + 1);
+        }
+        return current;
+    }
+
+    public int current() {
+        return current;
+    }
+}
@@ -1,13 +1,18 @@
 package com.during.cityloader.generator;
 
+import com.during.cityloader.config.AssetConfig;
 import com.during.cityloader.config.PluginConfig;
 import com.during.cityloader.config.ProfileConfig;
 import com.during.cityloader.season.Season;
 import com.during.cityloader.season.SeasonAdapter;
+import com.during.cityloader.util.ChunkMap;
 import com.during.cityloader.worldgen.IDimensionInfo;
 import com.during.cityloader.worldgen.LostCityProfile;
 import com.during.cityloader.worldgen.LostCityTerrainFeature;
 import com.during.cityloader.worldgen.PaperDimensionInfo;
+import com.during.cityloader.worldgen.gen.DeferredPopulationQueue;
+import com.during.cityloader.worldgen.gen.LoadedRegion;
+import com.during.cityloader.worldgen.lost.cityassets.AssetPreloader;
 import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
 import com.during.cityloader.worldgen.lost.cityassets.WorldStyle;
 import org.bukkit.Bukkit;
@@ -34,7 +39,6 @@ public class CityBlockPopulator extends BlockPopulator {
     private final Supplier<PluginConfig> configSupplier;
     private final SeasonAdapter seasonAdapter;
     private final Predicate<World> worldGenerationPredicate;
-    private final LostCityTerrainFeature terrainFeature;
     private final Map<String, IDimensionInfo> dimensionInfoCache = new ConcurrentHashMap<>();
 
     public CityBlockPopulator(Logger logger,
@@ -45,7 +49,6 @@ public class CityBlockPopulator extends BlockPopulator {
         this.configSupplier = configSupplier;
         this.seasonAdapter = seasonAdapter;
         this.worldGenerationPredicate = worldGenerationPredicate;
-        this.terrainFeature = LostCityTerrainFeature.DEFAULT;
     }
 
     @Override
@@ -63,14 +66,90 @@ public class CityBlockPopulator extends BlockPopulator {
             return;
         }
 
-        try {
-            ensureAssetsLoaded(world);
+        if (!awaitAssets(world, chunkX, chunkZ)) {
+            return;
+        }
+
+        generateChunk(world, worldInfo, random, chunkX, chunkZ, limitedRegion);
+    }
+
+    /**
+     * 补生成资产未就绪期间跳过的已加载区块（只能在主线程调用）
+     * 资产未就绪或没有延迟区块时立即返回；每个区块经 {@link LoadedRegion} 重跑完整生成链路，
+     * 至少补生成一个区块，超过截止时间后停止，剩余区块留待下次调用。
+     *
+     * @param world         世界
+     * @param deadlineNanos 截止时间（{@link System#nanoTime()}）
+     * @return 本次补生成的区块数
+     */
+    public int replayDeferred(World world, long deadlineNanos) {
+        if (world == null || DeferredPopulationQueue.pending(world) == 0 || !AssetPreloader.isReady()) {
+            return 0;
+        }
+        int replayed = 0;
+        for (long key : DeferredPopulationQueue.snapshot(world)) {
+            int chunkX = DeferredPopulationQueue.chunkX(key);
+            int chunkZ = DeferredPopulationQueue.chunkZ(key);
+            if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                continue;
+            }
+            if (replayDeferred(world, chunkX, chunkZ)) {
+                replayed++;
+            }
+            if (System.nanoTime() >= deadlineNanos) {
+                break;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * 补生成单个延迟区块（只能在主线程调用，区块须已加载）
+     *
+     * @param world  世界
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     * @return 区块曾被跳过且已补生成时返回true
+     */
+    public boolean replayDeferred(World world, int chunkX, int chunkZ) {
+        if (world == null || !AssetPreloader.isReady()
+                || !DeferredPopulationQueue.remove(world, chunkX, chunkZ)) {
+            return false;
+        }
+        return regenerate(world, chunkX, chunkZ);
+    }
+
+    /**
+     * 在已加载的区块上重跑完整城市生成链路（只能在主线程调用）
+     * 写入经 {@link LoadedRegion} 落地；建筑布局由世界种子决定，重跑结果与首次生成一致，
+     * 容器与刷怪笼会被重新填充。
+     *
+     * @param world  世界
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     * @return 已执行时返回true；资产未就绪、世界未启用或区块未加载时返回false
+     */
+    public boolean regenerate(World world, int chunkX, int chunkZ) {
+        if (world == null || !AssetPreloader.isReady() || !shouldGenerateInWorld(world)
+                || !world.isChunkLoaded(chunkX, chunkZ)) {
+            return false;
+        }
+        Random random = new Random(world.getSeed() ^ ChunkMap.key(chunkX, chunkZ));
+        generateChunk(world, world, random, chunkX, chunkZ, LoadedRegion.of(world, chunkX, chunkZ));
+        return true;
+    }
 
+    private void generateChunk(World world, WorldInfo worldInfo, Random random, int chunkX, int chunkZ,
+                               LimitedRegion limitedRegion) {
+        try {
             IDimensionInfo dimensionInfo = dimensionInfoCache.computeIfAbsent(
                     world.getUID().toString(),
                     key -> createDimensionInfo(world));
 
             Season season = resolveSeason(world);
+            LostCityTerrainFeature terrainFeature = dimensionInfo.getFeature() != null
+                    ? dimensionInfo.getFeature()
+                    : LostCityTerrainFeature.DEFAULT;
             terrainFeature.generate(worldInfo, random, chunkX, chunkZ, limitedRegion, dimensionInfo, season);
         } catch (Exception e) {
             logger.severe("区块生成失败 [" + chunkX + ", " + chunkZ + "]: " + e.getMessage());
@@ -81,28 +160,47 @@ public class CityBlockPopulator extends BlockPopulator {
         dimensionInfoCache.clear();
     }
 
+    /**
+     * 获取维度上下文
+     * 资产仍在后台加载时不等待，直接返回 null。
+     *
+     * @param world 世界
+     * @return 维度上下文，资产未就绪时返回 null
+     */
     public IDimensionInfo getOrCreateDimensionInfo(World world) {
         if (world == null) {
             return null;
         }
-        ensureAssetsLoaded(world);
+        if (!AssetPreloader.isReady()) {
+            AssetPreloader.start(world, logger);
+            return null;
+        }
         return dimensionInfoCache.computeIfAbsent(
                 world.getUID().toString(),
                 key -> createDimensionInfo(world));
     }
 
-    private void ensureAssetsLoaded(World world) {
-        if (AssetRegistries.isLoaded()) {
-            return;
+    /**
+     * 生成线程的资产就绪门控
+     * 资产由插件启用时的后台任务加载；未就绪时按配置等待或跳过，
+     * 跳过的区块记入延迟队列，资产就绪后经 {@link #replayDeferred(World, long)} 补生成。
+     * 生成线程不会在此执行任何资产 I/O。
+     */
+    private boolean awaitAssets(World world, int chunkX, int chunkZ) {
+        if (AssetPreloader.isReady()) {
+            return true;
         }
+        AssetPreloader.start(world, logger);
 
-        synchronized (AssetRegistries.class) {
-            if (AssetRegistries.isLoaded()) {
-                return;
-            }
-            AssetRegistries.load(world);
-            logger.info("新链路资产加载完成: " + AssetRegistries.getStatistics());
+        PluginConfig runtimeConfig = currentConfig();
+        AssetConfig assetConfig = runtimeConfig == null ? AssetConfig.defaults() : runtimeConfig.getAssetConfig();
+        if (assetConfig.getNotReadyMode() == AssetConfig.NotReadyMode.WAIT
+                && AssetPreloader.awaitReady(assetConfig.getReadyTimeoutMs())) {
+            return true;
         }
+
+        DeferredPopulationQueue.record(world, chunkX, chunkZ);
+        return false;
     }
 
     private IDimensionInfo createDimensionInfo(World world) {
@@ -0,0 +1,108 @@
+package com.during.cityloader.generator;
+
+import java.util.Locale;
+
+/**
+ * 预生成区域（区块坐标，闭区间）
+ *
+ * @param minChunkX 最小区块X
+ * @param minChunkZ 最小区块Z
+ * @param maxChunkX 最大区块X
+ * @param maxChunkZ 最大区块Z
+ * @author During
+ * @since 1.4.1
+ */
+public record PregenArea(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+
+    public PregenArea {
+        if (minChunkX > maxChunkX) {
+            int swap = minChunkX;
+            minChunkX = maxChunkX;
+            maxChunkX = swap;
+        }
+        if (minChunkZ > maxChunkZ) {
+            int swap = minChunkZ;
+            minChunkZ = maxChunkZ;
+            maxChunkZ = swap;
+        }
+    }
+
+    /**
+     * 以方块坐标为中心、按方块半径构造区域
+     *
+     * @param blockX       中心方块X
+     * @param blockZ       中心方块Z
+     * @param radiusBlocks 半径（方块）
+     * @return 区域
+     */
+    public static PregenArea around(int blockX, int blockZ, int radiusBlocks) {
+        int radius = Math.max(0, radiusBlocks);
+        return new PregenArea((blockX - radius) >> 4, (blockZ - radius) >> 4,
+                (blockX + radius) >> 4, (blockZ + radius) >> 4);
+    }
+
+    /**
+     * 以区块坐标为中心、按区块半径构造区域
+     *
+     * @param chunkX 中心区块X
+     * @param chunkZ 中心区块Z
+     * @param radius 半径（区块）
+     * @return 区域
+     */
+    public static PregenArea aroundChunk(int chunkX, int chunkZ, int radius) {
+        int r = Math.max(0, radius);
+        return new PregenArea(chunkX - r, chunkZ - r, chunkX + r, chunkZ + r);
+    }
+
+    /**
+     * 解析方块坐标矩形 {@code x1,z1,x2,z2}
+     *
+     * @param raw 文本
+     * @return 区域，格式错误时返回null
+     */
+    public static PregenArea parseBlockBounds(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String[] parts = raw.split(",");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            int x1 = Integer.parseInt(parts[0].trim());
+            int z1 = Integer.parseInt(parts[1].trim());
+            int x2 = Integer.parseInt(parts[2].trim());
+            int z2 = Integer.parseInt(parts[3].trim());
+            return new PregenArea(Math.min(x1, x2) >> 4, Math.min(z1, z2) >> 4,
+                    Math.max(x1, x2) >> 4, Math.max(z1, z2) >> 4);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public int width() {
+        return maxChunkX - minChunkX + 1;
+    }
+
+    public int depth() {
+        return maxChunkZ - minChunkZ + 1;
+    }
+
+    /**
+     * 区域内区块总数
+     *
+     * @return 区块数
+     */
+    public long chunkCount() {
+        return (long) width() * depth();
+    }
+
+    public boolean contains(int chunkX, int chunkZ) {
+        return chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "[%d,%d]..[%d,%d]", minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+    }
+}
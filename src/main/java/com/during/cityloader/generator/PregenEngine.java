@@ -0,0 +1,349 @@
+package com.during.cityloader.generator;
+
+import com.during.cityloader.config.PregenConfig;
+import com.during.cityloader.util.ChunkCoord;
+import com.during.cityloader.util.ChunkMap;
+import com.during.cityloader.worldgen.IDimensionInfo;
+import com.during.cityloader.worldgen.LostCityProfile;
+import com.during.cityloader.worldgen.lost.City;
+import com.during.cityloader.worldgen.lost.cityassets.AssetPreloader;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 预生成引擎
+ * 每个世界最多一个任务；主线程每 tick 按并发度与速率通过 {@link World#getChunkAtAsync}
+ * 请求区块，由服务器的正常生成链路（含本插件的城市生成）完成实际生成。
+ *
+ * <p>并发度每秒按服务器平均 MSPT 调整（{@link AdaptiveConcurrency}），
+ * 进度定期写入 {@code pregen/<世界名>.yml}，插件启用时自动续跑。</p>
+ *
+ * <p>开启城市优先时，任务开始前在后台按种子估算每个 32x32 区域是否可能出现城市
+ * （{@link City#getPotentialCityFactor}），先生成这些区域。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class PregenEngine {
+
+    // 城市区域估算时每个区域内的采样步长（区块）
+    private static final int CITY_SAMPLE_STEP = 4;
+    // 超过该区域数时不做城市优先估算
+    private static final int MAX_CITY_SCAN_REGIONS = 65_536;
+    private static final long ASSET_WAIT_MILLIS = 120_000L;
+
+    private final Plugin plugin;
+    private final Logger logger;
+    private final Supplier<PregenConfig> configSupplier;
+    private final Function<World, IDimensionInfo> dimensionResolver;
+    private final File directory;
+    private final Map<String, PregenJob> jobs = new ConcurrentHashMap<>();
+
+    private BukkitTask tickTask;
+    private long ticks;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin            插件实例
+     * @param configSupplier    预生成配置提供者（重载后读取最新配置）
+     * @param dimensionResolver 世界到维度信息的解析（用于城市区域估算）
+     */
+    public PregenEngine(Plugin plugin, Supplier<PregenConfig> configSupplier,
+                        Function<World, IDimensionInfo> dimensionResolver) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.configSupplier = configSupplier;
+        this.dimensionResolver = dimensionResolver;
+        this.directory = new File(plugin.getDataFolder(), "pregen");
+    }
+
+    /**
+     * 启动主线程驱动任务，并续跑磁盘上保存的任务
+     */
+    public void start() {
+        if (tickTask == null) {
+            tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            PregenJob saved = PregenJob.load(file);
+            if (saved == null) {
+                logger.warning("忽略无法解析的预生成进度文件: " + file.getName());
+                continue;
+            }
+            World world = Bukkit.getWorld(saved.getWorldName());
+            if (world == null) {
+                logger.warning("预生成世界未加载，暂不续跑: " + saved.getWorldName());
+                continue;
+            }
+            if (jobs.putIfAbsent(world.getName(), saved) == null) {
+                logger.info("续跑预生成: " + describe(saved));
+                prepare(world, saved);
+            }
+        }
+    }
+
+    /**
+     * 保存所有未完成任务并停止驱动
+     */
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        for (PregenJob job : jobs.values()) {
+            if (job.getState() == PregenJob.State.PREPARING || job.getState() == PregenJob.State.RUNNING) {
+                save(job);
+            }
+        }
+        jobs.clear();
+    }
+
+    /**
+     * 提交新任务
+     *
+     * @param world 世界
+     * @param area  区域
+     * @param rate  每秒区块数上限，为null时使用配置默认值
+     * @param order 遍历顺序，为null时使用配置默认值
+     * @return 新任务；该世界已有任务时返回null
+     */
+    public PregenJob submit(World world, PregenArea area, Integer rate, PregenOrder order) {
+        PregenConfig config = configSupplier.get();
+        PregenJob job = new PregenJob(
+                world.getName(),
+                area,
+                order == null ? config.getOrder() : order,
+                config.isCityFirst(),
+                rate == null ? config.getDefaultRate() : rate,
+                0L, 0L, 0L);
+        if (jobs.putIfAbsent(world.getName(), job) != null) {
+            return null;
+        }
+        save(job);
+        prepare(world, job);
+        return job;
+    }
+
+    /**
+     * 停止任务并删除进度
+     *
+     * @param worldName 世界名
+     * @return 存在任务时返回true
+     */
+    public boolean stop(String worldName) {
+        PregenJob job = jobs.remove(worldName);
+        if (job == null) {
+            return false;
+        }
+        job.markState(PregenJob.State.STOPPED);
+        deleteProgress(worldName);
+        return true;
+    }
+
+    /**
+     * 暂停或恢复任务（暂停时保存进度）
+     *
+     * @param worldName 世界名
+     * @param paused    是否暂停
+     * @return 存在任务时返回true
+     */
+    public boolean setPaused(String worldName, boolean paused) {
+        PregenJob job = jobs.get(worldName);
+        if (job == null) {
+            return false;
+        }
+        job.setPaused(paused);
+        if (paused) {
+            save(job);
+        }
+        return true;
+    }
+
+    public PregenJob getJob(String worldName) {
+        return jobs.get(worldName);
+    }
+
+    public Collection<PregenJob> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * 任务的单行描述
+     *
+     * @param job 任务
+     * @return 描述
+     */
+    public static String describe(PregenJob job) {
+        String state = job.isPaused() ? "PAUSED" : job.getState().name();
+        return String.format("%s %s %s %.1f%% (%d 完成, %d 失败, 在途 %d, 并发 %d%s%s)",
+                job.getWorldName(), state, job.getArea(), job.getProgress() * 100.0,
+                job.getGenerated(), job.getFailed(), job.getInFlight(), job.getConcurrency(),
+                job.getRate() > 0 ? ", 限速 " + job.getRate() + "/s" : "",
+                job.isCityFirst() ? ", 城市区域 " + job.getCityRegions() : "");
+    }
+
+    private void prepare(World world, PregenJob job) {
+        Thread thread = new Thread(() -> {
+            try {
+                Set<Long> cityRegions = null;
+                if (job.isCityFirst() && AssetPreloader.awaitReady(ASSET_WAIT_MILLIS)) {
+                    IDimensionInfo provider = dimensionResolver.apply(world);
+                    if (provider != null) {
+                        cityRegions = findCityRegions(job.getArea(), provider);
+                    }
+                }
+                PregenSequence sequence = new PregenSequence(job.getArea(), job.getOrder(), cityRegions);
+                sequence.skip(job.getResumePosition());
+                PregenConfig config = configSupplier.get();
+                job.attach(sequence, cityRegions == null ? 0 : cityRegions.size(),
+                        new AdaptiveConcurrency(config.getMinConcurrency(), config.getMaxConcurrency(),
+                                config.getTargetMspt()));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "预生成任务准备失败: " + job.getWorldName(), e);
+                jobs.remove(job.getWorldName(), job);
+                job.markState(PregenJob.State.STOPPED);
+            }
+        }, "CityLoader-Pregen-" + job.getWorldName());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * 按种子估算可能出现城市的区域
+     *
+     * @return 区域键集合；区域数超过上限时返回null（不分轮）
+     */
+    static Set<Long> findCityRegions(PregenArea area, IDimensionInfo provider) {
+        int minRegionX = area.minChunkX() >> 5;
+        int minRegionZ = area.minChunkZ() >> 5;
+        int maxRegionX = area.maxChunkX() >> 5;
+        int maxRegionZ = area.maxChunkZ() >> 5;
+        long regionCount = (long) (maxRegionX - minRegionX + 1) * (maxRegionZ - minRegionZ + 1);
+        if (regionCount > MAX_CITY_SCAN_REGIONS) {
+            return null;
+        }
+        LostCityProfile profile = provider.getProfile();
+        Set<Long> result = new HashSet<>();
+        for (int rx = minRegionX; rx <= maxRegionX; rx++) {
+            for (int rz = minRegionZ; rz <= maxRegionZ; rz++) {
+                if (regionHasCity(area, provider, profile, rx, rz)) {
+                    result.add(ChunkMap.key(rx, rz));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean regionHasCity(PregenArea area, IDimensionInfo provider, LostCityProfile profile,
+                                         int regionX, int regionZ) {
+        int fromX = Math.max(area.minChunkX(), regionX << 5);
+        int fromZ = Math.max(area.minChunkZ(), regionZ << 5);
+        int toX = Math.min(area.maxChunkX(), (regionX << 5) + 31);
+        int toZ = Math.min(area.maxChunkZ(), (regionZ << 5) + 31);
+        for (int cx = fromX; cx <= toX; cx += CITY_SAMPLE_STEP) {
+            for (int cz = fromZ; cz <= toZ; cz += CITY_SAMPLE_STEP) {
+                ChunkCoord coord = new ChunkCoord(provider.dimension(), cx, cz);
+                if (City.getPotentialCityFactor(coord, provider, profile) > 0.0f) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void tick() {
+        ticks++;
+        if (jobs.isEmpty()) {
+            return;
+        }
+        PregenConfig config = configSupplier.get();
+        boolean sampleMspt = ticks % 20L == 0L;
+        double mspt = sampleMspt ? Bukkit.getServer().getAverageTickTime() : 0.0;
+        boolean saveNow = ticks % (config.getSaveIntervalSeconds() * 20L) == 0L;
+
+        List<PregenJob> finished = new ArrayList<>();
+        for (PregenJob job : jobs.values()) {
+            PregenSequence sequence = job.sequence();
+            if (sequence == null || job.getState() != PregenJob.State.RUNNING) {
+                continue;
+            }
+            World world = Bukkit.getWorld(job.getWorldName());
+            if (world == null) {
+                continue;
+            }
+            if (sampleMspt) {
+                job.concurrency().update(mspt);
+            }
+            if (!job.isPaused()) {
+                dispatch(world, job, sequence);
+            }
+            if (!sequence.hasNext() && job.getInFlight() == 0) {
+                finished.add(job);
+            } else if (saveNow) {
+                save(job);
+            }
+        }
+        for (PregenJob job : finished) {
+            job.markState(PregenJob.State.DONE);
+            jobs.remove(job.getWorldName(), job);
+            deleteProgress(job.getWorldName());
+            logger.info("预生成完成: " + describe(job));
+        }
+    }
+
+    private void dispatch(World world, PregenJob job, PregenSequence sequence) {
+        int budget = Math.min(job.refill(), job.concurrency().current() - job.getInFlight());
+        for (int i = 0; i < budget && sequence.hasNext(); i++) {
+            long index = sequence.position();
+            long key = sequence.next();
+            job.consumeToken();
+            job.inFlight().add(index);
+            world.getChunkAtAsync(ChunkMap.chunkX(key), ChunkMap.chunkZ(key), true)
+                    .whenComplete((chunk, error) -> {
+                        job.inFlight().remove(index);
+                        job.recordResult(error == null && chunk != null);
+                    });
+        }
+    }
+
+    private void save(PregenJob job) {
+        try {
+            job.save(progressFile(job.getWorldName()));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "保存预生成进度失败: " + job.getWorldName(), e);
+        }
+    }
+
+    private void deleteProgress(String worldName) {
+        File file = progressFile(worldName);
+        if (file.exists() && !file.delete()) {
+            logger.warning("无法删除预生成进度文件: " + file.getPath());
+        }
+    }
+
+    private File progressFile(String worldName) {
+        return new File(directory, worldName + ".yml");
+    }
+}
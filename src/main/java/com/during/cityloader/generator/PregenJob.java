@@ -0,0 +1,287 @@
+package com.during.cityloader.generator;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个世界的预生成任务
+ * 保存区域、遍历顺序与进度；进度以序列位置表示，
+ * 续跑时重建相同的 {@link PregenSequence} 并跳过已完成部分。
+ *
+ * <p>序列推进与请求发起只在主线程进行；完成回调只修改并发安全的计数与在途集合。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class PregenJob {
+
+    /**
+     * 任务状态
+     */
+    public enum State {
+        /**
+         * 正在后台计算城市区域
+         */
+        PREPARING,
+        /**
+         * 正在生成
+         */
+        RUNNING,
+        /**
+         * 已完成
+         */
+        DONE,
+        /**
+         * 已停止
+         */
+        STOPPED
+    }
+
+    private final String worldName;
+    private final PregenArea area;
+    private final PregenOrder order;
+    private final boolean cityFirst;
+    private final int rate;
+    private final long resumePosition;
+    private final long startedAt = System.currentTimeMillis();
+
+    private final AtomicLong generated;
+    private final AtomicLong failed;
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    private volatile State state = State.PREPARING;
+    private volatile boolean paused;
+    private volatile PregenSequence sequence;
+    private volatile int cityRegions;
+    private AdaptiveConcurrency concurrency;
+    private double tokens;
+
+    /**
+     * 构造任务
+     *
+     * @param worldName      世界名
+     * @param area           区域
+     * @param order          遍历顺序
+     * @param cityFirst      是否优先生成城市区域
+     * @param rate           每秒区块数上限（<=0 表示只受并发度限制）
+     * @param resumePosition 续跑位置
+     * @param generated      已生成数
+     * @param failed         失败数
+     */
+    public PregenJob(String worldName, PregenArea area, PregenOrder order, boolean cityFirst, int rate,
+                     long resumePosition, long generated, long failed) {
+        this.worldName = worldName;
+        this.area = area;
+        this.order = order == null ? PregenOrder.REGION : order;
+        this.cityFirst = cityFirst;
+        this.rate = Math.max(0, rate);
+        this.resumePosition = Math.max(0L, resumePosition);
+        this.generated = new AtomicLong(generated);
+        this.failed = new AtomicLong(failed);
+    }
+
+    /**
+     * 从进度文件读取任务
+     *
+     * @param file 进度文件
+     * @return 任务，文件内容不完整时返回null
+     */
+    public static PregenJob load(File file) {
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        String world = yaml.getString("world");
+        if (world == null || !yaml.isConfigurationSection("area")) {
+            return null;
+        }
+        PregenArea area = new PregenArea(
+                yaml.getInt("area.min-x"), yaml.getInt("area.min-z"),
+                yaml.getInt("area.max-x"), yaml.getInt("area.max-z"));
+        return new PregenJob(world, area,
+                PregenOrder.parse(yaml.getString("order"), PregenOrder.REGION),
+                yaml.getBoolean("city-first", true),
+                yaml.getInt("rate", 0),
+                yaml.getLong("position", 0L),
+                yaml.getLong("generated", 0L),
+                yaml.getLong("failed", 0L));
+    }
+
+    /**
+     * 保存进度（位置取最早的在途请求，续跑时可能重复请求少量已完成区块）
+     *
+     * @param file 进度文件
+     * @throws IOException 写入失败
+     */
+    public void save(File file) throws IOException {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("world", worldName);
+        yaml.set("area.min-x", area.minChunkX());
+        yaml.set("area.min-z", area.minChunkZ());
+        yaml.set("area.max-x", area.maxChunkX());
+        yaml.set("area.max-z", area.maxChunkZ());
+        yaml.set("order", order.name().toLowerCase(Locale.ROOT));
+        yaml.set("city-first", cityFirst);
+        yaml.set("rate", rate);
+        yaml.set("position", watermark());
+        yaml.set("generated", generated.get());
+        yaml.set("failed", failed.get());
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("无法创建目录: " + parent);
+        }
+        yaml.save(file);
+    }
+
+    /**
+     * 所有序号低于该值的区块都已完成
+     *
+     * @return 续跑位置
+     */
+    public long watermark() {
+        PregenSequence current = sequence;
+        if (current == null) {
+            return resumePosition;
+        }
+        Long first = inFlight.isEmpty() ? null : inFlight.first();
+        return first != null ? first : current.position();
+    }
+
+    /**
+     * 准备完成后挂接序列并开始生成
+     *
+     * @param prepared     已跳到续跑位置的序列
+     * @param cityRegions  城市区域数量
+     * @param concurrency  并发度控制
+     */
+    void attach(PregenSequence prepared, int cityRegions, AdaptiveConcurrency concurrency) {
+        this.cityRegions = cityRegions;
+        this.concurrency = concurrency;
+        this.sequence = prepared;
+        if (state == State.PREPARING) {
+            state = State.RUNNING;
+        }
+    }
+
+    /**
+     * 按速率补充令牌（每 tick 调用一次）
+     *
+     * @return 本 tick 可发起的请求数上限
+     */
+    int refill() {
+        if (rate <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        double perTick = rate / 20.0;
+        tokens = Math.min(Math.max(1.0, perTick * 2.0), tokens + perTick);
+        return (int) tokens;
+    }
+
+    void consumeToken() {
+        if (rate > 0) {
+            tokens -= 1.0;
+        }
+    }
+
+    void markState(State newState) {
+        this.state = newState;
+    }
+
+    void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    PregenSequence sequence() {
+        return sequence;
+    }
+
+    AdaptiveConcurrency concurrency() {
+        return concurrency;
+    }
+
+    ConcurrentSkipListSet<Long> inFlight() {
+        return inFlight;
+    }
+
+    void recordResult(boolean success) {
+        if (success) {
+            generated.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public PregenArea getArea() {
+        return area;
+    }
+
+    public PregenOrder getOrder() {
+        return order;
+    }
+
+    public boolean isCityFirst() {
+        return cityFirst;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public long getResumePosition() {
+        return resumePosition;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public long getGenerated() {
+        return generated.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    public int getCityRegions() {
+        return cityRegions;
+    }
+
+    /**
+     * 当前并发度
+     *
+     * @return 并发度，准备阶段返回0
+     */
+    public int getConcurrency() {
+        AdaptiveConcurrency current = concurrency;
+        return current == null ? 0 : current.current();
+    }
+
+    /**
+     * 完成比例
+     *
+     * @return 0-1
+     */
+    public double getProgress() {
+        long total = area.chunkCount();
+        return total == 0L ? 1.0 : Math.min(1.0, (double) watermark() / total);
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.during.cityloader.generator;
+
+import java.util.Locale;
+
+/**
+ * 预生成遍历顺序
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public enum PregenOrder {
+    /**
+     * 以区域中心向外螺旋逐区块推进
+     */
+    SPIRAL,
+    /**
+     * 按 32x32 区域文件螺旋推进，区域内逐行遍历（磁盘写入更集中）
+     */
+    REGION;
+
+    /**
+     * 解析配置值
+     *
+     * @param raw      文本
+     * @param fallback 无法识别时的默认值
+     * @return 遍历顺序
+     */
+    public static PregenOrder parse(String raw, PregenOrder fallback) {
+        if (raw == null || raw.isBlank()) {
+            return fallback;
+        }
+        try {
+            return valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
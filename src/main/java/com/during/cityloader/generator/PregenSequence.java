@@ -0,0 +1,257 @@
+package com.during.cityloader.generator;
+
+import com.during.cityloader.util.ChunkMap;
+
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 预生成区块序列
+ * 按 {@link PregenOrder} 确定性地枚举区域内的区块，相同参数总是得到相同顺序，
+ * 因此只需保存已消费的位置即可在重启后续跑。
+ *
+ * <p>提供城市区域集合时分两轮：第一轮只输出位于城市区域（32x32 区块）内的区块，
+ * 第二轮输出其余区块。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class PregenSequence {
+
+    private static final int REGION_SHIFT = 5;
+    private static final int REGION_SIZE = 1 << REGION_SHIFT;
+
+    private final PregenArea area;
+    private final PregenOrder order;
+    private final Set<Long> cityRegions;
+
+    private int pass;
+    private long position;
+    private Cursor cursor;
+    private long pending;
+    private boolean hasPending;
+
+    /**
+     * 构造序列
+     *
+     * @param area        区域
+     * @param order       遍历顺序
+     * @param cityRegions 优先生成的区域键集合（{@link ChunkMap#key} 打包的区域坐标），为null时不分轮
+     */
+    public PregenSequence(PregenArea area, PregenOrder order, Set<Long> cityRegions) {
+        this.area = area;
+        this.order = order == null ? PregenOrder.SPIRAL : order;
+        this.cityRegions = cityRegions;
+        this.pass = cityRegions == null ? 1 : 0;
+        this.cursor = newCursor();
+    }
+
+    /**
+     * 区块所在区域的键
+     *
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     * @return 区域键
+     */
+    public static long regionKey(int chunkX, int chunkZ) {
+        return ChunkMap.key(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+    }
+
+    public boolean hasNext() {
+        return advance();
+    }
+
+    /**
+     * 获取下一个区块
+     *
+     * @return {@link ChunkMap#key} 打包的区块坐标
+     */
+    public long next() {
+        if (!advance()) {
+            throw new NoSuchElementException();
+        }
+        hasPending = false;
+        position++;
+        return pending;
+    }
+
+    /**
+     * 跳过若干区块（续跑时恢复位置）
+     *
+     * @param count 跳过数量
+     * @return 实际跳过数量
+     */
+    public long skip(long count) {
+        long skipped = 0;
+        while (skipped < count && advance()) {
+            hasPending = false;
+            position++;
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * 已输出的区块数
+     *
+     * @return 位置
+     */
+    public long position() {
+        return position;
+    }
+
+    private boolean advance() {
+        if (hasPending) {
+            return true;
+        }
+        while (pass < 2) {
+            while (cursor.hasNext()) {
+                long key = cursor.next();
+                if (cityRegions == null || cityRegions.contains(regionKey(ChunkMap.chunkX(key), ChunkMap.chunkZ(key))) == (pass == 0)) {
+                    pending = key;
+                    hasPending = true;
+                    return true;
+                }
+            }
+            pass++;
+            cursor = newCursor();
+        }
+        return false;
+    }
+
+    private Cursor newCursor() {
+        return order == PregenOrder.REGION ? new RegionCursor(area) : new SpiralCursor(area);
+    }
+
+    /**
+     * 正方形螺旋第 n 个点相对中心的偏移
+     *
+     * @param n 序号（从0开始）
+     * @return {@link ChunkMap#key} 打包的偏移
+     */
+    static long spiralOffset(long n) {
+        if (n == 0) {
+            return ChunkMap.key(0, 0);
+        }
+        long k = (long) Math.ceil((Math.sqrt(n + 1.0) - 1.0) / 2.0);
+        // 浮点误差修正：保证 (2k-1)^2 <= n < (2k+1)^2
+        while ((2 * k + 1) * (2 * k + 1) <= n) {
+            k++;
+        }
+        while (k > 0 && (2 * k - 1) * (2 * k - 1) > n) {
+            k--;
+        }
+        long t = 2 * k;
+        long m = (t + 1) * (t + 1) - 1;
+        if (n >= m - t) {
+            return ChunkMap.key((int) (k - (m - n)), (int) -k);
+        }
+        m -= t;
+        if (n >= m - t) {
+            return ChunkMap.key((int) -k, (int) (-k + (m - n)));
+        }
+        m -= t;
+        if (n >= m - t) {
+            return ChunkMap.key((int) (-k + (m - n)), (int) k);
+        }
+        return ChunkMap.key((int) k, (int) (k - (m - n - t)));
+    }
+
+    private interface Cursor {
+        boolean hasNext();
+
+        long next();
+    }
+
+    /**
+     * 覆盖区域的正方形螺旋，跳过区域外的点
+     */
+    private static final class SpiralCursor implements Cursor {
+        private final PregenArea area;
+        private final int centerX;
+        private final int centerZ;
+        private final long total;
+        private long n;
+        private long next;
+        private boolean ready;
+
+        SpiralCursor(PregenArea area) {
+            this.area = area;
+            this.centerX = (int) (((long) area.minChunkX() + area.maxChunkX()) >> 1);
+            this.centerZ = (int) (((long) area.minChunkZ() + area.maxChunkZ()) >> 1);
+            long radius = Math.max(
+                    Math.max(centerX - (long) area.minChunkX(), area.maxChunkX() - (long) centerX),
+                    Math.max(centerZ - (long) area.minChunkZ(), area.maxChunkZ() - (long) centerZ));
+            this.total = (2 * radius + 1) * (2 * radius + 1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!ready && n < total) {
+                long offset = spiralOffset(n++);
+                int x = centerX + ChunkMap.chunkX(offset);
+                int z = centerZ + ChunkMap.chunkZ(offset);
+                if (area.contains(x, z)) {
+                    next = ChunkMap.key(x, z);
+                    ready = true;
+                }
+            }
+            return ready;
+        }
+
+        @Override
+        public long next() {
+            ready = false;
+            return next;
+        }
+    }
+
+    /**
+     * 区域文件按螺旋推进，区域内逐行遍历
+     */
+    private static final class RegionCursor implements Cursor {
+        private final PregenArea area;
+        private final SpiralCursor regions;
+        private int regionX;
+        private int regionZ;
+        private int local = REGION_SIZE * REGION_SIZE;
+        private long next;
+        private boolean ready;
+
+        RegionCursor(PregenArea area) {
+            this.area = area;
+            this.regions = new SpiralCursor(new PregenArea(
+                    area.minChunkX() >> REGION_SHIFT, area.minChunkZ() >> REGION_SHIFT,
+                    area.maxChunkX() >> REGION_SHIFT, area.maxChunkZ() >> REGION_SHIFT));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!ready) {
+                if (local >= REGION_SIZE * REGION_SIZE) {
+                    if (!regions.hasNext()) {
+                        return false;
+                    }
+                    long region = regions.next();
+                    regionX = ChunkMap.chunkX(region);
+                    regionZ = ChunkMap.chunkZ(region);
+                    local = 0;
+                }
+                int x = (regionX << REGION_SHIFT) + (local >> REGION_SHIFT);
+                int z = (regionZ << REGION_SHIFT) + (local & (REGION_SIZE - 1));
+                local++;
+                if (area.contains(x, z)) {
+                    next = ChunkMap.key(x, z);
+                    ready = true;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public long next() {
+            ready = false;
+            return next;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.during.cityloader.listener;
 
 import com.during.cityloader.generator.CityBlockPopulator;
+import com.during.cityloader.worldgen.ChunkCompletionMarkers;
 import com.during.cityloader.worldgen.ChunkFixer;
 import com.during.cityloader.worldgen.IDimensionInfo;
+import com.during.cityloader.worldgen.gen.GlobalCompletionQueue;
+import com.during.cityloader.worldgen.gen.StageContinuationQueue;
 import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.event.EventHandler;
@@ -13,17 +16,28 @@ import org.bukkit.event.world.ChunkLoadEvent;
 import java.util.function.Predicate;
 
 /**
- * 区块补全监听器：在区块加载后执行跨区块修复。
+ * 区块补全监听器：在区块加载后执行跨区块修复，并标记该区块的补全任务与延后阶段可执行；
+ * 资产未就绪时被跳过的区块在加载时补生成。
+ * 修复结果以 {@link ChunkCompletionMarkers} 持久化到区块，已完成的区块再次加载时直接跳过；
+ * 新加载的区块可能是西/北邻区块边界藤蔓所需的支撑，因此同时复查这两个仍待处理的邻区块。
  */
 public class ChunkCompletionListener implements Listener {
 
     private final CityBlockPopulator cityBlockPopulator;
     private final Predicate<World> worldGenerationPredicate;
+    private final ChunkCompletionMarkers markers;
 
     public ChunkCompletionListener(CityBlockPopulator cityBlockPopulator,
                                    Predicate<World> worldGenerationPredicate) {
+        this(cityBlockPopulator, worldGenerationPredicate, null);
+    }
+
+    public ChunkCompletionListener(CityBlockPopulator cityBlockPopulator,
+                                   Predicate<World> worldGenerationPredicate,
+                                   ChunkCompletionMarkers markers) {
         this.cityBlockPopulator = cityBlockPopulator;
         this.worldGenerationPredicate = worldGenerationPredicate;
+        this.markers = markers;
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -33,11 +47,33 @@ public class ChunkCompletionListener implements Listener {
             return;
         }
         Chunk chunk = event.getChunk();
+        GlobalCompletionQueue.markLoaded(world, chunk.getX(), chunk.getZ());
+        StageContinuationQueue.markLoaded(world, chunk.getX(), chunk.getZ());
+        cityBlockPopulator.replayDeferred(world, chunk.getX(), chunk.getZ());
+        fixIfPending(world, chunk);
+        if (markers == null) {
+            return;
+        }
+        if (world.isChunkLoaded(chunk.getX() - 1, chunk.getZ())) {
+            fixIfPending(world, world.getChunkAt(chunk.getX() - 1, chunk.getZ()));
+        }
+        if (world.isChunkLoaded(chunk.getX(), chunk.getZ() - 1)) {
+            fixIfPending(world, world.getChunkAt(chunk.getX(), chunk.getZ() - 1));
+        }
+    }
+
+    private void fixIfPending(World world, Chunk chunk) {
+        if (markers != null && markers.isComplete(chunk)) {
+            return;
+        }
         IDimensionInfo dimensionInfo = cityBlockPopulator.getOrCreateDimensionInfo(world);
         if (dimensionInfo == null) {
             return;
         }
-        ChunkFixer.fix(dimensionInfo, chunk.getX(), chunk.getZ());
+        boolean complete = ChunkFixer.fix(dimensionInfo, chunk.getX(), chunk.getZ());
+        if (markers != null) {
+            markers.mark(chunk, complete);
+        }
     }
 
     private boolean shouldEnableGeneration(World world) {
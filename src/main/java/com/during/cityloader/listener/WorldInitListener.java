@@ -1,23 +1,36 @@
 package com.during.cityloader.listener;
 
 import com.during.cityloader.generator.CityBlockPopulator;
+import com.during.cityloader.util.CacheRegistry;
+import com.during.cityloader.worldgen.gen.GlobalCompletionQueue;
+import com.during.cityloader.worldgen.gen.StageContinuationQueue;
 import org.bukkit.World;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.world.WorldInitEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 
+import java.io.IOException;
 import java.util.function.Predicate;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * 世界初始化监听器
- * 负责将CityBlockPopulator添加到新加载的世界中
+ * 负责将CityBlockPopulator添加到新加载的世界中，
+ * 并随世界加载/保存/卸载恢复与写入补全队列及延后阶段续跑日志（{@code -Dcityloader.completionJournal=false} 关闭）
  * 
  * @author During
  * @since 1.4.0
  */
 public class WorldInitListener implements Listener {
 
+    private static final boolean JOURNAL_ENABLED = Boolean.parseBoolean(
+            System.getProperty("cityloader.completionJournal", "true"));
+
     private final Logger logger;
     private final CityBlockPopulator cityBlockPopulator;
     private final Predicate<World> worldGenerationPredicate;
@@ -50,6 +63,76 @@ public class WorldInitListener implements Listener {
         logger.info("========================================");
     }
 
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        restoreCompletionJournal(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(WorldSaveEvent event) {
+        saveCompletionJournal(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        saveCompletionJournal(event.getWorld());
+        GlobalCompletionQueue.forget(event.getWorld());
+        StageContinuationQueue.forget(event.getWorld());
+        String worldName = event.getWorld().getName();
+        int removed = CacheRegistry.invalidateWorld(worldName);
+        if (removed > 0) {
+            logger.info("已清理世界 " + worldName + " 的生成缓存条目: " + removed);
+        }
+    }
+
+    /**
+     * 从世界目录恢复补全队列中等待的任务与延后阶段续跑任务
+     *
+     * @param world 世界
+     */
+    public void restoreCompletionJournal(World world) {
+        if (!JOURNAL_ENABLED || !shouldEnableGeneration(world)) {
+            return;
+        }
+        try {
+            int restored = GlobalCompletionQueue.restoreJournal(world);
+            if (restored > 0) {
+                logger.info("已恢复世界 " + world.getName() + " 的待补全任务: " + restored);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "恢复世界 " + world.getName() + " 的补全队列日志失败", e);
+        }
+        try {
+            int restored = StageContinuationQueue.restoreJournal(world);
+            if (restored > 0) {
+                logger.info("已恢复世界 " + world.getName() + " 的延后阶段续跑区块: " + restored);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "恢复世界 " + world.getName() + " 的续跑日志失败", e);
+        }
+    }
+
+    /**
+     * 将补全队列中等待的任务与尚未续跑完的延后阶段写入世界目录
+     *
+     * @param world 世界
+     */
+    public void saveCompletionJournal(World world) {
+        if (!JOURNAL_ENABLED || !shouldEnableGeneration(world)) {
+            return;
+        }
+        try {
+            GlobalCompletionQueue.saveJournal(world);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "写入世界 " + world.getName() + " 的补全队列日志失败", e);
+        }
+        try {
+            StageContinuationQueue.saveJournal(world);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "写入世界 " + world.getName() + " 的续跑日志失败", e);
+        }
+    }
+
     private boolean shouldEnableGeneration(World world) {
         if (worldGenerationPredicate == null) {
             return world.getEnvironment() == World.Environment.NORMAL;
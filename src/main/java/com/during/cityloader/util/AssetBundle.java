@@ -0,0 +1,333 @@
+package com.during.cityloader.util;
+
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 预编译资产包
+ * 将合并后的资产索引与压缩后的 JSON 内容写入单个二进制文件，
+ * 启动时通过 NIO 内存映射读取，资产内容在首次解析时才从映射区切片读取。
+ *
+ * <p>文件布局（大端序）：魔数、版本、指纹、目录表长度、目录表、内容区。
+ * 目录表按资产目录分组记录描述信息、覆盖冲突以及每个资产在内容区的偏移与长度。
+ * 指纹由 jar 中 data/ 条目的名称、CRC、大小以及外部叠加目录中 JSON 文件的路径、大小、修改时间组成，
+ * 任一来源变化都会使资产包失效并在下次建立索引时重建。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+final class AssetBundle {
+
+    private static final Logger LOGGER = Logger.getLogger("CityLoader");
+    private static final int MAGIC = 0x434C4142; // "CLAB"
+    private static final int VERSION = 1;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private AssetBundle() {
+    }
+
+    /**
+     * 计算资产来源指纹
+     *
+     * @param codeSource 插件 jar 或类路径目录
+     * @param externalRoots 外部叠加目录
+     * @return 指纹
+     */
+    static long fingerprint(Path codeSource, List<Path> externalRoots) {
+        long hash = mix(FNV_OFFSET, VERSION);
+        if (codeSource != null) {
+            if (Files.isRegularFile(codeSource) && codeSource.toString().endsWith(".jar")) {
+                hash = fingerprintJar(hash, codeSource);
+            } else if (Files.isDirectory(codeSource)) {
+                hash = fingerprintDirectory(hash, codeSource.resolve("data"));
+            }
+        }
+        for (Path root : externalRoots) {
+            hash = mix(hash, root.toString());
+            hash = fingerprintDirectory(hash, root);
+        }
+        return hash;
+    }
+
+    /**
+     * 打开资产包
+     *
+     * @param file 资产包文件
+     * @param expectedFingerprint 期望指纹
+     * @return 按目录分组的索引；文件不存在、指纹不符或损坏时返回 null
+     */
+    static Map<String, PaperResourceLoader.FolderIndex> open(Path file, long expectedFingerprint) {
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < 24 || mapped.getInt() != MAGIC || mapped.getInt() != VERSION
+                    || mapped.getLong() != expectedFingerprint) {
+                return null;
+            }
+            int tableLength = mapped.getInt();
+            int tableStart = mapped.position();
+            ByteBuffer content = mapped.slice(tableStart + tableLength, mapped.capacity() - tableStart - tableLength);
+            ByteBuffer table = mapped.slice(tableStart, tableLength);
+            return readTable(table, content);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("读取资产包失败，将重新扫描: " + file + " error=" + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入资产包（先写临时文件再原子替换）
+     *
+     * @param file 资产包文件
+     * @param fingerprint 指纹
+     * @param folders 按目录分组的索引
+     * @param reader 读取单个资产原始内容
+     * @return 是否写入成功
+     */
+    static boolean write(Path file, long fingerprint, Map<String, PaperResourceLoader.FolderIndex> folders,
+            PayloadReader reader) {
+        ByteArrayOutputStream tableBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream contentBytes = new ByteArrayOutputStream(16 * 1024 * 1024);
+        try {
+            DataOutputStream table = new DataOutputStream(tableBytes);
+            Map<String, PaperResourceLoader.FolderIndex> sorted = new TreeMap<>(folders);
+            table.writeInt(sorted.size());
+            for (Map.Entry<String, PaperResourceLoader.FolderIndex> folder : sorted.entrySet()) {
+                writeString(table, folder.getKey());
+                List<PaperResourceLoader.AssetDescriptor> descriptors = folder.getValue().descriptors();
+                table.writeInt(descriptors.size());
+                for (PaperResourceLoader.AssetDescriptor descriptor : descriptors) {
+                    byte[] payload = compact(reader.read(descriptor));
+                    writeString(table, descriptor.getLocation().getNamespace());
+                    writeString(table, descriptor.getName());
+                    writeString(table, descriptor.getSourcePack());
+                    writeString(table, descriptor.getResourcePath());
+                    table.writeInt(descriptor.getPriority());
+                    table.writeBoolean(descriptor.isExternal());
+                    table.writeInt(payload == null ? -1 : contentBytes.size());
+                    table.writeInt(payload == null ? 0 : payload.length);
+                    if (payload != null) {
+                        contentBytes.write(payload);
+                    }
+                }
+                List<PaperResourceLoader.AssetConflict> conflicts = folder.getValue().conflicts();
+                table.writeInt(conflicts.size());
+                for (PaperResourceLoader.AssetConflict conflict : conflicts) {
+                    writeString(table, conflict.getLocation().getNamespace());
+                    writeString(table, conflict.getName());
+                    writeString(table, conflict.getOverriddenSourcePack());
+                    writeString(table, conflict.getOverriddenResourcePath());
+                    writeString(table, conflict.getOverridingSourcePack());
+                    writeString(table, conflict.getOverridingResourcePath());
+                }
+            }
+            table.flush();
+
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fingerprint);
+                out.writeInt(tableBytes.size());
+                tableBytes.writeTo(out);
+                contentBytes.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("写入资产包失败: " + file + " error=" + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 以流方式读取映射区中的资产内容
+     *
+     * @param payload 资产内容切片
+     * @return 读取器
+     */
+    static InputStreamReader openReader(ByteBuffer payload) {
+        return new InputStreamReader(new ByteBufferInputStream(payload.duplicate()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取单个资产原始内容
+     */
+    @FunctionalInterface
+    interface PayloadReader {
+        byte[] read(PaperResourceLoader.AssetDescriptor descriptor) throws IOException;
+    }
+
+    private static Map<String, PaperResourceLoader.FolderIndex> readTable(ByteBuffer table, ByteBuffer content) {
+        int folderCount = table.getInt();
+        Map<String, PaperResourceLoader.FolderIndex> folders = new HashMap<>();
+        for (int f = 0; f < folderCount; f++) {
+            String folder = readString(table);
+            int descriptorCount = table.getInt();
+            List<PaperResourceLoader.AssetDescriptor> descriptors = new ArrayList<>(descriptorCount);
+            for (int i = 0; i < descriptorCount; i++) {
+                String namespace = readString(table);
+                String name = readString(table);
+                String sourcePack = readString(table);
+                String resourcePath = readString(table);
+                int priority = table.getInt();
+                boolean external = table.get() != 0;
+                int offset = table.getInt();
+                int length = table.getInt();
+                ByteBuffer payload = offset < 0 ? null : content.slice(offset, length);
+                descriptors.add(new PaperResourceLoader.AssetDescriptor(
+                        new ResourceLocation(namespace, name), folder, name, sourcePack,
+                        resourcePath, priority, external, payload));
+            }
+            int conflictCount = table.getInt();
+            List<PaperResourceLoader.AssetConflict> conflicts = new ArrayList<>(conflictCount);
+            for (int i = 0; i < conflictCount; i++) {
+                String namespace = readString(table);
+                String name = readString(table);
+                conflicts.add(new PaperResourceLoader.AssetConflict(
+                        new ResourceLocation(namespace, name), folder, name,
+                        readString(table), readString(table), readString(table), readString(table)));
+            }
+            folders.put(folder, new PaperResourceLoader.FolderIndex(List.copyOf(descriptors), List.copyOf(conflicts)));
+        }
+        return folders;
+    }
+
+    /**
+     * 去除 JSON 中的空白；内容无法解析时保留原样，使解析错误在加载阶段照常报告
+     */
+    private static byte[] compact(byte[] raw) {
+        if (raw == null) {
+            return null;
+        }
+        try {
+            String json = new String(raw, StandardCharsets.UTF_8);
+            return JsonParser.parseString(json).toString().getBytes(StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            return raw;
+        }
+    }
+
+    private static long fingerprintJar(long hash, Path jarPath) {
+        try (JarFile jarFile = new JarFile(jarPath.toFile())) {
+            List<JarEntry> entries = jarFile.stream()
+                    .filter(entry -> entry.getName().startsWith("data/"))
+                    .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                    .toList();
+            for (JarEntry entry : entries) {
+                hash = mix(hash, entry.getName());
+                hash = mix(hash, entry.getCrc());
+                hash = mix(hash, entry.getSize());
+            }
+        } catch (IOException e) {
+            hash = mix(hash, System.nanoTime());
+        }
+        return hash;
+    }
+
+    private static long fingerprintDirectory(long hash, Path root) {
+        if (!Files.isDirectory(root)) {
+            return hash;
+        }
+        try (Stream<Path> stream = Files.walk(root)) {
+            List<Path> files = stream.filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(".json"))
+                    .sorted()
+                    .toList();
+            for (Path path : files) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                hash = mix(hash, root.relativize(path).toString().replace('\\', '/'));
+                hash = mix(hash, attributes.size());
+                hash = mix(hash, attributes.lastModifiedTime().toMillis());
+            }
+        } catch (IOException e) {
+            // 无法确定来源状态时使指纹必然失配
+            hash = mix(hash, System.nanoTime());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash, value.length());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
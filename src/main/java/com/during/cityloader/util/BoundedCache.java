@@ -0,0 +1,394 @@
+package com.during.cityloader.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 有界分段 LRU 缓存
+ * 按键哈希分段加锁，每段为访问顺序的 LinkedHashMap；
+ * 同时受条目上限与写入存活时间约束，超限时淘汰最久未访问的条目。
+ *
+ * <p>条目可按分区（通常为世界名）标记，世界卸载时可整体失效。
+ * 命中/未命中/淘汰/过期计数用于按真实负载调整预算。</p>
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class BoundedCache<K, V> implements ManagedCache {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final String name;
+    private final int approxEntryBytes;
+    private final Function<? super K, String> partitioner;
+    private final Segment<K, V>[] segments;
+    private final LongSupplier clock;
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+
+    private volatile int maxEntries;
+    private volatile long expireAfterMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * 构造有界缓存
+     *
+     * @param name 缓存名称（用于配置与统计）
+     * @param maxEntries 最大条目数
+     * @param expireAfterSeconds 写入后存活秒数（<=0 表示不过期）
+     * @param approxEntryBytes 单条目估算字节数（用于内存预算）
+     * @param partitioner 分区函数，可为 null
+     */
+    public BoundedCache(String name,
+                        int maxEntries,
+                        int expireAfterSeconds,
+                        int approxEntryBytes,
+                        Function<? super K, String> partitioner) {
+        this(name, maxEntries, expireAfterSeconds, approxEntryBytes, partitioner, System::currentTimeMillis);
+    }
+
+    /**
+     * 构造使用指定时钟的有界缓存（测试用），其余参数同上
+     *
+     * @param clock 毫秒时钟
+     */
+    @SuppressWarnings("unchecked")
+    BoundedCache(String name,
+                 int maxEntries,
+                 int expireAfterSeconds,
+                 int approxEntryBytes,
+                 Function<? super K, String> partitioner,
+                 LongSupplier clock) {
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.name = Objects.requireNonNull(name, "name");
+        this.approxEntryBytes = Math.max(1, approxEntryBytes);
+        this.partitioner = partitioner;
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<>();
+        }
+        resize(maxEntries, expireAfterSeconds);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getApproxEntryBytes() {
+        return approxEntryBytes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * 调整预算，超出新上限的条目会立即按 LRU 淘汰
+     *
+     * @param maxEntries 最大条目数
+     * @param expireAfterSeconds 写入后存活秒数（<=0 表示不过期）
+     */
+    public void resize(int maxEntries, int expireAfterSeconds) {
+        this.maxEntries = Math.max(SEGMENT_COUNT, maxEntries);
+        this.expireAfterMillis = expireAfterSeconds <= 0 ? 0L : expireAfterSeconds * 1000L;
+        trimTo(this.maxEntries);
+    }
+
+    /**
+     * 获取缓存值
+     *
+     * @param key 键
+     * @return 缓存值，如果不存在或已过期则返回null
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = clock.getAsLong();
+        synchronized (segment) {
+            Entry<V> entry = segment.map.get(key);
+            if (entry != null && !isExpired(entry, now)) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                segment.map.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 放入缓存值
+     *
+     * @param key 键
+     * @param value 值
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        Entry<V> entry = new Entry<>(value, clock.getAsLong(), partitionOf(key));
+        synchronized (segment) {
+            segment.map.put(key, entry);
+            evictOverflow(segment, segmentLimit());
+        }
+    }
+
+    /**
+     * 计算并缓存值
+     * 计算在段锁之外进行，允许映射函数递归访问同一缓存；
+     * 并发请求同一键时只有一个线程计算，其余线程等待其结果。
+     *
+     * @param key 键
+     * @param mappingFunction 计算函数
+     * @return 缓存值或新计算的值
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return loads.run(key, () -> peek(key), () -> {
+            V computed = mappingFunction.apply(key);
+            if (computed == null) {
+                return null;
+            }
+            Segment<K, V> segment = segmentFor(key);
+            long now = clock.getAsLong();
+            synchronized (segment) {
+                Entry<V> existing = segment.map.get(key);
+                if (existing != null && !isExpired(existing, now)) {
+                    return existing.value;
+                }
+                segment.map.put(key, new Entry<>(computed, now, partitionOf(key)));
+                evictOverflow(segment, segmentLimit());
+            }
+            return computed;
+        });
+    }
+
+    /**
+     * 不计入命中统计的查询
+     */
+    private V peek(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = clock.getAsLong();
+        synchronized (segment) {
+            Entry<V> entry = segment.map.get(key);
+            return entry == null || isExpired(entry, now) ? null : entry.value;
+        }
+    }
+
+    /**
+     * 移除缓存值
+     *
+     * @param key 键
+     */
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.map.remove(key);
+        }
+    }
+
+    /**
+     * 清空缓存（不重置统计计数）
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.map.clear();
+            }
+        }
+    }
+
+    /**
+     * 获取缓存大小
+     *
+     * @return 缓存条目数量
+     */
+    public int size() {
+        int total = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                total += segment.map.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 清理过期条目
+     *
+     * @return 清理的条目数量
+     */
+    public int cleanup() {
+        if (expireAfterMillis <= 0L) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                Iterator<Entry<V>> iterator = segment.map.values().iterator();
+                while (iterator.hasNext()) {
+                    if (isExpired(iterator.next(), now)) {
+                        iterator.remove();
+                        removed++;
+                    }
+                }
+            }
+        }
+        expirations.add(removed);
+        return removed;
+    }
+
+    /**
+     * 按 LRU 顺序收缩到指定条目数
+     *
+     * @param targetEntries 目标条目数
+     * @return 淘汰的条目数量
+     */
+    public int trimTo(int targetEntries) {
+        int perSegment = Math.max(1, targetEntries / SEGMENT_COUNT);
+        int evicted = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                evicted += evictOverflow(segment, perSegment);
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * 使指定分区（世界）的所有条目失效
+     *
+     * @param partition 分区标识
+     * @return 移除的条目数量
+     */
+    public int invalidatePartition(String partition) {
+        if (partition == null || partitioner == null) {
+            return 0;
+        }
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                Iterator<Entry<V>> iterator = segment.map.values().iterator();
+                while (iterator.hasNext()) {
+                    if (partition.equals(iterator.next().partition)) {
+                        iterator.remove();
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 获取当前值快照（用于只读遍历）
+     *
+     * @return 值列表
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                for (Entry<V> entry : segment.map.values()) {
+                    values.add(entry.value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @return 统计信息
+     */
+    public Stats stats() {
+        int size = size();
+        return new Stats(
+                name,
+                size,
+                maxEntries,
+                (long) size * approxEntryBytes,
+                hits.sum(),
+                misses.sum(),
+                evictions.sum(),
+                expirations.sum());
+    }
+
+    private int evictOverflow(Segment<K, V> segment, int limit) {
+        int evicted = 0;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = segment.map.entrySet().iterator();
+        while (segment.map.size() > limit && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evicted++;
+        }
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    private int segmentLimit() {
+        return Math.max(1, maxEntries / SEGMENT_COUNT);
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        long ttl = expireAfterMillis;
+        return ttl > 0L && now - entry.timestamp > ttl;
+    }
+
+    private String partitionOf(K key) {
+        return partitioner == null ? null : partitioner.apply(key);
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENT_COUNT - 1)];
+    }
+
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    private record Entry<V>(V value, long timestamp, String partition) {
+    }
+
+    /**
+     * 缓存统计快照
+     */
+    public record Stats(String name,
+                        int size,
+                        int maxEntries,
+                        long approxBytes,
+                        long hits,
+                        long misses,
+                        long evictions,
+                        long expirations) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.during.cityloader.util;
+
+import com.during.cityloader.config.CacheConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * 世界生成缓存注册表
+ * 统一创建、配置、清理所有区块级缓存，并汇总统计信息。
+ *
+ * <p>后台清理由插件以异步定时任务调用 {@link #sweep()}：
+ * 先移除过期条目，再按估算内存预算收缩各缓存。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class CacheRegistry {
+
+    private static final List<ManagedCache> CACHES = new CopyOnWriteArrayList<>();
+    private static volatile CacheConfig config = CacheConfig.defaults();
+
+    private CacheRegistry() {
+    }
+
+    /**
+     * 创建并注册一个缓存
+     *
+     * @param name 缓存名称（对应 config.yml 中的 budgets 键）
+     * @param approxEntryBytes 单条目估算字节数
+     * @param partitioner 分区函数（通常返回世界名），可为 null
+     * @return 新缓存
+     */
+    public static <K, V> BoundedCache<K, V> create(String name,
+                                                   int approxEntryBytes,
+                                                   Function<? super K, String> partitioner) {
+        CacheConfig current = config;
+        BoundedCache<K, V> cache = new BoundedCache<>(
+                name,
+                current.getMaxEntries(name),
+                current.getExpireAfterSeconds(),
+                approxEntryBytes,
+                partitioner);
+        CACHES.add(cache);
+        return cache;
+    }
+
+    /**
+     * 创建并注册一个按世界分区、以区块坐标为键的缓存
+     *
+     * @param name 缓存名称（对应 config.yml 中的 budgets 键）
+     * @param approxEntryBytes 单条目估算字节数
+     * @return 新缓存
+     */
+    public static <V> ChunkMap<V> createChunkMap(String name, int approxEntryBytes) {
+        CacheConfig current = config;
+        ChunkMap<V> cache = new ChunkMap<>(
+                name,
+                current.getMaxEntries(name),
+                current.getExpireAfterSeconds(),
+                approxEntryBytes);
+        CACHES.add(cache);
+        return cache;
+    }
+
+    /**
+     * 注册自定义实现的缓存，并按当前配置设定预算
+     *
+     * @param cache 缓存
+     * @return 传入的缓存
+     */
+    public static <T extends ManagedCache> T register(T cache) {
+        CacheConfig current = config;
+        cache.resize(current.getMaxEntries(cache.getName()), current.getExpireAfterSeconds());
+        CACHES.add(cache);
+        return cache;
+    }
+
+    /**
+     * 应用新的缓存配置到所有已注册缓存
+     *
+     * @param newConfig 缓存配置
+     */
+    public static void configure(CacheConfig newConfig) {
+        config = newConfig == null ? CacheConfig.defaults() : newConfig;
+        for (ManagedCache cache : CACHES) {
+            cache.resize(config.getMaxEntries(cache.getName()), config.getExpireAfterSeconds());
+        }
+    }
+
+    public static CacheConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 后台清理：移除过期条目，并在超出内存预算时按比例收缩
+     *
+     * @return 本次移除的条目总数
+     */
+    public static int sweep() {
+        int removed = 0;
+        for (ManagedCache cache : CACHES) {
+            removed += cache.cleanup();
+        }
+
+        long budgetBytes = config.getMaxMemoryMb() * 1024L * 1024L;
+        if (budgetBytes <= 0L) {
+            return removed;
+        }
+        long usedBytes = 0L;
+        for (ManagedCache cache : CACHES) {
+            usedBytes += (long) cache.size() * cache.getApproxEntryBytes();
+        }
+        if (usedBytes <= budgetBytes) {
+            return removed;
+        }
+        double ratio = (double) budgetBytes / usedBytes;
+        for (ManagedCache cache : CACHES) {
+            removed += cache.trimTo((int) (cache.size() * ratio));
+        }
+        return removed;
+    }
+
+    /**
+     * 使指定世界在所有缓存中的条目失效
+     *
+     * @param dimension 世界名
+     * @return 移除的条目总数
+     */
+    public static int invalidateWorld(String dimension) {
+        int removed = 0;
+        for (ManagedCache cache : CACHES) {
+            removed += cache.invalidatePartition(dimension);
+        }
+        return removed;
+    }
+
+    /**
+     * 获取所有缓存的统计快照
+     *
+     * @return 统计列表
+     */
+    public static List<BoundedCache.Stats> snapshot() {
+        List<BoundedCache.Stats> stats = new ArrayList<>(CACHES.size());
+        for (ManagedCache cache : CACHES) {
+            stats.add(cache.stats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,653 @@
+package com.during.cityloader.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 按世界分区、以打包 long 区块坐标为键的有界缓存
+ * 每个世界一个分区，分区内按键哈希分为若干条带，
+ * 每条带为线性探测开放寻址表：写入加条带写锁，读取走乐观读，不分配任何对象。
+ *
+ * <p>容量超限时按 CLOCK（二次机会）淘汰；条目同样受写入存活时间约束，
+ * 过期条目在读取时视为未命中，由 {@link #cleanup()} 统一移除。
+ * 未命中时同一键只计算一次（{@link SingleFlight}），并发请求等待同一结果。</p>
+ *
+ * <p>热点路径应先通过 {@link #partition(String)} 取得世界分区，
+ * 之后的邻居查询只做整数运算与数组访问。</p>
+ *
+ * @param <V> 值类型
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class ChunkMap<V> implements ManagedCache {
+
+    private static final int STRIPE_COUNT = 16;
+    private static final int STRIPE_SHIFT = 4;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long EPOCH = System.currentTimeMillis();
+
+    private final String name;
+    private final int approxEntryBytes;
+    private final ConcurrentHashMap<String, Partition<V>> partitions = new ConcurrentHashMap<>();
+
+    private volatile int maxEntries;
+    private volatile int expireAfterSeconds;
+    private volatile Consumer<? super V> removalListener;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * 构造区块缓存
+     *
+     * @param name 缓存名称（用于配置与统计）
+     * @param maxEntries 最大条目数（所有世界合计）
+     * @param expireAfterSeconds 写入后存活秒数（<=0 表示不过期）
+     * @param approxEntryBytes 单条目估算字节数（用于内存预算）
+     */
+    public ChunkMap(String name, int maxEntries, int expireAfterSeconds, int approxEntryBytes) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.approxEntryBytes = Math.max(1, approxEntryBytes);
+        resize(maxEntries, expireAfterSeconds);
+    }
+
+    /**
+     * 设置条目被移除时的回调
+     * 淘汰、过期移除、删除、替换、分区失效与清空都会回调；
+     * 回调在释放条带锁之后执行，可以访问本缓存。
+     *
+     * @param listener 回调，可为 null
+     */
+    public void onRemoval(Consumer<? super V> listener) {
+        this.removalListener = listener;
+    }
+
+    /**
+     * 为一次写操作准备被移除值的收集列表；未设置回调时返回 null，不做收集
+     */
+    private List<Object> removalBuffer() {
+        return removalListener == null ? null : new ArrayList<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void notifyRemoved(List<Object> removed) {
+        Consumer<? super V> listener = removalListener;
+        if (listener == null || removed == null) {
+            return;
+        }
+        for (Object value : removed) {
+            listener.accept((V) value);
+        }
+    }
+
+    /**
+     * 打包区块坐标
+     *
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     * @return 键
+     */
+    public static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int chunkZ(long key) {
+        return (int) key;
+    }
+
+    /**
+     * 获取（必要时创建）世界分区
+     *
+     * @param dimension 世界名
+     * @return 分区
+     */
+    public Partition<V> partition(String dimension) {
+        String normalized = normalize(dimension);
+        Partition<V> partition = partitions.get(normalized);
+        return partition != null ? partition : partitions.computeIfAbsent(normalized, d -> new Partition<>(this, d));
+    }
+
+    public V get(String dimension, int chunkX, int chunkZ) {
+        Partition<V> partition = partitions.get(normalize(dimension));
+        if (partition == null) {
+            misses.increment();
+            return null;
+        }
+        return partition.get(chunkX, chunkZ);
+    }
+
+    public V get(ChunkCoord coord) {
+        return get(coord.dimension(), coord.chunkX(), coord.chunkZ());
+    }
+
+    public void put(ChunkCoord coord, V value) {
+        partition(coord.dimension()).put(coord.chunkX(), coord.chunkZ(), value);
+    }
+
+    public void remove(ChunkCoord coord) {
+        Partition<V> partition = partitions.get(normalize(coord.dimension()));
+        if (partition != null) {
+            partition.remove(coord.chunkX(), coord.chunkZ());
+        }
+    }
+
+    /**
+     * 计算并缓存值
+     * 计算在锁之外进行，允许映射函数递归访问同一缓存；
+     * 并发请求同一键时只有一个线程计算，其余线程等待其结果。
+     *
+     * @param coord 区块坐标
+     * @param mappingFunction 计算函数
+     * @return 缓存值或新计算的值
+     */
+    public V computeIfAbsent(ChunkCoord coord, Function<? super ChunkCoord, ? extends V> mappingFunction) {
+        return partition(coord.dimension()).computeIfAbsent(coord.chunkX(), coord.chunkZ(),
+                (chunkX, chunkZ) -> mappingFunction.apply(coord));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getApproxEntryBytes() {
+        return approxEntryBytes;
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public void resize(int maxEntries, int expireAfterSeconds) {
+        this.maxEntries = Math.max(STRIPE_COUNT, maxEntries);
+        this.expireAfterSeconds = Math.max(0, expireAfterSeconds);
+        trimTo(this.maxEntries);
+    }
+
+    @Override
+    public void clear() {
+        if (removalListener == null) {
+            partitions.clear();
+            return;
+        }
+        for (String dimension : List.copyOf(partitions.keySet())) {
+            invalidatePartition(dimension);
+        }
+    }
+
+    @Override
+    public int size() {
+        int total = 0;
+        for (Partition<V> partition : partitions.values()) {
+            total += partition.size();
+        }
+        return total;
+    }
+
+    @Override
+    public int cleanup() {
+        int ttl = expireAfterSeconds;
+        if (ttl <= 0) {
+            return 0;
+        }
+        int now = now();
+        int removed = 0;
+        for (Partition<V> partition : partitions.values()) {
+            for (Stripe stripe : partition.stripes) {
+                List<Object> buffer = removalBuffer();
+                removed += stripe.removeExpired(now, ttl, buffer);
+                notifyRemoved(buffer);
+            }
+        }
+        expirations.add(removed);
+        return removed;
+    }
+
+    @Override
+    public int trimTo(int targetEntries) {
+        int limit = stripeLimit(targetEntries);
+        int evicted = 0;
+        for (Partition<V> partition : partitions.values()) {
+            for (Stripe stripe : partition.stripes) {
+                List<Object> buffer = removalBuffer();
+                evicted += stripe.evictOverflow(limit, buffer);
+                notifyRemoved(buffer);
+            }
+        }
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    @Override
+    public int invalidatePartition(String partition) {
+        if (partition == null) {
+            return 0;
+        }
+        Partition<V> removed = partitions.remove(partition);
+        if (removed == null) {
+            return 0;
+        }
+        List<Object> buffer = removalBuffer();
+        if (buffer == null) {
+            return removed.size();
+        }
+        for (Stripe stripe : removed.stripes) {
+            stripe.collectValues(buffer);
+        }
+        notifyRemoved(buffer);
+        return buffer.size();
+    }
+
+    @Override
+    public BoundedCache.Stats stats() {
+        int size = size();
+        return new BoundedCache.Stats(
+                name,
+                size,
+                maxEntries,
+                (long) size * approxEntryBytes,
+                hits.sum(),
+                misses.sum(),
+                evictions.sum(),
+                expirations.sum());
+    }
+
+    private int stripeLimit(int entries) {
+        return Math.max(1, entries / (STRIPE_COUNT * Math.max(1, partitions.size())));
+    }
+
+    private static String normalize(String dimension) {
+        return dimension == null ? "" : dimension;
+    }
+
+    private static int now() {
+        return (int) ((System.currentTimeMillis() - EPOCH) / 1000L);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 单个世界的区块分区
+     *
+     * @param <V> 值类型
+     */
+    public static final class Partition<V> {
+        private final ChunkMap<V> owner;
+        private final String dimension;
+        private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+        private final SingleFlight<Long, V> loads = new SingleFlight<>();
+
+        private Partition(ChunkMap<V> owner, String dimension) {
+            this.owner = owner;
+            this.dimension = dimension;
+            for (int i = 0; i < STRIPE_COUNT; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        public String dimension() {
+            return dimension;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V get(int chunkX, int chunkZ) {
+            long key = key(chunkX, chunkZ);
+            int hash = hash(key);
+            int ttl = owner.expireAfterSeconds;
+            Object value = stripes[hash & (STRIPE_COUNT - 1)].get(key, hash >>> STRIPE_SHIFT, ttl > 0 ? now() : 0, ttl);
+            if (value == null) {
+                owner.misses.increment();
+                return null;
+            }
+            owner.hits.increment();
+            return (V) value;
+        }
+
+        public void put(int chunkX, int chunkZ, V value) {
+            if (value == null) {
+                remove(chunkX, chunkZ);
+                return;
+            }
+            store(chunkX, chunkZ, value, false);
+        }
+
+        /**
+         * 仅在键不存在（或已过期）时写入
+         *
+         * @return 已存在的值或新写入的值
+         */
+        public V putIfAbsent(int chunkX, int chunkZ, V value) {
+            return store(chunkX, chunkZ, Objects.requireNonNull(value, "value"), true);
+        }
+
+        /**
+         * 计算并缓存值
+         * 计算在锁之外进行；并发请求同一键时只有一个线程计算，其余线程等待其结果。
+         *
+         * @param chunkX 区块X
+         * @param chunkZ 区块Z
+         * @param loader 计算函数
+         * @return 缓存值或新计算的值
+         */
+        public V computeIfAbsent(int chunkX, int chunkZ, Loader<? extends V> loader) {
+            V cached = get(chunkX, chunkZ);
+            if (cached != null) {
+                return cached;
+            }
+            return loads.run(key(chunkX, chunkZ), () -> peek(chunkX, chunkZ), () -> {
+                V computed = loader.load(chunkX, chunkZ);
+                return computed == null ? null : putIfAbsent(chunkX, chunkZ, computed);
+            });
+        }
+
+        public void remove(int chunkX, int chunkZ) {
+            long key = key(chunkX, chunkZ);
+            int hash = hash(key);
+            List<Object> buffer = owner.removalBuffer();
+            stripes[hash & (STRIPE_COUNT - 1)].remove(key, hash >>> STRIPE_SHIFT, buffer);
+            owner.notifyRemoved(buffer);
+        }
+
+        public int size() {
+            int total = 0;
+            for (Stripe stripe : stripes) {
+                total += stripe.size();
+            }
+            return total;
+        }
+
+        /**
+         * 不计入命中统计的查询
+         */
+        @SuppressWarnings("unchecked")
+        private V peek(int chunkX, int chunkZ) {
+            long key = key(chunkX, chunkZ);
+            int hash = hash(key);
+            int ttl = owner.expireAfterSeconds;
+            return (V) stripes[hash & (STRIPE_COUNT - 1)].get(key, hash >>> STRIPE_SHIFT, ttl > 0 ? now() : 0, ttl);
+        }
+
+        @SuppressWarnings("unchecked")
+        private V store(int chunkX, int chunkZ, V value, boolean onlyIfAbsent) {
+            long key = key(chunkX, chunkZ);
+            int hash = hash(key);
+            Stripe stripe = stripes[hash & (STRIPE_COUNT - 1)];
+            int ttl = owner.expireAfterSeconds;
+            List<Object> buffer = owner.removalBuffer();
+            Object stored = stripe.put(key, hash >>> STRIPE_SHIFT, value, onlyIfAbsent, now(), ttl, buffer);
+            int evicted = stripe.evictOverflow(owner.stripeLimit(owner.maxEntries), buffer);
+            if (evicted > 0) {
+                owner.evictions.add(evicted);
+            }
+            owner.notifyRemoved(buffer);
+            return (V) stored;
+        }
+    }
+
+    /**
+     * 分区值加载函数（按区块坐标计算，不分配键对象）
+     *
+     * @param <V> 值类型
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load(int chunkX, int chunkZ);
+    }
+
+    /**
+     * 开放寻址表；整体替换以保证乐观读看到的数组长度一致
+     */
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+        private final int[] written;
+        private final byte[] referenced;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.written = new int[capacity];
+            this.referenced = new byte[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int find(long key, int hash) {
+            int slot = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                if (values[slot] == null) {
+                    return -1;
+                }
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int home(long key) {
+            return (hash(key) >>> STRIPE_SHIFT) & mask;
+        }
+    }
+
+    /**
+     * 条带；修改操作把被移除的值放入调用方提供的列表（可为 null），由调用方在释放锁后回调
+     */
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private Table table = new Table(INITIAL_CAPACITY);
+        private int size;
+        private int hand;
+
+        private Object get(long key, int hash, int now, int ttl) {
+            long stamp = lock.tryOptimisticRead();
+            Table current = table;
+            int slot = current.find(key, hash);
+            Object value = slot < 0 ? null : current.values[slot];
+            int written = slot < 0 ? 0 : current.written[slot];
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    current = table;
+                    slot = current.find(key, hash);
+                    value = slot < 0 ? null : current.values[slot];
+                    written = slot < 0 ? 0 : current.written[slot];
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            if (value == null || (ttl > 0 && now - written > ttl)) {
+                return null;
+            }
+            // 引用位仅为淘汰提示，竞态写入无害
+            current.referenced[slot] = 1;
+            return value;
+        }
+
+        private Object put(long key, int hash, Object value, boolean onlyIfAbsent, int now, int ttl,
+                           List<Object> removed) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                int slot = current.find(key, hash);
+                if (slot >= 0) {
+                    boolean live = ttl <= 0 || now - current.written[slot] <= ttl;
+                    if (onlyIfAbsent && live) {
+                        return current.values[slot];
+                    }
+                    Object previous = current.values[slot];
+                    if (previous != value && removed != null) {
+                        removed.add(previous);
+                    }
+                    current.values[slot] = value;
+                    current.written[slot] = now;
+                    current.referenced[slot] = 1;
+                    return value;
+                }
+                if ((size + 1) * 2 > current.keys.length) {
+                    current = grow(current);
+                }
+                slot = hash & current.mask;
+                while (current.values[slot] != null) {
+                    slot = (slot + 1) & current.mask;
+                }
+                current.keys[slot] = key;
+                current.written[slot] = now;
+                current.referenced[slot] = 0;
+                current.values[slot] = value;
+                size++;
+                return value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void remove(long key, int hash, List<Object> removed) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.find(key, hash);
+                if (slot >= 0) {
+                    removeAt(table, slot, removed);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void collectValues(List<Object> out) {
+            long stamp = lock.readLock();
+            try {
+                for (Object value : table.values) {
+                    if (value != null) {
+                        out.add(value);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * CLOCK 淘汰：带引用位的条目获得一次豁免
+         */
+        private int evictOverflow(int limit, List<Object> removed) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                int evicted = 0;
+                while (size > limit) {
+                    int slot = hand & current.mask;
+                    if (current.values[slot] == null) {
+                        hand++;
+                    } else if (current.referenced[slot] != 0) {
+                        current.referenced[slot] = 0;
+                        hand++;
+                    } else {
+                        removeAt(current, slot, removed);
+                        evicted++;
+                    }
+                }
+                return evicted;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int removeExpired(int now, int ttl, List<Object> removed) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                int count = 0;
+                int slot = 0;
+                while (slot <= current.mask) {
+                    if (current.values[slot] != null && now - current.written[slot] > ttl) {
+                        removeAt(current, slot, removed);
+                        count++;
+                    } else {
+                        slot++;
+                    }
+                }
+                return count;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private Table grow(Table old) {
+            Table grown = new Table(old.keys.length << 1);
+            for (int i = 0; i <= old.mask; i++) {
+                if (old.values[i] == null) {
+                    continue;
+                }
+                int slot = grown.home(old.keys[i]);
+                while (grown.values[slot] != null) {
+                    slot = (slot + 1) & grown.mask;
+                }
+                grown.keys[slot] = old.keys[i];
+                grown.values[slot] = old.values[i];
+                grown.written[slot] = old.written[i];
+                grown.referenced[slot] = old.referenced[i];
+            }
+            table = grown;
+            return grown;
+        }
+
+        /**
+         * 删除并回移后续探测链，保持无墓碑的线性探测
+         */
+        private void removeAt(Table current, int slot, List<Object> removed) {
+            if (removed != null) {
+                removed.add(current.values[slot]);
+            }
+            int mask = current.mask;
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (current.values[next] == null) {
+                    break;
+                }
+                int home = current.home(current.keys[next]);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    current.keys[hole] = current.keys[next];
+                    current.values[hole] = current.values[next];
+                    current.written[hole] = current.written[next];
+                    current.referenced[hole] = current.referenced[next];
+                    hole = next;
+                }
+            }
+            current.values[hole] = null;
+            current.keys[hole] = 0L;
+            size--;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.during.cityloader.util;
+
+/**
+ * 受 {@link CacheRegistry} 统一管理的缓存
+ * 提供预算调整、过期清理、按世界失效与统计快照。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public interface ManagedCache {
+
+    String getName();
+
+    int getApproxEntryBytes();
+
+    int getMaxEntries();
+
+    /**
+     * 调整预算
+     *
+     * @param maxEntries 最大条目数
+     * @param expireAfterSeconds 写入后存活秒数（<=0 表示不过期）
+     */
+    void resize(int maxEntries, int expireAfterSeconds);
+
+    /**
+     * 清空缓存（不重置统计计数）
+     */
+    void clear();
+
+    /**
+     * 获取缓存条目数量
+     *
+     * @return 条目数量
+     */
+    int size();
+
+    /**
+     * 清理过期条目
+     *
+     * @return 清理的条目数量
+     */
+    int cleanup();
+
+    /**
+     * 收缩到指定条目数
+     *
+     * @param targetEntries 目标条目数
+     * @return 淘汰的条目数量
+     */
+    int trimTo(int targetEntries);
+
+    /**
+     * 使指定分区（世界）的所有条目失效
+     *
+     * @param partition 分区标识
+     * @return 移除的条目数量
+     */
+    int invalidatePartition(String partition);
+
+    /**
+     * 获取统计快照
+     *
+     * @return 统计信息
+     */
+    BoundedCache.Stats stats();
+}
@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -15,6 +16,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -43,6 +45,8 @@ public class PaperResourceLoader {
     private static final String LOSTCITIES_SCOPE = "lostcities";
     private static volatile List<Path> externalDataRoots = List.of();
     private static volatile List<AssetConflict> lastScanConflicts = List.of();
+    private static volatile AssetIndex assetIndex;
+    private static volatile Path bundleFile;
 
     /**
      * 资产描述信息
@@ -55,9 +59,15 @@ public class PaperResourceLoader {
         private final String resourcePath;
         private final int priority;
         private final boolean external;
+        private final ByteBuffer payload;
 
         private AssetDescriptor(ResourceLocation location, String folder, String name, String sourcePack,
                 String resourcePath, int priority, boolean external) {
+            this(location, folder, name, sourcePack, resourcePath, priority, external, null);
+        }
+
+        AssetDescriptor(ResourceLocation location, String folder, String name, String sourcePack,
+                String resourcePath, int priority, boolean external, ByteBuffer payload) {
             this.location = location;
             this.folder = folder;
             this.name = name;
@@ -65,6 +75,7 @@ public class PaperResourceLoader {
             this.resourcePath = resourcePath;
             this.priority = priority;
             this.external = external;
+            this.payload = payload;
         }
 
         public ResourceLocation getLocation() {
@@ -101,7 +112,16 @@ public class PaperResourceLoader {
 
         public String describeSource() {
             String type = external ? "external" : "classpath";
-            return type + ":" + sourcePack + ":" + resourcePath;
+            return (payload != null ? "bundle/" : "") + type + ":" + sourcePack + ":" + resourcePath;
+        }
+
+        /**
+         * 是否已由预编译资产包提供内容
+         *
+         * @return 内容来自资产包时返回true
+         */
+        public boolean isBundled() {
+            return payload != null;
         }
     }
 
@@ -117,7 +137,7 @@ public class PaperResourceLoader {
         private final String overridingSourcePack;
         private final String overridingResourcePath;
 
-        private AssetConflict(ResourceLocation location, String folder, String name, String overriddenSourcePack,
+        AssetConflict(ResourceLocation location, String folder, String name, String overriddenSourcePack,
                 String overriddenResourcePath, String overridingSourcePack, String overridingResourcePath) {
             this.location = location;
             this.folder = folder;
@@ -221,6 +241,17 @@ public class PaperResourceLoader {
             return null;
         }
         String dependency = dependencyChain == null || dependencyChain.isBlank() ? "direct" : dependencyChain;
+        if (descriptor.payload != null) {
+            try (InputStreamReader reader = AssetBundle.openReader(descriptor.payload)) {
+                return GSON.fromJson(reader, clazz);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warning("加载资产失败: source=bundle path=" + descriptor.getResourcePath()
+                        + " asset=" + descriptor.getLocation()
+                        + " dependency=" + dependency
+                        + " error=" + e.getMessage());
+                return null;
+            }
+        }
         return loadAssetFromResourcePath(descriptor.getResourcePath(), clazz, descriptor.getLocation().toString(), dependency);
     }
 
@@ -249,6 +280,7 @@ public class PaperResourceLoader {
 
     /**
      * 扫描指定类型资产，来源为插件内置/data目录
+     * 结果取自一次性构建的全量资产索引，不再逐类型重新遍历 jar 与外部目录。
      *
      * @param world 世界（兼容参数，当前不使用）
      * @param folder 资产目录（如"palettes"）
@@ -260,25 +292,140 @@ public class PaperResourceLoader {
             return List.of();
         }
 
-        String cleanFolder = normalizePathComponent(folder);
-        Map<String, AssetDescriptor> merged = new LinkedHashMap<>();
-        List<AssetConflict> conflicts = new ArrayList<>();
+        FolderIndex folderIndex = index().folders().get(normalizePathComponent(folder));
+        if (folderIndex == null) {
+            lastScanConflicts = List.of();
+            return List.of();
+        }
+        lastScanConflicts = folderIndex.conflicts();
+        return folderIndex.descriptors();
+    }
+
+    /**
+     * 获取指定资产目录的覆盖冲突信息
+     *
+     * @param folder 资产目录
+     * @return 冲突列表
+     */
+    public static List<AssetConflict> getScanConflicts(String folder) {
+        if (folder == null || folder.isBlank()) {
+            return List.of();
+        }
+        FolderIndex folderIndex = index().folders().get(normalizePathComponent(folder));
+        return folderIndex == null ? List.of() : folderIndex.conflicts();
+    }
+
+    /**
+     * 设置预编译资产包文件
+     * 设置后建立索引时优先从资产包内存映射读取，指纹失配时重新扫描并重写资产包。
+     *
+     * @param file 资产包路径，为 null 时禁用
+     */
+    public static void setBundleFile(Path file) {
+        bundleFile = file == null ? null : file.toAbsolutePath().normalize();
+        invalidateIndex();
+    }
+
+    /**
+     * 使资产索引失效，下次扫描时重新遍历数据源（资源重载或外部目录变化时调用）
+     */
+    public static void invalidateIndex() {
+        assetIndex = null;
+    }
 
-        List<AssetDescriptor> descriptors = new ArrayList<>();
+    /**
+     * 获取索引中的资产文件总数（合并覆盖前）
+     *
+     * @return 文件数
+     */
+    public static int getIndexedFileCount() {
+        return index().fileCount();
+    }
+
+    private static AssetIndex index() {
+        AssetIndex current = assetIndex;
+        if (current == null) {
+            synchronized (PaperResourceLoader.class) {
+                current = assetIndex;
+                if (current == null) {
+                    current = buildIndex();
+                    assetIndex = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static AssetIndex buildIndex() {
+        Path bundle = bundleFile;
+        if (bundle == null) {
+            return scanIndex();
+        }
+
+        long fingerprint = AssetBundle.fingerprint(getCodeSourcePath(), externalDataRoots);
+        Map<String, FolderIndex> bundled = AssetBundle.open(bundle, fingerprint);
+        if (bundled != null) {
+            return new AssetIndex(Map.copyOf(bundled), countDescriptors(bundled));
+        }
+
+        AssetIndex scanned = scanIndex();
+        if (AssetBundle.write(bundle, fingerprint, scanned.folders(), PaperResourceLoader::readPayload)) {
+            LOGGER.info("已重建预编译资产包: " + bundle + " (" + scanned.fileCount() + " 个文件)");
+            bundled = AssetBundle.open(bundle, fingerprint);
+            if (bundled != null) {
+                return new AssetIndex(Map.copyOf(bundled), scanned.fileCount());
+            }
+        }
+        return scanned;
+    }
+
+    private static int countDescriptors(Map<String, FolderIndex> folders) {
+        int count = 0;
+        for (FolderIndex folder : folders.values()) {
+            count += folder.descriptors().size();
+        }
+        return count;
+    }
+
+    private static byte[] readPayload(AssetDescriptor descriptor) throws IOException {
+        String resourcePath = descriptor.getResourcePath();
+        if (resourcePath.startsWith("external:")) {
+            return Files.readAllBytes(Paths.get(resourcePath.substring("external:".length())));
+        }
+        try (InputStream stream = PaperResourceLoader.class.getClassLoader().getResourceAsStream(resourcePath)) {
+            return stream == null ? null : stream.readAllBytes();
+        }
+    }
+
+    private static AssetIndex scanIndex() {
+        Map<String, List<AssetDescriptor>> byFolder = new HashMap<>();
+        int fileCount = 0;
         for (ClasspathJsonResource jsonResource : scanClasspathJsonResources()) {
-            AssetDescriptor descriptor = toDescriptor(jsonResource, cleanFolder);
+            AssetDescriptor descriptor = toDescriptor(jsonResource);
             if (descriptor != null) {
-                descriptors.add(descriptor);
+                byFolder.computeIfAbsent(descriptor.getFolder(), key -> new ArrayList<>()).add(descriptor);
+                fileCount++;
             }
         }
 
         for (ExternalJsonResource jsonResource : scanExternalJsonResources()) {
-            AssetDescriptor descriptor = toDescriptor(jsonResource, cleanFolder);
+            AssetDescriptor descriptor = toDescriptor(jsonResource);
             if (descriptor != null) {
-                descriptors.add(descriptor);
+                byFolder.computeIfAbsent(descriptor.getFolder(), key -> new ArrayList<>()).add(descriptor);
+                fileCount++;
             }
         }
 
+        Map<String, FolderIndex> folders = new HashMap<>();
+        for (Map.Entry<String, List<AssetDescriptor>> entry : byFolder.entrySet()) {
+            folders.put(entry.getKey(), mergeDescriptors(entry.getValue()));
+        }
+        return new AssetIndex(Map.copyOf(folders), fileCount);
+    }
+
+    private static FolderIndex mergeDescriptors(List<AssetDescriptor> descriptors) {
+        Map<String, AssetDescriptor> merged = new LinkedHashMap<>();
+        List<AssetConflict> conflicts = new ArrayList<>();
         for (AssetDescriptor descriptor : descriptors) {
             String key = descriptor.getLocation().toString();
             AssetDescriptor previous = merged.get(key);
@@ -302,8 +449,7 @@ public class PaperResourceLoader {
 
         List<AssetDescriptor> result = new ArrayList<>(merged.values());
         result.sort(Comparator.comparing(d -> d.getLocation().toString()));
-        lastScanConflicts = List.copyOf(conflicts);
-        return result;
+        return new FolderIndex(List.copyOf(result), List.copyOf(conflicts));
     }
 
     /**
@@ -323,6 +469,7 @@ public class PaperResourceLoader {
     public static void setExternalDataRoot(Path dataRoot) {
         if (dataRoot == null) {
             externalDataRoots = List.of();
+            invalidateIndex();
             return;
         }
         setExternalDataRoots(List.of(dataRoot));
@@ -336,6 +483,7 @@ public class PaperResourceLoader {
     public static void setExternalDataRoots(List<Path> dataRoots) {
         if (dataRoots == null || dataRoots.isEmpty()) {
             externalDataRoots = List.of();
+            invalidateIndex();
             return;
         }
 
@@ -350,6 +498,7 @@ public class PaperResourceLoader {
             }
         }
         externalDataRoots = normalized.isEmpty() ? List.of() : List.copyOf(normalized);
+        invalidateIndex();
     }
 
     /**
@@ -409,7 +558,7 @@ public class PaperResourceLoader {
         }
     }
 
-    private static AssetDescriptor toDescriptor(ClasspathJsonResource resource, String cleanFolder) {
+    private static AssetDescriptor toDescriptor(ClasspathJsonResource resource) {
         String resourcePath = normalizePathComponent(resource.resourcePath());
         if (!resourcePath.startsWith(DATA_ROOT + "/") || !resourcePath.endsWith(".json")) {
             return null;
@@ -435,7 +584,8 @@ public class PaperResourceLoader {
             priority = 1;
         }
 
-        if (!cleanFolder.equals(parts[folderIndex])) {
+        String folder = parts[folderIndex];
+        if (folder.isBlank()) {
             return null;
         }
 
@@ -454,7 +604,7 @@ public class PaperResourceLoader {
 
         return new AssetDescriptor(
                 location,
-                cleanFolder,
+                folder,
                 name,
                 resource.sourcePack(),
                 resourcePath,
@@ -462,7 +612,7 @@ public class PaperResourceLoader {
                 false);
     }
 
-    private static AssetDescriptor toDescriptor(ExternalJsonResource resource, String cleanFolder) {
+    private static AssetDescriptor toDescriptor(ExternalJsonResource resource) {
         String resourcePath = normalizePathComponent(resource.resourcePath());
         if (!resourcePath.endsWith(".json")) {
             return null;
@@ -488,7 +638,8 @@ public class PaperResourceLoader {
             priority = 2;
         }
 
-        if (!cleanFolder.equals(parts[folderIndex])) {
+        String folder = parts[folderIndex];
+        if (folder.isBlank()) {
             return null;
         }
 
@@ -508,7 +659,7 @@ public class PaperResourceLoader {
         String absolutePath = "external:" + resource.absolutePath();
         return new AssetDescriptor(
                 location,
-                cleanFolder,
+                folder,
                 name,
                 resource.sourcePack(),
                 absolutePath,
@@ -693,4 +844,10 @@ public class PaperResourceLoader {
 
     private record ExternalJsonResource(String sourcePack, String resourcePath, String absolutePath, int priority) {
     }
+
+    record FolderIndex(List<AssetDescriptor> descriptors, List<AssetConflict> conflicts) {
+    }
+
+    private record AssetIndex(Map<String, FolderIndex> folders, int fileCount) {
+    }
 }
@@ -0,0 +1,77 @@
+package com.during.cityloader.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 按键合并的并发计算
+ * 同一键同一时刻只有一个线程执行计算，其余线程等待并取得同一结果，
+ * 避免缓存未命中时多个生成线程重复计算同一区块。
+ *
+ * <p>计算不持有任何缓存锁，映射函数可以递归访问缓存中的其他键；
+ * 同一线程在计算中再次请求同一键时直接计算（不等待自己）。</p>
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ *
+ * @author During
+ * @since 1.4.1
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Call<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 执行或加入对指定键的计算
+     *
+     * @param key     键
+     * @param lookup  取得计算权后的再次查询（期间其他线程可能已写入），返回 null 表示仍需计算
+     * @param compute 计算并写入缓存，返回最终缓存的值
+     * @return 结果
+     */
+    V run(K key, Supplier<? extends V> lookup, Supplier<? extends V> compute) {
+        Call<V> call = new Call<>(Thread.currentThread());
+        Call<V> running = calls.putIfAbsent(key, call);
+        if (running != null) {
+            return running.owner == Thread.currentThread() ? compute.get() : running.await();
+        }
+        try {
+            V value = lookup.get();
+            if (value == null) {
+                value = compute.get();
+            }
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    private static final class Call<V> extends CompletableFuture<V> {
+        private final Thread owner;
+
+        private Call(Thread owner) {
+            this.owner = owner;
+        }
+
+        private V await() {
+            try {
+                return join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+}
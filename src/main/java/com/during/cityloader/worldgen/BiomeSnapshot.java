@@ -0,0 +1,91 @@
+package com.during.cityloader.worldgen;
+
+import org.bukkit.block.Biome;
+import org.bukkit.generator.LimitedRegion;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 单个区块的生物群系采样网格
+ * 在区块生成期间从 {@link LimitedRegion} 按 4x4x4 单元（与原版生物群系存储粒度一致）按需采样，
+ * 每个单元只读取一次，供同一区块的所有生成阶段共享。
+ *
+ * <p>并行阶段在多个线程上共享同一网格：单元以原子引用发布，
+ * 同一单元可能被并发重复采样，但只有先完成的一次写入并计数。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+final class BiomeSnapshot {
+
+    private final LimitedRegion region;
+    private final int baseX;
+    private final int baseZ;
+    private final int minY;
+    private final int maxY;
+    private final int cellsY;
+    private final AtomicReferenceArray<Biome> cells;
+    private final AtomicInteger sampled = new AtomicInteger();
+
+    /**
+     * 构造采样网格
+     *
+     * @param region 当前生成区域
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     * @param minY   世界最低高度
+     * @param maxY   世界最高高度（不含）
+     */
+    BiomeSnapshot(LimitedRegion region, int chunkX, int chunkZ, int minY, int maxY) {
+        this.region = region;
+        this.baseX = chunkX << 4;
+        this.baseZ = chunkZ << 4;
+        this.minY = minY;
+        this.maxY = Math.max(minY, maxY - 1);
+        this.cellsY = Math.max(1, (this.maxY - minY + 4) >> 2);
+        this.cells = new AtomicReferenceArray<>(cellsY << 4);
+    }
+
+    /**
+     * 判断坐标是否位于本区块内
+     *
+     * @param x 方块X
+     * @param z 方块Z
+     * @return 位于本区块时返回true
+     */
+    boolean contains(int x, int z) {
+        return ((x - baseX) >>> 4) == 0 && ((z - baseZ) >>> 4) == 0;
+    }
+
+    /**
+     * 获取生物群系（调用方需先确认 {@link #contains(int, int)}）
+     *
+     * @param x 方块X
+     * @param y 方块Y，超出世界高度时取边界单元
+     * @param z 方块Z
+     * @return 生物群系
+     */
+    Biome get(int x, int y, int z) {
+        int clampedY = Math.max(minY, Math.min(maxY, y));
+        int index = (((clampedY - minY) >> 2) << 4) | (((x - baseX) >> 2) << 2) | ((z - baseZ) >> 2);
+        Biome biome = cells.get(index);
+        if (biome == null) {
+            biome = region.getBiome(x, clampedY, z);
+            if (biome == null || !cells.compareAndSet(index, null, biome)) {
+                return biome == null ? null : cells.get(index);
+            }
+            sampled.incrementAndGet();
+        }
+        return biome;
+    }
+
+    /**
+     * 已采样的单元数量
+     *
+     * @return 单元数
+     */
+    int sampledCells() {
+        return sampled.get();
+    }
+}
@@ -0,0 +1,372 @@
+package com.during.cityloader.worldgen;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.block.data.BlockData;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 方块定义全局驻留表
+ * 将方块定义字符串解析为 BlockData，并在所有生成上下文之间共享同一实例。
+ *
+ * <p>驻留的 BlockData 会被多个区块与线程同时引用，调用方不得修改；
+ * 需要修改状态时应先 clone。资源重载或服务器实例变化时整表失效，
+ * 依赖驻留结果的缓存可通过 {@link #generation()} 判断是否需要重建。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class BlockDataInterner {
+
+    private static final int MAX_ENTRIES = 65536;
+    private static final Object UNRESOLVED = new Object();
+
+    private static final ConcurrentHashMap<String, Object> TABLE = new ConcurrentHashMap<>();
+    // 各材质的默认状态，按 ordinal 索引；失效时整体替换
+    private static volatile AtomicReferenceArray<BlockData> defaults = new AtomicReferenceArray<>(Material.values().length);
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static volatile Server owner;
+
+    // 将常见模组方块名降级到可用的原版材质，避免解析失败导致建筑细节丢失
+    private static final Map<String, String> NON_VANILLA_BLOCK_ALIASES = Map.ofEntries(
+            // immersive_weathering
+            Map.entry("charred_planks", "oak_planks"),
+            Map.entry("charred_slab", "oak_slab"),
+            Map.entry("charred_stairs", "oak_stairs"),
+            Map.entry("cracked_bricks", "cracked_stone_bricks"),
+            Map.entry("cracked_deepslate_brick_slab", "deepslate_brick_slab"),
+            Map.entry("cracked_stone_brick_wall", "stone_brick_wall"),
+            Map.entry("cut_iron", "iron_block"),
+            Map.entry("exposed_iron_bars", "iron_bars"),
+            Map.entry("weathered_iron_bars", "iron_bars"),
+            Map.entry("rusted_iron_bars", "iron_bars"),
+            Map.entry("waxed_iron_door", "iron_door"),
+            Map.entry("mossy_brick_slab", "stone_brick_slab"),
+            Map.entry("mossy_bricks", "stone_bricks"),
+            Map.entry("mossy_stone", "cobblestone"),
+            Map.entry("mossy_stone_slab", "cobblestone_slab"),
+            Map.entry("mossy_stone_stairs", "cobblestone_stairs"),
+            Map.entry("mossy_stone_wall", "cobblestone_wall"),
+            Map.entry("stone_wall", "stone_brick_wall"),
+            // pomkotsmechs
+            Map.entry("pomkotscube", "iron_block"),
+            Map.entry("mechworkbench", "crafting_table")
+    );
+
+    private BlockDataInterner() {
+    }
+
+    /**
+     * 获取方块定义对应的驻留 BlockData
+     *
+     * @param definition 方块定义字符串（支持 Minecraft 格式，如 "stone_bricks" 或 "oak_stairs[facing=north]"）
+     * @return 共享的 BlockData，解析失败返回 null
+     */
+    public static BlockData intern(String definition) {
+        if (definition == null || definition.isBlank()) {
+            return null;
+        }
+        checkOwner();
+
+        String key = definition.trim();
+        Object cached = TABLE.get(key);
+        if (cached != null) {
+            HITS.increment();
+            return cached == UNRESOLVED ? null : (BlockData) cached;
+        }
+
+        MISSES.increment();
+        BlockData parsed = parse(key);
+        if (TABLE.size() >= MAX_ENTRIES) {
+            clear();
+        }
+        Object existing = TABLE.putIfAbsent(key, parsed == null ? UNRESOLVED : parsed);
+        if (existing != null) {
+            return existing == UNRESOLVED ? null : (BlockData) existing;
+        }
+        return parsed;
+    }
+
+    /**
+     * 获取材质默认状态的驻留 BlockData
+     * 按材质写入方块时使用，同一材质的多次写入共享同一实例，区块缓冲的调色板不会因此增长。
+     *
+     * @param material 方块材质
+     * @return 共享的 BlockData，材质为 null 时返回 null
+     */
+    public static BlockData intern(Material material) {
+        if (material == null) {
+            return null;
+        }
+        checkOwner();
+
+        AtomicReferenceArray<BlockData> table = defaults;
+        BlockData cached = table.get(material.ordinal());
+        if (cached != null) {
+            HITS.increment();
+            return cached;
+        }
+        MISSES.increment();
+        BlockData created = material.createBlockData();
+        return table.compareAndSet(material.ordinal(), null, created) ? created : table.get(material.ordinal());
+    }
+
+    /**
+     * 清空驻留表（资源重载时调用）
+     */
+    public static void clear() {
+        TABLE.clear();
+        defaults = new AtomicReferenceArray<>(Material.values().length);
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * 当前驻留表代数，每次失效后递增
+     *
+     * @return 代数
+     */
+    public static int generation() {
+        checkOwner();
+        return GENERATION.get();
+    }
+
+    public static int size() {
+        return TABLE.size();
+    }
+
+    public static long hits() {
+        return HITS.sum();
+    }
+
+    public static long misses() {
+        return MISSES.sum();
+    }
+
+    private static void checkOwner() {
+        Server server = Bukkit.getServer();
+        if (server != owner) {
+            synchronized (BlockDataInterner.class) {
+                if (server != owner) {
+                    owner = server;
+                    clear();
+                }
+            }
+        }
+    }
+
+    private static BlockData parse(String cacheKey) {
+        String normalized = cacheKey.toLowerCase(Locale.ROOT);
+
+        // 优先按完整定义解析（保留状态）
+        BlockData result = tryCreateBlockData(normalized);
+        if (result == null && !normalized.contains(":")) {
+            result = tryCreateBlockData("minecraft:" + normalized);
+        }
+        if (result == null && !cacheKey.equals(normalized)) {
+            result = tryCreateBlockData(cacheKey);
+        }
+
+        // 回退：仅按材料解析（丢失状态）
+        if (result == null) {
+            result = tryCreateMaterialBlockData(normalized);
+        }
+        if (result != null && shouldUseDefaultConnectivity(result.getMaterial())) {
+            result = recreateWithDefaultState(result.getMaterial(), result);
+        }
+
+        return result;
+    }
+
+    private static boolean shouldUseDefaultConnectivity(Material material) {
+        if (material == null) {
+            return false;
+        }
+        String name = material.name();
+        return name.endsWith("_PANE")
+                || name.endsWith("_FENCE")
+                || name.endsWith("_WALL")
+                || material == Material.IRON_BARS
+                || material == Material.CHAIN;
+    }
+
+    private static BlockData recreateWithDefaultState(Material material, BlockData fallback) {
+        try {
+            return material.createBlockData();
+        } catch (Exception ignored) {
+            return fallback;
+        }
+    }
+
+    private static BlockData tryCreateBlockData(String definition) {
+        try {
+            return Bukkit.createBlockData(definition);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private static BlockData tryCreateMaterialBlockData(String normalizedDefinition) {
+        String materialId = normalizedDefinition;
+        int stateIndex = materialId.indexOf('[');
+        if (stateIndex >= 0) {
+            materialId = materialId.substring(0, stateIndex);
+        }
+
+        Material material = Material.matchMaterial(materialId);
+        if (material == null) {
+            int colon = materialId.indexOf(':');
+            String simple = colon >= 0 ? materialId.substring(colon + 1) : materialId;
+            material = Material.matchMaterial(simple);
+        }
+        if (material == null) {
+            material = resolveAliasedMaterial(materialId);
+        }
+        if (material == null) {
+            return null;
+        }
+
+        try {
+            return material.createBlockData();
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * 将模组或未知方块名解析为可用的原版材质
+     *
+     * @param materialId 方块ID（可带命名空间）
+     * @return 材质，无法识别时返回 null
+     */
+    public static Material resolveAliasedMaterial(String materialId) {
+        if (materialId == null || materialId.isBlank()) {
+            return null;
+        }
+
+        int colon = materialId.indexOf(':');
+        String path = colon < 0
+                ? materialId.toLowerCase(Locale.ROOT)
+                : materialId.substring(colon + 1).toLowerCase(Locale.ROOT);
+        if (path.isBlank()) {
+            return null;
+        }
+
+        String directAlias = NON_VANILLA_BLOCK_ALIASES.get(path);
+        Material material = matchMaterial(directAlias);
+        if (material != null) {
+            return material;
+        }
+
+        material = matchMaterial(bestTokenAlias(path));
+        if (material != null) {
+            return material;
+        }
+
+        if (path.contains("iron_bars")) {
+            return Material.IRON_BARS;
+        }
+        if (path.contains("iron_door")) {
+            return Material.IRON_DOOR;
+        }
+        if (path.contains("stairs")) {
+            return Material.OAK_STAIRS;
+        }
+        if (path.contains("slab")) {
+            return Material.OAK_SLAB;
+        }
+        if (path.contains("planks")) {
+            return Material.OAK_PLANKS;
+        }
+        if (path.contains("wall")) {
+            return Material.STONE_BRICK_WALL;
+        }
+        if (path.contains("brick")) {
+            return Material.STONE_BRICKS;
+        }
+        if (path.contains("cube")) {
+            return Material.IRON_BLOCK;
+        }
+        return pickRuinFallbackMaterial(path);
+    }
+
+    /**
+     * 未识别材质统一回退：
+     * 接近 LostCities 的中性石材，不再偏苔藓风格。
+     *
+     * @param key 方块路径
+     * @return 回退材质
+     */
+    public static Material pickRuinFallbackMaterial(String key) {
+        int roll = Math.floorMod(key.hashCode(), 100);
+        if (roll < 45) {
+            return Material.STONE_BRICKS;
+        }
+        if (roll < 65) {
+            return Material.STONE;
+        }
+        if (roll < 80) {
+            return Material.COBBLESTONE;
+        }
+        if (roll < 92) {
+            return Material.ANDESITE;
+        }
+        return Material.DEEPSLATE;
+    }
+
+    private static String bestTokenAlias(String path) {
+        String[] tokens = path.split("_");
+        if (tokens.length <= 1) {
+            return null;
+        }
+
+        Set<String> candidates = new LinkedHashSet<>();
+        candidates.add(path);
+        for (int start = 0; start < tokens.length; start++) {
+            for (int end = tokens.length; end > start; end--) {
+                if (end - start == tokens.length) {
+                    continue;
+                }
+                candidates.add(joinTokens(tokens, start, end));
+            }
+        }
+
+        for (String candidate : candidates) {
+            if (candidate == null || candidate.isBlank()) {
+                continue;
+            }
+            if (Material.matchMaterial(candidate) != null) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String joinTokens(String[] tokens, int startInclusive, int endExclusive) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = startInclusive; i < endExclusive; i++) {
+            if (i > startInclusive) {
+                sb.append('_');
+            }
+            sb.append(tokens[i]);
+        }
+        return sb.toString();
+    }
+
+    private static Material matchMaterial(String candidate) {
+        if (candidate == null || candidate.isBlank()) {
+            return null;
+        }
+        return Material.matchMaterial(candidate);
+    }
+}
@@ -0,0 +1,96 @@
+package com.during.cityloader.worldgen;
+
+import com.during.cityloader.config.DeferredConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应单区块生成预算
+ * 区块生成时超过预算的非核心阶段会被延后（见 {@link com.during.cityloader.worldgen.gen.StageContinuationQueue}）。
+ * 预算每秒按服务器平均 MSPT 调整：超过目标时减半，低于目标的 80% 时逐步放宽，
+ * 始终位于配置的上下限之间。
+ *
+ * <p>兼容旧的 {@code -Dcityloader.maxChunkGenMs}：设置为正数时使用该固定预算。
+ * 插件调用 {@link #configure(DeferredConfig)} 之前（如单元测试）不限制。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class ChunkBudget {
+
+    private static final long FIXED_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Long.getLong("cityloader.maxChunkGenMs", 0L));
+
+    private static volatile DeferredConfig config = DeferredConfig.defaults();
+    private static volatile boolean configured;
+    private static volatile long budgetNanos = TimeUnit.MILLISECONDS.toNanos(DeferredConfig.DEFAULT_MAX_CHUNK_BUDGET_MS);
+
+    private ChunkBudget() {
+    }
+
+    /**
+     * 应用配置，预算重置为上限
+     *
+     * @param deferredConfig 延后阶段配置
+     */
+    public static void configure(DeferredConfig deferredConfig) {
+        config = deferredConfig == null ? DeferredConfig.defaults() : deferredConfig;
+        budgetNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxChunkBudgetMs());
+        configured = true;
+    }
+
+    /**
+     * 恢复到未配置状态（不限制）
+     */
+    static void reset() {
+        config = DeferredConfig.defaults();
+        budgetNanos = TimeUnit.MILLISECONDS.toNanos(DeferredConfig.DEFAULT_MAX_CHUNK_BUDGET_MS);
+        configured = false;
+    }
+
+    public static DeferredConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 当前单区块预算
+     *
+     * @return 纳秒，0 表示不限制（不延后任何阶段）
+     */
+    public static long budgetNanos() {
+        if (FIXED_BUDGET_NANOS > 0L) {
+            return FIXED_BUDGET_NANOS;
+        }
+        return configured && config.isEnabled() ? budgetNanos : 0L;
+    }
+
+    /**
+     * 主线程每 tick 续跑延后阶段的时间
+     *
+     * @return 纳秒
+     */
+    public static long drainBudgetNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(config.getDrainBudgetMs());
+    }
+
+    /**
+     * 按最近测得的 MSPT 调整预算（主线程每秒调用）
+     *
+     * @param mspt 平均每 tick 毫秒数
+     * @return 调整后的预算（纳秒）
+     */
+    public static long update(double mspt) {
+        DeferredConfig current = config;
+        long min = TimeUnit.MILLISECONDS.toNanos(current.getMinChunkBudgetMs());
+        long max = TimeUnit.MILLISECONDS.toNanos(current.getMaxChunkBudgetMs());
+        long step = Math.max(TimeUnit.MILLISECONDS.toNanos(1), (max - min) / 16);
+        long budget = budgetNanos;
+        if (mspt > current.getTargetMspt()) {
+            budget = Math.max(min, budget / 2);
+        } else if (mspt < current.getTargetMspt() * 0.8) {
+            budget = Math.min(max, budget + step);
+        }
+        budgetNanos = budget;
+        return budget;
+    }
+}
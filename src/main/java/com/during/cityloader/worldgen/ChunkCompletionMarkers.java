@@ -0,0 +1,76 @@
+package com.during.cityloader.worldgen;
+
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+/**
+ * 区块补全状态标记
+ * 在区块的 {@link PersistentDataContainer} 中记录一个字节，随区块一起存盘：
+ * {@link #COMPLETE} 表示跨区块修复已全部完成，之后每次加载只需一次查表即可跳过；
+ * {@link #PENDING} 表示仍有依赖邻区块的工作（如边界藤蔓）；
+ * 没有标记的区块（升级前生成的旧区块）按待处理对待，处理一次后补写标记。
+ *
+ * <p>可通过 {@code -Dcityloader.chunkMarkers=false} 关闭，恢复每次加载都执行修复。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class ChunkCompletionMarkers {
+
+    /**
+     * 仍有跨区块工作
+     */
+    public static final byte PENDING = 1;
+
+    /**
+     * 已完成
+     */
+    public static final byte COMPLETE = 2;
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+            System.getProperty("cityloader.chunkMarkers", "true"));
+
+    private final NamespacedKey key;
+
+    public ChunkCompletionMarkers(NamespacedKey key) {
+        this.key = key;
+    }
+
+    /**
+     * 区块是否已完成跨区块修复
+     *
+     * @param chunk 已加载的区块
+     * @return 已完成时返回true
+     */
+    public boolean isComplete(Chunk chunk) {
+        if (!ENABLED) {
+            return false;
+        }
+        Byte state = chunk.getPersistentDataContainer().get(key, PersistentDataType.BYTE);
+        return state != null && state == COMPLETE;
+    }
+
+    /**
+     * 记录修复结果（状态未变时不写入，避免无谓地把区块标脏）
+     *
+     * @param chunk    已加载的区块
+     * @param complete 是否已完成
+     */
+    public void mark(Chunk chunk, boolean complete) {
+        if (!ENABLED) {
+            return;
+        }
+        PersistentDataContainer container = chunk.getPersistentDataContainer();
+        byte state = complete ? COMPLETE : PENDING;
+        Byte previous = container.get(key, PersistentDataType.BYTE);
+        if (previous == null || previous != state) {
+            container.set(key, PersistentDataType.BYTE, state);
+        }
+    }
+
+    public NamespacedKey getKey() {
+        return key;
+    }
+}
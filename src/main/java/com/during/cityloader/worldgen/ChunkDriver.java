@@ -15,6 +15,11 @@ import org.bukkit.block.data.type.Stairs;
 import org.bukkit.block.data.type.Wall;
 import org.bukkit.generator.LimitedRegion;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 
 /**
@@ -43,6 +48,22 @@ public class ChunkDriver {
     
     // 区段缓存系统
     private SectionCache cache;
+
+    // 缓冲层的下层驱动器（仅缓冲层非空），读取时本层未命中再查下层
+    private ChunkDriver base;
+    // 缓冲层在本层未命中时读取过的格子，用于合并前检查读写冲突
+    private BitSet reads;
+
+    // 本区块写入统计
+    private int regionWrites;
+    private int skippedWrites;
+    private int correctedBlocks;
+
+    // 全局写入统计
+    private static final LongAdder TOTAL_CHUNKS = new LongAdder();
+    private static final LongAdder TOTAL_REGION_WRITES = new LongAdder();
+    private static final LongAdder TOTAL_SKIPPED_WRITES = new LongAdder();
+    private static final LongAdder TOTAL_CORRECTED_BLOCKS = new LongAdder();
     
     // 日志记录器（可选）
     private CityLoaderLogger logger;
@@ -73,6 +94,9 @@ public class ChunkDriver {
             this.currentX = 0;
             this.currentY = 0;
             this.currentZ = 0;
+            this.regionWrites = 0;
+            this.skippedWrites = 0;
+            this.correctedBlocks = 0;
             
             // 初始化区段缓存
             if (region != null) {
@@ -232,7 +256,21 @@ public class ChunkDriver {
         
         int absX = x + (chunkX << 4);
         int absZ = z + (chunkZ << 4);
-        cache.putRange(absX, absZ, y1, y2 - 1, blockData, test);
+        if (base == null) {
+            cache.putRange(absX, absZ, y1, y2 - 1, blockData, test);
+            return;
+        }
+        // 缓冲层：条件按合并后的缓存内容判断
+        for (int y = y1; y < y2; y++) {
+            BlockData existing = cache.get(absX, y, absZ);
+            if (existing == null) {
+                recordRead(absX, y, absZ);
+                existing = base.cachedBlock(absX, y, absZ);
+            }
+            if (existing != null && !existing.equals(blockData) && test.test(existing)) {
+                cache.put(absX, y, absZ, blockData);
+            }
+        }
     }
     
     /**
@@ -256,6 +294,17 @@ public class ChunkDriver {
         return getBlockAbsolute(currentX, currentY, currentZ);
     }
     
+    /**
+     * 读取缓存（含下层）中的方块，不访问 LimitedRegion
+     */
+    private BlockData cachedBlock(int x, int y, int z) {
+        BlockData cached = cache == null ? null : cache.get(x, y, z);
+        if (cached == null && base != null) {
+            return base.cachedBlock(x, y, z);
+        }
+        return cached;
+    }
+
     /**
      * 获取指定位置的方块（绝对坐标）
      * 
@@ -272,6 +321,10 @@ public class ChunkDriver {
         if (cached != null) {
             return cached;
         }
+        if (base != null) {
+            recordRead(x, y, z);
+            return base.getBlockAbsolute(x, y, z);
+        }
         // 如果缓存中没有，从LimitedRegion获取
         if (region != null && region.isInRegion(x, y, z)) {
             return region.getBlockData(x, y, z);
@@ -551,16 +604,194 @@ public class ChunkDriver {
                 || neighbor instanceof Gate;
     }
     
+    /**
+     * 单次扫描区块内 [minY, maxY] 的全部格子（按区段、Y、X、Z 顺序），
+     * 把材质分类与 classMask 相交的格子交给访问器。每个格子最多读取一次，
+     * 已全部缓存且不含目标分类的区段整段跳过。访问器不应在扫描期间写入方块。
+     *
+     * @param minY      起始Y（包含）
+     * @param maxY      结束Y（包含）
+     * @param classMask 关心的材质分类（{@link MaterialClasses}）
+     * @param visitor   访问器
+     * @return 实际读取的格子数
+     */
+    public int sweep(int minY, int maxY, int classMask, CellVisitor visitor) {
+        if (cache == null) {
+            return 0;
+        }
+        int lo = Math.max(minY, cache.minY);
+        int hi = Math.min(maxY, cache.maxY - 1);
+        if (lo > hi) {
+            return 0;
+        }
+        return cache.sweep(this, lo, hi, classMask, visitor);
+    }
+
+    /**
+     * 体积扫描访问器
+     */
+    @FunctionalInterface
+    public interface CellVisitor {
+
+        /**
+         * 访问一个格子
+         *
+         * @param x         区块内X坐标
+         * @param y         Y坐标
+         * @param z         区块内Z坐标
+         * @param blockData 方块数据，区域外或未知时为 null
+         */
+        void visit(int x, int y, int z, BlockData blockData);
+    }
+
+    /**
+     * 创建叠加在本驱动器之上的缓冲层
+     * 缓冲层只写入自己的区段缓存，读取时依次查本层、本驱动器、LimitedRegion；
+     * 多个缓冲层可在不同线程并发写入，只要期间本驱动器不再写入。
+     *
+     * @return 缓冲层
+     */
+    public ChunkDriver overlay() {
+        ChunkDriver layer = new ChunkDriver();
+        layer.logger = logger;
+        layer.world = world;
+        layer.region = region;
+        layer.chunkX = chunkX;
+        layer.chunkZ = chunkZ;
+        layer.base = this;
+        if (cache != null) {
+            layer.cache = new SectionCache(world, chunkX << 4, chunkZ << 4);
+            layer.reads = new BitSet();
+        }
+        return layer;
+    }
+
+    /**
+     * 判断本缓冲层是否读取过另一缓冲层写入的格子
+     * 为真时，本层若在另一层之后顺序执行会读到不同的内容，不能与其并行合并。
+     *
+     * @param earlier 执行顺序在前的缓冲层
+     * @return 存在读写冲突时返回true
+     */
+    public boolean readsWrittenBy(ChunkDriver earlier) {
+        if (reads == null || earlier == null || earlier.cache == null) {
+            return false;
+        }
+        for (int bit = reads.nextSetBit(0); bit >= 0; bit = reads.nextSetBit(bit + 1)) {
+            int y = (bit >> 8) + cache.minY;
+            int x = (chunkX << 4) + ((bit >> 4) & 0xf);
+            int z = (chunkZ << 4) + (bit & 0xf);
+            if (earlier.cache.get(x, y, z) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordRead(int x, int y, int z) {
+        if (reads != null && y >= cache.minY && y < cache.maxY) {
+            reads.set(((y - cache.minY) << 8) | ((x & 0xf) << 4) | (z & 0xf));
+        }
+    }
+
+    /**
+     * 将缓冲层写入的方块合并到本驱动器（后合并的覆盖先合并的），并清空缓冲层
+     *
+     * @param layer 由 {@link #overlay()} 创建的缓冲层
+     */
+    public void merge(ChunkDriver layer) {
+        if (layer == null || layer.base != this || layer.cache == null) {
+            return;
+        }
+        if (cache != null) {
+            cache.mergeFrom(layer.cache);
+        }
+        layer.cache.clear();
+        layer.reads.clear();
+    }
+
     /**
      * 实际生成方块到区块
      * 将缓存的方块数据写入LimitedRegion
      */
     public void actuallyGenerate() {
         if (cache != null && region != null) {
-            cache.fixStates(this);
-            cache.generate(region);
+            int corrected = cache.fixStates(this);
+            int writes = cache.generate(region);
+            int skipped = cache.drainSkippedWrites();
+            correctedBlocks += corrected;
+            regionWrites += writes;
+            skippedWrites += skipped;
+            TOTAL_CHUNKS.increment();
+            TOTAL_REGION_WRITES.add(writes);
+            TOTAL_SKIPPED_WRITES.add(skipped);
+            TOTAL_CORRECTED_BLOCKS.add(corrected);
         }
     }
+
+    /**
+     * 获取本区块实际写入 LimitedRegion 的方块数
+     *
+     * @return 写入次数
+     */
+    public int getRegionWriteCount() {
+        return regionWrites;
+    }
+
+    /**
+     * 获取本区块因状态未变化而跳过的写入数
+     *
+     * @return 跳过次数
+     */
+    public int getSkippedWriteCount() {
+        return skippedWrites;
+    }
+
+    /**
+     * 获取本区块经过连接状态修正的方块数
+     *
+     * @return 修正次数
+     */
+    public int getCorrectedBlockCount() {
+        return correctedBlocks;
+    }
+
+    /**
+     * 获取全局写入统计快照
+     *
+     * @return 统计快照
+     */
+    public static WriteStats writeStats() {
+        return new WriteStats(
+                TOTAL_CHUNKS.sum(),
+                TOTAL_REGION_WRITES.sum(),
+                TOTAL_SKIPPED_WRITES.sum(),
+                TOTAL_CORRECTED_BLOCKS.sum());
+    }
+
+    /**
+     * 全局写入统计
+     */
+    public record WriteStats(long chunks, long regionWrites, long skippedWrites, long correctedBlocks) {
+
+        public double averageWritesPerChunk() {
+            return chunks == 0 ? 0.0 : (double) regionWrites / chunks;
+        }
+    }
+
+    /**
+     * 判断方块是否需要在写入前修正状态（连接形状或透明层）
+     *
+     * @param blockData 方块数据
+     * @return 是否需要修正
+     */
+    static boolean needsStateFix(BlockData blockData) {
+        return blockData instanceof Stairs
+                || blockData instanceof Wall
+                || blockData instanceof Fence
+                || blockData instanceof GlassPane
+                || blockData.getMaterial() == Material.STRUCTURE_VOID;
+    }
     
     /**
      * 清理缓存
@@ -601,14 +832,24 @@ public class ChunkDriver {
     /**
      * 区段缓存系统
      * 用于批量处理方块放置，提高性能
+     *
+     * <p>区段在首次写入时才分配，并通过线程本地对象池在区块之间复用；
+     * 每个区段以调色板 + 压缩索引存储（与原版区块存储方式一致）。</p>
      */
     private static class SectionCache {
+        private static final int SECTION_POOL_LIMIT = 64;
+        private static final ThreadLocal<ArrayDeque<Section>> SECTION_POOL =
+                ThreadLocal.withInitial(ArrayDeque::new);
+
         private final int minY;
         private final int maxY;
         private final int cx;
         private final int cz;
         private final Section[] sections;
+        // 各区段未写入格子（读自区域）的材质分类并集，-1 表示尚未采样
+        private final int[] regionClasses;
         private final int[][] heightmap = new int[16][16];
+        private int skippedWrites;
         
         /**
          * 构造函数
@@ -623,9 +864,10 @@ public class ChunkDriver {
             this.cx = cx;
             this.cz = cz;
             
-            // 计算区段数量（每个区段16格高）
+            // 计算区段数量（每个区段16格高），区段按需分配
             int sectionCount = (maxY - minY) / 16;
             this.sections = new Section[sectionCount];
+            this.regionClasses = new int[sectionCount];
             
             clear();
         }
@@ -649,12 +891,13 @@ public class ChunkDriver {
             int py = y & 0xf;
             int idx = toIndex(px, py, pz);
             
-            if (sections[sectionIdx].blocks[idx] == blockData) {
+            Section section = sectionForWrite(sectionIdx);
+            if (sameState(section.get(idx), blockData)) {
+                skippedWrites++;
                 return;
             }
             
-            sections[sectionIdx].blocks[idx] = blockData;
-            sections[sectionIdx].isEmpty = false;
+            section.set(idx, blockData);
             
             if (!isAir(blockData)) {
                 if (heightmap[px][pz] < y) {
@@ -679,13 +922,11 @@ public class ChunkDriver {
                 return null;
             }
             
-            int sectionIdx = (y - minY) / 16;
-            int px = x & 0xf;
-            int pz = z & 0xf;
-            int py = y & 0xf;
-            int idx = toIndex(px, py, pz);
-            
-            return sections[sectionIdx].blocks[idx];
+            Section section = sections[(y - minY) / 16];
+            if (section == null) {
+                return null;
+            }
+            return section.get(toIndex(x & 0xf, y & 0xf, z & 0xf));
         }
         
         /**
@@ -710,14 +951,14 @@ public class ChunkDriver {
             
             while (y1 <= y2 && y1 < maxY) {
                 if (y1 >= minY) {
-                    int sectionIdx = (y1 - minY) / 16;
-                    int py = y1 & 0xf;
-                    int idx = toIndex(px, py, pz);
+                    Section section = sectionForWrite((y1 - minY) / 16);
+                    int idx = toIndex(px, y1 & 0xf, pz);
                     
-                    if (sections[sectionIdx].blocks[idx] != blockData) {
+                    if (sameState(section.get(idx), blockData)) {
+                        skippedWrites++;
+                    } else {
                         dirty = true;
-                        sections[sectionIdx].blocks[idx] = blockData;
-                        sections[sectionIdx].isEmpty = false;
+                        section.set(idx, blockData);
                     }
                 }
                 y1++;
@@ -758,15 +999,14 @@ public class ChunkDriver {
             
             while (y1 <= y2 && y1 < maxY) {
                 if (y1 >= minY) {
-                    int sectionIdx = (y1 - minY) / 16;
-                    int py = y1 & 0xf;
-                    int idx = toIndex(px, py, pz);
-                    
-                    BlockData existing = sections[sectionIdx].blocks[idx];
-                    if (existing != blockData && existing != null && test.test(existing)) {
-                        dirty = true;
-                        sections[sectionIdx].blocks[idx] = blockData;
-                        sections[sectionIdx].isEmpty = false;
+                    Section section = sections[(y1 - minY) / 16];
+                    if (section != null) {
+                        int idx = toIndex(px, y1 & 0xf, pz);
+                        BlockData existing = section.get(idx);
+                        if (existing != null && !sameState(existing, blockData) && test.test(existing)) {
+                            dirty = true;
+                            section.set(idx, blockData);
+                        }
                     }
                 }
                 y1++;
@@ -785,33 +1025,106 @@ public class ChunkDriver {
         }
         
         /**
-         * 修复所有方块状态
+         * 按区段顺序扫描 [lo, hi] 内的格子，只把分类与 classMask 相交的格子交给访问器。
+         * 未写入的格子经驱动器读取；完整扫描过的区段记下这些格子的分类并集。
+         * 写入格子不会再变回未写入，区域中本区块的内容在缓冲期间也不变，
+         * 因此该并集在之后的扫描中仍覆盖全部未写入格子：它与调色板分类都不含目标分类时整段跳过。
+         *
+         * @return 实际读取的格子数
+         */
+        public int sweep(ChunkDriver driver, int lo, int hi, int classMask, CellVisitor visitor) {
+            int examined = 0;
+            for (int si = (lo - minY) >> 4; si <= (hi - minY) >> 4; si++) {
+                Section section = sections[si];
+                boolean complete = section != null && section.written == Section.SIZE;
+                int unwritten = complete ? 0 : regionClasses[si];
+                if (unwritten >= 0 && (((section == null ? 0 : section.classes) | unwritten) & classMask) == 0) {
+                    continue;
+                }
+                int baseY = si * 16 + minY;
+                int fromY = Math.max(lo, baseY) - baseY;
+                int toY = Math.min(hi, baseY + 15) - baseY;
+                int sampled = 0;
+                for (int py = fromY; py <= toY; py++) {
+                    for (int px = 0; px < 16; px++) {
+                        for (int pz = 0; pz < 16; pz++) {
+                            BlockData blockData = section == null ? null : section.get(toIndex(px, py, pz));
+                            boolean fromRegion = blockData == null;
+                            if (fromRegion) {
+                                blockData = driver.getBlockAbsolute(cx + px, baseY + py, cz + pz);
+                            }
+                            examined++;
+                            int classes = MaterialClasses.of(blockData == null ? null : blockData.getMaterial());
+                            if (fromRegion) {
+                                sampled |= classes;
+                            }
+                            if ((classes & classMask) != 0) {
+                                visitor.visit(px, baseY + py, pz, blockData);
+                            }
+                        }
+                    }
+                }
+                // 缓冲层的未写入格子还取决于下层内容，不记录
+                if (driver.base == null && fromY == 0 && toY == 15) {
+                    regionClasses[si] = sampled;
+                }
+            }
+            return examined;
+        }
+
+        /**
+         * 合并另一缓存中写入过的方块（调色板编号非 0 的格子）
+         *
+         * @param other 同一区块的缓存
+         */
+        public void mergeFrom(SectionCache other) {
+            for (int si = 0; si < other.sections.length && si < sections.length; si++) {
+                Section section = other.sections[si];
+                if (section == null) {
+                    continue;
+                }
+                int baseY = si * 16 + minY;
+                for (int idx = 0; idx < Section.SIZE; idx++) {
+                    if (section.id(idx) != 0) {
+                        put(cx + ((idx >> 4) & 0xf), baseY + (idx >> 8), cz + (idx & 0xf), section.get(idx));
+                    }
+                }
+            }
+            skippedWrites += other.skippedWrites;
+        }
+
+        /**
+         * 修复方块状态
+         * 仅访问写入过的连接敏感方块（楼梯、墙、栅栏、玻璃板）与结构空位。
          *
          * @param driver 驱动器实例（用于调用 correct）
+         * @return 状态发生变化的方块数
          */
-        public void fixStates(ChunkDriver driver) {
+        public int fixStates(ChunkDriver driver) {
+            int corrected = 0;
             for (int si = 0; si < sections.length; si++) {
                 Section section = sections[si];
-                if (!section.isEmpty) {
-                    for (int x = 0; x < 16; x++) {
-                        for (int y = 0; y < 16; y++) {
-                            for (int z = 0; z < 16; z++) {
-                                int idx = toIndex(x, y, z);
-                                BlockData original = section.blocks[idx];
-                                if (original != null) {
-                                    int worldY = si * 16 + y + minY;
-                                    int worldX = cx + x;
-                                    int worldZ = cz + z;
-                                    BlockData corrected = driver.correct(original, worldX, worldY, worldZ);
-                                    if (corrected != original) {
-                                        section.blocks[idx] = corrected;
-                                    }
-                                }
-                            }
+                if (section == null) {
+                    continue;
+                }
+                int baseY = si * 16 + minY;
+                long[] words = section.needsFix;
+                for (int w = 0; w < words.length; w++) {
+                    long word = words[w];
+                    while (word != 0L) {
+                        int idx = (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                        BlockData original = section.get(idx);
+                        BlockData fixed = driver.correct(original,
+                                cx + ((idx >> 4) & 0xf), baseY + (idx >> 8), cz + (idx & 0xf));
+                        if (!sameState(original, fixed)) {
+                            section.set(idx, fixed);
+                            corrected++;
                         }
                     }
                 }
             }
+            return corrected;
         }
 
         /**
@@ -825,13 +1138,13 @@ public class ChunkDriver {
             if (heightmap[px][pz] >= y1) {
                 int y = Math.max(heightmap[px][pz], y1);
                 while (y >= minY) {
-                    int si = (y - minY) / 16;
-                    int py = y & 0xf;
-                    int i = toIndex(px, py, pz);
-                    BlockData mat = sections[si].blocks[i];
-                    if (mat != null && !isAir(mat)) {
-                        heightmap[px][pz] = y;
-                        return;
+                    Section section = sections[(y - minY) / 16];
+                    if (section != null) {
+                        BlockData mat = section.get(toIndex(px, y & 0xf, pz));
+                        if (mat != null && !isAir(mat)) {
+                            heightmap[px][pz] = y;
+                            return;
+                        }
                     }
                     y--;
                 }
@@ -841,43 +1154,89 @@ public class ChunkDriver {
         
         /**
          * 生成方块到LimitedRegion
+         * 仅写入脏位图中标记的方块。
          * 
          * @param region 限制区域
+         * @return 实际写入的方块数
          */
-        public void generate(LimitedRegion region) {
+        public int generate(LimitedRegion region) {
+            int writes = 0;
             for (int si = 0; si < sections.length; si++) {
                 Section section = sections[si];
-                if (!section.isEmpty) {
-                    for (int x = 0; x < 16; x++) {
-                        for (int y = 0; y < 16; y++) {
-                            for (int z = 0; z < 16; z++) {
-                                BlockData blockData = section.blocks[toIndex(x, y, z)];
-                                if (blockData != null) {
-                                    int worldY = si * 16 + y + minY;
-                                    // LimitedRegion 使用绝对坐标
-                                    int worldX = cx + x;
-                                    int worldZ = cz + z;
-                                    region.setBlockData(worldX, worldY, worldZ, blockData);
-                                }
-                            }
-                        }
+                if (section == null) {
+                    continue;
+                }
+                int baseY = si * 16 + minY;
+                long[] words = section.dirty;
+                for (int w = 0; w < words.length; w++) {
+                    long word = words[w];
+                    while (word != 0L) {
+                        int idx = (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                        // LimitedRegion 使用绝对坐标
+                        region.setBlockData(cx + ((idx >> 4) & 0xf), baseY + (idx >> 8), cz + (idx & 0xf),
+                                section.get(idx));
+                        writes++;
                     }
+                    // 已写出的方块不再重复写入
+                    words[w] = 0L;
                 }
             }
+            return writes;
         }
-        
+
         /**
-         * 清理缓存
+         * 取出并清零跳过写入计数
+         *
+         * @return 跳过次数
+         */
+        public int drainSkippedWrites() {
+            int skipped = skippedWrites;
+            skippedWrites = 0;
+            return skipped;
+        }
+
+        /**
+         * 判断两次写入是否为同一方块状态
+         */
+        private static boolean sameState(BlockData existing, BlockData blockData) {
+            return existing == blockData || (existing != null && existing.equals(blockData));
+        }
+
+        /**
+         * 清理缓存，已分配的区段归还线程本地对象池
          */
         public void clear() {
+            ArrayDeque<Section> pool = SECTION_POOL.get();
             for (int si = 0; si < sections.length; si++) {
-                sections[si] = new Section();
+                Section section = sections[si];
+                if (section != null) {
+                    sections[si] = null;
+                    if (pool.size() < SECTION_POOL_LIMIT) {
+                        section.reset();
+                        pool.push(section);
+                    }
+                }
             }
             for (int x = 0; x < 16; x++) {
                 for (int z = 0; z < 16; z++) {
                     heightmap[x][z] = Integer.MIN_VALUE;
                 }
             }
+            Arrays.fill(regionClasses, -1);
+            skippedWrites = 0;
+        }
+
+        private Section sectionForWrite(int sectionIdx) {
+            Section section = sections[sectionIdx];
+            if (section == null) {
+                section = SECTION_POOL.get().poll();
+                if (section == null) {
+                    section = new Section();
+                }
+                sections[sectionIdx] = section;
+            }
+            return section;
         }
         
         /**
@@ -904,11 +1263,158 @@ public class ChunkDriver {
         
         /**
          * 区段存储
+         * 调色板编号 0 表示未写入；调色板不超过 15 项时每格占 4 位，
+         * 超出后扩展为每格 16 位。
+         * dirty 记录待写出的方块，needsFix 记录需修正状态的方块，
+         * classes 与 written 供体积扫描判断能否整段跳过。
          */
         private static class Section {
             // 16x16x16 = 4096个方块
-            private final BlockData[] blocks = new BlockData[4096];
-            private boolean isEmpty = true;
+            private static final int SIZE = 4096;
+            private static final int NIBBLE_LIMIT = 15;
+            private static final int LINEAR_SCAN_LIMIT = 16;
+            private static final int MAX_PALETTE = 0xFFFF;
+
+            private BlockData[] palette = new BlockData[16];
+            private int paletteSize = 1;
+            private final byte[] nibbles = new byte[SIZE / 2];
+            private char[] wide;
+            // 按相等性查找：不同实例但状态相同的方块共用一个调色板条目
+            private HashMap<BlockData, Integer> lookup;
+            private final long[] dirty = new long[SIZE / 64];
+            private final long[] needsFix = new long[SIZE / 64];
+            // 调色板中出现过的材质分类（{@link MaterialClasses}），只增不减
+            private int classes;
+            // 已写入的格子数
+            private int written;
+
+            private BlockData get(int idx) {
+                return palette[id(idx)];
+            }
+
+            private void set(int idx, BlockData blockData) {
+                int id = blockData == null ? 0 : idFor(blockData);
+                int previous = id(idx);
+                if (previous == 0 && id != 0) {
+                    written++;
+                } else if (previous != 0 && id == 0) {
+                    written--;
+                }
+                if (wide != null) {
+                    wide[idx] = (char) id;
+                } else {
+                    int slot = idx >> 1;
+                    int shift = (idx & 1) << 2;
+                    nibbles[slot] = (byte) ((nibbles[slot] & ~(0xf << shift)) | (id << shift));
+                }
+
+                int word = idx >> 6;
+                long bit = 1L << (idx & 63);
+                if (blockData == null) {
+                    dirty[word] &= ~bit;
+                    needsFix[word] &= ~bit;
+                    return;
+                }
+                dirty[word] |= bit;
+                if (needsStateFix(blockData)) {
+                    needsFix[word] |= bit;
+                } else {
+                    needsFix[word] &= ~bit;
+                }
+            }
+
+            private int id(int idx) {
+                if (wide != null) {
+                    return wide[idx];
+                }
+                return (nibbles[idx >> 1] >> ((idx & 1) << 2)) & 0xf;
+            }
+
+            private int idFor(BlockData blockData) {
+                if (lookup != null) {
+                    Integer id = lookup.get(blockData);
+                    if (id != null) {
+                        return id;
+                    }
+                } else {
+                    for (int i = 1; i < paletteSize; i++) {
+                        if (palette[i] == blockData || palette[i].equals(blockData)) {
+                            return i;
+                        }
+                    }
+                }
+
+                if (paletteSize > MAX_PALETTE) {
+                    compact();
+                }
+                int id = paletteSize++;
+                if (id >= palette.length) {
+                    palette = Arrays.copyOf(palette, palette.length * 2);
+                }
+                palette[id] = blockData;
+                classes |= MaterialClasses.of(blockData.getMaterial());
+                if (id > NIBBLE_LIMIT && wide == null) {
+                    widen();
+                }
+                if (lookup != null) {
+                    lookup.put(blockData, id);
+                } else if (paletteSize > LINEAR_SCAN_LIMIT) {
+                    lookup = new HashMap<>(paletteSize * 2);
+                    for (int i = 1; i < paletteSize; i++) {
+                        lookup.put(palette[i], i);
+                    }
+                }
+                return id;
+            }
+
+            private void widen() {
+                char[] expanded = new char[SIZE];
+                for (int idx = 0; idx < SIZE; idx++) {
+                    expanded[idx] = (char) ((nibbles[idx >> 1] >> ((idx & 1) << 2)) & 0xf);
+                }
+                wide = expanded;
+            }
+
+            /**
+             * 反复覆盖导致调色板耗尽时，仅保留仍被引用的条目
+             */
+            private void compact() {
+                BlockData[] oldPalette = palette;
+                palette = new BlockData[oldPalette.length];
+                paletteSize = 1;
+                lookup = new HashMap<>();
+                int[] remap = new int[oldPalette.length];
+                for (int idx = 0; idx < SIZE; idx++) {
+                    int old = wide[idx];
+                    if (old == 0) {
+                        continue;
+                    }
+                    if (remap[old] == 0) {
+                        remap[old] = paletteSize;
+                        palette[paletteSize] = oldPalette[old];
+                        lookup.put(oldPalette[old], paletteSize);
+                        paletteSize++;
+                    }
+                    wide[idx] = (char) remap[old];
+                }
+            }
+
+            private void reset() {
+                // 放回对象池前收缩过大的调色板，避免一次大区段长期占用内存
+                if (palette.length > 16) {
+                    palette = new BlockData[16];
+                } else {
+                    Arrays.fill(palette, 0, paletteSize, null);
+                }
+                paletteSize = 1;
+                Arrays.fill(nibbles, (byte) 0);
+                wide = null;
+                lookup = null;
+                Arrays.fill(dirty, 0L);
+                Arrays.fill(needsFix, 0L);
+                classes = 0;
+                written = 0;
+            }
         }
     }
 }
@@ -20,13 +20,21 @@ public final class ChunkFixer {
     private ChunkFixer() {
     }
 
-    public static void fix(IDimensionInfo info, int chunkX, int chunkZ) {
+    /**
+     * 执行区块的延迟任务与边界藤蔓
+     *
+     * @param info   维度信息
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     * @return 没有剩余跨区块工作时返回true；东/南邻区块未加载导致藤蔓未放置时返回false
+     */
+    public static boolean fix(IDimensionInfo info, int chunkX, int chunkZ) {
         if (info == null || info.getWorld() == null) {
-            return;
+            return false;
         }
         ChunkCoord coord = new ChunkCoord(info.dimension(), chunkX, chunkZ);
         executePostTodo(coord, info);
-        generateBoundaryVines(coord, info);
+        return generateBoundaryVines(coord, info);
     }
 
     private static void executePostTodo(ChunkCoord coord, IDimensionInfo provider) {
@@ -39,25 +47,25 @@ public final class ChunkFixer {
         }
     }
 
-    private static void generateBoundaryVines(ChunkCoord coord, IDimensionInfo provider) {
+    private static boolean generateBoundaryVines(ChunkCoord coord, IDimensionInfo provider) {
         if (provider.getProfile() == null || provider.getProfile().getVineChance() <= 0.000001f) {
-            return;
+            return true;
         }
 
         World world = provider.getWorld();
         int chunkX = coord.chunkX();
         int chunkZ = coord.chunkZ();
         if (!world.isChunkLoaded(chunkX, chunkZ)) {
-            return;
+            return false;
         }
         if (!world.isChunkLoaded(chunkX + 1, chunkZ) || !world.isChunkLoaded(chunkX, chunkZ + 1)) {
-            return;
+            return false;
         }
 
         BuildingInfo info = BuildingInfo.getBuildingInfo(coord, provider);
         int thisTop = info.getMaxHeight();
         if (thisTop <= info.getCityGroundLevel() + 3) {
-            return;
+            return true;
         }
 
         Random random = new Random(provider.getSeed() ^ ((long) chunkX * 341873128712L) ^ ((long) chunkZ * 132897987541L));
@@ -72,6 +80,7 @@ public final class ChunkFixer {
         BuildingInfo south = info.getZmax();
         int southBottom = Math.max(south.getCityGroundLevel() + 3, south.hasBuilding ? south.getMaxHeight() : south.getCityGroundLevel() + 3);
         createVinePlane(world, baseZ + 15, baseX, 0, 15, southBottom, thisTop, BlockFace.SOUTH, chance, random);
+        return true;
     }
 
     private static void createVinePlane(World world,
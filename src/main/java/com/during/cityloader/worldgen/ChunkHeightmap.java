@@ -3,55 +3,63 @@ package com.during.cityloader.worldgen;
 /**
  * 区块高度图
  * 存储区块中每个位置的地形高度
- * 
+ *
+ * <p>以 short[256]（下标 x*16+z）紧凑存储，平均高度首次查询后缓存。</p>
+ *
  * @author During
  * @since 1.4.0
  */
 public class ChunkHeightmap {
-    
-    private final int[][] heights;
-    
+
+    private final short[] heights;
+    private int averageHeight;
+    private boolean averageValid;
+
     /**
      * 构造区块高度图
      */
     public ChunkHeightmap() {
-        this.heights = new int[16][16];
+        this.heights = new short[256];
     }
-    
+
     /**
      * 获取指定位置的高度
-     * 
+     *
      * @param x 区块内X坐标（0-15）
      * @param z 区块内Z坐标（0-15）
      * @return 高度值
      */
     public int getHeight(int x, int z) {
-        return heights[x][z];
+        return heights[(x << 4) | z];
     }
-    
+
     /**
      * 获取区块的平均高度（用于城市高度限制判定）
      *
      * @return 区块中所有位置高度的平均值
      */
     public int getHeight() {
+        if (averageValid) {
+            return averageHeight;
+        }
         int sum = 0;
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                sum += heights[x][z];
-            }
+        for (short height : heights) {
+            sum += height;
         }
-        return sum / 256;
+        averageHeight = sum / 256;
+        averageValid = true;
+        return averageHeight;
     }
 
     /**
      * 设置指定位置的高度
-     * 
+     *
      * @param x 区块内X坐标（0-15）
      * @param z 区块内Z坐标（0-15）
      * @param height 高度值
      */
     public void setHeight(int x, int z, int height) {
-        heights[x][z] = height;
+        heights[(x << 4) | z] = (short) height;
+        averageValid = false;
     }
 }
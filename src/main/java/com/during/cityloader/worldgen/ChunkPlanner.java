@@ -0,0 +1,350 @@
+package com.during.cityloader.worldgen;
+
+import com.during.cityloader.config.PlannerConfig;
+import com.during.cityloader.util.ChunkCoord;
+import com.during.cityloader.util.ChunkMap;
+import com.during.cityloader.worldgen.lost.BuildingInfo;
+import com.during.cityloader.worldgen.lost.cityassets.AssetPreloader;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 城市预规划服务
+ * 在后台线程中提前计算区块的 {@link BuildingInfo} 与城市特征，
+ * 使 {@link LostCityTerrainFeature#generate} 在填充时直接命中已就绪的规划。
+ *
+ * <p>规划来源：玩家移动方向上、视距边缘之外的区块，刚生成区块的相邻区块，
+ * 以及预生成任务通过 {@link #submit(IDimensionInfo, int, int)} 提交的区块。</p>
+ *
+ * <p>规划在 {@link PaperDimensionInfo#plan(Runnable)} 中执行：只读取已缓存的高度图，
+ * 缺失时放弃该区块（等待下次提交），因此预规划结果与生成时内联计算的结果一致。
+ * 排队任务数超过上限时直接丢弃新任务。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class ChunkPlanner {
+
+    private static final Logger LOGGER = Logger.getLogger("CityLoader");
+    private static final Object LOCK = new Object();
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    private static final Set<PlanKey> QUEUED = ConcurrentHashMap.newKeySet();
+    private static final ConcurrentHashMap<UUID, Sample> SAMPLES = new ConcurrentHashMap<>();
+
+    private static final LongAdder SUBMITTED = new LongAdder();
+    private static final LongAdder PLANNED = new LongAdder();
+    private static final LongAdder DEFERRED = new LongAdder();
+    private static final LongAdder REJECTED = new LongAdder();
+    private static final LongAdder FAILED = new LongAdder();
+    private static final LongAdder READY_HITS = new LongAdder();
+    private static final LongAdder READY_MISSES = new LongAdder();
+
+    private static volatile PlannerConfig config = PlannerConfig.defaults();
+    private static volatile ThreadPoolExecutor executor;
+    private static volatile int epoch;
+
+    private ChunkPlanner() {
+    }
+
+    /**
+     * 应用配置；线程数变化时重建线程池，禁用时关闭线程池
+     *
+     * @param plannerConfig 预规划配置
+     */
+    public static void configure(PlannerConfig plannerConfig) {
+        synchronized (LOCK) {
+            config = plannerConfig == null ? PlannerConfig.defaults() : plannerConfig;
+            if (executor != null && (!config.isEnabled() || executor.getCorePoolSize() != config.getThreads())) {
+                executor.shutdownNow();
+                executor = null;
+                QUEUED.clear();
+            }
+            if (config.isEnabled() && executor == null) {
+                executor = createExecutor(config.getThreads());
+            }
+        }
+    }
+
+    /**
+     * 关闭线程池并清空排队任务
+     */
+    public static void shutdown() {
+        synchronized (LOCK) {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            clear();
+        }
+    }
+
+    /**
+     * 丢弃排队中的规划任务与玩家移动采样（重载或世界缓存失效时调用）
+     */
+    public static void clear() {
+        epoch++;
+        ThreadPoolExecutor current = executor;
+        if (current != null) {
+            current.getQueue().clear();
+        }
+        QUEUED.clear();
+        SAMPLES.clear();
+    }
+
+    /**
+     * 提交单个区块的规划请求
+     *
+     * @param provider 维度信息
+     * @param chunkX   区块X
+     * @param chunkZ   区块Z
+     * @return 已排队返回true；已规划、已在队列中、未启用或超出排队上限时返回false
+     */
+    public static boolean submit(IDimensionInfo provider, int chunkX, int chunkZ) {
+        ThreadPoolExecutor current = executor;
+        if (current == null || !(provider instanceof PaperDimensionInfo paperProvider)) {
+            return false;
+        }
+        ChunkCoord coord = new ChunkCoord(provider.dimension(), chunkX, chunkZ);
+        if (BuildingInfo.peekBuildingInfo(coord) != null) {
+            return false;
+        }
+        if (QUEUED.size() >= config.getMaxPending()) {
+            REJECTED.increment();
+            return false;
+        }
+        PlanKey key = new PlanKey(coord.dimension(), ChunkMap.key(chunkX, chunkZ));
+        if (!QUEUED.add(key)) {
+            return false;
+        }
+        int submittedEpoch = epoch;
+        try {
+            current.execute(() -> run(paperProvider, coord, key, submittedEpoch));
+            SUBMITTED.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            QUEUED.remove(key);
+            REJECTED.increment();
+            return false;
+        }
+    }
+
+    /**
+     * 区块生成完成后规划其相邻区块（此时相邻区块的高度图通常已由生成区域写入缓存）
+     *
+     * @param provider 维度信息
+     * @param chunkX   区块X
+     * @param chunkZ   区块Z
+     */
+    public static void onChunkGenerated(IDimensionInfo provider, int chunkX, int chunkZ) {
+        if (executor == null) {
+            return;
+        }
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                if (dx != 0 || dz != 0) {
+                    submit(provider, chunkX + dx, chunkZ + dz);
+                }
+            }
+        }
+    }
+
+    /**
+     * 记录玩家位置，并沿两次采样之间的移动方向规划视距边缘之外的区块
+     * 在主线程按配置间隔调用。
+     *
+     * @param player       玩家UUID
+     * @param provider     玩家所在世界的维度信息
+     * @param blockX       玩家方块X
+     * @param blockZ       玩家方块Z
+     * @param viewDistance 视距（区块）
+     * @return 提交的区块数
+     */
+    public static int observe(UUID player, IDimensionInfo provider, double blockX, double blockZ, int viewDistance) {
+        if (executor == null || player == null || provider == null) {
+            return 0;
+        }
+        String dimension = provider.dimension();
+        Sample previous = SAMPLES.put(player, new Sample(dimension, blockX, blockZ));
+        if (previous == null || !previous.dimension().equals(dimension)) {
+            return 0;
+        }
+        double dx = blockX - previous.x();
+        double dz = blockZ - previous.z();
+        double length = Math.sqrt(dx * dx + dz * dz);
+        if (length < 1.0) {
+            return 0;
+        }
+        long[] targets = projectAhead((int) Math.floor(blockX) >> 4, (int) Math.floor(blockZ) >> 4,
+                dx / length, dz / length, Math.max(1, viewDistance), config.getLookaheadChunks());
+        int submitted = 0;
+        for (long target : targets) {
+            if (submit(provider, ChunkMap.chunkX(target), ChunkMap.chunkZ(target))) {
+                submitted++;
+            }
+        }
+        return submitted;
+    }
+
+    /**
+     * 只保留指定玩家的移动采样（移除已离线玩家）
+     *
+     * @param online 在线玩家UUID
+     */
+    public static void retainPlayers(Collection<UUID> online) {
+        SAMPLES.keySet().retainAll(online);
+    }
+
+    /**
+     * 记录一次区块生成是否命中已就绪的规划
+     *
+     * @param ready 生成开始时规划已在缓存中
+     */
+    public static void recordGeneration(boolean ready) {
+        if (ready) {
+            READY_HITS.increment();
+        } else {
+            READY_MISSES.increment();
+        }
+    }
+
+    /**
+     * 计算移动方向上需要规划的区块
+     * 从起始距离开始逐步前进，每步取方向线上的区块及其两侧各一个区块。
+     *
+     * @param fromChunkX 起点区块X
+     * @param fromChunkZ 起点区块Z
+     * @param dirX       单位方向X
+     * @param dirZ       单位方向Z
+     * @param start      起始距离（区块）
+     * @param steps      前进步数
+     * @return 打包的区块键（去重，按距离排序）
+     */
+    static long[] projectAhead(int fromChunkX, int fromChunkZ, double dirX, double dirZ, int start, int steps) {
+        long[] result = new long[Math.max(0, steps) * 3];
+        int count = 0;
+        int sideX = (int) Math.round(-dirZ);
+        int sideZ = (int) Math.round(dirX);
+        for (int step = 0; step < steps; step++) {
+            int distance = start + step;
+            int cx = fromChunkX + (int) Math.round(dirX * distance);
+            int cz = fromChunkZ + (int) Math.round(dirZ * distance);
+            count = append(result, count, ChunkMap.key(cx, cz));
+            count = append(result, count, ChunkMap.key(cx + sideX, cz + sideZ));
+            count = append(result, count, ChunkMap.key(cx - sideX, cz - sideZ));
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @return 统计信息
+     */
+    public static Stats getStatistics() {
+        return new Stats(
+                executor != null,
+                QUEUED.size(),
+                SUBMITTED.sum(),
+                PLANNED.sum(),
+                DEFERRED.sum(),
+                REJECTED.sum(),
+                FAILED.sum(),
+                READY_HITS.sum(),
+                READY_MISSES.sum());
+    }
+
+    private static int append(long[] keys, int count, long key) {
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == key) {
+                return count;
+            }
+        }
+        keys[count] = key;
+        return count + 1;
+    }
+
+    private static void run(PaperDimensionInfo provider, ChunkCoord coord, PlanKey key, int submittedEpoch) {
+        try {
+            if (submittedEpoch != epoch || BuildingInfo.peekBuildingInfo(coord) != null) {
+                return;
+            }
+            if (!AssetPreloader.isReady()) {
+                DEFERRED.increment();
+                return;
+            }
+            if (provider.plan(() -> BuildingInfo.getChunkCharacteristics(coord, provider))) {
+                PLANNED.increment();
+            } else {
+                DEFERRED.increment();
+            }
+        } catch (RuntimeException e) {
+            FAILED.increment();
+            LOGGER.log(Level.WARNING, "预规划区块失败: " + coord, e);
+        } finally {
+            QUEUED.remove(key);
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads,
+                threads,
+                30L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "CityLoader-Planner-" + THREAD_IDS.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private record PlanKey(String dimension, long chunk) {
+    }
+
+    private record Sample(String dimension, double x, double z) {
+    }
+
+    /**
+     * 预规划统计
+     *
+     * @param running        线程池是否运行
+     * @param pending        排队中的任务数
+     * @param submitted      已提交任务数
+     * @param planned        完成规划的区块数
+     * @param deferred       因高度图或资产未就绪而放弃的区块数
+     * @param rejected       因排队上限被丢弃的请求数
+     * @param failed         规划异常次数
+     * @param readyHits      生成时规划已就绪的区块数
+     * @param readyMisses    生成时需要内联规划的区块数
+     */
+    public record Stats(boolean running, int pending, long submitted, long planned, long deferred,
+                        long rejected, long failed, long readyHits, long readyMisses) {
+
+        /**
+         * 生成时命中已就绪规划的比例
+         *
+         * @return 0-1，没有生成记录时返回0
+         */
+        public double hitRate() {
+            long total = readyHits + readyMisses;
+            return total == 0L ? 0.0 : (double) readyHits / total;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.during.cityloader.worldgen;
+
+import com.during.cityloader.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 区块生成指标
+ * 按世界记录每个 {@link com.during.cityloader.worldgen.gen.GenerationStage} 的耗时直方图、
+ * 区块总耗时、方块写入数与因超出预算而延后阶段的次数。
+ *
+ * <p>记录路径只有哈希查找与原子自增，可在所有生成线程上常开；
+ * 禁用时 {@link #forWorld(String)} 返回null，调用方直接跳过记录。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class GenerationMetrics {
+
+    /**
+     * 写入阶段（ChunkDriver 缓冲区落盘）的名称
+     */
+    public static final String FLUSH_STAGE = "Flush";
+
+    private static final ConcurrentHashMap<String, WorldMetrics> WORLDS = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = true;
+
+    private GenerationMetrics() {
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取世界的指标记录器
+     *
+     * @param dimension 世界名
+     * @return 记录器，禁用时返回null
+     */
+    public static WorldMetrics forWorld(String dimension) {
+        if (!enabled) {
+            return null;
+        }
+        String key = dimension == null ? "" : dimension;
+        WorldMetrics metrics = WORLDS.get(key);
+        return metrics != null ? metrics : WORLDS.computeIfAbsent(key, WorldMetrics::new);
+    }
+
+    /**
+     * 获取所有世界的统计快照
+     *
+     * @return 按世界名排序的快照
+     */
+    public static List<WorldStats> snapshot() {
+        List<WorldStats> result = new ArrayList<>();
+        for (WorldMetrics metrics : WORLDS.values()) {
+            result.add(metrics.snapshot());
+        }
+        result.sort(Comparator.comparing(WorldStats::world));
+        return result;
+    }
+
+    /**
+     * 获取单个世界的统计快照
+     *
+     * @param dimension 世界名
+     * @return 快照，没有记录时返回null
+     */
+    public static WorldStats snapshot(String dimension) {
+        WorldMetrics metrics = WORLDS.get(dimension == null ? "" : dimension);
+        return metrics == null ? null : metrics.snapshot();
+    }
+
+    /**
+     * 清空所有指标
+     */
+    public static void reset() {
+        WORLDS.clear();
+    }
+
+    /**
+     * 单个世界的指标记录器
+     */
+    public static final class WorldMetrics {
+        private final String world;
+        private final ConcurrentHashMap<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LongAdder budgetCutoffs = new LongAdder();
+        private final LongAdder blockWrites = new LongAdder();
+        private final LongAdder skippedWrites = new LongAdder();
+
+        private WorldMetrics(String world) {
+            this.world = world;
+        }
+
+        /**
+         * 记录单个阶段的耗时
+         *
+         * @param stage 阶段名
+         * @param nanos 纳秒
+         */
+        public void recordStage(String stage, long nanos) {
+            LatencyHistogram histogram = stages.get(stage);
+            if (histogram == null) {
+                histogram = stages.computeIfAbsent(stage, ignored -> new LatencyHistogram());
+            }
+            histogram.record(nanos);
+        }
+
+        /**
+         * 记录一个区块的整体结果
+         *
+         * @param nanos         区块总耗时
+         * @param writes        实际写入的方块数
+         * @param skipped       因状态未变而跳过的写入数
+         * @param budgetCutoff  是否因单区块预算延后了剩余阶段
+         */
+        public void recordChunk(long nanos, int writes, int skipped, boolean budgetCutoff) {
+            total.record(nanos);
+            blockWrites.add(writes);
+            skippedWrites.add(skipped);
+            if (budgetCutoff) {
+                budgetCutoffs.increment();
+            }
+        }
+
+        private WorldStats snapshot() {
+            List<StageStats> stageStats = new ArrayList<>();
+            stages.forEach((name, histogram) -> stageStats.add(StageStats.of(name, histogram)));
+            stageStats.sort(Comparator.comparingDouble(StageStats::totalMillis).reversed());
+            return new WorldStats(
+                    world,
+                    total.count(),
+                    budgetCutoffs.sum(),
+                    blockWrites.sum(),
+                    skippedWrites.sum(),
+                    StageStats.of("Total", total),
+                    stageStats);
+        }
+    }
+
+    /**
+     * 阶段耗时统计（毫秒）
+     *
+     * @param stage       阶段名
+     * @param count       记录次数
+     * @param meanMillis  平均耗时
+     * @param p50Millis   中位数
+     * @param p90Millis   90 分位
+     * @param p99Millis   99 分位
+     * @param maxMillis   最大耗时
+     * @param totalMillis 累计耗时
+     */
+    public record StageStats(String stage, long count, double meanMillis, double p50Millis,
+                             double p90Millis, double p99Millis, double maxMillis, double totalMillis) {
+
+        private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+        static StageStats of(String stage, LatencyHistogram histogram) {
+            return new StageStats(
+                    stage,
+                    histogram.count(),
+                    histogram.meanNanos() / NANOS_PER_MILLI,
+                    histogram.percentileNanos(0.50) / NANOS_PER_MILLI,
+                    histogram.percentileNanos(0.90) / NANOS_PER_MILLI,
+                    histogram.percentileNanos(0.99) / NANOS_PER_MILLI,
+                    histogram.maxNanos() / NANOS_PER_MILLI,
+                    histogram.totalNanos() / NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * 世界级统计快照
+     *
+     * @param world         世界名
+     * @param chunks        生成的区块数
+     * @param budgetCutoffs 因预算延后阶段的区块数
+     * @param blockWrites   实际写入的方块数
+     * @param skippedWrites 跳过的写入数
+     * @param total         区块总耗时统计
+     * @param stages        各阶段统计（按累计耗时降序）
+     */
+    public record WorldStats(String world, long chunks, long budgetCutoffs, long blockWrites,
+                             long skippedWrites, StageStats total, List<StageStats> stages) {
+    }
+}
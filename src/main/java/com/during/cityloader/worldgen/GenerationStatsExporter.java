@@ -0,0 +1,245 @@
+package com.during.cityloader.worldgen;
+
+import com.during.cityloader.util.BoundedCache;
+import com.during.cityloader.util.CacheRegistry;
+import com.during.cityloader.worldgen.gen.GlobalCompletionQueue;
+import com.during.cityloader.worldgen.gen.StageContinuationQueue;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 生成指标导出
+ * 将 {@link GenerationMetrics}、缓存命中率、区块写入与后处理队列深度汇总为报告，
+ * 写出为 JSON 快照或追加为 CSV 时间序列，并通过 JMX MBean 暴露。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class GenerationStatsExporter {
+
+    private static final String MBEAN_NAME = "com.during.cityloader:type=GenerationStats";
+    private static final String CSV_HEADER =
+            "timestamp,world,stage,count,mean_ms,p50_ms,p90_ms,p99_ms,max_ms,total_ms";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private static ObjectName registeredName;
+
+    private GenerationStatsExporter() {
+    }
+
+    /**
+     * 汇总当前指标
+     *
+     * @return 可序列化的报告
+     */
+    public static Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", System.currentTimeMillis());
+        report.put("worlds", GenerationMetrics.snapshot());
+
+        ChunkDriver.WriteStats writes = ChunkDriver.writeStats();
+        report.put("writes", writes);
+        report.put("completionQueueDepth", GlobalCompletionQueue.totalPending());
+        report.put("chunkBudgetMillis", ChunkBudget.budgetNanos() / 1_000_000.0);
+        report.put("continuations", StageContinuationQueue.snapshot());
+
+        List<Map<String, Object>> caches = new ArrayList<>();
+        for (BoundedCache.Stats stats : CacheRegistry.snapshot()) {
+            Map<String, Object> cache = new LinkedHashMap<>();
+            cache.put("name", stats.name());
+            cache.put("size", stats.size());
+            cache.put("maxEntries", stats.maxEntries());
+            cache.put("hitRatio", stats.hitRatio());
+            cache.put("evictions", stats.evictions());
+            cache.put("expirations", stats.expirations());
+            caches.add(cache);
+        }
+        report.put("caches", caches);
+        report.put("planner", ChunkPlanner.getStatistics());
+        return report;
+    }
+
+    /**
+     * 以 JSON 覆盖写出当前报告（先写临时文件再替换）
+     *
+     * @param file 目标文件
+     * @throws IOException 写入失败
+     */
+    public static void writeJson(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            GSON.toJson(report(), writer);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 以 CSV 追加每个世界每个阶段的一行（文件不存在时先写表头）
+     *
+     * @param file 目标文件
+     * @throws IOException 写入失败
+     */
+    public static void appendCsv(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        boolean header = !Files.exists(file);
+        long timestamp = System.currentTimeMillis();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (header) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            for (GenerationMetrics.WorldStats world : GenerationMetrics.snapshot()) {
+                writeCsvRow(writer, timestamp, world.world(), world.total());
+                for (GenerationMetrics.StageStats stage : world.stages()) {
+                    writeCsvRow(writer, timestamp, world.world(), stage);
+                }
+            }
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, long timestamp, String world,
+                                    GenerationMetrics.StageStats stage) throws IOException {
+        writer.write(String.format(Locale.ROOT, "%d,%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                timestamp, csv(world), csv(stage.stage()), stage.count(), stage.meanMillis(),
+                stage.p50Millis(), stage.p90Millis(), stage.p99Millis(), stage.maxMillis(), stage.totalMillis()));
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * 注册 JMX MBean（重复调用无副作用）
+     *
+     * @throws JMException 注册失败
+     */
+    public static synchronized void registerMBean() throws JMException {
+        if (registeredName != null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MBEAN_NAME);
+        if (server.isRegistered(name)) {
+            // 插件重载后旧实例可能仍在注册表中
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(new Bean(), name);
+        registeredName = name;
+    }
+
+    /**
+     * 注销 JMX MBean
+     */
+    public static synchronized void unregisterMBean() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException ignored) {
+            // 已被外部注销
+        }
+        registeredName = null;
+    }
+
+    private static Map<String, Double> perStage(ToDoubleFunction<GenerationMetrics.StageStats> metric) {
+        Map<String, Double> values = new TreeMap<>();
+        for (GenerationMetrics.WorldStats world : GenerationMetrics.snapshot()) {
+            values.put(world.world() + "/" + world.total().stage(), metric.applyAsDouble(world.total()));
+            for (GenerationMetrics.StageStats stage : world.stages()) {
+                values.put(world.world() + "/" + stage.stage(), metric.applyAsDouble(stage));
+            }
+        }
+        return values;
+    }
+
+    private static final class Bean implements GenerationStatsMXBean {
+
+        @Override
+        public long getChunksGenerated() {
+            long total = 0L;
+            for (GenerationMetrics.WorldStats world : GenerationMetrics.snapshot()) {
+                total += world.chunks();
+            }
+            return total;
+        }
+
+        @Override
+        public long getBudgetCutoffs() {
+            long total = 0L;
+            for (GenerationMetrics.WorldStats world : GenerationMetrics.snapshot()) {
+                total += world.budgetCutoffs();
+            }
+            return total;
+        }
+
+        @Override
+        public long getBlockWrites() {
+            return ChunkDriver.writeStats().regionWrites();
+        }
+
+        @Override
+        public long getSkippedWrites() {
+            return ChunkDriver.writeStats().skippedWrites();
+        }
+
+        @Override
+        public int getCompletionQueueDepth() {
+            return GlobalCompletionQueue.totalPending();
+        }
+
+        @Override
+        public Map<String, Double> getStageMeanMillis() {
+            return perStage(GenerationMetrics.StageStats::meanMillis);
+        }
+
+        @Override
+        public Map<String, Double> getStageP99Millis() {
+            return perStage(GenerationMetrics.StageStats::p99Millis);
+        }
+
+        @Override
+        public Map<String, Double> getStageTotalMillis() {
+            return perStage(GenerationMetrics.StageStats::totalMillis);
+        }
+
+        @Override
+        public Map<String, Double> getCacheHitRatios() {
+            Map<String, Double> values = new TreeMap<>();
+            for (BoundedCache.Stats stats : CacheRegistry.snapshot()) {
+                values.put(stats.name(), stats.hitRatio());
+            }
+            return values;
+        }
+
+        @Override
+        public void reset() {
+            GenerationMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.during.cityloader.worldgen;
+
+import java.util.Map;
+
+/**
+ * 生成指标的 JMX 视图
+ * 注册名为 {@code com.during.cityloader:type=GenerationStats}，所有耗时单位为毫秒，
+ * 阶段键为 {@code <世界名>/<阶段名>}。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public interface GenerationStatsMXBean {
+
+    long getChunksGenerated();
+
+    long getBudgetCutoffs();
+
+    long getBlockWrites();
+
+    long getSkippedWrites();
+
+    int getCompletionQueueDepth();
+
+    Map<String, Double> getStageMeanMillis();
+
+    Map<String, Double> getStageP99Millis();
+
+    Map<String, Double> getStageTotalMillis();
+
+    Map<String, Double> getCacheHitRatios();
+
+    /**
+     * 清空生成指标
+     */
+    void reset();
+}
@@ -0,0 +1,247 @@
+package com.during.cityloader.worldgen;
+
+import com.during.cityloader.util.BoundedCache;
+import com.during.cityloader.util.CacheRegistry;
+import com.during.cityloader.util.ChunkMap;
+import com.during.cityloader.util.ManagedCache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 区块高度图存储
+ * 按世界名与 32x32 区块分块保存 {@link ChunkHeightmap}，
+ * 分块内按下标无锁读取与 CAS 写入，可被多个生成线程并发访问。
+ *
+ * <p>条目数以分块计；超出预算时淘汰最久未访问的分块，
+ * 并参与 {@link CacheRegistry} 的过期清理、内存预算与世界卸载失效。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class HeightmapStore implements ManagedCache {
+
+    private static final int TILE_SHIFT = 5;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    // 满载分块估算：1024 个高度图 * (short[256] + 对象头)
+    private static final int APPROX_TILE_BYTES = TILE_SIZE * TILE_SIZE * 552;
+
+    private static final HeightmapStore INSTANCE = CacheRegistry.register(new HeightmapStore("heightmap"));
+
+    private final String name;
+    private final ConcurrentHashMap<TileKey, Tile> tiles = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+
+    private volatile int maxEntries = 1;
+    private volatile long expireAfterMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    HeightmapStore(String name) {
+        this.name = Objects.requireNonNull(name, "name");
+    }
+
+    /**
+     * 获取全局高度图存储
+     *
+     * @return 存储实例
+     */
+    public static HeightmapStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取（必要时生成）高度图
+     * 生成在锁之外进行；并发生成同一区块时以先写入者为准。
+     *
+     * @param dimension 世界名
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     * @param loader 生成函数
+     * @return 高度图
+     */
+    public ChunkHeightmap get(String dimension, int chunkX, int chunkZ, ChunkMap.Loader<ChunkHeightmap> loader) {
+        Tile tile = tile(dimension, chunkX >> TILE_SHIFT, chunkZ >> TILE_SHIFT);
+        int index = ((chunkX & TILE_MASK) << TILE_SHIFT) | (chunkZ & TILE_MASK);
+        ChunkHeightmap heightmap = tile.chunks.get(index);
+        if (heightmap != null) {
+            hits.increment();
+            return heightmap;
+        }
+        misses.increment();
+        ChunkHeightmap computed = loader.load(chunkX, chunkZ);
+        if (computed == null) {
+            return null;
+        }
+        if (tile.chunks.compareAndSet(index, null, computed)) {
+            tile.filled.incrementAndGet();
+            return computed;
+        }
+        return tile.chunks.get(index);
+    }
+
+    /**
+     * 获取已缓存的高度图（不生成）
+     *
+     * @return 高度图，不存在时返回null
+     */
+    public ChunkHeightmap peek(String dimension, int chunkX, int chunkZ) {
+        Tile tile = tiles.get(new TileKey(normalize(dimension), chunkX >> TILE_SHIFT, chunkZ >> TILE_SHIFT));
+        return tile == null ? null : tile.chunks.get(((chunkX & TILE_MASK) << TILE_SHIFT) | (chunkZ & TILE_MASK));
+    }
+
+    /**
+     * 已缓存的高度图数量
+     *
+     * @return 区块数
+     */
+    public int chunkCount() {
+        int total = 0;
+        for (Tile tile : tiles.values()) {
+            total += tile.filled.get();
+        }
+        return total;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getApproxEntryBytes() {
+        return APPROX_TILE_BYTES;
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public void resize(int maxEntries, int expireAfterSeconds) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.expireAfterMillis = expireAfterSeconds <= 0 ? 0L : expireAfterSeconds * 1000L;
+        trimTo(this.maxEntries);
+    }
+
+    @Override
+    public void clear() {
+        tiles.clear();
+    }
+
+    @Override
+    public int size() {
+        return tiles.size();
+    }
+
+    @Override
+    public int cleanup() {
+        long ttl = expireAfterMillis;
+        if (ttl <= 0L) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        Iterator<Tile> iterator = tiles.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().lastAccess > ttl) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        expirations.add(removed);
+        return removed;
+    }
+
+    @Override
+    public int trimTo(int targetEntries) {
+        int target = Math.max(0, targetEntries);
+        int evicted = 0;
+        synchronized (evictionLock) {
+            while (tiles.size() > target) {
+                Map.Entry<TileKey, Tile> oldest = null;
+                for (Map.Entry<TileKey, Tile> entry : tiles.entrySet()) {
+                    if (oldest == null || entry.getValue().lastAccess < oldest.getValue().lastAccess) {
+                        oldest = entry;
+                    }
+                }
+                if (oldest == null || !tiles.remove(oldest.getKey(), oldest.getValue())) {
+                    break;
+                }
+                evicted++;
+            }
+        }
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    @Override
+    public int invalidatePartition(String partition) {
+        if (partition == null) {
+            return 0;
+        }
+        int removed = 0;
+        Iterator<TileKey> iterator = tiles.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (partition.equals(iterator.next().dimension())) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public BoundedCache.Stats stats() {
+        int size = size();
+        return new BoundedCache.Stats(
+                name,
+                size,
+                maxEntries,
+                (long) chunkCount() * (APPROX_TILE_BYTES / (TILE_SIZE * TILE_SIZE)),
+                hits.sum(),
+                misses.sum(),
+                evictions.sum(),
+                expirations.sum());
+    }
+
+    private Tile tile(String dimension, int tileX, int tileZ) {
+        TileKey key = new TileKey(normalize(dimension), tileX, tileZ);
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+            Tile created = new Tile();
+            tile = tiles.putIfAbsent(key, created);
+            if (tile == null) {
+                tile = created;
+                if (tiles.size() > maxEntries) {
+                    trimTo(maxEntries);
+                }
+            }
+        }
+        tile.lastAccess = System.currentTimeMillis();
+        return tile;
+    }
+
+    private static String normalize(String dimension) {
+        return dimension == null ? "" : dimension;
+    }
+
+    private record TileKey(String dimension, int tileX, int tileZ) {
+    }
+
+    private static final class Tile {
+        private final AtomicReferenceArray<ChunkHeightmap> chunks = new AtomicReferenceArray<>(TILE_SIZE * TILE_SIZE);
+        private final AtomicInteger filled = new AtomicInteger();
+        private volatile long lastAccess = System.currentTimeMillis();
+    }
+}
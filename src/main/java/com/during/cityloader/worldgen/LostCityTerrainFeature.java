@@ -3,6 +3,7 @@ package com.during.cityloader.worldgen;
 import com.during.cityloader.season.Season;
 import com.during.cityloader.util.ChunkCoord;
 import com.during.cityloader.worldgen.gen.BridgeStage;
+import com.during.cityloader.worldgen.gen.ChunkTraits;
 import com.during.cityloader.worldgen.gen.CityCoreStage;
 import com.during.cityloader.worldgen.gen.CitySphereStage;
 import com.during.cityloader.worldgen.gen.CorridorStage;
@@ -15,12 +16,17 @@ import com.during.cityloader.worldgen.gen.LootStage;
 import com.during.cityloader.worldgen.gen.MegaSolarStage;
 import com.during.cityloader.worldgen.gen.MonorailStage;
 import com.during.cityloader.worldgen.gen.OffshoreStage;
+import com.during.cityloader.worldgen.gen.ParallelStages;
 import com.during.cityloader.worldgen.gen.ParkStage;
 import com.during.cityloader.worldgen.gen.PostProcessStage;
 import com.during.cityloader.worldgen.gen.QuarryStage;
 import com.during.cityloader.worldgen.gen.RailDungeonStage;
 import com.during.cityloader.worldgen.gen.ScatteredStage;
 import com.during.cityloader.worldgen.gen.SpawnerStage;
+import com.during.cityloader.worldgen.gen.StageContinuation;
+import com.during.cityloader.worldgen.gen.StageContinuationQueue;
+import com.during.cityloader.worldgen.gen.StagePipeline;
+import com.during.cityloader.worldgen.gen.StageSchedule;
 import com.during.cityloader.worldgen.lost.BuildingInfo;
 import org.bukkit.generator.LimitedRegion;
 import org.bukkit.generator.WorldInfo;
@@ -28,38 +34,38 @@ import org.bukkit.generator.WorldInfo;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.TimeUnit;
+import java.util.WeakHashMap;
 
 /**
  * 城市地形总控
  * 负责按阶段执行区块级城市生成。
  * 与LostCities 1.20完全兼容
+ *
+ * <p>阶段列表按 {@link LostCityProfile} 编译为 {@link StagePipeline}：配置下永远不会执行的阶段被移除
+ * （地形类型相关的裁剪也在这里完成，如非球体地形不含城市球体与单轨阶段），
+ * 其余阶段按区块特征（{@link ChunkTraits}）过滤后才分派。
+ * 每个阶段使用自己的随机数流（{@link com.during.cityloader.worldgen.gen.StageRandom}，由世界种子、区块坐标与阶段名派生），
+ * 无论是否开启 {@link ParallelStages} 都是如此，因此产出不依赖调用方传入的 {@link Random}；
+ * 开启并行时同一并行层内的阶段并发执行。</p>
  */
 public class LostCityTerrainFeature {
 
     public static final LostCityTerrainFeature DEFAULT = new LostCityTerrainFeature("default");
-    public static final LostCityTerrainFeature FLOATING = new LostCityTerrainFeature("floating");
-    public static final LostCityTerrainFeature CAVERN = new LostCityTerrainFeature("cavern");
-    public static final LostCityTerrainFeature SPACE = new LostCityTerrainFeature("space");
 
     private final String type;
     private final List<GenerationStage> stages;
+    private final Map<LostCityProfile, StagePipeline> pipelines = new WeakHashMap<>();
+    private volatile CompiledFor lastCompiled;
 
     /**
-     * 安全模式：默认开启，仅执行核心阶段，避免服务器在区块加载时长时间阻塞。
-     * 可通过 -Dcityloader.safeMode=false 关闭。
+     * 安全模式：默认关闭；开启后仅执行核心阶段，避免服务器在区块加载时长时间阻塞。
+     * 可通过 -Dcityloader.safeMode=true 开启。
      */
     private static final boolean SAFE_MODE = Boolean.parseBoolean(
             System.getProperty("cityloader.safeMode", "false"));
 
-    /**
-     * 单区块生成预算（毫秒），超出后跳过剩余阶段。
-     * 可通过 -Dcityloader.maxChunkGenMs=<ms> 调整。
-     */
-    private static final long MAX_CHUNK_GEN_NANOS = TimeUnit.MILLISECONDS.toNanos(
-            Long.getLong("cityloader.maxChunkGenMs", 0L));
-
     public LostCityTerrainFeature(String type) {
         this.type = type;
         List<GenerationStage> pipeline = new ArrayList<>();
@@ -86,7 +92,7 @@ public class LostCityTerrainFeature {
 
         pipeline.add(new PostProcessStage());
         
-        this.stages = Collections.unmodifiableList(pipeline);
+        this.stages = Collections.unmodifiableList(StageSchedule.order(pipeline));
     }
 
     public String getType() {
@@ -97,6 +103,25 @@ public class LostCityTerrainFeature {
         return stages;
     }
 
+    /**
+     * 获取（必要时编译）配置对应的流水线
+     *
+     * @param profile 城市配置
+     * @return 流水线
+     */
+    public StagePipeline pipelineFor(LostCityProfile profile) {
+        CompiledFor last = lastCompiled;
+        if (last != null && last.profile() == profile) {
+            return last.pipeline();
+        }
+        StagePipeline pipeline;
+        synchronized (pipelines) {
+            pipeline = pipelines.computeIfAbsent(profile, key -> StagePipeline.compile(stages, key));
+        }
+        lastCompiled = new CompiledFor(profile, pipeline);
+        return pipeline;
+    }
+
     public void generate(WorldInfo worldInfo,
                          Random random,
                          int chunkX,
@@ -106,6 +131,18 @@ public class LostCityTerrainFeature {
         generate(worldInfo, random, chunkX, chunkZ, limitedRegion, dimensionInfo, Season.SPRING);
     }
 
+    /**
+     * 生成区块的城市内容
+     *
+     * @param worldInfo     世界信息
+     * @param random        调用方的随机数源；各阶段改用 {@link com.during.cityloader.worldgen.gen.StageRandom}，
+     *                      产出只取决于世界种子与区块坐标，与该参数无关
+     * @param chunkX        区块X
+     * @param chunkZ        区块Z
+     * @param limitedRegion 写入区域
+     * @param dimensionInfo 维度信息
+     * @param season        季节
+     */
     public void generate(WorldInfo worldInfo,
                          Random random,
                          int chunkX,
@@ -114,13 +151,17 @@ public class LostCityTerrainFeature {
                          IDimensionInfo dimensionInfo,
                          Season season) {
         GenerationContext context = null;
+        GenerationMetrics.WorldMetrics metrics = null;
+        List<GenerationStage> deferred = null;
         if (dimensionInfo instanceof PaperDimensionInfo paperDimensionInfo) {
             paperDimensionInfo.beginChunkGeneration(limitedRegion, chunkX, chunkZ);
         }
         long startNanos = System.nanoTime();
         try {
             String dimension = dimensionInfo.dimension() != null ? dimensionInfo.dimension() : worldInfo.getName();
+            metrics = GenerationMetrics.forWorld(dimension);
             ChunkCoord coord = new ChunkCoord(dimension, chunkX, chunkZ);
+            ChunkPlanner.recordGeneration(BuildingInfo.peekBuildingInfo(coord) != null);
             BuildingInfo buildingInfo = BuildingInfo.getBuildingInfo(coord, dimensionInfo);
 
             context = new GenerationContext(
@@ -133,20 +174,92 @@ public class LostCityTerrainFeature {
                     chunkZ,
                     season);
 
-            for (GenerationStage stage : stages) {
+            StagePipeline pipeline = pipelineFor(dimensionInfo.getProfile());
+            int traits = ChunkTraits.of(buildingInfo);
+            long budgetNanos = ChunkBudget.budgetNanos();
+            long stageStart = System.nanoTime();
+            for (int i = 0; i < pipeline.size(); i++) {
+                GenerationStage stage = pipeline.stage(i);
+                if (deferred != null) {
+                    // 延后阶段可能改写区块特征，此后的阶段不再按特征过滤，交由续跑时自行判断
+                    deferred.add(stage);
+                    continue;
+                }
+                if (!pipeline.applies(i, traits)) {
+                    continue;
+                }
+                if (budgetNanos > 0 && i >= pipeline.firstDeferrable() && stageStart - startNanos > budgetNanos) {
+                    if (StageContinuationQueue.isFull()) {
+                        // 续跑队列已满：不再延后，本区块在生成时执行完整流水线
+                        StageContinuationQueue.recordThrottled();
+                        budgetNanos = 0;
+                    } else {
+                        // 超出预算：其后已没有核心阶段，剩余阶段按原顺序整体在区块加载后续跑
+                        deferred = new ArrayList<>();
+                        deferred.add(stage);
+                        continue;
+                    }
+                }
+                int layerEnd = pipeline.layerEnd(i);
+                if (ParallelStages.enabled() && layerEnd - i > 1) {
+                    List<GenerationStage> layer = new ArrayList<>(layerEnd - i);
+                    for (int j = i; j < layerEnd; j++) {
+                        if (pipeline.applies(j, traits)) {
+                            layer.add(pipeline.stage(j));
+                        }
+                    }
+                    if (layer.size() > 1) {
+                        long[] elapsed = ParallelStages.run(context, layer);
+                        if (metrics != null) {
+                            for (int j = 0; j < layer.size(); j++) {
+                                metrics.recordStage(layer.get(j).name(), elapsed[j]);
+                            }
+                        }
+                        i = layerEnd - 1;
+                        // 与顺序执行一致：层内阶段可能改写区块特征
+                        traits = ChunkTraits.of(buildingInfo);
+                        stageStart = System.nanoTime();
+                        continue;
+                    }
+                }
+                context.useStageRandom(stage);
                 stage.generate(context);
-                if (MAX_CHUNK_GEN_NANOS > 0 && System.nanoTime() - startNanos > MAX_CHUNK_GEN_NANOS) {
-                    break;
+                // 个别阶段（如球体城市）会改写区块特征
+                traits = ChunkTraits.of(buildingInfo);
+                long now = System.nanoTime();
+                if (metrics != null) {
+                    metrics.recordStage(stage.name(), now - stageStart);
                 }
+                stageStart = now;
             }
         } finally {
             if (context != null) {
-                context.flush();
+                long flushStart = System.nanoTime();
+                try {
+                    context.flush();
+                } finally {
+                    if (metrics != null) {
+                        metrics.recordStage(GenerationMetrics.FLUSH_STAGE, System.nanoTime() - flushStart);
+                        metrics.recordChunk(System.nanoTime() - startNanos,
+                                context.getDriver().getRegionWriteCount(),
+                                context.getDriver().getSkippedWriteCount(),
+                                deferred != null);
+                    }
+                    context.release();
+                }
             }
             ChunkFixer.fix(dimensionInfo, chunkX, chunkZ);
             if (dimensionInfo instanceof PaperDimensionInfo paperDimensionInfo) {
                 paperDimensionInfo.endChunkGeneration();
             }
         }
+        if (deferred != null && context != null) {
+            StageContinuationQueue.enqueue(dimensionInfo.getWorld(),
+                    new StageContinuation(context, dimensionInfo, deferred));
+        }
+        ChunkPlanner.onChunkGenerated(dimensionInfo, chunkX, chunkZ);
+    }
+
+    private record CompiledFor(LostCityProfile profile, StagePipeline pipeline) {
     }
 }
@@ -0,0 +1,76 @@
+package com.during.cityloader.worldgen;
+
+import org.bukkit.Material;
+
+/**
+ * 方块材质分类位
+ * 把材质粗分为后处理规则关心的几类，一种材质可同时属于多类。
+ * {@link ChunkDriver} 为每个缓存区段记录调色板中出现过的分类，
+ * 体积扫描（{@link ChunkDriver#sweep}）据此整段跳过不含目标分类的区段。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class MaterialClasses {
+
+    public static final int AIR = 1;
+    public static final int FLUID = 1 << 1;
+    public static final int SPAWNER = 1 << 2;
+    public static final int PANE = 1 << 3;
+    public static final int VEGETATION = 1 << 4;
+    public static final int TERRAIN = 1 << 5;
+    public static final int OTHER = 1 << 6;
+
+    private static final int[] BY_ORDINAL;
+
+    static {
+        Material[] materials = Material.values();
+        BY_ORDINAL = new int[materials.length];
+        for (Material material : materials) {
+            BY_ORDINAL[material.ordinal()] = classify(material);
+        }
+    }
+
+    private MaterialClasses() {
+    }
+
+    /**
+     * 获取材质分类
+     *
+     * @param material 材质，null 视为空气
+     * @return 分类位
+     */
+    public static int of(Material material) {
+        return material == null ? AIR : BY_ORDINAL[material.ordinal()];
+    }
+
+    private static int classify(Material material) {
+        String name = material.name();
+        int classes = 0;
+        if (material == Material.AIR || material == Material.CAVE_AIR || material == Material.VOID_AIR) {
+            classes |= AIR;
+        }
+        if (material == Material.WATER || material == Material.LAVA || material == Material.BUBBLE_COLUMN) {
+            classes |= FLUID;
+        }
+        if (material == Material.SPAWNER) {
+            classes |= SPAWNER;
+        }
+        if (material == Material.IRON_BARS || name.endsWith("_PANE")) {
+            classes |= PANE;
+        }
+        if (name.endsWith("_LEAVES") || name.endsWith("_LOG") || name.endsWith("_WOOD")
+                || name.endsWith("_SAPLING") || name.equals("VINE") || name.startsWith("MOSS_")
+                || name.contains("GRASS") || name.contains("FERN") || name.startsWith("KELP")) {
+            classes |= VEGETATION;
+        }
+        if (material == Material.STONE || material == Material.DEEPSLATE || material == Material.GRASS_BLOCK
+                || material == Material.SAND || material == Material.RED_SAND || material == Material.GRAVEL
+                || material == Material.CLAY || material == Material.PODZOL || material == Material.MYCELIUM
+                || material == Material.MUD || name.endsWith("_ORE") || name.endsWith("_STONE")
+                || name.endsWith("DIRT")) {
+            classes |= TERRAIN;
+        }
+        return classes == 0 ? OTHER : classes;
+    }
+}
@@ -2,13 +2,13 @@ package com.during.cityloader.worldgen;
 
 import com.during.cityloader.util.ChunkCoord;
 import com.during.cityloader.worldgen.lost.cityassets.WorldStyle;
+import org.bukkit.HeightMap;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Biome;
+import org.bukkit.generator.BiomeProvider;
 import org.bukkit.generator.LimitedRegion;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 /**
@@ -28,6 +28,12 @@ public class PaperDimensionInfo implements IDimensionInfo {
             System.getProperty("cityloader.safeHeightmap", "false"));
 
     private static final ThreadLocal<GenerationFrame> ACTIVE_GENERATION = new ThreadLocal<>();
+
+    // 预规划线程的生物群系来源；非空时处于预规划模式
+    private static final ThreadLocal<BiomeProvider> ACTIVE_PLANNING = new ThreadLocal<>();
+
+    // 区域不支持高度图查询时置为 false，之后直接逐列扫描
+    private static volatile boolean regionHeightmapSupported = true;
     
     private World world;
     private final LostCityProfile profile;
@@ -35,9 +41,8 @@ public class PaperDimensionInfo implements IDimensionInfo {
     private final WorldStyle worldStyle;
     private final LostCityTerrainFeature feature;
     private final Random random;
-    private final Map<ChunkCoord, ChunkHeightmap> heightmapCache;
 
-    private record GenerationFrame(LimitedRegion region, int chunkX, int chunkZ) {
+    private record GenerationFrame(LimitedRegion region, int chunkX, int chunkZ, BiomeSnapshot biomes) {
     }
     
     /**
@@ -55,7 +60,6 @@ public class PaperDimensionInfo implements IDimensionInfo {
         this.worldStyle = worldStyle;
         this.feature = LostCityTerrainFeature.DEFAULT;
         this.random = new Random(world.getSeed());
-        this.heightmapCache = new HashMap<>();
     }
     
     @Override
@@ -105,12 +109,21 @@ public class PaperDimensionInfo implements IDimensionInfo {
     
     @Override
     public ChunkHeightmap getHeightmap(int chunkX, int chunkZ) {
-        return getHeightmap(new ChunkCoord(world.getEnvironment().name(), chunkX, chunkZ));
+        if (ACTIVE_PLANNING.get() != null) {
+            // 预规划只使用已缓存的高度图，缺失时放弃本次规划，避免写入与生成时不同的回退高度
+            ChunkHeightmap cached = HeightmapStore.getInstance().peek(dimension(), chunkX, chunkZ);
+            if (cached == null) {
+                throw PlanningInputMissing.INSTANCE;
+            }
+            return cached;
+        }
+        // 统一以世界名为分区键，与 dimension() 及缓存失效保持一致
+        return HeightmapStore.getInstance().get(dimension(), chunkX, chunkZ, this::generateHeightmap);
     }
     
     @Override
     public ChunkHeightmap getHeightmap(ChunkCoord coord) {
-        return heightmapCache.computeIfAbsent(coord, this::generateHeightmap);
+        return getHeightmap(coord.chunkX(), coord.chunkZ());
     }
 
     public void beginChunkGeneration(LimitedRegion region, int chunkX, int chunkZ) {
@@ -118,24 +131,73 @@ public class PaperDimensionInfo implements IDimensionInfo {
             ACTIVE_GENERATION.remove();
             return;
         }
-        ACTIVE_GENERATION.set(new GenerationFrame(region, chunkX, chunkZ));
+        BiomeSnapshot biomes = new BiomeSnapshot(region, chunkX, chunkZ, world.getMinHeight(), world.getMaxHeight());
+        ACTIVE_GENERATION.set(new GenerationFrame(region, chunkX, chunkZ, biomes));
     }
 
     public void endChunkGeneration() {
         ACTIVE_GENERATION.remove();
     }
+
+    /**
+     * 包装任务，使其在其他线程执行时沿用当前线程的区块生成帧（生物群系快照、写入区域）
+     *
+     * @param task 任务
+     * @return 包装后的任务
+     */
+    public Runnable inheritGeneration(Runnable task) {
+        GenerationFrame frame = ACTIVE_GENERATION.get();
+        if (frame == null) {
+            return task;
+        }
+        return () -> {
+            GenerationFrame previous = ACTIVE_GENERATION.get();
+            ACTIVE_GENERATION.set(frame);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    ACTIVE_GENERATION.set(previous);
+                } else {
+                    ACTIVE_GENERATION.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * 以预规划模式执行任务（供后台规划线程使用）
+     * 期间高度图只读取已缓存的数据，生物群系直接取自世界的生物群系来源，不访问区块；
+     * 所需高度图尚未缓存时中止任务，已完成的缓存条目保持不变。
+     *
+     * @param task 规划任务
+     * @return 任务完整执行返回true，因输入缺失中止返回false
+     */
+    public boolean plan(Runnable task) {
+        BiomeProvider biomes = world.getBiomeProvider();
+        ACTIVE_PLANNING.set(biomes != null ? biomes : world.vanillaBiomeProvider());
+        try {
+            task.run();
+            return true;
+        } catch (PlanningInputMissing e) {
+            return false;
+        } finally {
+            ACTIVE_PLANNING.remove();
+        }
+    }
     
     /**
      * 生成区块高度图
      * 
-     * @param coord 区块坐标
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
      * @return 生成的高度图
      */
-    private ChunkHeightmap generateHeightmap(ChunkCoord coord) {
+    private ChunkHeightmap generateHeightmap(int chunkX, int chunkZ) {
         ChunkHeightmap heightmap = new ChunkHeightmap();
 
         GenerationFrame frame = ACTIVE_GENERATION.get();
-        if (frame != null && fillFromRegion(heightmap, frame.region(), coord)) {
+        if (frame != null && fillFromRegion(heightmap, frame.region(), chunkX, chunkZ)) {
             return heightmap;
         }
 
@@ -150,10 +212,10 @@ public class PaperDimensionInfo implements IDimensionInfo {
         }
 
         // 非安全模式：读取真实高度（可能触发区块加载，谨慎使用）
-        int baseX = coord.chunkX() * 16;
-        int baseZ = coord.chunkZ() * 16;
+        int baseX = chunkX * 16;
+        int baseZ = chunkZ * 16;
 
-        if (!world.isChunkLoaded(coord.chunkX(), coord.chunkZ())) {
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
             int safeHeight = Math.max(world.getMinHeight() + 1, world.getSeaLevel());
             for (int x = 0; x < 16; x++) {
                 for (int z = 0; z < 16; z++) {
@@ -175,38 +237,25 @@ public class PaperDimensionInfo implements IDimensionInfo {
         return heightmap;
     }
 
-    private boolean fillFromRegion(ChunkHeightmap heightmap, LimitedRegion region, ChunkCoord coord) {
+    private boolean fillFromRegion(ChunkHeightmap heightmap, LimitedRegion region, int chunkX, int chunkZ) {
         if (region == null) {
             return false;
         }
 
-        int baseX = coord.chunkX() * 16;
-        int baseZ = coord.chunkZ() * 16;
+        int baseX = chunkX * 16;
+        int baseZ = chunkZ * 16;
         int minY = world.getMinHeight();
         int maxY = world.getMaxHeight() - 1;
         int probeY = Math.max(minY + 1, Math.min(world.getSeaLevel(), maxY));
 
-        if (!region.isInRegion(baseX, probeY, baseZ)) {
+        if (!region.isInRegion(baseX, probeY, baseZ)
+                || !region.isInRegion(baseX + 15, probeY, baseZ + 15)) {
             return false;
         }
 
         for (int x = 0; x < 16; x++) {
             for (int z = 0; z < 16; z++) {
-                int worldX = baseX + x;
-                int worldZ = baseZ + z;
-
-                if (!region.isInRegion(worldX, probeY, worldZ)) {
-                    return false;
-                }
-
-                int y = maxY;
-                while (y >= minY) {
-                    Material type = region.getType(worldX, y, worldZ);
-                    if (type != null && !type.isAir()) {
-                        break;
-                    }
-                    y--;
-                }
+                int y = columnHeight(region, baseX + x, baseZ + z, minY, maxY);
                 if (y < minY) {
                     y = Math.max(minY + 1, world.getSeaLevel());
                 }
@@ -215,9 +264,67 @@ public class PaperDimensionInfo implements IDimensionInfo {
         }
         return true;
     }
+
+    /**
+     * 获取单列最高非空气方块的Y
+     * 优先使用区域高度图（一次查询，两次校验读取），高度图过期时就近修正；
+     * 区域不支持高度图时自顶向下扫描。
+     *
+     * @return 最高非空气方块Y，整列为空气时返回 minY - 1
+     */
+    private static int columnHeight(LimitedRegion region, int worldX, int worldZ, int minY, int maxY) {
+        if (regionHeightmapSupported) {
+            int y;
+            try {
+                y = region.getHighestBlockYAt(worldX, worldZ, HeightMap.WORLD_SURFACE_WG);
+            } catch (UnsupportedOperationException | LinkageError e) {
+                regionHeightmapSupported = false;
+                return scanDown(region, worldX, worldZ, maxY, minY);
+            }
+            if (y >= minY && y <= maxY) {
+                if (isSolid(region, worldX, y, worldZ)) {
+                    // 高度图之后又有方块写入：向上找到第一格空气
+                    while (y < maxY && isSolid(region, worldX, y + 1, worldZ)) {
+                        y++;
+                    }
+                    return y;
+                }
+                // 高度图高于实际地表：从该处向下扫描
+                return scanDown(region, worldX, worldZ, y, minY);
+            }
+        }
+        return scanDown(region, worldX, worldZ, maxY, minY);
+    }
+
+    private static int scanDown(LimitedRegion region, int worldX, int worldZ, int fromY, int minY) {
+        int y = fromY;
+        while (y >= minY && !isSolid(region, worldX, y, worldZ)) {
+            y--;
+        }
+        return y;
+    }
+
+    private static boolean isSolid(LimitedRegion region, int worldX, int y, int worldZ) {
+        Material type = region.getType(worldX, y, worldZ);
+        return type != null && !type.isAir();
+    }
     
     @Override
     public Biome getBiome(int x, int y, int z) {
+        BiomeProvider planning = ACTIVE_PLANNING.get();
+        if (planning != null) {
+            return planning.getBiome(world, x, y, z);
+        }
+        // 生成期间优先读取当前区块的采样网格，其次是生成区域，最后才访问世界
+        GenerationFrame frame = ACTIVE_GENERATION.get();
+        if (frame != null) {
+            if (frame.biomes().contains(x, z)) {
+                return frame.biomes().get(x, y, z);
+            }
+            if (frame.region().isInRegion(x, y, z)) {
+                return frame.region().getBiome(x, y, z);
+            }
+        }
         return world.getBiome(x, y, z);
     }
     
@@ -225,4 +332,16 @@ public class PaperDimensionInfo implements IDimensionInfo {
     public String dimension() {
         return world.getName();
     }
+
+    /**
+     * 预规划所需输入尚未就绪
+     */
+    private static final class PlanningInputMissing extends RuntimeException {
+
+        private static final PlanningInputMissing INSTANCE = new PlanningInputMissing();
+
+        private PlanningInputMissing() {
+            super("planning input missing", null, false, false);
+        }
+    }
 }
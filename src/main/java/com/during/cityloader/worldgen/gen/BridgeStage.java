@@ -20,6 +20,11 @@ public class BridgeStage implements GenerationStage {
     private static final Material BRIDGE_SUPPORT = Material.BLACKSTONE;
     private static final Material BRIDGE_RAILING = Material.POLISHED_BLACKSTONE_BRICK_WALL;
 
+    @Override
+    public StagePriority priority() {
+        return StagePriority.CRITICAL;
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
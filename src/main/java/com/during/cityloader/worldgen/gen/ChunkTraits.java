@@ -0,0 +1,62 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.worldgen.lost.BuildingInfo;
+
+/**
+ * 区块特征位
+ * 从 {@link BuildingInfo} 提取的几项布尔特征，打包为 int 位掩码，
+ * 供 {@link StageFilter} 在分派前判断阶段是否可能对本区块产生作用。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class ChunkTraits {
+
+    public static final int CITY = 1;
+    public static final int BUILDING = 1 << 1;
+    public static final int STREET = 1 << 2;
+    public static final int HIGHWAY = 1 << 3;
+    /**
+     * 区块是地下铁路走廊候选
+     */
+    public static final int RAIL = 1 << 4;
+    /**
+     * 城市地面不高于水位
+     */
+    public static final int WATER = 1 << 5;
+
+    private ChunkTraits() {
+    }
+
+    /**
+     * 提取区块特征
+     *
+     * @param info 建筑信息
+     * @return 特征位掩码
+     */
+    public static int of(BuildingInfo info) {
+        if (info == null) {
+            return 0;
+        }
+        int traits = 0;
+        if (info.isCity) {
+            traits |= CITY;
+        }
+        if (info.hasBuilding) {
+            traits |= BUILDING;
+        }
+        if (info.hasStreet) {
+            traits |= STREET;
+        }
+        if (info.highwayXLevel > 0 || info.highwayZLevel > 0) {
+            traits |= HIGHWAY;
+        }
+        if (info.xRailCorridor || info.zRailCorridor) {
+            traits |= RAIL;
+        }
+        if (info.getCityGroundLevel() <= info.waterLevel) {
+            traits |= WATER;
+        }
+        return traits;
+    }
+}
@@ -3,6 +3,7 @@ package com.during.cityloader.worldgen.gen;
 import com.during.cityloader.worldgen.ChunkHeightmap;
 import com.during.cityloader.worldgen.IDimensionInfo;
 import com.during.cityloader.worldgen.LostCityProfile;
+import com.during.cityloader.worldgen.MaterialClasses;
 import com.during.cityloader.worldgen.lost.BuildingInfo;
 import com.during.cityloader.worldgen.lost.City;
 import com.during.cityloader.worldgen.lost.Transform;
@@ -10,6 +11,8 @@ import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
 import com.during.cityloader.worldgen.lost.cityassets.BuildingPart;
 import com.during.cityloader.worldgen.lost.cityassets.CityStyle;
 import com.during.cityloader.worldgen.lost.cityassets.CompiledPalette;
+import com.during.cityloader.worldgen.lost.cityassets.ComposedPaletteCache;
+import com.during.cityloader.worldgen.lost.cityassets.PartTemplate;
 import com.during.cityloader.worldgen.lost.cityassets.Palette;
 import com.during.cityloader.worldgen.lost.regassets.data.PredefinedStreet;
 import com.during.cityloader.worldgen.lost.regassets.data.StreetSettings;
@@ -59,6 +62,16 @@ public class CityCoreStage implements GenerationStage {
             Material.MOSS_CARPET
     );
 
+    @Override
+    public StagePriority priority() {
+        return StagePriority.CRITICAL;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        return StageFilter.requiring(ChunkTraits.CITY);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
@@ -96,8 +109,10 @@ public class CityCoreStage implements GenerationStage {
         // 所有建筑都补齐基础承重，避免底层/地下层出现“悬空缺块”。
         if (info.hasBuilding) {
             stabilizeBuildingFoundation(context, info);
-            compactFoundationMass(context, info);
-            purgeBuildingWater(context, info);
+            VolumePass foundation = new VolumePass();
+            compactFoundationMass(foundation, context, info);
+            purgeBuildingWater(foundation, context, info);
+            foundation.run(context);
             sealExposedBuildingEdges(context, info);
             openFootprintInternalSeams(context, info);
             healSliceArtifacts(context, info);
@@ -822,7 +837,9 @@ public class CityCoreStage implements GenerationStage {
             }
         }
         healRoadSurface(context, y, roadBase, road);
-        cleanupStreetVegetation(context, y);
+        VolumePass vegetation = new VolumePass();
+        cleanupStreetVegetation(vegetation, context, y);
+        vegetation.run(context);
     }
 
     private void generateVacantLot(GenerationContext context) {
@@ -852,27 +869,19 @@ public class CityCoreStage implements GenerationStage {
         }
     }
 
-    private void cleanupStreetVegetation(GenerationContext context, int roadY) {
-        int minY = Math.max(context.getWorldInfo().getMinHeight(), roadY);
+    private void cleanupStreetVegetation(VolumePass pass, GenerationContext context, int roadY) {
+        int worldMinY = context.getWorldInfo().getMinHeight();
+        int minY = Math.max(worldMinY, roadY);
         int maxY = Math.min(context.getWorldInfo().getMaxHeight() - 1, roadY + 24);
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                for (int y = minY; y <= maxY; y++) {
-                    Material current = context.getBlockType(x, y, z);
-                    if (!isRoadPollutingVegetation(current)) {
-                        continue;
-                    }
-                    Material below = y > context.getWorldInfo().getMinHeight()
-                            ? context.getBlockType(x, y - 1, z)
-                            : Material.AIR;
+        pass.rule(minY, maxY, MaterialClasses.VEGETATION, this::isRoadPollutingVegetation,
+                (ctx, x, y, z, current) -> {
+                    Material below = y > worldMinY ? ctx.getBlockType(x, y - 1, z) : Material.AIR;
                     boolean onRoadSurface = y <= roadY + 1;
                     boolean floating = !isSolidSupport(below) && !isRoadPollutingVegetation(below);
                     if (onRoadSurface || floating) {
-                        context.setBlock(x, y, z, Material.AIR);
+                        ctx.setBlock(x, y, z, Material.AIR);
                     }
-                }
-            }
-        }
+                });
     }
 
     private void healRoadSurface(GenerationContext context, int roadY, Material base, Material top) {
@@ -986,7 +995,7 @@ public class CityCoreStage implements GenerationStage {
         }
     }
 
-    private void compactFoundationMass(GenerationContext context, BuildingInfo info) {
+    private void compactFoundationMass(VolumePass pass, GenerationContext context, BuildingInfo info) {
         if (info == null || !info.hasBuilding) {
             return;
         }
@@ -994,36 +1003,27 @@ public class CityCoreStage implements GenerationStage {
         ChunkHeightmap heightmap = dimInfo == null ? null : dimInfo.getHeightmap(context.getChunkX(), context.getChunkZ());
         int minY = context.getWorldInfo().getMinHeight();
         int topY = info.getCityGroundLevel() - Math.max(0, info.cellars) * GenerationHeightModel.FLOOR_HEIGHT - 1;
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                int terrain = TerrainEmbeddingEngine.terrainHeight(heightmap, x, z, topY - 32);
-                int bottomY = Math.max(minY, Math.min(topY - 48, terrain));
-                for (int y = topY; y >= bottomY; y--) {
-                    Material current = context.getBlockType(x, y, z);
-                    if (isAir(current) || current == Material.WATER || current == Material.LAVA || current == Material.BUBBLE_COLUMN) {
-                        context.setBlock(x, y, z, Material.STONE);
-                    }
-                }
-            }
-        }
+        pass.rule((x, z) -> Math.max(minY, Math.min(topY - 48, TerrainEmbeddingEngine.terrainHeight(heightmap, x, z, topY - 32))),
+                (x, z) -> topY,
+                MaterialClasses.AIR | MaterialClasses.FLUID,
+                current -> isAir(current) || isFluid(current),
+                (ctx, x, y, z, current) -> ctx.setBlock(x, y, z, Material.STONE));
     }
 
-    private void purgeBuildingWater(GenerationContext context, BuildingInfo info) {
+    private void purgeBuildingWater(VolumePass pass, GenerationContext context, BuildingInfo info) {
         if (info == null || !info.hasBuilding) {
             return;
         }
         int minY = Math.max(context.getWorldInfo().getMinHeight(), info.getCityGroundLevel() - Math.max(1, info.cellars) * GenerationHeightModel.FLOOR_HEIGHT);
         int maxY = Math.min(context.getWorldInfo().getMaxHeight() - 1, info.getMaxHeight() + 4);
-        for (int x = 1; x < 15; x++) {
-            for (int z = 1; z < 15; z++) {
-                for (int y = minY; y <= maxY; y++) {
-                    Material current = context.getBlockType(x, y, z);
-                    if (current == Material.WATER || current == Material.LAVA || current == Material.BUBBLE_COLUMN) {
-                        context.setBlock(x, y, z, Material.AIR);
-                    }
-                }
-            }
-        }
+        // 只处理内部列（不含区块边缘一圈）
+        pass.rule((x, z) -> isEdge(x, z) ? Integer.MAX_VALUE : minY, (x, z) -> maxY,
+                MaterialClasses.FLUID, this::isFluid,
+                (ctx, x, y, z, current) -> ctx.setBlock(x, y, z, Material.AIR));
+    }
+
+    private boolean isFluid(Material material) {
+        return material == Material.WATER || material == Material.LAVA || material == Material.BUBBLE_COLUMN;
     }
 
     private void healSliceArtifacts(GenerationContext context, BuildingInfo info) {
@@ -1034,24 +1034,16 @@ public class CityCoreStage implements GenerationStage {
                 info.getCityGroundLevel() - Math.max(0, info.cellars) * GenerationHeightModel.FLOOR_HEIGHT);
         int maxY = Math.min(context.getWorldInfo().getMaxHeight() - 1, info.getMaxHeight() + 3);
         Material facade = Material.STONE_BRICKS;
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                boolean edge = x == 0 || x == 15 || z == 0 || z == 15;
-                if (!edge) {
-                    continue;
-                }
-                for (int y = minY; y <= maxY; y++) {
-                    Material current = context.getBlockType(x, y, z);
-                    if (!isTerrainSliceMaterial(current)) {
-                        continue;
-                    }
-                    if (!hasAirNeighbor(context, x, y, z)) {
-                        continue;
-                    }
-                    context.setBlock(x, y, z, facade);
-                }
-            }
-        }
+        // 只处理区块边缘一圈
+        new VolumePass()
+                .rule((x, z) -> isEdge(x, z) ? minY : Integer.MAX_VALUE, (x, z) -> maxY,
+                        MaterialClasses.TERRAIN, this::isTerrainSliceMaterial,
+                        (ctx, x, y, z, current) -> {
+                            if (hasAirNeighbor(ctx, x, y, z)) {
+                                ctx.setBlock(x, y, z, facade);
+                            }
+                        })
+                .run(context);
     }
 
     private boolean hasAirNeighbor(GenerationContext context, int x, int y, int z) {
@@ -1404,7 +1396,7 @@ public class CityCoreStage implements GenerationStage {
         if (additions.isEmpty()) {
             return context.palette();
         }
-        return new CompiledPalette(context.palette(), additions.toArray(Palette[]::new));
+        return ComposedPaletteCache.compose(context.palette(), additions.toArray(Palette[]::new));
     }
 
     private com.during.cityloader.util.ResourceLocation resolveLocation(com.during.cityloader.util.ResourceLocation owner, String raw) {
@@ -1511,8 +1503,8 @@ public class CityCoreStage implements GenerationStage {
             transform = Transform.ROTATE_NONE;
         }
 
-        List<List<String>> layers = part.getSliceLayers();
-        if (layers == null || layers.isEmpty()) {
+        PartTemplate.Oriented template = PartBlitter.orient(part, transform, false);
+        if (template.getLayerCount() == 0) {
             return;
         }
 
@@ -1526,97 +1518,66 @@ public class CityCoreStage implements GenerationStage {
                 && (part.getWidth() > 16 || part.getHeight() > 16);
         int windowOffsetX = useFootprintWindow ? info.getFootprintLocalChunkX() * 16 : 0;
         int windowOffsetZ = useFootprintWindow ? info.getFootprintLocalChunkZ() * 16 : 0;
-        int windowMaxX = windowOffsetX + 15;
-        int windowMaxZ = windowOffsetZ + 15;
-        int maxLayers = Math.min(part.getDepth(), layers.size());
-        for (int dy = 0; dy < maxLayers; dy++) {
+        PartBlitter.blit(template, windowOffsetX, windowOffsetZ, (dy, mappedX, mappedZ, token) -> {
             int y = baseY + dy;
-            List<String> rows = layers.get(dy);
-            int sourceMaxZ = Math.min(part.getHeight(), rows.size());
-            int sourceMaxX = part.getWidth();
-            int boundX = sourceMaxX - 1;
-            int boundZ = sourceMaxZ - 1;
-            if (boundX < 0 || boundZ < 0) {
-                continue;
+            if (token == ' ') {
+                if (!overlay) {
+                    context.setBlock(mappedX, y, mappedZ, Material.AIR);
+                }
+                return;
+            }
+            if (token == '.') {
+                if (!overlay && dy == 0) {
+                    Material fallbackFloor = pickRuinFloorMaterial(context, mappedX, mappedZ, y);
+                    context.setBlock(mappedX, y, mappedZ, fallbackFloor);
+                    baseMaterials[mappedX][mappedZ] = fallbackFloor;
+                } else if (!overlay) {
+                    context.setBlock(mappedX, y, mappedZ, Material.AIR);
+                }
+                return;
             }
-            for (int z = 0; z < sourceMaxZ; z++) {
-                String row = rows.get(z);
-                int maxX = Math.min(sourceMaxX, row.length());
-                for (int x = 0; x < maxX; x++) {
-                    char token = row.charAt(x);
-                    int mappedX = transform.mapX(x, z, boundX, boundZ);
-                    int mappedZ = transform.mapZ(x, z, boundX, boundZ);
-                    if (useFootprintWindow) {
-                        if (mappedX < windowOffsetX || mappedX > windowMaxX
-                                || mappedZ < windowOffsetZ || mappedZ > windowMaxZ) {
-                            continue;
-                        }
-                        mappedX -= windowOffsetX;
-                        mappedZ -= windowOffsetZ;
-                    }
-                    if (mappedX < 0 || mappedX >= 16 || mappedZ < 0 || mappedZ >= 16) {
-                        continue;
-                    }
-                    if (token == ' ') {
-                        if (!overlay) {
-                            context.setBlock(mappedX, y, mappedZ, Material.AIR);
-                        }
-                        continue;
-                    }
-                    if (token == '.') {
-                        if (!overlay && dy == 0) {
-                            Material fallbackFloor = pickRuinFloorMaterial(context, mappedX, mappedZ, y);
-                            context.setBlock(mappedX, y, mappedZ, fallbackFloor);
-                            baseMaterials[mappedX][mappedZ] = fallbackFloor;
-                        } else if (!overlay) {
-                            context.setBlock(mappedX, y, mappedZ, Material.AIR);
-                        }
-                        continue;
-                    }
 
-                    CompiledPalette.Information information = palette.getInformation(token);
-                    if (information != null) {
-                        context.getBuildingInfo().addPalettePostTodo(mappedX, y, mappedZ, part.getName(), information);
-                    }
-                    if (information != null && information.torch()) {
-                        context.setBlock(mappedX, y, mappedZ, Material.AIR);
-                        continue;
-                    }
+            CompiledPalette.Information information = palette.getInformation(token);
+            if (information != null) {
+                context.getBuildingInfo().addPalettePostTodo(mappedX, y, mappedZ, part.getName(), information);
+            }
+            if (information != null && information.torch()) {
+                context.setBlock(mappedX, y, mappedZ, Material.AIR);
+                return;
+            }
 
-                    String definition = resolveFromPaletteString(context, palette, token);
-                    if (definition == null || definition.isBlank()) {
-                        if (!overlay && dy == 0) {
-                            Material fallbackFloor = pickRuinFloorMaterial(context, mappedX, mappedZ, y);
-                            context.setBlock(mappedX, y, mappedZ, fallbackFloor);
-                            baseMaterials[mappedX][mappedZ] = fallbackFloor;
-                        }
-                        continue;
-                    }
-                    if (isAirDefinition(definition)) {
-                        if (!overlay && dy == 0) {
-                            Material fallbackFloor = pickRuinFloorMaterial(context, mappedX, mappedZ, y);
-                            context.setBlock(mappedX, y, mappedZ, fallbackFloor);
-                            baseMaterials[mappedX][mappedZ] = fallbackFloor;
-                        } else {
-                            context.setBlock(mappedX, y, mappedZ, Material.AIR);
-                        }
-                        continue;
-                    }
-                    if (definition.contains("structure_void")) {
-                        continue;
-                    }
-                    context.setBlock(mappedX, y, mappedZ, definition);
-                    if (dy == 0 && !overlay) {
-                        Material resolved = context.resolveMaterial(definition, null);
-                        if (resolved == null || resolved == Material.AIR) {
-                            resolved = pickRuinFloorMaterial(context, mappedX, mappedZ, y);
-                            context.setBlock(mappedX, y, mappedZ, resolved);
-                        }
-                        baseMaterials[mappedX][mappedZ] = resolved;
-                    }
+            String definition = resolveFromPaletteString(context, palette, token);
+            if (definition == null || definition.isBlank()) {
+                if (!overlay && dy == 0) {
+                    Material fallbackFloor = pickRuinFloorMaterial(context, mappedX, mappedZ, y);
+                    context.setBlock(mappedX, y, mappedZ, fallbackFloor);
+                    baseMaterials[mappedX][mappedZ] = fallbackFloor;
                 }
+                return;
             }
-        }
+            if (isAirDefinition(definition)) {
+                if (!overlay && dy == 0) {
+                    Material fallbackFloor = pickRuinFloorMaterial(context, mappedX, mappedZ, y);
+                    context.setBlock(mappedX, y, mappedZ, fallbackFloor);
+                    baseMaterials[mappedX][mappedZ] = fallbackFloor;
+                } else {
+                    context.setBlock(mappedX, y, mappedZ, Material.AIR);
+                }
+                return;
+            }
+            if (definition.contains("structure_void")) {
+                return;
+            }
+            context.setBlock(mappedX, y, mappedZ, definition, palette.getBlockData(token, definition));
+            if (dy == 0 && !overlay) {
+                Material resolved = context.resolveMaterial(definition, null);
+                if (resolved == null || resolved == Material.AIR) {
+                    resolved = pickRuinFloorMaterial(context, mappedX, mappedZ, y);
+                    context.setBlock(mappedX, y, mappedZ, resolved);
+                }
+                baseMaterials[mappedX][mappedZ] = resolved;
+            }
+        });
 
         if (!overlay && terrainFixEnabled && profile != null) {
             applyTerrainFix(context, baseMaterials, baseY, profile);
@@ -17,6 +17,7 @@ import org.bukkit.block.data.Rail;
 import java.util.List;
 import java.util.Locale;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * 球体城市生成阶段
@@ -25,6 +26,26 @@ import java.util.Random;
 public class CitySphereStage implements GenerationStage {
 
     private static final long SPHERE_GRID_SALT = 0x7FFFFFFFFFFFFFFFL;
+    private static final Set<String> SPHERE_LANDSCAPES = Set.of("space", "spheres", "cavernspheres");
+
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public boolean parallelizable() {
+        // 会把区块改写为城市区块，之后的阶段需读取改写后的建筑信息
+        return false;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        if (!profile.isCitySphereEnabled() || !SPHERE_LANDSCAPES.contains(profile.getLandscapeType())) {
+            return StageFilter.NEVER;
+        }
+        return StageFilter.ALWAYS;
+    }
 
     @Override
     public void generate(GenerationContext context) {
@@ -35,9 +56,7 @@ public class CitySphereStage implements GenerationStage {
             return;
         }
         
-        if (!profile.getLandscapeType().equals("space") && 
-            !profile.getLandscapeType().equals("spheres") &&
-            !profile.getLandscapeType().equals("cavernspheres")) {
+        if (!SPHERE_LANDSCAPES.contains(profile.getLandscapeType())) {
             return;
         }
 
@@ -0,0 +1,236 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.loot.LootTable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 补全队列日志
+ * 将等待区块加载的方块实体回写任务以 JSON 写入世界目录，重启后重建回写逻辑并重新入队，
+ * 使战利品、刷怪笼与方块实体标签不会因关服而丢失。
+ *
+ * <p>只有携带类型（{@link GenerationContext.BlockStateTask#kind()}）的任务会被记录；
+ * 无法重建的条目（如战利品表已不存在）在加载时跳过。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class CompletionJournal {
+
+    public static final String KIND_LOOT = "loot";
+    public static final String KIND_ITEMS = "items";
+    public static final String KIND_SPAWNER = "spawner";
+    public static final String KIND_TAG = "tag";
+
+    private static final int VERSION = 1;
+    private static final Gson GSON = new Gson();
+
+    private CompletionJournal() {
+    }
+
+    /**
+     * 描述物品列表，供日志重建
+     * 完整物品（附魔、名称等组件）以 {@link ItemStack#serializeAsBytes()} 的 Base64 记录，
+     * 同时保留材质键与数量，数据无法反序列化时（如跨版本）退回为普通物品。
+     *
+     * @param items 物品
+     * @return 可序列化的描述
+     */
+    public static List<Map<String, Object>> describeItems(ItemStack[] items) {
+        List<Map<String, Object>> described = new ArrayList<>();
+        for (ItemStack item : items) {
+            if (item == null || item.getType() == Material.AIR) {
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", item.getType().getKey().toString());
+            entry.put("count", item.getAmount());
+            entry.put("bytes", Base64.getEncoder().encodeToString(item.serializeAsBytes()));
+            described.add(entry);
+        }
+        return described;
+    }
+
+    /**
+     * 写出任务日志（先写临时文件再原子替换）；没有可记录的任务时删除旧日志
+     *
+     * @param file  日志文件
+     * @param tasks 任务
+     * @return 写入的任务数
+     * @throws IOException 写入失败
+     */
+    public static int save(Path file, Collection<GenerationContext.BlockStateTask> tasks) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (GenerationContext.BlockStateTask task : tasks) {
+            if (task.kind() != null) {
+                entries.add(new Entry(task.x(), task.y(), task.z(), task.kind(), task.data(), task.failures()));
+            }
+        }
+        if (entries.isEmpty()) {
+            Files.deleteIfExists(file);
+            return 0;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            GSON.toJson(new JournalFile(VERSION, entries), writer);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return entries.size();
+    }
+
+    /**
+     * 读取任务日志并重建回写任务
+     *
+     * @param file 日志文件
+     * @return 任务（文件不存在时为空）
+     * @throws IOException 读取或解析失败
+     */
+    public static List<GenerationContext.BlockStateTask> load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        JournalFile journal;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            journal = GSON.fromJson(reader, JournalFile.class);
+        } catch (JsonParseException e) {
+            throw new IOException("补全队列日志格式错误: " + file, e);
+        }
+        if (journal == null || journal.tasks() == null) {
+            return List.of();
+        }
+        List<GenerationContext.BlockStateTask> tasks = new ArrayList<>(journal.tasks().size());
+        for (Entry entry : journal.tasks()) {
+            if (entry == null || entry.kind() == null) {
+                continue;
+            }
+            Map<String, Object> data = entry.data() == null ? Map.of() : entry.data();
+            GenerationContext.BlockStateMutator mutator = restore(entry, data);
+            if (mutator != null) {
+                tasks.add(new GenerationContext.BlockStateTask(
+                        entry.x(), entry.y(), entry.z(), mutator, entry.kind(), data, Math.max(0, entry.failures())));
+            }
+        }
+        return tasks;
+    }
+
+    private static GenerationContext.BlockStateMutator restore(Entry entry, Map<String, Object> data) {
+        switch (entry.kind()) {
+            case KIND_LOOT -> {
+                NamespacedKey key = data.get("table") instanceof String table ? NamespacedKey.fromString(table) : null;
+                LootTable lootTable = key == null ? null : Bukkit.getLootTable(key);
+                if (lootTable == null) {
+                    return null;
+                }
+                long seed = parseSeed(data.get("seed"));
+                return state -> GenerationContext.applyLootTable(state, lootTable, seed);
+            }
+            case KIND_ITEMS -> {
+                ItemStack[] items = restoreItems(data.get("items"));
+                return state -> GenerationContext.fillContainer(state, items);
+            }
+            case KIND_SPAWNER -> {
+                EntityType type;
+                try {
+                    type = EntityType.valueOf(String.valueOf(data.get("mob")));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+                return state -> GenerationContext.configureSpawner(state, type);
+            }
+            case KIND_TAG -> {
+                if (!(data.get("tag") instanceof Map<?, ?> raw)) {
+                    return null;
+                }
+                Map<String, Object> tag = new LinkedHashMap<>();
+                raw.forEach((name, value) -> tag.put(String.valueOf(name), value));
+                // 原任务的兜底种子来自生成随机数，重启后改用坐标派生，保证同一位置结果稳定
+                long fallbackSeed = (long) entry.x() * 341873128712L ^ (long) entry.z() * 132897987541L ^ entry.y();
+                return state -> GenerationContext.applyBlockEntityTag(state, tag, () -> fallbackSeed);
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private static ItemStack[] restoreItems(Object raw) {
+        List<ItemStack> items = new ArrayList<>();
+        if (raw instanceof List<?> list) {
+            for (Object element : list) {
+                if (!(element instanceof Map<?, ?> item)) {
+                    continue;
+                }
+                ItemStack stack = deserializeItem(item.get("bytes"));
+                if (stack != null) {
+                    items.add(stack);
+                    continue;
+                }
+                if (!(item.get("id") instanceof String id)) {
+                    continue;
+                }
+                Material material = Material.matchMaterial(id);
+                if (material == null || material == Material.AIR) {
+                    continue;
+                }
+                int count = item.get("count") instanceof Number number ? number.intValue() : 1;
+                items.add(new ItemStack(material, Math.max(1, count)));
+            }
+        }
+        return items.toArray(new ItemStack[0]);
+    }
+
+    private static ItemStack deserializeItem(Object raw) {
+        if (!(raw instanceof String encoded)) {
+            return null;
+        }
+        try {
+            ItemStack stack = ItemStack.deserializeBytes(Base64.getDecoder().decode(encoded));
+            return stack == null || stack.getType() == Material.AIR ? null : stack;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long parseSeed(Object raw) {
+        if (raw instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return raw == null ? 0L : Long.parseLong(raw.toString());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private record JournalFile(int version, List<Entry> tasks) {
+    }
+
+    private record Entry(int x, int y, int z, String kind, Map<String, Object> data, int failures) {
+    }
+}
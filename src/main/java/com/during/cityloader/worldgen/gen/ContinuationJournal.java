@@ -0,0 +1,122 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.season.Season;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 延后阶段续跑日志
+ * 与 {@link CompletionJournal} 相同的格式约定：将尚未续跑完的区块坐标、季节与剩余阶段名
+ * 以 JSON 写入世界目录，重启后重新入队，使超出预算而延后的阶段不会因关服而丢失。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class ContinuationJournal {
+
+    private static final int VERSION = 1;
+    private static final Gson GSON = new Gson();
+
+    private ContinuationJournal() {
+    }
+
+    /**
+     * 写出续跑日志（先写临时文件再原子替换）；没有待续跑的区块时删除旧日志
+     *
+     * @param file          日志文件
+     * @param continuations 续跑任务
+     * @return 写入的任务数
+     * @throws IOException 写入失败
+     */
+    public static int save(Path file, Collection<StageContinuation> continuations) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (StageContinuation continuation : continuations) {
+            List<String> stages = continuation.remainingStageNames();
+            if (!stages.isEmpty()) {
+                entries.add(new Entry(continuation.chunkX(), continuation.chunkZ(),
+                        continuation.season().name(), stages));
+            }
+        }
+        if (entries.isEmpty()) {
+            Files.deleteIfExists(file);
+            return 0;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            GSON.toJson(new JournalFile(VERSION, entries), writer);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return entries.size();
+    }
+
+    /**
+     * 读取续跑日志
+     *
+     * @param file 日志文件
+     * @return 尚未解析阶段的续跑任务（文件不存在时为空）
+     * @throws IOException 读取或解析失败
+     */
+    public static List<StageContinuation> load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        JournalFile journal;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            journal = GSON.fromJson(reader, JournalFile.class);
+        } catch (JsonParseException e) {
+            throw new IOException("续跑日志格式错误: " + file, e);
+        }
+        if (journal == null || journal.chunks() == null) {
+            return List.of();
+        }
+        List<StageContinuation> continuations = new ArrayList<>(journal.chunks().size());
+        for (Entry entry : journal.chunks()) {
+            if (entry == null || entry.stages() == null) {
+                continue;
+            }
+            List<String> stages = new ArrayList<>(entry.stages().size());
+            for (String stage : entry.stages()) {
+                if (stage != null && !stage.isBlank()) {
+                    stages.add(stage);
+                }
+            }
+            if (!stages.isEmpty()) {
+                continuations.add(StageContinuation.restored(entry.x(), entry.z(), parseSeason(entry.season()),
+                        stages));
+            }
+        }
+        return continuations;
+    }
+
+    private static Season parseSeason(String raw) {
+        try {
+            return raw == null ? Season.SPRING : Season.valueOf(raw);
+        } catch (IllegalArgumentException e) {
+            return Season.SPRING;
+        }
+    }
+
+    private record JournalFile(int version, List<Entry> chunks) {
+    }
+
+    private record Entry(int x, int z, String season, List<String> stages) {
+    }
+}
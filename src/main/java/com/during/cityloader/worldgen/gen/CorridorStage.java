@@ -18,6 +18,19 @@ public class CorridorStage implements GenerationStage {
 
     private static final int CORRIDOR_DEPTH = -6;
 
+    @Override
+    public StagePriority priority() {
+        return StagePriority.CRITICAL;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        if (profile.getCorridorChance() <= 0) {
+            return StageFilter.NEVER;
+        }
+        return StageFilter.requiring(ChunkTraits.CITY);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
@@ -34,6 +34,17 @@ public final class DamageStage implements GenerationStage {
                 }
             });
 
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        if (profile.isRubbleLayer()) {
+            return StageFilter.ALWAYS;
+        }
+        if (!profile.isDamageEnabled()) {
+            return StageFilter.NEVER;
+        }
+        return StageFilter.requiring(ChunkTraits.BUILDING);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
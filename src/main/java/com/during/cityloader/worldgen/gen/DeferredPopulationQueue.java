@@ -0,0 +1,114 @@
+package com.during.cityloader.worldgen.gen;
+
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 延迟填充队列
+ * 记录资产尚未就绪时跳过城市生成的区块；资产就绪后由
+ * {@link com.during.cityloader.generator.CityBlockPopulator#replayDeferred(World, long)}
+ * 在主线程补生成已加载的区块，其余区块在加载时补生成。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class DeferredPopulationQueue {
+
+    private static final Map<UUID, Set<Long>> CHUNKS = new ConcurrentHashMap<>();
+    private static final AtomicLong TOTAL_DEFERRED = new AtomicLong();
+
+    private DeferredPopulationQueue() {
+    }
+
+    public static void record(World world, int chunkX, int chunkZ) {
+        if (world == null) {
+            return;
+        }
+        if (CHUNKS.computeIfAbsent(world.getUID(), id -> ConcurrentHashMap.newKeySet()).add(key(chunkX, chunkZ))) {
+            TOTAL_DEFERRED.incrementAndGet();
+        }
+    }
+
+    /**
+     * 取出并清空指定世界的延迟区块
+     *
+     * @param world 世界
+     * @return 区块键（见 {@link #key(int, int)}）
+     */
+    public static long[] drain(World world) {
+        if (world == null) {
+            return new long[0];
+        }
+        Set<Long> chunks = CHUNKS.remove(world.getUID());
+        if (chunks == null) {
+            return new long[0];
+        }
+        return chunks.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * 查看指定世界的延迟区块（不移除）
+     *
+     * @param world 世界
+     * @return 区块键（见 {@link #key(int, int)}）
+     */
+    public static long[] snapshot(World world) {
+        if (world == null) {
+            return new long[0];
+        }
+        Set<Long> chunks = CHUNKS.get(world.getUID());
+        if (chunks == null) {
+            return new long[0];
+        }
+        return chunks.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * 认领一个延迟区块：只有一个调用方能成功认领同一区块
+     *
+     * @param world  世界
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     * @return 区块在队列中且已被移除时返回true
+     */
+    public static boolean remove(World world, int chunkX, int chunkZ) {
+        if (world == null) {
+            return false;
+        }
+        Set<Long> chunks = CHUNKS.get(world.getUID());
+        return chunks != null && chunks.remove(key(chunkX, chunkZ));
+    }
+
+    public static int pending(World world) {
+        if (world == null) {
+            return 0;
+        }
+        Set<Long> chunks = CHUNKS.get(world.getUID());
+        return chunks == null ? 0 : chunks.size();
+    }
+
+    public static long totalDeferred() {
+        return TOTAL_DEFERRED.get();
+    }
+
+    public static void clear() {
+        CHUNKS.clear();
+    }
+
+    public static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int chunkZ(long key) {
+        return (int) key;
+    }
+}
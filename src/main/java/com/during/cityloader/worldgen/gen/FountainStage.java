@@ -14,6 +14,19 @@ import java.util.Random;
  */
 public class FountainStage implements GenerationStage {
 
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        if (profile.getFountainChance() <= 0) {
+            return StageFilter.NEVER;
+        }
+        return StageFilter.requiring(ChunkTraits.CITY | ChunkTraits.BUILDING);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
@@ -1,6 +1,7 @@
 package com.during.cityloader.worldgen.gen;
 
 import com.during.cityloader.season.Season;
+import com.during.cityloader.worldgen.BlockDataInterner;
 import com.during.cityloader.worldgen.ChunkDriver;
 import com.during.cityloader.worldgen.IDimensionInfo;
 import com.during.cityloader.worldgen.lost.BuildingInfo;
@@ -28,12 +29,14 @@ import org.bukkit.loot.Lootable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.LongSupplier;
 
 /**
  * 区块生成上下文
@@ -47,7 +50,7 @@ public class GenerationContext {
     private final WorldInfo worldInfo;
     private final IDimensionInfo dimensionInfo;
     private final BuildingInfo buildingInfo;
-    private final Random random;
+    private Random random;
     private final Season season;
     private final int chunkX;
     private final int chunkZ;
@@ -55,37 +58,13 @@ public class GenerationContext {
     private final int baseZ;
     
     private final ChunkDriver driver;
-    private final LimitedRegion region;
+    private LimitedRegion region;
 
-    // 缓存 BlockData 解析结果，避免重复调用 Bukkit API
-    private final Map<String, BlockData> blockDataCache = new HashMap<>();
     private final List<BlockStateTask> pendingBlockStateTasks = new ArrayList<>();
-
-    // 将常见模组方块名降级到可用的原版材质，避免解析失败导致建筑细节丢失
-    private static final Map<String, String> NON_VANILLA_BLOCK_ALIASES = Map.ofEntries(
-            // immersive_weathering
-            Map.entry("charred_planks", "oak_planks"),
-            Map.entry("charred_slab", "oak_slab"),
-            Map.entry("charred_stairs", "oak_stairs"),
-            Map.entry("cracked_bricks", "cracked_stone_bricks"),
-            Map.entry("cracked_deepslate_brick_slab", "deepslate_brick_slab"),
-            Map.entry("cracked_stone_brick_wall", "stone_brick_wall"),
-            Map.entry("cut_iron", "iron_block"),
-            Map.entry("exposed_iron_bars", "iron_bars"),
-            Map.entry("weathered_iron_bars", "iron_bars"),
-            Map.entry("rusted_iron_bars", "iron_bars"),
-            Map.entry("waxed_iron_door", "iron_door"),
-            Map.entry("mossy_brick_slab", "stone_brick_slab"),
-            Map.entry("mossy_bricks", "stone_bricks"),
-            Map.entry("mossy_stone", "cobblestone"),
-            Map.entry("mossy_stone_slab", "cobblestone_slab"),
-            Map.entry("mossy_stone_stairs", "cobblestone_stairs"),
-            Map.entry("mossy_stone_wall", "cobblestone_wall"),
-            Map.entry("stone_wall", "stone_brick_wall"),
-            // pomkotsmechs
-            Map.entry("pomkotscube", "iron_block"),
-            Map.entry("mechworkbench", "crafting_table")
-    );
+    // 并行缓冲层中写到本区块之外的方块（按位置去重），合并时才写入 LimitedRegion；主上下文为 null
+    private final Map<Long, OutsideWrite> outsideWrites;
+    // 并行缓冲层从 LimitedRegion 读取过的本区块之外的位置，用于合并前检查读写冲突；主上下文为 null
+    private final Set<Long> outsideReads;
 
     public GenerationContext(WorldInfo worldInfo,
                              LimitedRegion region,
@@ -120,6 +99,97 @@ public class GenerationContext {
         if (dimensionInfo != null) {
             this.driver.setPrimer(dimensionInfo.getWorld(), region, chunkX, chunkZ);
         }
+        this.outsideWrites = null;
+        this.outsideReads = null;
+    }
+
+    /**
+     * 创建并行缓冲层上下文
+     *
+     * @param parent 主上下文
+     * @param random 阶段随机数源
+     */
+    private GenerationContext(GenerationContext parent, Random random) {
+        this.worldInfo = parent.worldInfo;
+        this.dimensionInfo = parent.dimensionInfo;
+        this.buildingInfo = parent.buildingInfo;
+        this.random = random;
+        this.season = parent.season;
+        this.chunkX = parent.chunkX;
+        this.chunkZ = parent.chunkZ;
+        this.baseX = parent.baseX;
+        this.baseZ = parent.baseZ;
+        this.region = parent.region;
+        this.driver = parent.driver.overlay();
+        this.outsideWrites = new LinkedHashMap<>();
+        this.outsideReads = new HashSet<>();
+    }
+
+    /**
+     * 切换为阶段自己的随机数流（{@link StageRandom}），在每个阶段执行前调用
+     *
+     * @param stage 即将执行的阶段
+     */
+    public void useStageRandom(GenerationStage stage) {
+        this.random = StageRandom.forStage(worldSeed(), chunkX, chunkZ, stage);
+    }
+
+    /**
+     * 为阶段创建并行缓冲层：区块内写入进入独立的缓冲层，区块外写入与方块实体任务暂存，
+     * 由 {@link #merge(GenerationContext)} 合并回本上下文
+     *
+     * @param stage 阶段
+     * @return 缓冲层上下文
+     */
+    GenerationContext fork(GenerationStage stage) {
+        return new GenerationContext(this, StageRandom.forStage(worldSeed(), chunkX, chunkZ, stage));
+    }
+
+    /**
+     * 合并缓冲层并释放其缓冲区（调用线程须为本上下文所属的生成线程）
+     *
+     * @param layer {@link #fork(GenerationStage)} 创建的缓冲层
+     */
+    void merge(GenerationContext layer) {
+        driver.merge(layer.driver);
+        for (OutsideWrite write : layer.outsideWrites.values()) {
+            setBlockDataOutsideChunk(write.localX(), write.y(), write.localZ(), write.blockData());
+        }
+        layer.outsideWrites.clear();
+        layer.outsideReads.clear();
+        synchronized (pendingBlockStateTasks) {
+            pendingBlockStateTasks.addAll(layer.pendingBlockStateTasks);
+        }
+        layer.pendingBlockStateTasks.clear();
+    }
+
+    /**
+     * 判断本缓冲层是否读取过另一缓冲层写入的位置（区块内或区块外）
+     * 为真时本层的结果依赖执行顺序，不能与另一层并行合并。
+     *
+     * @param earlier 执行顺序在前的缓冲层
+     * @return 存在读写冲突时返回true
+     */
+    boolean conflictsWith(GenerationContext earlier) {
+        if (driver.readsWrittenBy(earlier.driver)) {
+            return true;
+        }
+        if (outsideReads == null || earlier.outsideWrites == null) {
+            return false;
+        }
+        for (Long key : outsideReads) {
+            if (earlier.outsideWrites.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long worldSeed() {
+        if (dimensionInfo != null) {
+            return dimensionInfo.getSeed();
+        }
+        return worldInfo == null ? 0L : worldInfo.getSeed();
     }
     
     /**
@@ -130,6 +200,38 @@ public class GenerationContext {
         applyPendingBlockStateTasks();
     }
 
+    /**
+     * 释放区块缓冲区，区段存储归还线程本地对象池。
+     * 调用后不应再通过本上下文读写方块。
+     */
+    public void release() {
+        driver.clear();
+    }
+
+    /**
+     * 将上下文重新绑定到新的写入区域（延后阶段在区块加载后续跑时使用）
+     * 调用前应已 {@link #flush()} 并 {@link #release()} 原缓冲区。
+     *
+     * @param newRegion 新的写入区域
+     * @param newRandom 续跑使用的随机数源
+     */
+    public void resume(LimitedRegion newRegion, Random newRandom) {
+        this.region = newRegion;
+        this.random = newRandom;
+        if (dimensionInfo != null) {
+            this.driver.setPrimer(dimensionInfo.getWorld(), newRegion, chunkX, chunkZ);
+        }
+    }
+
+    /**
+     * 获取区块缓冲区（用于读取写入统计）
+     *
+     * @return 区块驱动器
+     */
+    public ChunkDriver getDriver() {
+        return driver;
+    }
+
     public WorldInfo getWorldInfo() {
         return worldInfo;
     }
@@ -199,7 +301,7 @@ public class GenerationContext {
             return;
         }
         Material resolved = maybeDemossifyMaterial(localX, y, localZ, material);
-        setBlockData(localX, y, localZ, resolved.createBlockData());
+        setBlockData(localX, y, localZ, BlockDataInterner.intern(resolved));
     }
 
     /**
@@ -216,7 +318,7 @@ public class GenerationContext {
         }
         Material demossified = maybeDemossifyMaterial(localX, y, localZ, blockData.getMaterial());
         if (demossified != null && demossified != blockData.getMaterial()) {
-            blockData = demossified.createBlockData();
+            blockData = BlockDataInterner.intern(demossified);
         }
         if (isOutsidePrimaryChunk(localX, localZ)) {
             setBlockDataOutsideChunk(localX, y, localZ, blockData);
@@ -374,6 +476,14 @@ public class GenerationContext {
             if (!region.isInRegion(worldX, y, worldZ)) {
                 return null;
             }
+            if (outsideWrites != null) {
+                long key = outsideKey(localX, y, localZ);
+                OutsideWrite pending = outsideWrites.get(key);
+                if (pending != null) {
+                    return pending.blockData();
+                }
+                outsideReads.add(key);
+            }
             return region.getBlockData(worldX, y, worldZ);
         }
         return driver.getBlock(localX, y, localZ);
@@ -387,6 +497,10 @@ public class GenerationContext {
         if (region == null || blockData == null) {
             return;
         }
+        if (outsideWrites != null) {
+            outsideWrites.put(outsideKey(localX, y, localZ), new OutsideWrite(localX, y, localZ, blockData));
+            return;
+        }
         int worldX = worldX(localX);
         int worldZ = worldZ(localZ);
         if (!region.isInRegion(worldX, y, worldZ)) {
@@ -432,43 +546,15 @@ public class GenerationContext {
         if (lootTable == null) {
             if (key != null && "keerdm_zombie_essentials".equals(key.getNamespace())) {
                 ItemStack[] generated = LootStage.generateKeerdmLoot(trimmedId, random);
-                queueBlockStateTask(localX, y, localZ, state -> {
-                    if (!(state instanceof Container container)) {
-                        return false;
-                    }
-                    Inventory inventory = container.getSnapshotInventory();
-                    if (inventory == null) {
-                        return false;
-                    }
-                    inventory.clear();
-                    int slot = 0;
-                    for (ItemStack item : generated) {
-                        if (item == null || item.getType() == Material.AIR) {
-                            continue;
-                        }
-                        while (slot < inventory.getSize() && inventory.getItem(slot) != null) {
-                            slot++;
-                        }
-                        if (slot >= inventory.getSize()) {
-                            break;
-                        }
-                        inventory.setItem(slot, item);
-                        slot++;
-                    }
-                    return true;
-                });
+                queueBlockStateTask(localX, y, localZ, state -> fillContainer(state, generated),
+                        CompletionJournal.KIND_ITEMS, Map.of("items", CompletionJournal.describeItems(generated)));
             }
             return;
         }
         final LootTable resolvedLootTable = lootTable;
         long seed = random == null ? 0L : random.nextLong();
-        queueBlockStateTask(localX, y, localZ, state -> {
-            if (!(state instanceof Lootable lootable)) {
-                return false;
-            }
-            lootable.setLootTable(resolvedLootTable, seed);
-            return true;
-        });
+        queueBlockStateTask(localX, y, localZ, state -> applyLootTable(state, resolvedLootTable, seed),
+                CompletionJournal.KIND_LOOT, Map.of("table", resolvedLootTable.getKey().toString(), "seed", Long.toString(seed)));
     }
 
     /**
@@ -479,20 +565,8 @@ public class GenerationContext {
         if (type == null) {
             return;
         }
-        queueBlockStateTask(localX, y, localZ, state -> {
-            if (!(state instanceof CreatureSpawner spawner)) {
-                return false;
-            }
-            spawner.setSpawnedType(type);
-            // 提高刷怪压迫感：更短延迟、更高单次数量、更宽触发范围
-            spawner.setMinSpawnDelay(80);
-            spawner.setMaxSpawnDelay(220);
-            spawner.setSpawnCount(6);
-            spawner.setMaxNearbyEntities(20);
-            spawner.setRequiredPlayerRange(24);
-            spawner.setSpawnRange(6);
-            return true;
-        });
+        queueBlockStateTask(localX, y, localZ, state -> configureSpawner(state, type),
+                CompletionJournal.KIND_SPAWNER, Map.of("mob", type.name()));
     }
 
     /**
@@ -503,7 +577,64 @@ public class GenerationContext {
             return;
         }
         Map<String, Object> snapshot = new HashMap<>(tag);
-        queueBlockStateTask(localX, y, localZ, state -> applyBlockEntityTag(state, snapshot));
+        // 日志中的数字按双精度读回，种子以字符串记录以免丢失精度
+        Map<String, Object> journaled = snapshot;
+        if (snapshot.get("LootTableSeed") instanceof Number seed) {
+            journaled = new HashMap<>(snapshot);
+            journaled.put("LootTableSeed", Long.toString(seed.longValue()));
+        }
+        queueBlockStateTask(localX, y, localZ,
+                state -> applyBlockEntityTag(state, snapshot, () -> random == null ? 0L : random.nextLong()),
+                CompletionJournal.KIND_TAG, Map.of("tag", journaled));
+    }
+
+    static boolean applyLootTable(BlockState state, LootTable lootTable, long seed) {
+        if (!(state instanceof Lootable lootable)) {
+            return false;
+        }
+        lootable.setLootTable(lootTable, seed);
+        return true;
+    }
+
+    static boolean fillContainer(BlockState state, ItemStack[] items) {
+        if (!(state instanceof Container container)) {
+            return false;
+        }
+        Inventory inventory = container.getSnapshotInventory();
+        if (inventory == null) {
+            return false;
+        }
+        inventory.clear();
+        int slot = 0;
+        for (ItemStack item : items) {
+            if (item == null || item.getType() == Material.AIR) {
+                continue;
+            }
+            while (slot < inventory.getSize() && inventory.getItem(slot) != null) {
+                slot++;
+            }
+            if (slot >= inventory.getSize()) {
+                break;
+            }
+            inventory.setItem(slot, item);
+            slot++;
+        }
+        return true;
+    }
+
+    static boolean configureSpawner(BlockState state, EntityType type) {
+        if (!(state instanceof CreatureSpawner spawner)) {
+            return false;
+        }
+        spawner.setSpawnedType(type);
+        // 提高刷怪压迫感：更短延迟、更高单次数量、更宽触发范围
+        spawner.setMinSpawnDelay(80);
+        spawner.setMaxSpawnDelay(220);
+        spawner.setSpawnCount(6);
+        spawner.setMaxNearbyEntities(20);
+        spawner.setRequiredPlayerRange(24);
+        spawner.setSpawnRange(6);
+        return true;
     }
 
     /**
@@ -531,6 +662,36 @@ public class GenerationContext {
         }
     }
 
+    /**
+     * 放置调色板方块：直接使用预解析的驻留 BlockData，
+     * 仅在解析失败或方块可能被去苔藓化替换时回退到字符串解析路径。
+     *
+     * @param localX 区块内X坐标 (0-15)
+     * @param y      Y坐标
+     * @param localZ 区块内Z坐标 (0-15)
+     * @param definition 方块定义字符串
+     * @param resolved 定义对应的驻留 BlockData，可为 null
+     */
+    public void setBlock(int localX, int y, int localZ, String definition, BlockData resolved) {
+        if (resolved == null || isMossCandidate(resolved.getMaterial())) {
+            setBlock(localX, y, localZ, definition);
+            return;
+        }
+        setBlockData(localX, y, localZ, resolved);
+    }
+
+    private boolean isMossCandidate(Material material) {
+        if (material == null) {
+            return false;
+        }
+        return switch (material) {
+            case MOSS_BLOCK, MOSSY_STONE_BRICKS, MOSSY_COBBLESTONE,
+                    MOSSY_STONE_BRICK_SLAB, MOSSY_STONE_BRICK_STAIRS, MOSSY_STONE_BRICK_WALL,
+                    MOSSY_COBBLESTONE_SLAB, MOSSY_COBBLESTONE_STAIRS, MOSSY_COBBLESTONE_WALL -> true;
+            default -> false;
+        };
+    }
+
     private Material maybeDemossifyMaterial(int localX, int y, int localZ, Material source) {
         if (source == null) {
             return null;
@@ -630,216 +791,13 @@ public class GenerationContext {
 
     /**
      * 解析方块数据字符串为 BlockData
+     * 结果来自全局驻留表，所有区块共享同一实例，调用方不得修改返回值。
      *
      * @param definition 方块定义字符串（支持 Minecraft 格式，如 "stone_bricks" 或 "oak_stairs[facing=north]"）
      * @return BlockData 对象，解析失败返回 null
      */
     public BlockData parseBlockData(String definition) {
-        if (definition == null || definition.isBlank()) {
-            return null;
-        }
-
-        String cacheKey = definition.trim();
-
-        // 缓存查找
-        if (blockDataCache.containsKey(cacheKey)) {
-            return blockDataCache.get(cacheKey);
-        }
-
-        String normalized = cacheKey.toLowerCase(Locale.ROOT);
-
-        // 优先按完整定义解析（保留状态）
-        BlockData result = tryCreateBlockData(normalized);
-        if (result == null && !normalized.contains(":")) {
-            result = tryCreateBlockData("minecraft:" + normalized);
-        }
-        if (result == null && !cacheKey.equals(normalized)) {
-            result = tryCreateBlockData(cacheKey);
-        }
-
-        // 回退：仅按材料解析（丢失状态）
-        if (result == null) {
-            result = tryCreateMaterialBlockData(normalized);
-        }
-        if (result != null && shouldUseDefaultConnectivity(result.getMaterial())) {
-            result = recreateWithDefaultState(result.getMaterial(), result);
-        }
-
-        blockDataCache.put(cacheKey, result);
-        return result;
-    }
-
-    private boolean shouldUseDefaultConnectivity(Material material) {
-        if (material == null) {
-            return false;
-        }
-        String name = material.name();
-        return name.endsWith("_PANE")
-                || name.endsWith("_FENCE")
-                || name.endsWith("_WALL")
-                || material == Material.IRON_BARS
-                || material == Material.CHAIN;
-    }
-
-    private BlockData recreateWithDefaultState(Material material, BlockData fallback) {
-        try {
-            return material.createBlockData();
-        } catch (Exception ignored) {
-            return fallback;
-        }
-    }
-
-    private BlockData tryCreateBlockData(String definition) {
-        try {
-            return Bukkit.createBlockData(definition);
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private BlockData tryCreateMaterialBlockData(String normalizedDefinition) {
-        String materialId = normalizedDefinition;
-        int stateIndex = materialId.indexOf('[');
-        if (stateIndex >= 0) {
-            materialId = materialId.substring(0, stateIndex);
-        }
-
-        Material material = Material.matchMaterial(materialId);
-        if (material == null) {
-            int colon = materialId.indexOf(':');
-            String simple = colon >= 0 ? materialId.substring(colon + 1) : materialId;
-            material = Material.matchMaterial(simple);
-        }
-        if (material == null) {
-            material = resolveAliasedMaterial(materialId);
-        }
-        if (material == null) {
-            return null;
-        }
-
-        try {
-            return material.createBlockData();
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private Material resolveAliasedMaterial(String materialId) {
-        if (materialId == null || materialId.isBlank()) {
-            return null;
-        }
-
-        int colon = materialId.indexOf(':');
-        String path = colon < 0
-                ? materialId.toLowerCase(Locale.ROOT)
-                : materialId.substring(colon + 1).toLowerCase(Locale.ROOT);
-        if (path.isBlank()) {
-            return null;
-        }
-
-        String directAlias = NON_VANILLA_BLOCK_ALIASES.get(path);
-        Material material = matchMaterial(directAlias);
-        if (material != null) {
-            return material;
-        }
-
-        material = matchMaterial(bestTokenAlias(path));
-        if (material != null) {
-            return material;
-        }
-
-        if (path.contains("iron_bars")) {
-            return Material.IRON_BARS;
-        }
-        if (path.contains("iron_door")) {
-            return Material.IRON_DOOR;
-        }
-        if (path.contains("stairs")) {
-            return Material.OAK_STAIRS;
-        }
-        if (path.contains("slab")) {
-            return Material.OAK_SLAB;
-        }
-        if (path.contains("planks")) {
-            return Material.OAK_PLANKS;
-        }
-        if (path.contains("wall")) {
-            return Material.STONE_BRICK_WALL;
-        }
-        if (path.contains("brick")) {
-            return Material.STONE_BRICKS;
-        }
-        if (path.contains("cube")) {
-            return Material.IRON_BLOCK;
-        }
-        return pickRuinFallbackMaterial(path);
-    }
-
-    /**
-     * 未识别材质统一回退：
-     * 接近 LostCities 的中性石材，不再偏苔藓风格。
-     */
-    private Material pickRuinFallbackMaterial(String key) {
-        int roll = Math.floorMod(key.hashCode(), 100);
-        if (roll < 45) {
-            return Material.STONE_BRICKS;
-        }
-        if (roll < 65) {
-            return Material.STONE;
-        }
-        if (roll < 80) {
-            return Material.COBBLESTONE;
-        }
-        if (roll < 92) {
-            return Material.ANDESITE;
-        }
-        return Material.DEEPSLATE;
-    }
-
-    private String bestTokenAlias(String path) {
-        String[] tokens = path.split("_");
-        if (tokens.length <= 1) {
-            return null;
-        }
-
-        Set<String> candidates = new LinkedHashSet<>();
-        candidates.add(path);
-        for (int start = 0; start < tokens.length; start++) {
-            for (int end = tokens.length; end > start; end--) {
-                if (end - start == tokens.length) {
-                    continue;
-                }
-                candidates.add(joinTokens(tokens, start, end));
-            }
-        }
-
-        for (String candidate : candidates) {
-            if (candidate == null || candidate.isBlank()) {
-                continue;
-            }
-            if (Material.matchMaterial(candidate) != null) {
-                return candidate;
-            }
-        }
-        return null;
-    }
-
-    private String joinTokens(String[] tokens, int startInclusive, int endExclusive) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = startInclusive; i < endExclusive; i++) {
-            if (i > startInclusive) {
-                sb.append('_');
-            }
-            sb.append(tokens[i]);
-        }
-        return sb.toString();
-    }
-
-    private Material matchMaterial(String candidate) {
-        if (candidate == null || candidate.isBlank()) {
-            return null;
-        }
-        return Material.matchMaterial(candidate);
+        return BlockDataInterner.intern(definition);
     }
 
     private Material normalizeRailMaterial(Material material) {
@@ -938,14 +896,14 @@ public class GenerationContext {
         if (material != null) {
             return material;
         }
-        material = resolveAliasedMaterial(namespaced);
+        material = BlockDataInterner.resolveAliasedMaterial(namespaced);
         if (material != null) {
             return material;
         }
         if (fallback != null) {
             return fallback;
         }
-        return pickRuinFallbackMaterial(simple);
+        return BlockDataInterner.pickRuinFallbackMaterial(simple);
     }
 
     private Material resolveFallbackMaterialForDefinition(String definition) {
@@ -962,14 +920,14 @@ public class GenerationContext {
         if (simple.equals("air") || simple.equals("cave_air") || simple.equals("void_air")) {
             return Material.AIR;
         }
-        Material alias = resolveAliasedMaterial(value);
+        Material alias = BlockDataInterner.resolveAliasedMaterial(value);
         if (alias != null) {
             return alias;
         }
-        return pickRuinFallbackMaterial(simple);
+        return BlockDataInterner.pickRuinFallbackMaterial(simple);
     }
 
-    private boolean applyBlockEntityTag(BlockState state, Map<String, Object> tag) {
+    static boolean applyBlockEntityTag(BlockState state, Map<String, Object> tag, LongSupplier fallbackSeed) {
         boolean changed = false;
 
         Object lootTableId = tag.get("LootTable");
@@ -979,7 +937,9 @@ public class GenerationContext {
                 LootTable lootTable = Bukkit.getLootTable(key);
                 if (lootTable != null) {
                     Object seedObject = tag.get("LootTableSeed");
-                    long seed = numberAsLong(seedObject, random == null ? 0L : random.nextLong());
+                    long seed = seedObject instanceof Number || seedObject instanceof String
+                            ? numberAsLong(seedObject, fallbackSeed.getAsLong())
+                            : fallbackSeed.getAsLong();
                     lootable.setLootTable(lootTable, seed);
                     changed = true;
                 }
@@ -1037,7 +997,7 @@ public class GenerationContext {
         return changed;
     }
 
-    private EntityType parseSpawnerEntity(Map<String, Object> tag) {
+    private static EntityType parseSpawnerEntity(Map<String, Object> tag) {
         EntityType direct = parseEntityType(tag.get("EntityId"));
         if (direct != null) {
             return direct;
@@ -1060,7 +1020,7 @@ public class GenerationContext {
         return null;
     }
 
-    private EntityType parseEntityType(Object raw) {
+    private static EntityType parseEntityType(Object raw) {
         if (!(raw instanceof String value) || value.isBlank()) {
             return null;
         }
@@ -1084,7 +1044,7 @@ public class GenerationContext {
         return type;
     }
 
-    private Material parseItemMaterial(Object raw) {
+    private static Material parseItemMaterial(Object raw) {
         if (!(raw instanceof String itemId) || itemId.isBlank()) {
             return null;
         }
@@ -1099,28 +1059,36 @@ public class GenerationContext {
         return null;
     }
 
-    private int numberAsInt(Object raw, int fallback) {
+    private static int numberAsInt(Object raw, int fallback) {
         if (!(raw instanceof Number number)) {
             return fallback;
         }
         return number.intValue();
     }
 
-    private long numberAsLong(Object raw, long fallback) {
+    private static long numberAsLong(Object raw, long fallback) {
+        if (raw instanceof String text) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
         if (!(raw instanceof Number number)) {
             return fallback;
         }
         return number.longValue();
     }
 
-    private void queueBlockStateTask(int localX, int y, int localZ, BlockStateMutator mutator) {
+    private void queueBlockStateTask(int localX, int y, int localZ, BlockStateMutator mutator,
+                                     String kind, Map<String, Object> data) {
         if (mutator == null) {
             return;
         }
         int worldX = worldX(localX);
         int worldZ = worldZ(localZ);
         synchronized (pendingBlockStateTasks) {
-            pendingBlockStateTasks.add(new BlockStateTask(worldX, y, worldZ, mutator));
+            pendingBlockStateTasks.add(new BlockStateTask(worldX, y, worldZ, mutator, kind, data));
         }
     }
 
@@ -1171,11 +1139,43 @@ public class GenerationContext {
         }
     }
 
+    private static long outsideKey(int localX, int y, int localZ) {
+        return ((long) (localX & 0xffff) << 48) | ((long) (localZ & 0xffff) << 32) | (y & 0xffffffffL);
+    }
+
+    private record OutsideWrite(int localX, int y, int localZ, BlockData blockData) {
+    }
+
     @FunctionalInterface
     public interface BlockStateMutator {
         boolean mutate(BlockState state);
     }
 
-    public record BlockStateTask(int x, int y, int z, BlockStateMutator mutator) {
+    /**
+     * 方块实体回写任务
+     *
+     * @param kind     任务类型（{@link CompletionJournal} 中的 KIND_ 常量），为 null 时不写入日志
+     * @param data     重建回写逻辑所需的参数
+     * @param failures 已执行失败的次数，随日志持久化
+     */
+    public record BlockStateTask(int x, int y, int z, BlockStateMutator mutator, String kind, Map<String, Object> data,
+                                 int failures) {
+
+        public BlockStateTask(int x, int y, int z, BlockStateMutator mutator) {
+            this(x, y, z, mutator, null, null);
+        }
+
+        public BlockStateTask(int x, int y, int z, BlockStateMutator mutator, String kind, Map<String, Object> data) {
+            this(x, y, z, mutator, kind, data, 0);
+        }
+
+        /**
+         * 记一次执行失败
+         *
+         * @return 失败次数加一后的任务
+         */
+        public BlockStateTask failed() {
+            return new BlockStateTask(x, y, z, mutator, kind, data, failures + 1);
+        }
     }
 }
@@ -1,5 +1,7 @@
 package com.during.cityloader.worldgen.gen;
 
+import com.during.cityloader.worldgen.LostCityProfile;
+
 /**
  * 区块生成阶段接口
  */
@@ -10,4 +12,48 @@ public interface GenerationStage {
     default String name() {
         return getClass().getSimpleName();
     }
+
+    /**
+     * 阶段优先级；{@link StagePriority#CRITICAL} 以外的阶段在超出单区块预算时可延后执行，
+     * 延后只从最后一个核心阶段之后开始（{@link StagePipeline#firstDeferrable()}）
+     *
+     * @return 优先级
+     */
+    default StagePriority priority() {
+        return StagePriority.NORMAL;
+    }
+
+    /**
+     * 是否与相邻的其他独立阶段互不依赖
+     * 独立阶段只写入自己负责的结构，不读取其他阶段的产出，
+     * 因此连续的独立阶段可按优先级重排；非独立阶段是顺序屏障。
+     *
+     * @return 独立时返回true
+     */
+    default boolean independent() {
+        return false;
+    }
+
+    /**
+     * 是否可与同一独立区段中的其他阶段并行执行
+     * 并行阶段写入各自的缓冲层，结束后按执行顺序合并；
+     * 会改写 {@link com.during.cityloader.worldgen.lost.BuildingInfo} 等共享状态的阶段应返回false。
+     *
+     * @return 可并行时返回true
+     */
+    default boolean parallelizable() {
+        return independent();
+    }
+
+    /**
+     * 阶段在给定配置下的适用条件
+     * 返回 {@link StageFilter#NEVER} 的阶段在编译流水线时被移除；
+     * 其余条件只应描述阶段在消耗随机数之前就会直接返回的情形。
+     *
+     * @param profile 城市配置
+     * @return 适用条件
+     */
+    default StageFilter applicability(LostCityProfile profile) {
+        return StageFilter.ALWAYS;
+    }
 }
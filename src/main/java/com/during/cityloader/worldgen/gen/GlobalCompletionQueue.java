@@ -1,125 +1,294 @@
 package com.during.cityloader.worldgen.gen;
 
+import com.during.cityloader.util.ChunkMap;
 import org.bukkit.World;
 import org.bukkit.block.BlockState;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * 全局补全队列：承接超出 LimitedRegion 的延迟方块实体回写任务。
+ * 生成线程经无锁的多生产者入口登记任务；主线程把入口中的任务按区块坐标分桶，
+ * 区块已加载或之后触发 {@code ChunkLoadEvent} 时才把对应的桶放入就绪队列，
+ * 因此每 tick 的开销只与可执行的任务数有关，与等待中的积压总量无关。
+ *
+ * <p>等待中的任务可经 {@link CompletionJournal} 写入世界目录，重启后恢复。
+ * 执行失败的任务留在桶中等区块再次加载时重试，累计失败 {@link #MAX_FAILURES} 次后丢弃。</p>
  */
 public final class GlobalCompletionQueue {
 
-    private static final Map<UUID, Deque<GenerationContext.BlockStateTask>> QUEUES = new ConcurrentHashMap<>();
-    private static final Map<UUID, QueueStats> STATS = new ConcurrentHashMap<>();
+    private static final Logger LOGGER = Logger.getLogger("CityLoader");
+    private static final String JOURNAL_FILE = "completion-queue.json";
+
+    /**
+     * 单个任务允许的最多失败次数（含重启前记录在日志中的次数）
+     */
+    static final int MAX_FAILURES = 5;
+
+    private static final Map<UUID, WorldQueue> QUEUES = new ConcurrentHashMap<>();
 
     private GlobalCompletionQueue() {
     }
 
+    /**
+     * 登记任务（任意线程调用，不加锁）
+     */
     public static void enqueue(World world, GenerationContext.BlockStateTask task) {
         if (world == null || task == null) {
             return;
         }
-        QUEUES.computeIfAbsent(world.getUID(), id -> new ArrayDeque<>());
-        QueueStats stats = STATS.computeIfAbsent(world.getUID(), id -> new QueueStats());
-        stats.totalEnqueued.incrementAndGet();
-        Deque<GenerationContext.BlockStateTask> queue = QUEUES.get(world.getUID());
-        synchronized (queue) {
-            queue.addLast(task);
+        WorldQueue queue = QUEUES.computeIfAbsent(world.getUID(), id -> new WorldQueue());
+        queue.intake.add(task);
+        queue.pending.incrementAndGet();
+        queue.totalEnqueued.incrementAndGet();
+    }
+
+    /**
+     * 区块加载后将其任务桶放入就绪队列（主线程调用）
+     *
+     * @param world  世界
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     */
+    public static void markLoaded(World world, int chunkX, int chunkZ) {
+        WorldQueue queue = world == null ? null : QUEUES.get(world.getUID());
+        if (queue == null) {
+            return;
+        }
+        long key = ChunkMap.key(chunkX, chunkZ);
+        Bucket bucket = queue.buckets.get(key);
+        if (bucket != null && !bucket.ready) {
+            bucket.ready = true;
+            queue.ready.addLast(key);
         }
     }
 
+    /**
+     * 执行已加载区块上的任务（主线程调用）
+     *
+     * @param world    世界
+     * @param maxTasks 本次最多执行的任务数
+     * @return 成功执行的任务数
+     */
     public static int drain(World world, int maxTasks) {
         if (world == null || maxTasks <= 0) {
             return 0;
         }
-        Deque<GenerationContext.BlockStateTask> queue = QUEUES.get(world.getUID());
+        WorldQueue queue = QUEUES.get(world.getUID());
         if (queue == null) {
             return 0;
         }
-        QueueStats stats = STATS.computeIfAbsent(world.getUID(), id -> new QueueStats());
+        transfer(world, queue);
 
         int executed = 0;
         int budget = maxTasks;
-        while (budget-- > 0) {
-            GenerationContext.BlockStateTask task;
-            synchronized (queue) {
-                task = queue.pollFirst();
-            }
-            if (task == null) {
+        while (budget > 0) {
+            Long key = queue.ready.peekFirst();
+            if (key == null) {
                 break;
             }
-
-            if (!world.isChunkLoaded(task.x() >> 4, task.z() >> 4)) {
-                synchronized (queue) {
-                    queue.addLast(task);
+            Bucket bucket = queue.buckets.get(key);
+            if (bucket == null || bucket.tasks.isEmpty()) {
+                queue.ready.pollFirst();
+                if (bucket != null) {
+                    settle(queue, key, bucket);
                 }
-                stats.totalRequeued.incrementAndGet();
+                continue;
+            }
+            if (!world.isChunkLoaded(ChunkMap.chunkX(key), ChunkMap.chunkZ(key))) {
+                // 已卸载：桶留在原处，等下次 ChunkLoadEvent 再放回就绪队列
+                queue.ready.pollFirst();
+                bucket.ready = false;
                 continue;
             }
 
+            GenerationContext.BlockStateTask task = bucket.tasks.pollFirst();
+            budget--;
             try {
                 BlockState state = world.getBlockAt(task.x(), task.y(), task.z()).getState();
                 if (state != null && task.mutator().mutate(state)) {
                     state.update(true, false);
                 }
                 executed++;
-                stats.totalExecuted.incrementAndGet();
-            } catch (Exception ignored) {
-                synchronized (queue) {
-                    queue.addLast(task);
+                queue.pending.decrementAndGet();
+                queue.totalExecuted.incrementAndGet();
+            } catch (Exception e) {
+                GenerationContext.BlockStateTask failed = task.failed();
+                if (failed.failures() >= MAX_FAILURES) {
+                    queue.pending.decrementAndGet();
+                    queue.totalDropped.incrementAndGet();
+                    LOGGER.log(Level.WARNING, "方块实体回写连续失败 " + failed.failures() + " 次，已丢弃: 世界 "
+                            + world.getName() + " 位置 (" + task.x() + ", " + task.y() + ", " + task.z() + ") 类型 "
+                            + task.kind(), e);
+                } else {
+                    bucket.retry.add(failed);
+                    queue.totalRequeued.incrementAndGet();
                 }
-                stats.totalRequeued.incrementAndGet();
             }
         }
+        return executed;
+    }
 
-        synchronized (queue) {
-            if (queue.isEmpty()) {
-                QUEUES.remove(world.getUID());
+    /**
+     * 将世界中等待的任务写入日志（主线程调用）；没有任务时删除旧日志
+     *
+     * @param world 世界
+     * @return 写入的任务数
+     * @throws IOException 写入失败
+     */
+    public static int saveJournal(World world) throws IOException {
+        List<GenerationContext.BlockStateTask> tasks = new ArrayList<>();
+        WorldQueue queue = QUEUES.get(world.getUID());
+        if (queue != null) {
+            transfer(world, queue);
+            for (Bucket bucket : queue.buckets.values()) {
+                tasks.addAll(bucket.tasks);
+                tasks.addAll(bucket.retry);
             }
         }
-        return executed;
+        return CompletionJournal.save(journalFile(world), tasks);
     }
 
-    public static Snapshot snapshot(World world) {
-        if (world == null) {
-            return new Snapshot(0, 0, 0, 0);
+    /**
+     * 从日志恢复等待中的任务（主线程调用）
+     * 日志保留到下次 {@link #saveJournal(World)} 原子改写为当时仍在等待的任务，
+     * 期间崩溃时重启仍可恢复；代价是崩溃前已执行的任务可能再执行一次。
+     *
+     * @param world 世界
+     * @return 恢复的任务数
+     * @throws IOException 读取失败
+     */
+    public static int restoreJournal(World world) throws IOException {
+        Path file = journalFile(world);
+        List<GenerationContext.BlockStateTask> tasks = CompletionJournal.load(file);
+        for (GenerationContext.BlockStateTask task : tasks) {
+            enqueue(world, task);
         }
-        UUID id = world.getUID();
-        Deque<GenerationContext.BlockStateTask> queue = QUEUES.get(id);
-        int pending = 0;
-        if (queue != null) {
-            synchronized (queue) {
-                pending = queue.size();
-            }
+        return tasks.size();
+    }
+
+    /**
+     * 丢弃世界的队列（世界卸载时，在写入日志之后调用）
+     *
+     * @param world 世界
+     */
+    public static void forget(World world) {
+        if (world != null) {
+            QUEUES.remove(world.getUID());
         }
-        QueueStats stats = STATS.get(id);
-        if (stats == null) {
-            return new Snapshot(pending, 0, 0, 0);
+    }
+
+    public static Snapshot snapshot(World world) {
+        WorldQueue queue = world == null ? null : QUEUES.get(world.getUID());
+        if (queue == null) {
+            return new Snapshot(0, 0, 0, 0, 0, 0, 0);
         }
         return new Snapshot(
-                pending,
-                stats.totalEnqueued.get(),
-                stats.totalExecuted.get(),
-                stats.totalRequeued.get());
+                queue.pending.get(),
+                queue.buckets.size(),
+                queue.ready.size(),
+                queue.totalEnqueued.get(),
+                queue.totalExecuted.get(),
+                queue.totalRequeued.get(),
+                queue.totalDropped.get());
+    }
+
+    /**
+     * 所有世界排队中的任务总数
+     *
+     * @return 任务数
+     */
+    public static int totalPending() {
+        int pending = 0;
+        for (WorldQueue queue : QUEUES.values()) {
+            pending += queue.pending.get();
+        }
+        return pending;
     }
 
     public static void clear() {
         QUEUES.clear();
-        STATS.clear();
     }
 
-    private static final class QueueStats {
+    static Path journalFile(World world) {
+        return world.getWorldFolder().toPath().resolve("cityloader").resolve(JOURNAL_FILE);
+    }
+
+    /**
+     * 将入口中的任务按区块分桶；区块已加载的桶直接就绪
+     */
+    private static void transfer(World world, WorldQueue queue) {
+        GenerationContext.BlockStateTask task;
+        while ((task = queue.intake.poll()) != null) {
+            int chunkX = task.x() >> 4;
+            int chunkZ = task.z() >> 4;
+            long key = ChunkMap.key(chunkX, chunkZ);
+            Bucket bucket = queue.buckets.computeIfAbsent(key, ignored -> new Bucket());
+            bucket.tasks.addLast(task);
+            if (!bucket.ready && world.isChunkLoaded(chunkX, chunkZ)) {
+                bucket.ready = true;
+                queue.ready.addLast(key);
+            }
+        }
+    }
+
+    /**
+     * 桶已执行完：无失败任务时移除，否则把失败任务放回并等下次加载重试
+     */
+    private static void settle(WorldQueue queue, long key, Bucket bucket) {
+        bucket.ready = false;
+        if (bucket.retry.isEmpty()) {
+            queue.buckets.remove(key);
+            return;
+        }
+        bucket.tasks.addAll(bucket.retry);
+        bucket.retry.clear();
+    }
+
+    private static final class WorldQueue {
+        private final ConcurrentLinkedQueue<GenerationContext.BlockStateTask> intake = new ConcurrentLinkedQueue<>();
+        // 以下两项只在主线程访问
+        private final Map<Long, Bucket> buckets = new HashMap<>();
+        private final Deque<Long> ready = new ArrayDeque<>();
+        private final AtomicInteger pending = new AtomicInteger();
         private final AtomicLong totalEnqueued = new AtomicLong();
         private final AtomicLong totalExecuted = new AtomicLong();
         private final AtomicLong totalRequeued = new AtomicLong();
+        private final AtomicLong totalDropped = new AtomicLong();
+    }
+
+    private static final class Bucket {
+        private final Deque<GenerationContext.BlockStateTask> tasks = new ArrayDeque<>();
+        private final List<GenerationContext.BlockStateTask> retry = new ArrayList<>();
+        private boolean ready;
     }
 
-    public record Snapshot(int pending, long totalEnqueued, long totalExecuted, long totalRequeued) {
+    /**
+     * 队列统计
+     *
+     * @param pending       等待执行的任务数
+     * @param buckets       有任务的区块数
+     * @param readyBuckets  已加载、等待执行的区块数
+     * @param totalEnqueued 累计登记数
+     * @param totalExecuted 累计执行数
+     * @param totalRequeued 执行失败后重新排队数
+     * @param totalDropped  失败次数达到上限后丢弃数
+     */
+    public record Snapshot(int pending, int buckets, int readyBuckets,
+                           long totalEnqueued, long totalExecuted, long totalRequeued, long totalDropped) {
     }
 }
@@ -12,6 +12,8 @@ import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
 import com.during.cityloader.worldgen.lost.cityassets.BuildingPart;
 import com.during.cityloader.worldgen.lost.cityassets.CityStyle;
 import com.during.cityloader.worldgen.lost.cityassets.CompiledPalette;
+import com.during.cityloader.worldgen.lost.cityassets.ComposedPaletteCache;
+import com.during.cityloader.worldgen.lost.cityassets.PartTemplate;
 import com.during.cityloader.worldgen.lost.cityassets.Palette;
 import com.during.cityloader.worldgen.lost.cityassets.WorldStyle;
 import com.during.cityloader.worldgen.lost.regassets.data.WorldPartSettings;
@@ -34,6 +36,11 @@ public class InfrastructureStage implements GenerationStage {
     private static final int RAIL_TUNNEL_INNER_MIN = 7;
     private static final int RAIL_TUNNEL_INNER_MAX = 9;
 
+    @Override
+    public StagePriority priority() {
+        return StagePriority.CRITICAL;
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
@@ -1024,57 +1031,34 @@ public class InfrastructureStage implements GenerationStage {
         }
 
         CompiledPalette palette = composePalette(context, part);
-        List<List<String>> layers = part.getSliceLayers();
-        if (layers == null || layers.isEmpty()) {
+        PartTemplate.Oriented template = PartBlitter.orient(part, transform, true);
+        if (template.getLayerCount() == 0) {
             return;
         }
 
         Material[][] baseMaterials = new Material[16][16];
-        
-        int maxLayers = Math.min(part.getDepth(), layers.size());
-        for (int dy = 0; dy < maxLayers; dy++) {
+        PartBlitter.blit(template, 0, 0, (dy, worldX, worldZ, token) -> {
             int y = baseY + dy;
-            List<String> rows = layers.get(dy);
-            int sourceMaxZ = Math.min(16, Math.min(part.getHeight(), rows.size()));
-            int sourceMaxX = Math.min(16, part.getWidth());
-            int boundX = sourceMaxX - 1;
-            int boundZ = sourceMaxZ - 1;
-            if (boundX < 0 || boundZ < 0) {
-                continue;
+            if (token == ' ') {
+                if (!overlay) {
+                    context.setBlock(worldX, y, worldZ, Material.AIR);
+                }
+                return;
             }
-            for (int z = 0; z < sourceMaxZ; z++) {
-                String row = rows.get(z);
-                int maxX = Math.min(sourceMaxX, row.length());
-                for (int x = 0; x < maxX; x++) {
-                    char token = row.charAt(x);
-                    int worldX = transform.mapX(x, z, boundX, boundZ);
-                    int worldZ = transform.mapZ(x, z, boundX, boundZ);
-                    if (worldX < 0 || worldX > 15 || worldZ < 0 || worldZ > 15) {
-                        continue;
-                    }
 
-                    if (token == ' ') {
-                        if (!overlay) {
-                            context.setBlock(worldX, y, worldZ, Material.AIR);
-                        }
-                        continue;
-                    }
+            String definition = resolveFromPaletteString(context, palette, token);
+            if (definition == null || definition.isBlank()) {
+                return;
+            }
+            if (definition.contains("structure_void")) {
+                return;
+            }
+            context.setBlock(worldX, y, worldZ, definition, palette.getBlockData(token, definition));
 
-                    String definition = resolveFromPaletteString(context, palette, token);
-                    if (definition == null || definition.isBlank()) {
-                        continue;
-                    }
-                    if (definition.contains("structure_void")) {
-                        continue;
-                    }
-                    context.setBlock(worldX, y, worldZ, definition);
-                    
-                    if (dy == 0 && !overlay) {
-                        baseMaterials[worldX][worldZ] = context.resolveMaterial(definition, null);
-                    }
-                }
+            if (dy == 0 && !overlay) {
+                baseMaterials[worldX][worldZ] = context.resolveMaterial(definition, null);
             }
-        }
+        });
     }
 
     private CompiledPalette composePalette(GenerationContext context, BuildingPart part) {
@@ -1093,7 +1077,7 @@ public class InfrastructureStage implements GenerationStage {
         if (additions.isEmpty()) {
             return context.palette();
         }
-        return new CompiledPalette(context.palette(), additions.toArray(Palette[]::new));
+        return ComposedPaletteCache.compose(context.palette(), additions.toArray(Palette[]::new));
     }
 
     /**
@@ -0,0 +1,124 @@
+package com.during.cityloader.worldgen.gen;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.generator.LimitedRegion;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * 以已加载世界为后端的 {@link LimitedRegion}
+ * 供延后阶段在主线程复用区块生成时的写入路径：范围与生成时相同
+ * （中心区块及四周各一格区块），且只包含当前已加载的区块；
+ * 方块写入经 {@link Block} 以不触发物理更新的方式落地（与生成期间写入 LimitedRegion 一致），
+ * 其余 {@link org.bukkit.RegionAccessor} 方法直接转发给世界。
+ *
+ * <p>使用动态代理实现，避免随 API 版本新增的访问方法导致编译不兼容。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class LoadedRegion implements InvocationHandler {
+
+    private static final int BUFFER_CHUNKS = 1;
+
+    private final World world;
+    private final int chunkX;
+    private final int chunkZ;
+
+    private LoadedRegion(World world, int chunkX, int chunkZ) {
+        this.world = world;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+
+    /**
+     * 创建以指定区块为中心的区域视图（只能在主线程使用）
+     *
+     * @param world  世界
+     * @param chunkX 中心区块X
+     * @param chunkZ 中心区块Z
+     * @return 区域视图
+     */
+    public static LimitedRegion of(World world, int chunkX, int chunkZ) {
+        return (LimitedRegion) Proxy.newProxyInstance(
+                LimitedRegion.class.getClassLoader(),
+                new Class<?>[] {LimitedRegion.class},
+                new LoadedRegion(world, chunkX, chunkZ));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "getBuffer":
+                return BUFFER_CHUNKS << 4;
+            case "isInRegion":
+                if (args.length == 1) {
+                    Location location = (Location) args[0];
+                    return (location.getWorld() == null || location.getWorld().equals(world))
+                            && isInRegion(location.getBlockX(), location.getBlockZ());
+                }
+                return isInRegion((Integer) args[0], (Integer) args[2]);
+            case "getCenterChunkX":
+                return chunkX;
+            case "getCenterChunkZ":
+                return chunkZ;
+            case "getCenterBlockX":
+                return (chunkX << 4) + 8;
+            case "getCenterBlockZ":
+                return (chunkZ << 4) + 8;
+            case "getTileEntities":
+                return List.of();
+            case "setBlockData":
+                if (args[args.length - 1] instanceof BlockData blockData) {
+                    blockAt(args).setBlockData(blockData, false);
+                    return null;
+                }
+                break;
+            case "setType":
+                if (args[args.length - 1] instanceof Material material) {
+                    blockAt(args).setType(material, false);
+                    return null;
+                }
+                break;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "LoadedRegion[" + world.getName() + " " + chunkX + "," + chunkZ + "]";
+            default:
+                break;
+        }
+        try {
+            return method.invoke(world, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 取写入目标方块，参数为 (x, y, z, 值) 或 (Location, 值)
+     */
+    private Block blockAt(Object[] args) {
+        if (args[0] instanceof Location location) {
+            return world.getBlockAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        }
+        return world.getBlockAt((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+    }
+
+    private boolean isInRegion(int blockX, int blockZ) {
+        int cx = blockX >> 4;
+        int cz = blockZ >> 4;
+        return Math.abs(cx - chunkX) <= BUFFER_CHUNKS
+                && Math.abs(cz - chunkZ) <= BUFFER_CHUNKS
+                && world.isChunkLoaded(cx, cz);
+    }
+}
@@ -17,6 +17,22 @@ public class LootStage implements GenerationStage {
 
     private static final int FLOOR_HEIGHT = 6;
 
+    @Override
+    public StagePriority priority() {
+        return StagePriority.HIGH;
+    }
+
+    @Override
+    public boolean independent() {
+        // 按空气选择箱子位置，必须排在前面放置方块的阶段之后，作为顺序屏障而不参与优先级重排
+        return false;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        return StageFilter.requiring(ChunkTraits.CITY | ChunkTraits.BUILDING);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
@@ -13,6 +13,16 @@ import java.util.Random;
  */
 public class MegaSolarStage implements GenerationStage {
 
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        return StageFilter.requiring(ChunkTraits.CITY | ChunkTraits.BUILDING);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
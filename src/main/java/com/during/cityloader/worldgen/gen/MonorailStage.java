@@ -32,6 +32,23 @@ public class MonorailStage implements GenerationStage {
         GOING_UP_FURTHER
     }
 
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        if (!profile.isCitySphereEnabled() || profile.getCitySphereMonorailChance() <= 0) {
+            return StageFilter.NEVER;
+        }
+        String landscapeType = profile.getLandscapeType();
+        if (!"space".equals(landscapeType) && !"spheres".equals(landscapeType)) {
+            return StageFilter.NEVER;
+        }
+        return StageFilter.requiring(ChunkTraits.CITY);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
@@ -9,6 +9,8 @@ import com.during.cityloader.worldgen.lost.Transform;
 import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
 import com.during.cityloader.worldgen.lost.cityassets.BuildingPart;
 import com.during.cityloader.worldgen.lost.cityassets.CompiledPalette;
+import com.during.cityloader.worldgen.lost.cityassets.ComposedPaletteCache;
+import com.during.cityloader.worldgen.lost.cityassets.PartTemplate;
 import com.during.cityloader.worldgen.lost.cityassets.Palette;
 import com.during.cityloader.worldgen.lost.regassets.data.MonorailParts;
 import org.bukkit.Material;
@@ -225,51 +227,25 @@ public class Monorails {
         }
 
         CompiledPalette palette = composePalette(context, part);
-        List<List<String>> layers = part.getSliceLayers();
-        if (layers == null || layers.isEmpty()) {
-            return;
-        }
-
-        int maxLayers = Math.min(part.getDepth(), layers.size());
-        for (int dy = 0; dy < maxLayers; dy++) {
+        PartTemplate.Oriented template = PartBlitter.orient(part, transform, true);
+        PartBlitter.blit(template, 0, 0, (dy, worldX, worldZ, token) -> {
             int y = baseY + dy;
-            List<String> rows = layers.get(dy);
-            int sourceMaxZ = Math.min(16, Math.min(part.getHeight(), rows.size()));
-            int sourceMaxX = Math.min(16, part.getWidth());
-            int boundX = sourceMaxX - 1;
-            int boundZ = sourceMaxZ - 1;
-            if (boundX < 0 || boundZ < 0) {
-                continue;
+            if (token == ' ') {
+                if (!overlay) {
+                    context.setBlock(worldX, y, worldZ, Material.AIR);
+                }
+                return;
             }
-            for (int z = 0; z < sourceMaxZ; z++) {
-                String row = rows.get(z);
-                int maxX = Math.min(sourceMaxX, row.length());
-                for (int x = 0; x < maxX; x++) {
-                    char token = row.charAt(x);
-                    int worldX = transform.mapX(x, z, boundX, boundZ);
-                    int worldZ = transform.mapZ(x, z, boundX, boundZ);
-                    if (worldX < 0 || worldX > 15 || worldZ < 0 || worldZ > 15) {
-                        continue;
-                    }
 
-                    if (token == ' ') {
-                        if (!overlay) {
-                            context.setBlock(worldX, y, worldZ, Material.AIR);
-                        }
-                        continue;
-                    }
-
-                    String definition = resolveFromPaletteString(context, palette, token);
-                    if (definition == null || definition.isBlank()) {
-                        continue;
-                    }
-                    if (definition.contains("structure_void")) {
-                        continue;
-                    }
-                    context.setBlock(worldX, y, worldZ, definition);
-                }
+            String definition = resolveFromPaletteString(context, palette, token);
+            if (definition == null || definition.isBlank()) {
+                return;
             }
-        }
+            if (definition.contains("structure_void")) {
+                return;
+            }
+            context.setBlock(worldX, y, worldZ, definition, palette.getBlockData(token, definition));
+        });
     }
 
     private static CompiledPalette composePalette(GenerationContext context, BuildingPart part) {
@@ -288,7 +264,7 @@ public class Monorails {
         if (additions.isEmpty()) {
             return context.palette();
         }
-        return new CompiledPalette(context.palette(), additions.toArray(Palette[]::new));
+        return ComposedPaletteCache.compose(context.palette(), additions.toArray(Palette[]::new));
     }
 
     private static String resolveFromPaletteString(GenerationContext context,
@@ -13,6 +13,22 @@ import java.util.Random;
  */
 public class OffshoreStage implements GenerationStage {
 
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public boolean parallelizable() {
+        // 按水体/空气判断放置位置，需看到同层其他阶段（光伏、采石场）的写入
+        return false;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        return StageFilter.requiring(ChunkTraits.CITY | ChunkTraits.BUILDING);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
@@ -0,0 +1,181 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.worldgen.PaperDimensionInfo;
+import com.during.cityloader.worldgen.lost.BuildingInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 区块内并行阶段执行器
+ * 同一并行层（{@link StageSchedule#layers(List)}）中的阶段各自写入独立的缓冲层并使用各自的随机数流，
+ * 在专用 {@link ForkJoinPool} 上并发执行，结束后按执行顺序合并回主上下文。
+ *
+ * <p>缓冲层只能看到主上下文的内容，看不到同层其他阶段的写入。合并前逐对检查：
+ * 若某阶段读取过执行顺序在它之前的阶段写入的格子，顺序执行时它会读到不同的内容，
+ * 此时丢弃全部缓冲层，改为在主上下文上按顺序重新执行本层，保证产出与顺序执行相同。
+ * 依赖同层其他阶段产出的阶段应直接声明 {@link GenerationStage#parallelizable()} 为 false，避免白跑一次。</p>
+ *
+ * <p>默认关闭，通过 {@code -Dcityloader.stageThreads=N}（N &gt; 1）开启。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class ParallelStages {
+
+    private static final int THREADS = Integer.getInteger("cityloader.stageThreads", 0);
+
+    // 因读写冲突回退为顺序执行的次数
+    private static final LongAdder CONFLICTS = new LongAdder();
+
+    private static volatile ForkJoinPool pool;
+
+    private ParallelStages() {
+    }
+
+    /**
+     * 是否开启并行执行
+     *
+     * @return 开启时返回true
+     */
+    public static boolean enabled() {
+        return THREADS > 1;
+    }
+
+    /**
+     * 并发执行一组阶段并按给定顺序合并，存在读写冲突时回退为顺序执行
+     *
+     * @param context 主上下文
+     * @param stages  同一并行层内需要执行的阶段（执行顺序）
+     * @return 各阶段耗时（纳秒），与 stages 一一对应
+     */
+    public static long[] run(GenerationContext context, List<GenerationStage> stages) {
+        PaperDimensionInfo paperProvider = context.getDimensionInfo() instanceof PaperDimensionInfo paper
+                ? paper : null;
+        List<GenerationContext> layers = new ArrayList<>(stages.size());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(stages.size());
+        long[] elapsed = new long[stages.size()];
+        ForkJoinPool executor = pool();
+        resolveShared(context.getBuildingInfo());
+        for (int i = 0; i < stages.size(); i++) {
+            GenerationStage stage = stages.get(i);
+            GenerationContext layer = context.fork(stage);
+            layers.add(layer);
+            int index = i;
+            Runnable task = () -> {
+                long start = System.nanoTime();
+                stage.generate(layer);
+                elapsed[index] = System.nanoTime() - start;
+            };
+            tasks.add(executor.submit(paperProvider != null ? paperProvider.inheritGeneration(task) : task));
+        }
+
+        RuntimeException failure = null;
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.join();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null || conflicting(layers)) {
+            for (GenerationContext layer : layers) {
+                layer.release();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            CONFLICTS.increment();
+            for (int i = 0; i < stages.size(); i++) {
+                GenerationStage stage = stages.get(i);
+                context.useStageRandom(stage);
+                long start = System.nanoTime();
+                stage.generate(context);
+                elapsed[i] = System.nanoTime() - start;
+            }
+            return elapsed;
+        }
+        for (GenerationContext layer : layers) {
+            context.merge(layer);
+        }
+        return elapsed;
+    }
+
+    /**
+     * 因读写冲突回退为顺序执行的累计次数
+     *
+     * @return 回退次数
+     */
+    public static long conflicts() {
+        return CONFLICTS.sum();
+    }
+
+    private static boolean conflicting(List<GenerationContext> layers) {
+        for (int later = 1; later < layers.size(); later++) {
+            for (int earlier = 0; earlier < later; earlier++) {
+                if (layers.get(later).conflictsWith(layers.get(earlier))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在分叉前解析建筑信息的延迟字段（相邻区块与调色板），
+     * 避免多个阶段在工作线程上同时初始化同一个共享对象
+     */
+    private static void resolveShared(BuildingInfo info) {
+        if (info == null) {
+            return;
+        }
+        info.getCompiledPalette();
+        for (BuildingInfo neighbour : new BuildingInfo[]{info.getXmin(), info.getXmax(), info.getZmin(), info.getZmax()}) {
+            if (neighbour != null) {
+                neighbour.getCompiledPalette();
+            }
+        }
+    }
+
+    /**
+     * 关闭线程池（插件停用时调用）
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool = null;
+        }
+    }
+
+    private static ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (ParallelStages.class) {
+            if (pool == null) {
+                pool = new ForkJoinPool(Math.max(2, THREADS), p -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                    thread.setName("CityLoader-Stage-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                }, null, false);
+            }
+            return pool;
+        }
+    }
+}
@@ -14,6 +14,25 @@ import java.util.Random;
  */
 public class ParkStage implements GenerationStage {
 
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public boolean parallelizable() {
+        // 按空气判断放置位置，需看到同层其他阶段的写入
+        return false;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        if (profile.getParkChance() <= 0) {
+            return StageFilter.NEVER;
+        }
+        return StageFilter.requiring(ChunkTraits.CITY | ChunkTraits.STREET).excluding(ChunkTraits.BUILDING);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
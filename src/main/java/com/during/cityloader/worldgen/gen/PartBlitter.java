@@ -0,0 +1,73 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.worldgen.lost.Transform;
+import com.during.cityloader.worldgen.lost.cityassets.BuildingPart;
+import com.during.cityloader.worldgen.lost.cityassets.PartTemplate;
+
+/**
+ * 部件模板绘制器
+ * 各阶段共享的部件渲染遍历：读取预编译模板，按窗口偏移裁剪到当前区块，
+ * 逐格回调写入逻辑，遍历过程不产生额外对象。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+final class PartBlitter {
+
+    /**
+     * 格子回调
+     */
+    @FunctionalInterface
+    interface CellSink {
+        /**
+         * @param dy 部件内层号（0 为底层）
+         * @param x 区块内X坐标（0-15）
+         * @param z 区块内Z坐标（0-15）
+         * @param token 切片字符
+         */
+        void accept(int dy, int x, int z, char token);
+    }
+
+    private PartBlitter() {
+    }
+
+    /**
+     * 获取部件的映射模板
+     *
+     * @param part 建筑部件
+     * @param transform 变换方式
+     * @param clipToChunk 是否先将源范围裁剪到 16x16
+     * @return 映射后的模板
+     */
+    static PartTemplate.Oriented orient(BuildingPart part, Transform transform, boolean clipToChunk) {
+        PartTemplate template = part.getTemplate();
+        if (template == null) {
+            // 未经资产加载流程构造的部件，按需编译
+            template = PartTemplate.compile(part.getSliceLayers(), part.getWidth(), part.getHeight(), part.getDepth());
+        }
+        return template.oriented(transform, clipToChunk);
+    }
+
+    /**
+     * 绘制模板
+     *
+     * @param oriented 映射后的模板
+     * @param windowOffsetX 多区块部件在当前区块的X窗口偏移
+     * @param windowOffsetZ 多区块部件在当前区块的Z窗口偏移
+     * @param sink 格子回调
+     */
+    static void blit(PartTemplate.Oriented oriented, int windowOffsetX, int windowOffsetZ, CellSink sink) {
+        int layerCount = oriented.getLayerCount();
+        for (int dy = 0; dy < layerCount; dy++) {
+            int cellCount = oriented.getCellCount(dy);
+            for (int i = 0; i < cellCount; i++) {
+                int x = oriented.getX(dy, i) - windowOffsetX;
+                int z = oriented.getZ(dy, i) - windowOffsetZ;
+                if (x < 0 || x > 15 || z < 0 || z > 15) {
+                    continue;
+                }
+                sink.accept(dy, x, z, oriented.getToken(dy, i));
+            }
+        }
+    }
+}
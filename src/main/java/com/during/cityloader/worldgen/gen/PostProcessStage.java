@@ -3,6 +3,7 @@ package com.during.cityloader.worldgen.gen;
 import com.during.cityloader.season.Season;
 import com.during.cityloader.util.ResourceLocation;
 import com.during.cityloader.worldgen.LostCityProfile;
+import com.during.cityloader.worldgen.MaterialClasses;
 import com.during.cityloader.worldgen.lost.BuildingInfo;
 import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
 import com.during.cityloader.worldgen.lost.cityassets.Condition;
@@ -21,6 +22,11 @@ public class PostProcessStage implements GenerationStage {
 
     private static final int FLOOR_HEIGHT = 6;
 
+    @Override
+    public StagePriority priority() {
+        return StagePriority.LOW;
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
@@ -39,9 +45,15 @@ public class PostProcessStage implements GenerationStage {
         }
         executePalettePostTodo(context, info);
         executePostTodo(info);
-        removeAllSpawners(context, info);
-        repairPaneConnectivity(context, info);
-        cleanupGroundVegetation(context, info);
+        // 三项清理合并为一次体积扫描，按登记顺序依次处理各自的候选格子
+        VolumePass cleanup = new VolumePass();
+        removeAllSpawners(cleanup, context, info);
+        repairPaneConnectivity(cleanup, context, info);
+        cleanupGroundVegetation(cleanup, context, info);
+        if (!cleanup.isEmpty()) {
+            cleanup.run(context);
+            restoreRuinFloor(context, info);
+        }
     }
 
     private void executePalettePostTodo(GenerationContext context, BuildingInfo info) {
@@ -99,51 +111,38 @@ public class PostProcessStage implements GenerationStage {
         */
     }
 
-    private void removeAllSpawners(GenerationContext context, BuildingInfo info) {
+    private void removeAllSpawners(VolumePass pass, GenerationContext context, BuildingInfo info) {
         if (info == null || !info.isCity) {
             return;
         }
         int minY = Math.max(context.getWorldInfo().getMinHeight(), info.getCityGroundLevel() - 16);
         int maxY = Math.min(context.getWorldInfo().getMaxHeight() - 1, info.getMaxHeight() + 16);
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                for (int y = minY; y <= maxY; y++) {
-                    if (context.getBlockType(x, y, z) == Material.SPAWNER) {
-                        context.setBlock(x, y, z, Material.AIR);
-                    }
-                }
-            }
-        }
+        pass.rule(minY, maxY, MaterialClasses.SPAWNER, material -> material == Material.SPAWNER,
+                (ctx, x, y, z, current) -> ctx.setBlock(x, y, z, Material.AIR));
     }
 
-    private void repairPaneConnectivity(GenerationContext context, BuildingInfo info) {
+    private void repairPaneConnectivity(VolumePass pass, GenerationContext context, BuildingInfo info) {
         if (info == null || !info.isCity) {
             return;
         }
         int minY = Math.max(context.getWorldInfo().getMinHeight(), info.getCityGroundLevel() - 20);
         int maxY = Math.min(context.getWorldInfo().getMaxHeight() - 1, info.getMaxHeight() + 24);
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                for (int y = minY; y <= maxY; y++) {
-                    Material current = context.getBlockType(x, y, z);
-                    if (!isPaneLike(current)) {
-                        continue;
-                    }
-                    boolean north = shouldConnectPane(context, x, y, z - 1);
-                    boolean south = shouldConnectPane(context, x, y, z + 1);
-                    boolean west = shouldConnectPane(context, x - 1, y, z);
-                    boolean east = shouldConnectPane(context, x + 1, y, z);
-                    String id = current.name().toLowerCase(Locale.ROOT);
-                    String definition = "minecraft:" + id
-                            + "[north=" + north
-                            + ",south=" + south
-                            + ",west=" + west
-                            + ",east=" + east
-                            + ",waterlogged=false]";
-                    context.setBlock(x, y, z, definition);
-                }
-            }
-        }
+        pass.rule(minY, maxY, MaterialClasses.PANE, this::isPaneLike, this::repairPane);
+    }
+
+    private void repairPane(GenerationContext context, int x, int y, int z, Material current) {
+        boolean north = shouldConnectPane(context, x, y, z - 1);
+        boolean south = shouldConnectPane(context, x, y, z + 1);
+        boolean west = shouldConnectPane(context, x - 1, y, z);
+        boolean east = shouldConnectPane(context, x + 1, y, z);
+        String id = current.name().toLowerCase(Locale.ROOT);
+        String definition = "minecraft:" + id
+                + "[north=" + north
+                + ",south=" + south
+                + ",west=" + west
+                + ",east=" + east
+                + ",waterlogged=false]";
+        context.setBlock(x, y, z, definition);
     }
 
     private boolean isPaneLike(Material material) {
@@ -501,7 +500,7 @@ public class PostProcessStage implements GenerationStage {
         }
     }
 
-    private void cleanupGroundVegetation(GenerationContext context, BuildingInfo info) {
+    private void cleanupGroundVegetation(VolumePass pass, GenerationContext context, BuildingInfo info) {
         if (info == null) {
             return;
         }
@@ -512,24 +511,29 @@ public class PostProcessStage implements GenerationStage {
         int floorY = info.getCityGroundLevel();
         int fromY = Math.max(minY, floorY - 8);
         int toY = Math.min(context.getWorldInfo().getMaxHeight() - 1, floorY + 2);
+        pass.rule(fromY, toY, MaterialClasses.VEGETATION, this::isGroundPollutingVegetation,
+                (ctx, x, y, z, current) -> {
+                    if (y <= floorY || !isSolidSupport(ctx.getBlockType(x, y - 1, z))) {
+                        ctx.setBlock(x, y, z, Material.AIR);
+                    }
+                });
+    }
+
+    /**
+     * 植被清理后补齐建筑地面层的空洞
+     */
+    private void restoreRuinFloor(GenerationContext context, BuildingInfo info) {
+        if (info == null || !info.isCity || !info.hasBuilding) {
+            return;
+        }
+        int floorY = info.getCityGroundLevel();
+        if (floorY < context.getWorldInfo().getMinHeight() || floorY >= context.getWorldInfo().getMaxHeight()) {
+            return;
+        }
         for (int x = 0; x < 16; x++) {
             for (int z = 0; z < 16; z++) {
-                for (int y = fromY; y <= toY; y++) {
-                    Material current = context.getBlockType(x, y, z);
-                    if (!isGroundPollutingVegetation(current)) {
-                        continue;
-                    }
-                    if (y <= floorY) {
-                        context.setBlock(x, y, z, Material.AIR);
-                        continue;
-                    }
-                    Material below = context.getBlockType(x, y - 1, z);
-                    if (!isSolidSupport(below)) {
-                        context.setBlock(x, y, z, Material.AIR);
-                    }
-                }
                 Material floor = context.getBlockType(x, floorY, z);
-                if (info.hasBuilding && isAirLike(floor)) {
+                if (isAirLike(floor)) {
                     context.setBlock(x, floorY, z, pickRuinFloorMaterial(context, x, z, floorY));
                 }
             }
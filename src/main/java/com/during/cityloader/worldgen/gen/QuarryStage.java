@@ -15,6 +15,16 @@ public class QuarryStage implements GenerationStage {
 
     private static final int QUARRY_DEPTH = -12;
 
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        return StageFilter.requiring(ChunkTraits.CITY | ChunkTraits.BUILDING);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
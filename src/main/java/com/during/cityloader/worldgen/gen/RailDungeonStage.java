@@ -17,6 +17,19 @@ public class RailDungeonStage implements GenerationStage {
 
     private static final int FLOOR_HEIGHT = 6;
 
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        if (!profile.isRailwaysEnabled() || profile.getRailwayDungeonChance() <= 0) {
+            return StageFilter.NEVER;
+        }
+        return StageFilter.requiring(ChunkTraits.CITY);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         BuildingInfo info = context.getBuildingInfo();
@@ -4,17 +4,19 @@ import com.during.cityloader.util.ChunkCoord;
 import com.during.cityloader.util.ResourceLocation;
 import com.during.cityloader.worldgen.ChunkHeightmap;
 import com.during.cityloader.worldgen.IDimensionInfo;
+import com.during.cityloader.worldgen.LostCityProfile;
 import com.during.cityloader.worldgen.lost.Transform;
 import com.during.cityloader.worldgen.lost.cityassets.AssetRegistries;
 import com.during.cityloader.worldgen.lost.cityassets.Building;
 import com.during.cityloader.worldgen.lost.cityassets.BuildingPart;
 import com.during.cityloader.worldgen.lost.cityassets.CompiledPalette;
+import com.during.cityloader.worldgen.lost.cityassets.ComposedPaletteCache;
+import com.during.cityloader.worldgen.lost.cityassets.PartTemplate;
 import com.during.cityloader.worldgen.lost.cityassets.ConditionContext;
 import com.during.cityloader.worldgen.lost.cityassets.MultiBuilding;
 import com.during.cityloader.worldgen.lost.cityassets.Palette;
 import com.during.cityloader.worldgen.lost.cityassets.ScatteredBuilding;
 import com.during.cityloader.worldgen.lost.cityassets.WorldStyle;
-import com.during.cityloader.worldgen.lost.regassets.data.BiomeMatcher;
 import com.during.cityloader.worldgen.lost.regassets.data.ScatteredSelector;
 import com.during.cityloader.worldgen.lost.regassets.data.ScatteredSettings;
 import org.bukkit.Material;
@@ -30,6 +32,19 @@ public final class ScatteredStage implements GenerationStage {
     private static final int FLOOR_HEIGHT = 6;
     private static final long SCATTERED_GRID_SALT = 0x61C8864680B583EBL;
 
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        if (!profile.isScatteredEnabled()) {
+            return StageFilter.NEVER;
+        }
+        return StageFilter.ALWAYS.excluding(ChunkTraits.CITY);
+    }
+
     @Override
     public void generate(GenerationContext context) {
         if (!context.getDimensionInfo().getProfile().isScatteredEnabled()) {
@@ -158,10 +173,11 @@ public final class ScatteredStage implements GenerationStage {
                 continue;
             }
 
-            String biomeName = getBiomeName(context.getDimensionInfo(), anchorChunkX, anchorChunkZ, anchorStats.average());
-            if (!matchesBiome(selector.getBiomes(), biomeName)) {
+            org.bukkit.block.Biome biome = sampleBiome(context.getDimensionInfo(), anchorChunkX, anchorChunkZ, anchorStats.average());
+            if (selector.getBiomes() != null && !selector.getBiomes().compiled().matches(biome)) {
                 continue;
             }
+            String biomeName = "minecraft:" + biome.name().toLowerCase(Locale.ROOT);
 
             int weight = Math.max(1, selector.getWeight());
             candidates.add(new ScatteredCandidate(selector, scattered, anchorChunkX, anchorChunkZ, anchorStats, biomeName, weight));
@@ -339,56 +355,35 @@ public final class ScatteredStage implements GenerationStage {
             transform = Transform.ROTATE_NONE;
         }
 
-        List<List<String>> layers = part.getSliceLayers();
-        if (layers == null || layers.isEmpty()) {
+        PartTemplate.Oriented template = PartBlitter.orient(part, transform, true);
+        if (template.getLayerCount() == 0) {
             return;
         }
 
         Material[][] baseMaterials = new Material[16][16];
-        int maxLayers = Math.min(part.getDepth(), layers.size());
-        for (int dy = 0; dy < maxLayers; dy++) {
+        PartBlitter.blit(template, 0, 0, (dy, worldX, worldZ, token) -> {
             int y = baseY + dy;
-            List<String> rows = layers.get(dy);
-            int sourceMaxZ = Math.min(16, Math.min(part.getHeight(), rows.size()));
-            int sourceMaxX = Math.min(16, part.getWidth());
-            int boundX = sourceMaxX - 1;
-            int boundZ = sourceMaxZ - 1;
-            if (boundX < 0 || boundZ < 0) {
-                continue;
+            if (token == ' ') {
+                if (!overlay) {
+                    context.setBlock(worldX, y, worldZ, Material.AIR);
+                }
+                return;
             }
-            for (int z = 0; z < sourceMaxZ; z++) {
-                String row = rows.get(z);
-                int maxX = Math.min(sourceMaxX, row.length());
-                for (int x = 0; x < maxX; x++) {
-                    char token = row.charAt(x);
-                    int worldX = transform.mapX(x, z, boundX, boundZ);
-                    int worldZ = transform.mapZ(x, z, boundX, boundZ);
-                    if (worldX < 0 || worldX > 15 || worldZ < 0 || worldZ > 15) {
-                        continue;
-                    }
-                    if (token == ' ') {
-                        if (!overlay) {
-                            context.setBlock(worldX, y, worldZ, Material.AIR);
-                        }
-                        continue;
-                    }
 
-                    String definition = resolveFromPaletteString(context, palette, token);
-                    if (definition == null || definition.isBlank()) {
-                        continue;
-                    }
-                    if (definition.contains("structure_void")) {
-                        continue;
-                    }
-                    context.setBlock(worldX, y, worldZ, definition);
-                    // 保存基础材料用于地形修复
-                    if (dy == 0) {
-                        Material material = context.resolveMaterial(definition, null);
-                        baseMaterials[worldX][worldZ] = material;
-                    }
-                }
+            String definition = resolveFromPaletteString(context, palette, token);
+            if (definition == null || definition.isBlank()) {
+                return;
             }
-        }
+            if (definition.contains("structure_void")) {
+                return;
+            }
+            context.setBlock(worldX, y, worldZ, definition, palette.getBlockData(token, definition));
+            // 保存基础材料用于地形修复
+            if (dy == 0) {
+                Material material = context.resolveMaterial(definition, null);
+                baseMaterials[worldX][worldZ] = material;
+            }
+        });
 
         if (!overlay) {
             applyTerrainFix(context, baseMaterials, baseY, terrainFixMode);
@@ -489,7 +484,7 @@ public final class ScatteredStage implements GenerationStage {
         if (palettes.isEmpty()) {
             return context.palette();
         }
-        return new CompiledPalette(context.palette(), palettes.toArray(Palette[]::new));
+        return ComposedPaletteCache.compose(context.palette(), palettes.toArray(Palette[]::new));
     }
 
     private CompiledPalette composePartPalette(GenerationContext context, CompiledPalette base, BuildingPart part) {
@@ -511,7 +506,7 @@ public final class ScatteredStage implements GenerationStage {
         if (additions.isEmpty()) {
             return base;
         }
-        return new CompiledPalette(base, additions.toArray(Palette[]::new));
+        return ComposedPaletteCache.compose(base, additions.toArray(Palette[]::new));
     }
 
     /**
@@ -537,52 +532,6 @@ public final class ScatteredStage implements GenerationStage {
         return context.resolveMaterial(definition, fallback);
     }
 
-    private boolean matchesBiome(BiomeMatcher matcher, String biome) {
-        if (matcher == null) {
-            return true;
-        }
-        String normalizedBiome = biome == null ? "" : biome.toLowerCase(Locale.ROOT);
-
-        if (!matcher.getExcluding().isEmpty()) {
-            for (String excluded : matcher.getExcluding()) {
-                if (tokenMatches(excluded, normalizedBiome)) {
-                    return false;
-                }
-            }
-        }
-        if (!matcher.getIfAll().isEmpty()) {
-            for (String required : matcher.getIfAll()) {
-                if (!tokenMatches(required, normalizedBiome)) {
-                    return false;
-                }
-            }
-        }
-        if (!matcher.getIfAny().isEmpty()) {
-            for (String option : matcher.getIfAny()) {
-                if (tokenMatches(option, normalizedBiome)) {
-                    return true;
-                }
-            }
-            return false;
-        }
-        return true;
-    }
-
-    private boolean tokenMatches(String token, String biome) {
-        if (token == null || token.isBlank()) {
-            return false;
-        }
-        String normalized = token.toLowerCase(Locale.ROOT).trim();
-        if (normalized.startsWith("#")) {
-            String tail = normalized.substring(1);
-            int colon = tail.indexOf(':');
-            String simple = colon >= 0 ? tail.substring(colon + 1) : tail;
-            simple = simple.replace("is_", "").replace('_', ' ');
-            return biome.contains(simple.replace(" ", "_")) || biome.contains(simple.replace(" ", ""));
-        }
-        return biome.equals(normalized) || biome.endsWith(normalized);
-    }
-
     private int resolveTerrainHeight(String mode, HeightStats stats, int waterLevel) {
         if (mode == null) {
             return stats.average();
@@ -621,14 +570,11 @@ public final class ScatteredStage implements GenerationStage {
         return new HeightStats(min, max, total / count);
     }
 
-    private String getBiomeName(IDimensionInfo provider, int chunkX, int chunkZ, int y) {
+    private org.bukkit.block.Biome sampleBiome(IDimensionInfo provider, int chunkX, int chunkZ, int y) {
         int x = (chunkX << 4) + 8;
         int z = (chunkZ << 4) + 8;
         org.bukkit.block.Biome biome = provider.getBiome(x, y, z);
-        if (biome == null) {
-            return "minecraft:plains";
-        }
-        return "minecraft:" + biome.name().toLowerCase(Locale.ROOT);
+        return biome == null ? org.bukkit.block.Biome.PLAINS : biome;
     }
 
     private Random gridRandom(long worldSeed, int gridX, int gridZ) {
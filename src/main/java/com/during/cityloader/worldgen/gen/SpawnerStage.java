@@ -38,6 +38,22 @@ public class SpawnerStage implements GenerationStage {
         "minecraft:ghast", "minecraft:piglin"
     };
 
+    @Override
+    public StagePriority priority() {
+        return StagePriority.HIGH;
+    }
+
+    @Override
+    public boolean independent() {
+        return true;
+    }
+
+    @Override
+    public StageFilter applicability(LostCityProfile profile) {
+        // generate 已整体禁用
+        return StageFilter.NEVER;
+    }
+
     @Override
     public void generate(GenerationContext context) {
         // 明确禁用刷怪笼生成（用户需求：不要刷怪笼）
@@ -0,0 +1,206 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.season.Season;
+import com.during.cityloader.util.ChunkCoord;
+import com.during.cityloader.worldgen.GenerationMetrics;
+import com.during.cityloader.worldgen.IDimensionInfo;
+import com.during.cityloader.worldgen.LostCityTerrainFeature;
+import com.during.cityloader.worldgen.PaperDimensionInfo;
+import com.during.cityloader.worldgen.lost.BuildingInfo;
+import org.bukkit.World;
+import org.bukkit.generator.LimitedRegion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 区块生成时因超出预算而延后的剩余阶段
+ * 持有原生成上下文（建筑信息、季节、待写入的方块实体任务），
+ * 区块加载后在主线程通过 {@link LoadedRegion} 按原顺序分片执行。
+ *
+ * <p>从 {@link ContinuationJournal} 恢复的任务只有区块坐标、季节与剩余阶段名，
+ * 首次执行前经 {@link #resolve(IDimensionInfo)} 按名称找回阶段，并在执行时重建生成上下文。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class StageContinuation {
+
+    private final int chunkX;
+    private final int chunkZ;
+    private final Season season;
+    private final List<String> stageNames;
+    private final long createdAt = System.currentTimeMillis();
+    private GenerationContext context;
+    private IDimensionInfo provider;
+    private List<GenerationStage> stages;
+    private int next;
+
+    /**
+     * 构造续跑任务
+     *
+     * @param context  已 flush 并 release 的生成上下文
+     * @param provider 维度信息
+     * @param stages   剩余阶段（执行顺序）
+     */
+    public StageContinuation(GenerationContext context, IDimensionInfo provider,
+                             List<GenerationStage> stages) {
+        this.chunkX = context.getChunkX();
+        this.chunkZ = context.getChunkZ();
+        this.season = context.getSeason();
+        this.context = context;
+        this.provider = provider;
+        this.stages = List.copyOf(stages);
+        this.stageNames = null;
+    }
+
+    private StageContinuation(int chunkX, int chunkZ, Season season, List<String> stageNames) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.season = season == null ? Season.SPRING : season;
+        this.stageNames = List.copyOf(stageNames);
+    }
+
+    /**
+     * 从日志记录重建续跑任务（尚未解析阶段）
+     *
+     * @param chunkX     区块X
+     * @param chunkZ     区块Z
+     * @param season     生成时的季节
+     * @param stageNames 剩余阶段名（执行顺序）
+     * @return 续跑任务
+     */
+    static StageContinuation restored(int chunkX, int chunkZ, Season season, List<String> stageNames) {
+        return new StageContinuation(chunkX, chunkZ, season, stageNames);
+    }
+
+    public int chunkX() {
+        return chunkX;
+    }
+
+    public int chunkZ() {
+        return chunkZ;
+    }
+
+    public int remaining() {
+        return stages == null ? stageNames.size() : stages.size() - next;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    Season season() {
+        return season;
+    }
+
+    /**
+     * 尚未执行的阶段名（执行顺序），供写入日志
+     *
+     * @return 阶段名
+     */
+    List<String> remainingStageNames() {
+        if (stages == null) {
+            return stageNames;
+        }
+        List<String> names = new ArrayList<>(stages.size() - next);
+        for (int i = next; i < stages.size(); i++) {
+            names.add(stages.get(i).name());
+        }
+        return names;
+    }
+
+    boolean isResolved() {
+        return stages != null;
+    }
+
+    /**
+     * 按名称从维度的流水线中找回恢复任务的阶段；已不存在的阶段被跳过
+     *
+     * @param dimensionInfo 维度信息
+     */
+    void resolve(IDimensionInfo dimensionInfo) {
+        if (stages != null) {
+            return;
+        }
+        LostCityTerrainFeature feature = dimensionInfo.getFeature() != null
+                ? dimensionInfo.getFeature()
+                : LostCityTerrainFeature.DEFAULT;
+        List<GenerationStage> pipeline = feature.pipelineFor(dimensionInfo.getProfile()).getStages();
+        List<GenerationStage> resolved = new ArrayList<>(stageNames.size());
+        for (String name : stageNames) {
+            for (GenerationStage stage : pipeline) {
+                if (stage.name().equals(name)) {
+                    resolved.add(stage);
+                    break;
+                }
+            }
+        }
+        this.provider = dimensionInfo;
+        this.stages = List.copyOf(resolved);
+    }
+
+    /**
+     * 最近一次开始执行的阶段名（尚未执行任何阶段时为下一个阶段）
+     *
+     * @return 阶段名
+     */
+    String currentStage() {
+        if (stages == null || stages.isEmpty()) {
+            return stageNames == null || stageNames.isEmpty() ? "-" : stageNames.get(0);
+        }
+        return stages.get(Math.max(0, next - 1)).name();
+    }
+
+    /**
+     * 在主线程执行一片阶段，至少执行一个，超过截止时间后停止
+     * 须已 {@link #resolve(IDimensionInfo) 解析}。
+     *
+     * @param world         世界（区块须已加载）
+     * @param deadlineNanos 截止时间（{@link System#nanoTime()}）
+     * @param metrics       指标记录器，可为null
+     * @return 全部阶段完成时返回true
+     */
+    boolean run(World world, long deadlineNanos, GenerationMetrics.WorldMetrics metrics) {
+        if (next >= stages.size()) {
+            return true;
+        }
+        LimitedRegion region = LoadedRegion.of(world, chunkX, chunkZ);
+        PaperDimensionInfo paperProvider = provider instanceof PaperDimensionInfo paper ? paper : null;
+        if (paperProvider != null) {
+            paperProvider.beginChunkGeneration(region, chunkX, chunkZ);
+        }
+        // 随机数按阶段派生，与区块生成时一致，延后与否不影响产出
+        if (context == null) {
+            String dimension = provider.dimension() != null ? provider.dimension() : world.getName();
+            BuildingInfo buildingInfo = BuildingInfo.getBuildingInfo(
+                    new ChunkCoord(dimension, chunkX, chunkZ), provider);
+            context = new GenerationContext(world, region, provider, buildingInfo, null, chunkX, chunkZ, season);
+        } else {
+            context.resume(region, null);
+        }
+        try {
+            long stageStart = System.nanoTime();
+            do {
+                GenerationStage stage = stages.get(next++);
+                context.useStageRandom(stage);
+                stage.generate(context);
+                long now = System.nanoTime();
+                if (metrics != null) {
+                    metrics.recordStage(stage.name(), now - stageStart);
+                }
+                stageStart = now;
+            } while (next < stages.size() && System.nanoTime() < deadlineNanos);
+        } finally {
+            try {
+                context.flush();
+            } finally {
+                context.release();
+                if (paperProvider != null) {
+                    paperProvider.endChunkGeneration();
+                }
+            }
+        }
+        return next >= stages.size();
+    }
+}
@@ -0,0 +1,316 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.util.ChunkMap;
+import com.during.cityloader.worldgen.GenerationMetrics;
+import com.during.cityloader.worldgen.IDimensionInfo;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 延后阶段续跑队列
+ * 与 {@link GlobalCompletionQueue} 相同的模式：生成线程登记续跑任务，
+ * {@code ChunkLoadEvent} 标记区块可执行，主线程每 tick 在时间预算内续跑。
+ *
+ * <p>已登记的任务从不丢弃：任务数达到上限（{@link #isFull()}）时生成线程不再延后阶段，
+ * 而是在区块生成时执行完整流水线，以此对延后施加背压。
+ * 尚未续跑完的任务经 {@link ContinuationJournal} 写入世界目录，重启后恢复。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class StageContinuationQueue {
+
+    private static final Logger LOGGER = Logger.getLogger("CityLoader");
+
+    private static final Map<UUID, WorldQueue> QUEUES = new ConcurrentHashMap<>();
+    private static final String JOURNAL_FILE = "continuations.json";
+
+    private static final AtomicInteger TOTAL_WAITING = new AtomicInteger();
+    private static final AtomicInteger TOTAL_PENDING = new AtomicInteger();
+
+    private static final LongAdder ENQUEUED = new LongAdder();
+    private static final LongAdder COMPLETED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder FAILED = new LongAdder();
+    private static final LongAdder THROTTLED = new LongAdder();
+
+    private static volatile int maxPending = 4096;
+    private static volatile Function<World, IDimensionInfo> providerResolver = world -> null;
+
+    private StageContinuationQueue() {
+    }
+
+    public static void setMaxPending(int value) {
+        maxPending = Math.max(1, value);
+    }
+
+    /**
+     * 设置恢复任务的维度信息来源（资产未就绪时返回 null，任务留待下次续跑）
+     *
+     * @param resolver 世界到维度信息的映射
+     */
+    public static void setProviderResolver(Function<World, IDimensionInfo> resolver) {
+        providerResolver = resolver == null ? world -> null : resolver;
+    }
+
+    /**
+     * 队列是否已满（生成线程调用）：已满时不应再延后阶段
+     *
+     * @return 待续跑任务数达到上限时返回true
+     */
+    public static boolean isFull() {
+        return TOTAL_PENDING.get() >= maxPending;
+    }
+
+    /**
+     * 记录一次因队列已满而放弃延后的区块
+     */
+    public static void recordThrottled() {
+        THROTTLED.increment();
+    }
+
+    /**
+     * 登记续跑任务（生成线程调用）
+     *
+     * @param world        世界
+     * @param continuation 续跑任务
+     */
+    public static void enqueue(World world, StageContinuation continuation) {
+        if (world == null || continuation == null) {
+            return;
+        }
+        WorldQueue queue = QUEUES.computeIfAbsent(world.getUID(), id -> new WorldQueue());
+        synchronized (queue) {
+            StageContinuation previous = queue.waiting.put(
+                    ChunkMap.key(continuation.chunkX(), continuation.chunkZ()), continuation);
+            if (previous == null) {
+                TOTAL_WAITING.incrementAndGet();
+                TOTAL_PENDING.incrementAndGet();
+            } else {
+                // 同一区块被重新生成：旧任务的上下文已过时
+                DROPPED.increment();
+            }
+            ENQUEUED.increment();
+        }
+    }
+
+    /**
+     * 区块加载后标记其续跑任务可执行（主线程调用）
+     *
+     * @param world  世界
+     * @param chunkX 区块X
+     * @param chunkZ 区块Z
+     */
+    public static void markLoaded(World world, int chunkX, int chunkZ) {
+        WorldQueue queue = world == null ? null : QUEUES.get(world.getUID());
+        if (queue == null) {
+            return;
+        }
+        synchronized (queue) {
+            StageContinuation continuation = queue.waiting.remove(ChunkMap.key(chunkX, chunkZ));
+            if (continuation != null) {
+                TOTAL_WAITING.decrementAndGet();
+                queue.ready.addLast(continuation);
+            }
+        }
+    }
+
+    /**
+     * 在截止时间前续跑已加载区块的延后阶段（主线程调用）
+     *
+     * @param world         世界
+     * @param deadlineNanos 截止时间（{@link System#nanoTime()}）
+     * @return 本次完成的区块数
+     */
+    public static int drain(World world, long deadlineNanos) {
+        WorldQueue queue = world == null ? null : QUEUES.get(world.getUID());
+        if (queue == null) {
+            return 0;
+        }
+        GenerationMetrics.WorldMetrics metrics = GenerationMetrics.forWorld(world.getName());
+        int completed = 0;
+        while (System.nanoTime() < deadlineNanos) {
+            StageContinuation continuation;
+            synchronized (queue) {
+                continuation = queue.ready.pollFirst();
+            }
+            if (continuation == null) {
+                break;
+            }
+            if (!continuation.isResolved()) {
+                IDimensionInfo provider = providerResolver.apply(world);
+                if (provider == null) {
+                    // 资产尚未就绪：放回队首，下个 tick 再试
+                    synchronized (queue) {
+                        queue.ready.addFirst(continuation);
+                    }
+                    break;
+                }
+                continuation.resolve(provider);
+            }
+            if (!world.isChunkLoaded(continuation.chunkX(), continuation.chunkZ())) {
+                // 已卸载：回到等待集合，下次加载时再续跑
+                synchronized (queue) {
+                    if (queue.waiting.putIfAbsent(ChunkMap.key(continuation.chunkX(), continuation.chunkZ()),
+                            continuation) == null) {
+                        TOTAL_WAITING.incrementAndGet();
+                    } else {
+                        // 区块已重新登记了更新的任务
+                        DROPPED.increment();
+                        TOTAL_PENDING.decrementAndGet();
+                    }
+                }
+                continue;
+            }
+            try {
+                if (continuation.run(world, deadlineNanos, metrics)) {
+                    completed++;
+                    COMPLETED.increment();
+                    TOTAL_PENDING.decrementAndGet();
+                } else {
+                    synchronized (queue) {
+                        queue.ready.addFirst(continuation);
+                    }
+                }
+            } catch (RuntimeException e) {
+                FAILED.increment();
+                TOTAL_PENDING.decrementAndGet();
+                LOGGER.log(Level.WARNING, "延后阶段续跑失败，已丢弃该区块剩余阶段: 世界 " + world.getName()
+                        + " 区块 (" + continuation.chunkX() + ", " + continuation.chunkZ() + ") 阶段 "
+                        + continuation.currentStage(), e);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * 将世界中尚未续跑完的任务写入日志（主线程调用）；没有任务时删除旧日志
+     *
+     * @param world 世界
+     * @return 写入的任务数
+     * @throws IOException 写入失败
+     */
+    public static int saveJournal(World world) throws IOException {
+        List<StageContinuation> continuations = new ArrayList<>();
+        WorldQueue queue = QUEUES.get(world.getUID());
+        if (queue != null) {
+            synchronized (queue) {
+                continuations.addAll(queue.ready);
+                continuations.addAll(queue.waiting.values());
+            }
+        }
+        return ContinuationJournal.save(journalFile(world), continuations);
+    }
+
+    /**
+     * 从日志恢复续跑任务（主线程调用）；区块已加载的任务直接就绪
+     * 与 {@link GlobalCompletionQueue#restoreJournal(World)} 相同，日志保留到下次
+     * {@link #saveJournal(World)} 改写，崩溃前已执行的阶段可能再执行一次。
+     *
+     * @param world 世界
+     * @return 恢复的任务数
+     * @throws IOException 读取失败
+     */
+    public static int restoreJournal(World world) throws IOException {
+        List<StageContinuation> continuations = ContinuationJournal.load(journalFile(world));
+        if (continuations.isEmpty()) {
+            return 0;
+        }
+        WorldQueue queue = QUEUES.computeIfAbsent(world.getUID(), id -> new WorldQueue());
+        int restored = 0;
+        synchronized (queue) {
+            for (StageContinuation continuation : continuations) {
+                long key = ChunkMap.key(continuation.chunkX(), continuation.chunkZ());
+                if (queue.waiting.containsKey(key)) {
+                    continue;
+                }
+                if (world.isChunkLoaded(continuation.chunkX(), continuation.chunkZ())) {
+                    queue.ready.addLast(continuation);
+                } else {
+                    queue.waiting.put(key, continuation);
+                    TOTAL_WAITING.incrementAndGet();
+                }
+                TOTAL_PENDING.incrementAndGet();
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * 丢弃世界的队列（世界卸载时，在写入日志之后调用）
+     *
+     * @param world 世界
+     */
+    public static void forget(World world) {
+        WorldQueue queue = world == null ? null : QUEUES.remove(world.getUID());
+        if (queue == null) {
+            return;
+        }
+        synchronized (queue) {
+            TOTAL_WAITING.addAndGet(-queue.waiting.size());
+            TOTAL_PENDING.addAndGet(-queue.waiting.size() - queue.ready.size());
+        }
+    }
+
+    static Path journalFile(World world) {
+        return world.getWorldFolder().toPath().resolve("cityloader").resolve(JOURNAL_FILE);
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @return 统计信息
+     */
+    public static Snapshot snapshot() {
+        int ready = 0;
+        for (WorldQueue queue : QUEUES.values()) {
+            synchronized (queue) {
+                ready += queue.ready.size();
+            }
+        }
+        return new Snapshot(TOTAL_WAITING.get(), ready, ENQUEUED.sum(), COMPLETED.sum(), DROPPED.sum(), FAILED.sum(),
+                THROTTLED.sum());
+    }
+
+    public static void clear() {
+        QUEUES.clear();
+        TOTAL_WAITING.set(0);
+        TOTAL_PENDING.set(0);
+    }
+
+    private static final class WorldQueue {
+        private final LinkedHashMap<Long, StageContinuation> waiting = new LinkedHashMap<>();
+        private final Deque<StageContinuation> ready = new ArrayDeque<>();
+    }
+
+    /**
+     * 续跑队列统计
+     *
+     * @param waiting   等待区块加载的任务数
+     * @param ready     已可执行的任务数
+     * @param enqueued  累计登记数
+     * @param completed 累计完成数
+     * @param dropped   同一区块重新登记时被替换的旧任务数
+     * @param failed    续跑异常数
+     * @param throttled 因队列已满而在生成时执行完整流水线的区块数
+     */
+    public record Snapshot(int waiting, int ready, long enqueued, long completed, long dropped, long failed,
+                           long throttled) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.during.cityloader.worldgen.gen;
+
+/**
+ * 阶段适用条件
+ * 以 {@link ChunkTraits} 位掩码描述：区块须具备 {@code required} 中的全部特征，
+ * 且不具备 {@code excluded} 中的任何特征。条件只应覆盖阶段在消耗随机数之前就会返回的情形，
+ * 这样跳过分派不会改变其余阶段看到的随机序列。
+ *
+ * @param required 必须具备的特征
+ * @param excluded 不得具备的特征
+ * @param never    在当前配置下永远不会执行
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public record StageFilter(int required, int excluded, boolean never) {
+
+    public static final StageFilter ALWAYS = new StageFilter(0, 0, false);
+    public static final StageFilter NEVER = new StageFilter(0, 0, true);
+
+    public static StageFilter requiring(int traits) {
+        return new StageFilter(traits, 0, false);
+    }
+
+    public StageFilter excluding(int traits) {
+        return new StageFilter(required, excluded | traits, never);
+    }
+
+    /**
+     * 判断区块是否满足条件
+     *
+     * @param traits 区块特征
+     * @return 满足时返回true
+     */
+    public boolean matches(int traits) {
+        return !never && (traits & required) == required && (traits & excluded) == 0;
+    }
+}
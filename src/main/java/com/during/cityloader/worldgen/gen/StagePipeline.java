@@ -0,0 +1,117 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.worldgen.LostCityProfile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按配置编译的阶段流水线
+ * 去掉在该 {@link LostCityProfile} 下永远不会执行的阶段，
+ * 其余阶段的适用条件展开为并行的 int 数组，分派时只做位运算。
+ * 同时记录每个阶段所在并行层（{@link StageSchedule#layers(List)}）的结束下标，
+ * 以及最后一个 {@link StagePriority#CRITICAL} 阶段之后的位置（{@link #firstDeferrable()}）。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class StagePipeline {
+
+    private final List<GenerationStage> stages;
+    private final int[] required;
+    private final int[] excluded;
+    private final int[] layerEnds;
+    private final int firstDeferrable;
+
+    private StagePipeline(List<GenerationStage> stages, int[] required, int[] excluded) {
+        this.stages = Collections.unmodifiableList(stages);
+        this.required = required;
+        this.excluded = excluded;
+        this.layerEnds = new int[stages.size()];
+        int start = 0;
+        for (List<GenerationStage> layer : StageSchedule.layers(stages)) {
+            int end = start + layer.size();
+            Arrays.fill(layerEnds, start, end, end);
+            start = end;
+        }
+        int lastCritical = -1;
+        for (int i = 0; i < stages.size(); i++) {
+            if (stages.get(i).priority() == StagePriority.CRITICAL) {
+                lastCritical = i;
+            }
+        }
+        this.firstDeferrable = lastCritical + 1;
+    }
+
+    /**
+     * 编译流水线
+     *
+     * @param ordered 已排好执行顺序的阶段
+     * @param profile 城市配置，为 null 时不做任何裁剪
+     * @return 流水线
+     */
+    public static StagePipeline compile(List<GenerationStage> ordered, LostCityProfile profile) {
+        List<GenerationStage> kept = new ArrayList<>(ordered.size());
+        int[] required = new int[ordered.size()];
+        int[] excluded = new int[ordered.size()];
+        for (GenerationStage stage : ordered) {
+            StageFilter filter = profile == null ? StageFilter.ALWAYS : stage.applicability(profile);
+            if (filter == null) {
+                filter = StageFilter.ALWAYS;
+            }
+            if (filter.never()) {
+                continue;
+            }
+            required[kept.size()] = filter.required();
+            excluded[kept.size()] = filter.excluded();
+            kept.add(stage);
+        }
+        int size = kept.size();
+        return new StagePipeline(kept, Arrays.copyOf(required, size), Arrays.copyOf(excluded, size));
+    }
+
+    public int size() {
+        return stages.size();
+    }
+
+    public GenerationStage stage(int index) {
+        return stages.get(index);
+    }
+
+    /**
+     * 判断第 index 个阶段是否适用于具有给定特征的区块
+     *
+     * @param index  阶段下标
+     * @param traits 区块特征（{@link ChunkTraits}）
+     * @return 适用时返回true
+     */
+    public boolean applies(int index, int traits) {
+        return (traits & required[index]) == required[index] && (traits & excluded[index]) == 0;
+    }
+
+    /**
+     * 第 index 个阶段所在并行层的结束下标（不包含）；不可并行的阶段独占一层
+     *
+     * @param index 阶段下标
+     * @return 结束下标
+     */
+    public int layerEnd(int index) {
+        return layerEnds[index];
+    }
+
+    /**
+     * 可以开始延后的最小下标：其后不再有 {@link StagePriority#CRITICAL} 阶段，
+     * 从这里起把剩余阶段整体推迟到续跑，既不延后核心阶段，也不打乱执行顺序
+     *
+     * @return 下标
+     */
+    public int firstDeferrable() {
+        return firstDeferrable;
+    }
+
+    public List<GenerationStage> getStages() {
+        return stages;
+    }
+}
@@ -0,0 +1,27 @@
+package com.during.cityloader.worldgen.gen;
+
+/**
+ * 生成阶段优先级
+ * 决定超出单区块预算时阶段能否延后，以及同一批可重排阶段之间的执行先后。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public enum StagePriority {
+    /**
+     * 城市骨架（建筑、街道、基础设施），总是在区块生成时执行，从不延后
+     */
+    CRITICAL,
+    /**
+     * 影响玩法的内容（战利品、刷怪笼），可重排时排在前面
+     */
+    HIGH,
+    /**
+     * 普通装饰与附属结构
+     */
+    NORMAL,
+    /**
+     * 收尾处理
+     */
+    LOW
+}
@@ -0,0 +1,57 @@
+package com.during.cityloader.worldgen.gen;
+
+import java.util.Random;
+
+/**
+ * 阶段随机数流
+ * 每个阶段的随机数源由（世界种子、区块坐标、阶段标识）经 SplitMix64 混合派生，
+ * 与其他阶段是否执行、执行顺序及是否延后无关，因此阶段可以重排、延后或并行执行而不改变产出。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class StageRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private StageRandom() {
+    }
+
+    /**
+     * 派生阶段种子
+     *
+     * @param worldSeed 世界种子
+     * @param chunkX    区块X
+     * @param chunkZ    区块Z
+     * @param stageId   阶段标识（{@link GenerationStage#name()}）
+     * @return 种子
+     */
+    public static long seed(long worldSeed, int chunkX, int chunkZ, String stageId) {
+        long hash = mix64(worldSeed + GOLDEN_GAMMA);
+        hash = mix64(hash ^ ((long) chunkX * 0xC2B2AE3D27D4EB4FL));
+        hash = mix64(hash ^ ((long) chunkZ * 0x165667B19E3779F9L));
+        return mix64(hash ^ ((long) (stageId == null ? 0 : stageId.hashCode()) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * 创建阶段随机数源
+     *
+     * @param worldSeed 世界种子
+     * @param chunkX    区块X
+     * @param chunkZ    区块Z
+     * @param stage     阶段
+     * @return 随机数源
+     */
+    public static Random forStage(long worldSeed, int chunkX, int chunkZ, GenerationStage stage) {
+        return new Random(seed(worldSeed, chunkX, chunkZ, stage.name()));
+    }
+
+    /**
+     * SplitMix64 终混函数
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,73 @@
+package com.during.cityloader.worldgen.gen;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 生成阶段执行顺序
+ * 非独立阶段保持声明顺序并作为屏障；屏障之间连续的独立阶段按优先级稳定排序。
+ * 区块生成与延后续跑使用同一顺序，因此延后与否不改变阶段的相对次序。
+ * 执行顺序中连续的可并行阶段构成一层（{@link #layers(List)}），层内阶段互不读取对方的产出。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class StageSchedule {
+
+    private StageSchedule() {
+    }
+
+    /**
+     * 计算执行顺序
+     *
+     * @param declared 声明顺序
+     * @return 执行顺序
+     */
+    public static List<GenerationStage> order(List<GenerationStage> declared) {
+        List<GenerationStage> ordered = new ArrayList<>(declared.size());
+        List<GenerationStage> run = new ArrayList<>();
+        for (GenerationStage stage : declared) {
+            if (stage.independent()) {
+                run.add(stage);
+                continue;
+            }
+            flush(run, ordered);
+            ordered.add(stage);
+        }
+        flush(run, ordered);
+        return ordered;
+    }
+
+    /**
+     * 将执行顺序划分为层：连续的可并行阶段归为一层，其余阶段各自成层
+     *
+     * @param ordered 执行顺序（{@link #order(List)} 的结果）
+     * @return 按顺序排列的层
+     */
+    public static List<List<GenerationStage>> layers(List<GenerationStage> ordered) {
+        List<List<GenerationStage>> layers = new ArrayList<>();
+        List<GenerationStage> layer = new ArrayList<>();
+        for (GenerationStage stage : ordered) {
+            if (stage.parallelizable()) {
+                layer.add(stage);
+                continue;
+            }
+            if (!layer.isEmpty()) {
+                layers.add(List.copyOf(layer));
+                layer.clear();
+            }
+            layers.add(List.of(stage));
+        }
+        if (!layer.isEmpty()) {
+            layers.add(List.copyOf(layer));
+        }
+        return layers;
+    }
+
+    private static void flush(List<GenerationStage> run, List<GenerationStage> ordered) {
+        run.sort(Comparator.comparing(GenerationStage::priority));
+        ordered.addAll(run);
+        run.clear();
+    }
+}
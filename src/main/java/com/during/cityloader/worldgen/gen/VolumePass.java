@@ -0,0 +1,173 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.worldgen.ChunkDriver;
+import com.during.cityloader.worldgen.MaterialClasses;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * 融合的区块体积后处理
+ * 各清理步骤登记为逐格规则（Y 范围、材质分类与材质过滤条件），
+ * {@link #run(GenerationContext)} 只对所有规则的 Y 范围并集做一次 {@link ChunkDriver#sweep} 收集候选格子，
+ * 再按登记顺序逐条规则处理各自的候选格子。
+ *
+ * <p>每条规则处理前重新读取格子并再次过滤，看到的是前面规则全部完成后的结果，
+ * 与逐个步骤各扫一遍等价；前提是规则不会写出后面规则所过滤的材质。
+ * 同一规则的候选格子按 Y 升序处理，依赖下方格子的规则（如悬空植被）结果不变。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class VolumePass {
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    /**
+     * 登记对所有列使用同一 Y 范围的规则
+     *
+     * @param minY    起始Y（包含）
+     * @param maxY    结束Y（包含）
+     * @param classes 规则关心的材质分类（{@link MaterialClasses}）
+     * @param filter  材质过滤条件，须只接受 classes 内的材质
+     * @param action  处理动作
+     * @return this
+     */
+    public VolumePass rule(int minY, int maxY, int classes, Predicate<Material> filter, CellAction action) {
+        return rule((x, z) -> minY, (x, z) -> maxY, classes, filter, action);
+    }
+
+    /**
+     * 登记按列给出 Y 范围的规则；某列起始Y大于结束Y时跳过该列
+     *
+     * @param minY    (x, z) 到起始Y（包含）的映射
+     * @param maxY    (x, z) 到结束Y（包含）的映射
+     * @param classes 规则关心的材质分类（{@link MaterialClasses}）
+     * @param filter  材质过滤条件，须只接受 classes 内的材质
+     * @param action  处理动作
+     * @return this
+     */
+    public VolumePass rule(IntBinaryOperator minY, IntBinaryOperator maxY, int classes,
+                           Predicate<Material> filter, CellAction action) {
+        int[] from = new int[256];
+        int[] to = new int[256];
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                from[(x << 4) | z] = minY.applyAsInt(x, z);
+                to[(x << 4) | z] = maxY.applyAsInt(x, z);
+            }
+        }
+        rules.add(new Rule(from, to, classes, filter, action));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * 执行全部规则
+     *
+     * @param context 生成上下文
+     * @return 执行处理动作的格子数
+     */
+    public int run(GenerationContext context) {
+        int worldMin = context.getWorldInfo().getMinHeight();
+        int worldMax = context.getWorldInfo().getMaxHeight() - 1;
+        int lo = Integer.MAX_VALUE;
+        int hi = Integer.MIN_VALUE;
+        int classMask = 0;
+        for (Rule rule : rules) {
+            for (int column = 0; column < 256; column++) {
+                rule.minY[column] = Math.max(worldMin, rule.minY[column]);
+                rule.maxY[column] = Math.min(worldMax, rule.maxY[column]);
+                if (rule.minY[column] <= rule.maxY[column]) {
+                    lo = Math.min(lo, rule.minY[column]);
+                    hi = Math.max(hi, rule.maxY[column]);
+                }
+            }
+            classMask |= rule.classes;
+        }
+        if (lo > hi) {
+            return 0;
+        }
+
+        int base = lo;
+        context.getDriver().sweep(lo, hi, classMask, (x, y, z, blockData) -> {
+            Material material = blockData == null ? Material.AIR : blockData.getMaterial();
+            int classes = MaterialClasses.of(material);
+            int column = (x << 4) | z;
+            for (Rule rule : rules) {
+                if ((classes & rule.classes) != 0
+                        && y >= rule.minY[column] && y <= rule.maxY[column]
+                        && rule.filter.test(material)) {
+                    rule.add(((y - base) << 8) | column);
+                }
+            }
+        });
+
+        int applied = 0;
+        for (Rule rule : rules) {
+            for (int i = 0; i < rule.size; i++) {
+                int cell = rule.cells[i];
+                int x = (cell >> 4) & 0xf;
+                int z = cell & 0xf;
+                int y = (cell >> 8) + base;
+                Material current = context.getBlockType(x, y, z);
+                if (rule.filter.test(current)) {
+                    rule.action.apply(context, x, y, z, current);
+                    applied++;
+                }
+            }
+            rule.size = 0;
+        }
+        return applied;
+    }
+
+    /**
+     * 规则处理动作
+     */
+    @FunctionalInterface
+    public interface CellAction {
+
+        /**
+         * 处理一个格子
+         *
+         * @param context  生成上下文
+         * @param x        区块内X坐标
+         * @param y        Y坐标
+         * @param z        区块内Z坐标
+         * @param material 当前材质
+         */
+        void apply(GenerationContext context, int x, int y, int z, Material material);
+    }
+
+    private static final class Rule {
+        private final int[] minY;
+        private final int[] maxY;
+        private final int classes;
+        private final Predicate<Material> filter;
+        private final CellAction action;
+        private int[] cells = new int[64];
+        private int size;
+
+        private Rule(int[] minY, int[] maxY, int classes, Predicate<Material> filter, CellAction action) {
+            this.minY = minY;
+            this.maxY = maxY;
+            this.classes = classes;
+            this.filter = filter;
+            this.action = action;
+        }
+
+        private void add(int cell) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = cell;
+        }
+    }
+}
@@ -2,7 +2,8 @@ package com.during.cityloader.worldgen.lost;
 
 import com.during.cityloader.util.ChunkCoord;
 import com.during.cityloader.util.ResourceLocation;
-import com.during.cityloader.util.TimedCache;
+import com.during.cityloader.util.ChunkMap;
+import com.during.cityloader.util.CacheRegistry;
 import com.during.cityloader.worldgen.ChunkHeightmap;
 import com.during.cityloader.worldgen.IDimensionInfo;
 import com.during.cityloader.worldgen.LostCityProfile;
@@ -11,12 +12,12 @@ import com.during.cityloader.worldgen.lost.cityassets.Building;
 import com.during.cityloader.worldgen.lost.cityassets.BuildingPart;
 import com.during.cityloader.worldgen.lost.cityassets.CityStyle;
 import com.during.cityloader.worldgen.lost.cityassets.CompiledPalette;
+import com.during.cityloader.worldgen.lost.cityassets.ComposedPaletteCache;
 import com.during.cityloader.worldgen.lost.cityassets.ConditionContext;
 import com.during.cityloader.worldgen.lost.cityassets.MultiBuilding;
 import com.during.cityloader.worldgen.lost.cityassets.Palette;
 import com.during.cityloader.worldgen.lost.cityassets.Style;
 import com.during.cityloader.worldgen.lost.cityassets.WorldStyle;
-import com.during.cityloader.worldgen.lost.regassets.data.BiomeMatcher;
 import com.during.cityloader.worldgen.lost.regassets.data.BuildingSettings;
 import com.during.cityloader.worldgen.lost.regassets.data.CityStyleSelector;
 import com.during.cityloader.worldgen.lost.regassets.data.SelectorEntry;
@@ -31,7 +32,6 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.function.Supplier;
 
 /**
  * 建筑信息类
@@ -79,20 +79,32 @@ public class BuildingInfo {
     public boolean xBridge;
     public boolean zBridge;
 
-    private static final Supplier<Integer> CACHE_TIMEOUT = () -> 300;
-    private static final TimedCache<ChunkCoord, BuildingInfo> BUILDING_INFO_MAP = new TimedCache<>(CACHE_TIMEOUT);
-    private static final TimedCache<ChunkCoord, LostChunkCharacteristics> CITY_INFO_MAP = new TimedCache<>(CACHE_TIMEOUT);
-    private static final TimedCache<ChunkCoord, Integer> CITY_LEVEL_CACHE = new TimedCache<>(CACHE_TIMEOUT);
-
-    private BuildingInfo xmin = null;
-    private BuildingInfo xmax = null;
-    private BuildingInfo zmin = null;
-    private BuildingInfo zmax = null;
+    private static final ChunkMap<BuildingInfo> BUILDING_INFO_MAP =
+            CacheRegistry.createChunkMap("building-info", 2048);
+    private static final ChunkMap<LostChunkCharacteristics> CITY_INFO_MAP =
+            CacheRegistry.createChunkMap("city-info", 256);
+    private static final ChunkMap<Integer> CITY_LEVEL_CACHE =
+            CacheRegistry.createChunkMap("city-level", 96);
+
+    static {
+        // 被淘汰的实例断开相邻链接，避免经链接把大片已淘汰区块留在内存中
+        BUILDING_INFO_MAP.onRemoval(BuildingInfo::detach);
+    }
+
+    // 相邻链接由生成线程惰性写入、由淘汰回调清空，volatile 保证跨线程可见
+    private volatile BuildingInfo xmin = null;
+    private volatile BuildingInfo xmax = null;
+    private volatile BuildingInfo zmin = null;
+    private volatile BuildingInfo zmax = null;
+    // 已从缓存移除；相邻区块持有的指向本实例的链接据此失效，重新从缓存取得当前实例
+    private volatile boolean detached;
     private CompiledPalette compiledPalette = null;
     private final List<Runnable> postTodo = new ArrayList<>();
     private final List<PalettePostTodo> palettePostTodo = new ArrayList<>();
 
     private final CityStyle cityStyle;
+    // 区块中心（地面高度处）的生物群系，选择器匹配时复用
+    private final Biome biome;
 
     private BuildingInfo(ChunkCoord coord, IDimensionInfo provider) {
         this.coord = coord;
@@ -104,9 +116,10 @@ public class BuildingInfo {
         this.waterLevel = world == null ? 63 : world.getSeaLevel();
 
         Random random = chunkRandom(provider.getSeed(), coord.chunkX(), coord.chunkZ(), 0x9E3779B97F4A7C15L);
-        String biomeName = getBiomeName(provider, coord, groundLevel);
+        this.biome = sampleBiome(provider, coord, groundLevel);
+        String biomeName = "minecraft:" + biome.name().toLowerCase(Locale.ROOT);
 
-        this.cityStyle = resolveCityStyle(random, biomeName);
+        this.cityStyle = resolveCityStyle(random, biome);
 
         this.isCity = isCityChunk(coord, provider, profile);
 
@@ -175,6 +188,16 @@ public class BuildingInfo {
         return BUILDING_INFO_MAP.computeIfAbsent(coord, k -> new BuildingInfo(k, provider));
     }
 
+    /**
+     * 获取已缓存的建筑信息（不计算）
+     *
+     * @param coord 区块坐标
+     * @return 建筑信息，尚未规划时返回null
+     */
+    public static BuildingInfo peekBuildingInfo(ChunkCoord coord) {
+        return BUILDING_INFO_MAP.get(coord);
+    }
+
     public static LostChunkCharacteristics getChunkCharacteristics(ChunkCoord coord, IDimensionInfo provider) {
         return CITY_INFO_MAP.computeIfAbsent(coord, k -> {
             LostChunkCharacteristics characteristics = new LostChunkCharacteristics();
@@ -229,31 +252,57 @@ public class BuildingInfo {
     }
 
     public BuildingInfo getXmin() {
-        if (xmin == null) {
-            xmin = getBuildingInfo(coord.west(), provider);
+        BuildingInfo link = xmin;
+        if (link == null || link.detached) {
+            link = getNeighbour(-1, 0);
+            xmin = link;
         }
-        return xmin;
+        return link;
     }
 
     public BuildingInfo getXmax() {
-        if (xmax == null) {
-            xmax = getBuildingInfo(coord.east(), provider);
+        BuildingInfo link = xmax;
+        if (link == null || link.detached) {
+            link = getNeighbour(1, 0);
+            xmax = link;
         }
-        return xmax;
+        return link;
     }
 
     public BuildingInfo getZmin() {
-        if (zmin == null) {
-            zmin = getBuildingInfo(coord.north(), provider);
+        BuildingInfo link = zmin;
+        if (link == null || link.detached) {
+            link = getNeighbour(0, -1);
+            zmin = link;
         }
-        return zmin;
+        return link;
     }
 
     public BuildingInfo getZmax() {
-        if (zmax == null) {
-            zmax = getBuildingInfo(coord.south(), provider);
+        BuildingInfo link = zmax;
+        if (link == null || link.detached) {
+            link = getNeighbour(0, 1);
+            zmax = link;
         }
-        return zmax;
+        return link;
+    }
+
+    private void detach() {
+        detached = true;
+        xmin = null;
+        xmax = null;
+        zmin = null;
+        zmax = null;
+    }
+
+    /**
+     * 获取相邻区块的建筑信息；命中缓存时不分配坐标对象
+     */
+    private BuildingInfo getNeighbour(int dx, int dz) {
+        int chunkX = coord.chunkX() + dx;
+        int chunkZ = coord.chunkZ() + dz;
+        BuildingInfo cached = BUILDING_INFO_MAP.partition(coord.dimension()).get(chunkX, chunkZ);
+        return cached != null ? cached : getBuildingInfo(new ChunkCoord(coord.dimension(), chunkX, chunkZ), provider);
     }
 
     public int getCityGroundLevel() {
@@ -446,13 +495,7 @@ public class BuildingInfo {
     }
 
     public static void cleanupCache() {
-        BUILDING_INFO_MAP.cleanup();
-        CITY_INFO_MAP.cleanup();
-        CITY_LEVEL_CACHE.cleanup();
-        PlotPlanner.cleanupCache();
-        DamageArea.resetCache();
-        Railway.cleanCache();
-        City.cleanCache();
+        CacheRegistry.sweep();
     }
 
     public static void resetCache() {
@@ -521,10 +564,10 @@ public class BuildingInfo {
         return height;
     }
 
-    private CityStyle resolveCityStyle(Random random, String biomeName) {
+    private CityStyle resolveCityStyle(Random random, Biome biome) {
         WorldStyle worldStyle = provider.getWorldStyle();
         if (worldStyle != null) {
-            String selected = worldStyle.pickCityStyle(random, biomeName);
+            String selected = worldStyle.pickCityStyle(random, biome);
             CityStyle cityStyle = lookupCityStyle(worldStyle.getId(), selected);
             if (cityStyle != null) {
                 return cityStyle;
@@ -894,7 +937,7 @@ public class BuildingInfo {
             if (entry == null || entry.getValue() == null || entry.getValue().isBlank()) {
                 continue;
             }
-            if (!matchesBiome(entry.getBiomes(), getBiomeName(provider, coord, groundLevel))) {
+            if (entry.getBiomes() != null && !entry.getBiomes().compiled().matches(biome)) {
                 continue;
             }
             total += Math.max(1, Math.round(entry.getFactor() * 100));
@@ -1010,7 +1053,7 @@ public class BuildingInfo {
             return new CompiledPalette();
         }
 
-        return new CompiledPalette(palettes.toArray(Palette[]::new));
+        return ComposedPaletteCache.compose(palettes.toArray(Palette[]::new));
     }
 
     private void addPartPalette(BuildingPart part, List<Palette> palettes) {
@@ -1189,64 +1232,11 @@ public class BuildingInfo {
         return candidates;
     }
 
-    private String getBiomeName(IDimensionInfo provider, ChunkCoord coord, int y) {
+    private Biome sampleBiome(IDimensionInfo provider, ChunkCoord coord, int y) {
         int x = (coord.chunkX() << 4) + 8;
         int z = (coord.chunkZ() << 4) + 8;
-        Biome biome = provider.getBiome(x, y, z);
-        if (biome == null) {
-            return "minecraft:plains";
-        }
-        return "minecraft:" + biome.name().toLowerCase(Locale.ROOT);
-    }
-
-    private boolean matchesBiome(BiomeMatcher matcher, String biome) {
-        if (matcher == null) {
-            return true;
-        }
-
-        if (!matcher.getExcluding().isEmpty()) {
-            for (String excluded : matcher.getExcluding()) {
-                if (tokenMatches(excluded, biome)) {
-                    return false;
-                }
-            }
-        }
-
-        if (!matcher.getIfAll().isEmpty()) {
-            for (String required : matcher.getIfAll()) {
-                if (!tokenMatches(required, biome)) {
-                    return false;
-                }
-            }
-        }
-
-        if (!matcher.getIfAny().isEmpty()) {
-            for (String option : matcher.getIfAny()) {
-                if (tokenMatches(option, biome)) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        return true;
-    }
-
-    private boolean tokenMatches(String token, String biome) {
-        if (token == null || token.isBlank()) {
-            return false;
-        }
-        String normalized = token.toLowerCase(Locale.ROOT);
-        String normalizedBiome = biome == null ? "" : biome.toLowerCase(Locale.ROOT);
-        if (normalized.startsWith("#")) {
-            String tag = normalized.substring(1);
-            int colon = tag.indexOf(':');
-            String simple = colon >= 0 ? tag.substring(colon + 1) : tag;
-            simple = simple.replace("is_", "").replace('_', ' ');
-            return normalizedBiome.contains(simple.replace(" ", "_"))
-                    || normalizedBiome.contains(simple.replace(" ", ""));
-        }
-        return normalizedBiome.equals(normalized) || normalizedBiome.endsWith(normalized);
+        Biome sampled = provider.getBiome(x, y, z);
+        return sampled == null ? Biome.PLAINS : sampled;
     }
 
     private record MultiPlacement(ILostCityMultiBuilding multiBuilding, MultiPos multiPos) {
@@ -1,7 +1,8 @@
 package com.during.cityloader.worldgen.lost;
 
 import com.during.cityloader.util.ChunkCoord;
-import com.during.cityloader.util.TimedCache;
+import com.during.cityloader.util.CacheRegistry;
+import com.during.cityloader.util.ChunkMap;
 import com.during.cityloader.worldgen.ChunkHeightmap;
 import com.during.cityloader.worldgen.IDimensionInfo;
 import com.during.cityloader.worldgen.LostCityProfile;
@@ -13,7 +14,6 @@ import com.during.cityloader.worldgen.lost.regassets.data.PredefinedBuilding;
 import com.during.cityloader.worldgen.lost.regassets.data.PredefinedStreet;
 
 import java.util.*;
-import java.util.function.Supplier;
 
 /**
  * 城市判定核心类
@@ -44,8 +44,8 @@ public class City {
             });
 
     // 城市样式缓存
-    private static final Supplier<Integer> CACHE_TIMEOUT = () -> 300;
-    private static final TimedCache<ChunkCoord, CityStyle> CITY_STYLE_CACHE = new TimedCache<>(CACHE_TIMEOUT);
+    private static final ChunkMap<CityStyle> CITY_STYLE_CACHE =
+            CacheRegistry.createChunkMap("city-style", 96);
 
     /**
      * 清理所有缓存
@@ -56,6 +56,7 @@ public class City {
         predefinedStreetMap = null;
         CITY_RARITY_MAP.clear();
         CITY_STYLE_CACHE.clear();
+        CityCenterIndex.clear();
     }
 
     /**
@@ -106,6 +107,23 @@ public class City {
      * 获取预定义街道
      */
     public static PredefinedStreet getPredefinedStreet(ChunkCoord coord) {
+        calculateStreetMap();
+        if (predefinedStreetMap.isEmpty()) {
+            return null;
+        }
+        return predefinedStreetMap.get(coord);
+    }
+
+    private static boolean hasPredefinedLayout() {
+        calculateBuildingMap();
+        if (!predefinedBuildingMap.isEmpty()) {
+            return true;
+        }
+        calculateStreetMap();
+        return !predefinedStreetMap.isEmpty();
+    }
+
+    private static void calculateStreetMap() {
         if (predefinedStreetMap == null) {
             predefinedStreetMap = new HashMap<>();
             for (PredefinedCity city : AssetRegistries.PREDEFINED_CITIES.getIterable()) {
@@ -118,10 +136,6 @@ public class City {
                 }
             }
         }
-        if (predefinedStreetMap.isEmpty()) {
-            return null;
-        }
-        return predefinedStreetMap.get(coord);
     }
 
     private static void calculateBuildingMap() {
@@ -253,28 +267,12 @@ public class City {
             }
         }
 
-        // 经典球形城市模式：搜索周围的城市中心
-        List<float[]> styles = new ArrayList<>();
-        int offset = (profile.getCityMaxRadius() + 15) / 16;
-        for (int cx = chunkX - offset; cx <= chunkX + offset; cx++) {
-            for (int cz = chunkZ - offset; cz <= chunkZ + offset; cz++) {
-                ChunkCoord c = new ChunkCoord(coord.dimension(), cx, cz);
-                if (isCityCenter(c, provider)) {
-                    float radius = getCityRadius(c, provider);
-                    float sqdist = (cx * 16 - (chunkX << 4)) * (cx * 16 - (chunkX << 4))
-                            + (cz * 16 - (chunkZ << 4)) * (cz * 16 - (chunkZ << 4));
-                    if (sqdist < radius * radius) {
-                        float dist = (float) Math.sqrt(sqdist);
-                        float factor = (radius - dist) / radius;
-                        styles.add(new float[]{factor});
-                    }
-                }
-            }
-        }
+        // 经典球形城市模式：查询周围的城市中心
+        boolean covered = CityCenterIndex.isCovered(coord, provider);
 
         // 选择样式
         String cityStyleName;
-        if (styles.isEmpty()) {
+        if (!covered) {
             WorldStyle worldStyle = provider.getWorldStyle();
             if (worldStyle != null) {
                 cityStyleName = worldStyle.getRandomCityStyle(provider, coord, cityStyleRandom);
@@ -301,59 +299,15 @@ public class City {
      */
     public static float getCityFactor(ChunkCoord coord, IDimensionInfo provider, LostCityProfile profile) {
         // 1. 预定义建筑/街道强制城市因子为 1.0
-        PredefinedBuilding predefinedBuilding = getPredefinedBuildingAtTopLeft(coord);
-        if (predefinedBuilding != null) {
-            return 1.0f;
-        }
-        PredefinedStreet predefinedStreet = getPredefinedStreet(coord);
-        if (predefinedStreet != null) {
-            return 1.0f;
-        }
-
-        // 检查西/西北/北方向的多区块预定义建筑
-        predefinedBuilding = getPredefinedBuildingAtTopLeft(coord.west());
-        if (predefinedBuilding != null && predefinedBuilding.multi()) {
-            return 1.0f;
-        }
-        predefinedBuilding = getPredefinedBuildingAtTopLeft(coord.northWest());
-        if (predefinedBuilding != null && predefinedBuilding.multi()) {
-            return 1.0f;
-        }
-        predefinedBuilding = getPredefinedBuildingAtTopLeft(coord.north());
-        if (predefinedBuilding != null && predefinedBuilding.multi()) {
+        if (isPredefinedCityChunk(coord)) {
             return 1.0f;
         }
 
         int chunkX = coord.chunkX();
         int chunkZ = coord.chunkZ();
-        float factor = 0;
 
         // 2. 计算城市因子
-        double cityChance = getEffectiveCityChance(provider, profile);
-        if (cityChance < 0) {
-            // 噪声模式：使用 Perlin 噪声产生连续的城市密度场
-            CityRarityMap rarityMap = getCityRarityMap(
-                    provider.dimension(), provider.getSeed(),
-                    profile.getCityPerlinScale(), profile.getCityPerlinOffset(), profile.getCityPerlinInnerScale());
-            factor = rarityMap.getCityFactor(chunkX, chunkZ);
-        } else {
-            // 经典模式：搜索周围的城市中心，累加球形衰减因子
-            int offset = (profile.getCityMaxRadius() + 15) / 16;
-            for (int cx = chunkX - offset; cx <= chunkX + offset; cx++) {
-                for (int cz = chunkZ - offset; cz <= chunkZ + offset; cz++) {
-                    ChunkCoord c = new ChunkCoord(coord.dimension(), cx, cz);
-                    if (isCityCenter(c, provider)) {
-                        float radius = getCityRadius(c, provider);
-                        float sqdist = (cx * 16 - (chunkX << 4)) * (cx * 16 - (chunkX << 4))
-                                + (cz * 16 - (chunkZ << 4)) * (cz * 16 - (chunkZ << 4));
-                        if (sqdist < radius * radius) {
-                            float dist = (float) Math.sqrt(sqdist);
-                            factor += (radius - dist) / radius;
-                        }
-                    }
-                }
-            }
-        }
+        float factor = getRawCityFactor(coord, provider, profile);
 
         // 3. 地形高度限制
         if (factor > 0.0001 && provider.getWorld() != null) {
@@ -396,7 +350,59 @@ public class City {
         return Math.min(Math.max(factor, 0), 1);
     }
 
-    private static double getEffectiveCityChance(IDimensionInfo provider, LostCityProfile profile) {
+    /**
+     * 获取区块的潜在城市因子
+     * 只由种子与配置决定（预定义布局、城市中心分布或噪声场），不读取高度图与生物群系，
+     * 可用于尚未生成的区块；为 0 时该区块不会成为城市。
+     *
+     * @param coord    区块坐标
+     * @param provider 维度信息
+     * @param profile  配置档案
+     * @return 潜在城市因子
+     */
+    public static float getPotentialCityFactor(ChunkCoord coord, IDimensionInfo provider, LostCityProfile profile) {
+        if (isPredefinedCityChunk(coord)) {
+            return 1.0f;
+        }
+        return getRawCityFactor(coord, provider, profile);
+    }
+
+    private static boolean isPredefinedCityChunk(ChunkCoord coord) {
+        // 没有预定义布局时跳过邻居坐标构造
+        if (!hasPredefinedLayout()) {
+            return false;
+        }
+        if (getPredefinedBuildingAtTopLeft(coord) != null || getPredefinedStreet(coord) != null) {
+            return true;
+        }
+
+        // 检查西/西北/北方向的多区块预定义建筑
+        PredefinedBuilding predefinedBuilding = getPredefinedBuildingAtTopLeft(coord.west());
+        if (predefinedBuilding != null && predefinedBuilding.multi()) {
+            return true;
+        }
+        predefinedBuilding = getPredefinedBuildingAtTopLeft(coord.northWest());
+        if (predefinedBuilding != null && predefinedBuilding.multi()) {
+            return true;
+        }
+        predefinedBuilding = getPredefinedBuildingAtTopLeft(coord.north());
+        return predefinedBuilding != null && predefinedBuilding.multi();
+    }
+
+    private static float getRawCityFactor(ChunkCoord coord, IDimensionInfo provider, LostCityProfile profile) {
+        double cityChance = getEffectiveCityChance(provider, profile);
+        if (cityChance < 0) {
+            // 噪声模式：使用 Perlin 噪声产生连续的城市密度场
+            CityRarityMap rarityMap = getCityRarityMap(
+                    provider.dimension(), provider.getSeed(),
+                    profile.getCityPerlinScale(), profile.getCityPerlinOffset(), profile.getCityPerlinInnerScale());
+            return rarityMap.getCityFactor(coord.chunkX(), coord.chunkZ());
+        }
+        // 经典模式：由城市中心空间索引累加周围城市的球形衰减因子
+        return CityCenterIndex.getRawFactor(coord, provider);
+    }
+
+    static double getEffectiveCityChance(IDimensionInfo provider, LostCityProfile profile) {
         if (profile == null) {
             return 0.0;
         }
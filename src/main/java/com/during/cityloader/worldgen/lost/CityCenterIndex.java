@@ -0,0 +1,191 @@
+package com.during.cityloader.worldgen.lost;
+
+import com.during.cityloader.util.BoundedCache;
+import com.during.cityloader.util.CacheRegistry;
+import com.during.cityloader.util.ChunkCoord;
+import com.during.cityloader.worldgen.IDimensionInfo;
+import com.during.cityloader.worldgen.LostCityProfile;
+
+import java.util.Arrays;
+
+/**
+ * 经典模式城市中心空间索引
+ * 按 32x32 区块分块，每块只判定一次各区块是否为城市中心及其半径，
+ * 并按列（局部X）有序保存中心点；查询时只遍历与搜索窗口相交的分块中心。
+ *
+ * <p>每个分块同时记录各区块的原始城市因子（球形衰减累加值），
+ * 同一区块及其邻居的重复查询直接读取数组。</p>
+ *
+ * <p>累加顺序与逐区块扫描一致（先X后Z），结果逐位相同。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+final class CityCenterIndex {
+
+    private static final int TILE_SHIFT = 5;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    private static final BoundedCache<TileKey, Tile> TILES =
+            CacheRegistry.create("city-center", TILE_SIZE * TILE_SIZE * 4 + 512, TileKey::dimension);
+
+    private CityCenterIndex() {
+    }
+
+    /**
+     * 获取区块的原始城市因子（不含高度、生物群系与出生点修正）
+     *
+     * @param coord    区块坐标
+     * @param provider 维度信息
+     * @return 周围城市中心的球形衰减因子之和
+     */
+    static float getRawFactor(ChunkCoord coord, IDimensionInfo provider) {
+        Params params = Params.of(coord.dimension(), provider);
+        int chunkX = coord.chunkX();
+        int chunkZ = coord.chunkZ();
+        Tile tile = tile(params, chunkX >> TILE_SHIFT, chunkZ >> TILE_SHIFT, provider);
+        int index = ((chunkX & TILE_MASK) << TILE_SHIFT) | (chunkZ & TILE_MASK);
+        float factor = tile.factor[index];
+        if (Float.isNaN(factor)) {
+            factor = scan(params, chunkX, chunkZ, provider, false);
+            tile.factor[index] = factor;
+        }
+        return factor;
+    }
+
+    /**
+     * 判断区块是否位于任一城市球体之内
+     *
+     * @param coord    区块坐标
+     * @param provider 维度信息
+     * @return 至少被一个城市中心覆盖时返回true
+     */
+    static boolean isCovered(ChunkCoord coord, IDimensionInfo provider) {
+        return scan(Params.of(coord.dimension(), provider), coord.chunkX(), coord.chunkZ(), provider, true) > 0.0f;
+    }
+
+    /**
+     * 清空索引
+     */
+    static void clear() {
+        TILES.clear();
+    }
+
+    /**
+     * 遍历搜索窗口内的城市中心
+     *
+     * @param anyHit 为 true 时命中第一个中心即返回 1
+     */
+    private static float scan(Params params, int chunkX, int chunkZ, IDimensionInfo provider, boolean anyHit) {
+        int offset = (params.maxRadius() + 15) / 16;
+        int minX = chunkX - offset;
+        int maxX = chunkX + offset;
+        int minZ = chunkZ - offset;
+        int maxZ = chunkZ + offset;
+        int minTileZ = minZ >> TILE_SHIFT;
+        int maxTileZ = maxZ >> TILE_SHIFT;
+        Tile[] column = new Tile[maxTileZ - minTileZ + 1];
+
+        float factor = 0;
+        for (int tileX = minX >> TILE_SHIFT; tileX <= maxX >> TILE_SHIFT; tileX++) {
+            for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+                column[tileZ - minTileZ] = tile(params, tileX, tileZ, provider);
+            }
+            int fromX = Math.max(minX, tileX << TILE_SHIFT);
+            int toX = Math.min(maxX, (tileX << TILE_SHIFT) + TILE_MASK);
+            for (int cx = fromX; cx <= toX; cx++) {
+                int localX = cx & TILE_MASK;
+                for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+                    Tile tile = column[tileZ - minTileZ];
+                    for (int i = tile.columnStart[localX]; i < tile.columnStart[localX + 1]; i++) {
+                        int cz = (tileZ << TILE_SHIFT) + tile.centerZ[i];
+                        if (cz < minZ || cz > maxZ) {
+                            continue;
+                        }
+                        float radius = tile.radius[i];
+                        float sqdist = (cx * 16 - (chunkX << 4)) * (cx * 16 - (chunkX << 4))
+                                + (cz * 16 - (chunkZ << 4)) * (cz * 16 - (chunkZ << 4));
+                        if (sqdist < radius * radius) {
+                            if (anyHit) {
+                                return 1.0f;
+                            }
+                            float dist = (float) Math.sqrt(sqdist);
+                            factor += (radius - dist) / radius;
+                        }
+                    }
+                }
+            }
+        }
+        return factor;
+    }
+
+    private static Tile tile(Params params, int tileX, int tileZ, IDimensionInfo provider) {
+        return TILES.computeIfAbsent(new TileKey(params, tileX, tileZ),
+                key -> Tile.build(params.dimension(), tileX, tileZ, provider));
+    }
+
+    /**
+     * 决定城市中心分布的全部参数
+     */
+    private record Params(String dimension, long seed, long cityChanceBits, int minRadius, int maxRadius) {
+
+        static Params of(String dimension, IDimensionInfo provider) {
+            LostCityProfile profile = provider.getProfile();
+            double cityChance = City.getEffectiveCityChance(provider, profile);
+            return new Params(dimension, provider.getSeed(), Double.doubleToLongBits(cityChance),
+                    profile.getCityMinRadius(), profile.getCityMaxRadius());
+        }
+    }
+
+    private record TileKey(Params params, int tileX, int tileZ) {
+
+        String dimension() {
+            return params.dimension();
+        }
+    }
+
+    /**
+     * 单个分块：按局部X分列、列内按局部Z升序排列的城市中心
+     */
+    private static final class Tile {
+        private final int[] columnStart;
+        private final int[] centerZ;
+        private final float[] radius;
+        private final float[] factor;
+
+        private Tile(int[] columnStart, int[] centerZ, float[] radius) {
+            this.columnStart = columnStart;
+            this.centerZ = centerZ;
+            this.radius = radius;
+            this.factor = new float[TILE_SIZE * TILE_SIZE];
+            Arrays.fill(this.factor, Float.NaN);
+        }
+
+        static Tile build(String dimension, int tileX, int tileZ, IDimensionInfo provider) {
+            int[] columnStart = new int[TILE_SIZE + 1];
+            int[] centerZ = new int[16];
+            float[] radius = new float[16];
+            int count = 0;
+            for (int localX = 0; localX < TILE_SIZE; localX++) {
+                columnStart[localX] = count;
+                for (int localZ = 0; localZ < TILE_SIZE; localZ++) {
+                    ChunkCoord c = new ChunkCoord(dimension,
+                            (tileX << TILE_SHIFT) + localX, (tileZ << TILE_SHIFT) + localZ);
+                    if (!City.isCityCenter(c, provider)) {
+                        continue;
+                    }
+                    if (count == centerZ.length) {
+                        centerZ = Arrays.copyOf(centerZ, count * 2);
+                        radius = Arrays.copyOf(radius, count * 2);
+                    }
+                    centerZ[count] = localZ;
+                    radius[count] = City.getCityRadius(c, provider);
+                    count++;
+                }
+            }
+            columnStart[TILE_SIZE] = count;
+            return new Tile(columnStart, Arrays.copyOf(centerZ, count), Arrays.copyOf(radius, count));
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package com.during.cityloader.worldgen.lost;
 
 import com.during.cityloader.util.ChunkCoord;
-import com.during.cityloader.util.TimedCache;
+import com.during.cityloader.util.BoundedCache;
+import com.during.cityloader.util.CacheRegistry;
 import com.during.cityloader.worldgen.IDimensionInfo;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
-import java.util.function.Supplier;
 
 /**
  * 区块级破坏区域缓存。
@@ -16,8 +16,8 @@ import java.util.function.Supplier;
  */
 public final class DamageArea {
 
-    private static final Supplier<Integer> CACHE_TIMEOUT = () -> 300;
-    private static final TimedCache<DamageKey, DamageArea> CACHE = new TimedCache<>(CACHE_TIMEOUT);
+    private static final BoundedCache<DamageKey, DamageArea> CACHE =
+            CacheRegistry.create("damage-area", 256, DamageKey::dimension);
     private static final long MAIN_EXPLOSION_X_MULTIPLIER = 797003437L;
     private static final long MAIN_EXPLOSION_Z_MULTIPLIER = 295075153L;
     private static final long MINI_EXPLOSION_X_MULTIPLIER = 573259391L;
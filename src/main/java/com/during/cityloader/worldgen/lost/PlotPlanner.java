@@ -1,7 +1,8 @@
 package com.during.cityloader.worldgen.lost;
 
 import com.during.cityloader.util.ChunkCoord;
-import com.during.cityloader.util.TimedCache;
+import com.during.cityloader.util.BoundedCache;
+import com.during.cityloader.util.CacheRegistry;
 import com.during.cityloader.worldgen.IDimensionInfo;
 import com.during.cityloader.worldgen.LostCityProfile;
 
@@ -10,7 +11,6 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
 
 /**
  * 城市地块规划器。
@@ -22,8 +22,8 @@ public final class PlotPlanner {
     private static final int MAX_FOOTPRINT_SIZE = 4;
     private static final int PLAN_MARGIN = MAX_FOOTPRINT_SIZE + 1;
 
-    private static final Supplier<Integer> CACHE_TIMEOUT = () -> 300;
-    private static final TimedCache<PlanKey, PlannedRegion> PLAN_CACHE = new TimedCache<>(CACHE_TIMEOUT);
+    private static final BoundedCache<PlanKey, PlannedRegion> PLAN_CACHE =
+            CacheRegistry.create("plot-plan", 64 * 1024, PlanKey::dimension);
 
     private PlotPlanner() {
     }
@@ -1,12 +1,11 @@
 package com.during.cityloader.worldgen.lost;
 
+import com.during.cityloader.util.CacheRegistry;
 import com.during.cityloader.util.ChunkCoord;
+import com.during.cityloader.util.ChunkMap;
 import com.during.cityloader.worldgen.IDimensionInfo;
 import com.during.cityloader.worldgen.LostCityProfile;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 
 import static com.during.cityloader.worldgen.lost.Railway.RailChunkType.DOUBLE_BEND;
 import static com.during.cityloader.worldgen.lost.Railway.RailChunkType.GOING_DOWN_FURTHER;
@@ -97,7 +96,8 @@ public final class Railway {
         }
     }
 
-    private static final Map<ChunkCoord, RailChunkInfo> RAIL_INFO = Collections.synchronizedMap(new HashMap<>());
+    private static final ChunkMap<RailChunkInfo> RAIL_INFO =
+            CacheRegistry.createChunkMap("rail-info", 128);
 
     private Railway() {
     }
@@ -128,6 +128,15 @@ public final class Railway {
         return info;
     }
 
+    /**
+     * 获取东西方向相邻区块的铁路类型；命中缓存时不分配坐标对象
+     */
+    private static RailChunkInfo getAdjacentRailChunkType(ChunkCoord key, int dx,
+                                                          IDimensionInfo provider, LostCityProfile profile) {
+        RailChunkInfo cached = RAIL_INFO.partition(key.dimension()).get(key.chunkX() + dx, key.chunkZ());
+        return cached != null ? cached : getRailChunkType(key.offset(dx, 0), provider, profile);
+    }
+
     private static RailChunkInfo getRailChunkTypeInternal(ChunkCoord key, IDimensionInfo provider, LostCityProfile profile) {
         int chunkX = key.chunkX();
         int chunkZ = key.chunkZ();
@@ -210,8 +219,7 @@ public final class Railway {
 
         if (mz == 0 || mz == 10) {
             if ((mx >= 16 && mz != 0) || (mx >= 6 && mx <= 9)) {
-                ChunkCoord east = key.east();
-                RailChunkInfo adjacent = getRailChunkType(east, provider, profile);
+                RailChunkInfo adjacent = getAdjacentRailChunkType(key, 1, provider, profile);
                 RailDirection direction = adjacent.getDirection();
                 if (direction == BI || adjacent.getType() == RAILS_END_HERE) {
                     direction = WEST;
@@ -220,8 +228,7 @@ public final class Railway {
             }
 
             if ((mx >= 1 && mx <= 4 && mz != 0) || (mx >= 11 && mx <= 14)) {
-                ChunkCoord west = key.west();
-                RailChunkInfo adjacent = getRailChunkType(west, provider, profile);
+                RailChunkInfo adjacent = getAdjacentRailChunkType(key, -1, provider, profile);
                 RailDirection direction = adjacent.getDirection();
                 if (direction == BI || adjacent.getType() == RAILS_END_HERE) {
                     direction = EAST;
@@ -0,0 +1,138 @@
+package com.during.cityloader.worldgen.lost.cityassets;
+
+import org.bukkit.World;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+/**
+ * 资产后台预加载器
+ * 插件启用或重载时在独立守护线程中完成 {@link AssetRegistries#load(World)}，
+ * 生成线程只检查就绪状态，不再在填充器内同步加载资产。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class AssetPreloader {
+
+    private static final Object LOCK = new Object();
+    private static final Executor LOADER = runnable -> {
+        Thread thread = new Thread(runnable, "CityLoader-AssetPreload");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private static CompletableFuture<Void> current;
+
+    private AssetPreloader() {
+    }
+
+    /**
+     * 启动后台预加载；已在加载中或已就绪时返回现有任务
+     *
+     * @param level 世界（兼容参数，可为 null）
+     * @param logger 日志记录器
+     * @return 就绪任务
+     */
+    public static CompletableFuture<Void> start(World level, Logger logger) {
+        synchronized (LOCK) {
+            if (current != null && (!current.isDone() || AssetRegistries.isLoaded())) {
+                return current;
+            }
+            current = CompletableFuture.runAsync(() -> load(level, logger), LOADER);
+            return current;
+        }
+    }
+
+    /**
+     * 重载资产：等待进行中的加载结束后重置注册表并重新加载
+     *
+     * @param level 世界（兼容参数，可为 null）
+     * @param logger 日志记录器
+     * @return 就绪任务
+     */
+    public static CompletableFuture<Void> reload(World level, Logger logger) {
+        synchronized (LOCK) {
+            CompletableFuture<Void> previous = current == null ? CompletableFuture.completedFuture(null) : current;
+            current = previous.handle((ignored, error) -> null)
+                    .thenRunAsync(() -> {
+                        AssetRegistries.reset();
+                        load(level, logger);
+                    }, LOADER);
+            return current;
+        }
+    }
+
+    /**
+     * 资产是否已就绪
+     *
+     * @return 就绪返回true
+     */
+    public static boolean isReady() {
+        return AssetRegistries.isLoaded();
+    }
+
+    /**
+     * 等待资产就绪（不持有任何锁）
+     *
+     * @param timeoutMs 最长等待时间（毫秒）
+     * @return 在超时前就绪返回true
+     */
+    public static boolean awaitReady(long timeoutMs) {
+        if (isReady()) {
+            return true;
+        }
+        CompletableFuture<Void> future;
+        synchronized (LOCK) {
+            future = current;
+        }
+        if (future == null || timeoutMs <= 0L) {
+            return isReady();
+        }
+        try {
+            future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+            // 由调用方按未就绪处理
+        }
+        return isReady();
+    }
+
+    /**
+     * 获取加载进度
+     *
+     * @return 0-1
+     */
+    public static double getProgress() {
+        return AssetRegistries.getLoadProgress();
+    }
+
+    private static void load(World level, Logger logger) {
+        long start = System.nanoTime();
+        if (logger != null) {
+            logger.info("开始后台预加载资产...");
+        }
+        try {
+            synchronized (AssetRegistries.class) {
+                if (!AssetRegistries.isLoaded()) {
+                    AssetRegistries.load(level);
+                }
+            }
+            if (logger != null) {
+                logger.info(String.format("✓ 资产预加载完成 (%d ms): %s",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        AssetRegistries.getStatistics()));
+            }
+        } catch (RuntimeException e) {
+            if (logger != null) {
+                logger.severe("资产预加载失败: " + e.getMessage());
+            }
+            throw e;
+        }
+    }
+}
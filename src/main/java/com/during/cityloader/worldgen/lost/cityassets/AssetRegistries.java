@@ -1,6 +1,8 @@
 package com.during.cityloader.worldgen.lost.cityassets;
 
 import com.during.cityloader.util.CityLoaderLogger;
+import com.during.cityloader.util.PaperResourceLoader;
+import com.during.cityloader.worldgen.BlockDataInterner;
 import com.during.cityloader.worldgen.lost.regassets.*;
 import org.bukkit.World;
 
@@ -8,6 +10,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 资产注册表中心类
@@ -58,11 +63,20 @@ public class AssetRegistries {
     public static final RegistryAssetRegistry<StuffObject, StuffSettingsRE> STUFF = 
             new RegistryAssetRegistry<>("stuff", StuffObject::new, StuffSettingsRE.class);
 
+    private static final List<RegistryAssetRegistry<?, ?>> ALL = List.of(
+            VARIANTS, CONDITIONS, WORLDSTYLES, CITYSTYLES, PARTS, BUILDINGS, MULTI_BUILDINGS,
+            STYLES, PALETTES, SCATTERED, PREDEFINED_CITIES, PREDEFINED_SPHERES, STUFF);
+
     // 按标签索引的装饰物
     public static final Map<String, List<StuffObject>> STUFF_BY_TAG = new HashMap<>();
 
-    private static boolean loaded = false;
-    private static boolean loadedPredefined = false;
+    // 资产解析线程数上限
+    private static final int MAX_LOADER_THREADS = 8;
+
+    private static volatile boolean loaded = false;
+    private static volatile boolean loadedPredefined = false;
+    private static volatile boolean parallelLoading = true;
+    private static volatile boolean sealAfterLoad = false;
 
     /**
      * 设置资产加载日志记录器
@@ -104,13 +118,16 @@ public class AssetRegistries {
         PREDEFINED_SPHERES.reset();
         STUFF.reset();
         STUFF_BY_TAG.clear();
+        BlockDataInterner.clear();
+        ComposedPaletteCache.clear();
+        PaperResourceLoader.invalidateIndex();
         loaded = false;
         loadedPredefined = false;
     }
 
     /**
      * 加载所有资产
-     * 按照依赖关系顺序加载所有资产类型
+     * 按照依赖关系分层加载所有资产类型，同层互不依赖的注册表并行加载
      * 
      * @param level 世界
      */
@@ -119,33 +136,35 @@ public class AssetRegistries {
             return;
         }
         
-        // 第一层：基础资产（无依赖）
-        // 这些资产不依赖其他资产，可以首先加载
-        VARIANTS.loadAll(level);      // 方块变体
-        CONDITIONS.loadAll(level);    // 条件系统
-        
-        // 第二层：调色板和样式（依赖变体）
-        PALETTES.loadAll(level);      // 调色板（可能引用变体）
-        STYLES.loadAll(level);        // 样式（可能引用调色板和变体）
-        
-        // 第三层：建筑部件（依赖调色板）
-        PARTS.loadAll(level);         // 建筑部件（已实现）
-        
-        // 第四层：建筑和多建筑（依赖部件和调色板）
-        BUILDINGS.loadAll(level);     // 建筑（已实现）
-        MULTI_BUILDINGS.loadAll(level); // 多建筑
-        
-        // 第五层：城市样式（依赖建筑和样式）
-        CITYSTYLES.loadAll(level);    // 城市样式
-        WORLDSTYLES.loadAll(level);   // 世界样式
-        
-        // 第六层：特殊资产（依赖建筑）
-        SCATTERED.loadAll(level);     // 散布建筑
-        STUFF.loadAll(level);         // 装饰物（已实现）
+        ExecutorService executor = parallelLoading ? createLoaderExecutor() : null;
+        try {
+            // 第一层：基础资产（无依赖，可并行）
+            loadLayer(level, executor, VARIANTS, CONDITIONS);
 
-        // 第七层：预定义资产
-        PREDEFINED_CITIES.loadAll(level);
-        PREDEFINED_SPHERES.loadAll(level);
+            // 第二层：调色板和样式（依赖变体）
+            loadLayer(level, executor, PALETTES);
+            loadLayer(level, executor, STYLES);
+
+            // 第三层：建筑部件（依赖调色板）
+            loadLayer(level, executor, PARTS);
+
+            // 第四层：建筑和多建筑（依赖部件和调色板，彼此独立）
+            loadLayer(level, executor, BUILDINGS, MULTI_BUILDINGS);
+
+            // 第五层：城市样式（依赖建筑和样式）
+            loadLayer(level, executor, CITYSTYLES);
+            loadLayer(level, executor, WORLDSTYLES);
+
+            // 第六层：特殊资产（依赖建筑，彼此独立）
+            loadLayer(level, executor, SCATTERED, STUFF);
+
+            // 第七层：预定义资产
+            loadLayer(level, executor, PREDEFINED_CITIES, PREDEFINED_SPHERES);
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
 
         // 资产引用审计：提前发现缺失引用，减少运行期静默失败
         AssetReferenceAuditor.audit(level);
@@ -159,11 +178,76 @@ public class AssetRegistries {
                 });
             }
         });
+
+        // 审计已预热负缓存；封存后生成期间的查询不再触发任何文件读取
+        if (sealAfterLoad) {
+            ALL.forEach(RegistryAssetRegistry::seal);
+        }
         
         loaded = true;
         loadedPredefined = true;
     }
 
+    /**
+     * 设置是否并行加载资产
+     *
+     * @param enabled 是否启用
+     */
+    public static void setParallelLoading(boolean enabled) {
+        parallelLoading = enabled;
+    }
+
+    /**
+     * 设置加载完成后是否封存注册表
+     *
+     * @param enabled 是否启用
+     */
+    public static void setSealAfterLoad(boolean enabled) {
+        sealAfterLoad = enabled;
+    }
+
+    /**
+     * 加载同一依赖层的注册表
+     * 同层注册表之间互不依赖，除第一个外均交由独立协调线程加载；
+     * 各注册表内部的 JSON 解析共享同一个有界线程池。
+     */
+    private static void loadLayer(World level, ExecutorService executor, RegistryAssetRegistry<?, ?>... registries) {
+        if (executor == null || registries.length == 1) {
+            for (RegistryAssetRegistry<?, ?> registry : registries) {
+                registry.loadAll(level, executor);
+            }
+            return;
+        }
+
+        List<Thread> coordinators = new ArrayList<>(registries.length - 1);
+        for (int i = 1; i < registries.length; i++) {
+            RegistryAssetRegistry<?, ?> registry = registries[i];
+            Thread thread = new Thread(() -> registry.loadAll(level, executor), "CityLoader-AssetLayer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            coordinators.add(thread);
+        }
+        registries[0].loadAll(level, executor);
+        for (Thread thread : coordinators) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static ExecutorService createLoaderExecutor() {
+        int threads = Math.max(1, Math.min(MAX_LOADER_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "CityLoader-AssetLoader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     /**
      * 加载预定义的资产
      * 
@@ -195,6 +279,52 @@ public class AssetRegistries {
                 SCATTERED.size(), STUFF.size(), PREDEFINED_CITIES.size(), PREDEFINED_SPHERES.size());
     }
 
+    /**
+     * 获取资产查询统计信息
+     *
+     * @return 统计字符串（命中/回退加载/负缓存命中/负缓存条目，及未命中最多的注册表）
+     */
+    public static String getLookupStatistics() {
+        long hits = 0L;
+        long misses = 0L;
+        long negativeHits = 0L;
+        int negativeEntries = 0;
+        RegistryAssetRegistry<?, ?> worst = null;
+        for (RegistryAssetRegistry<?, ?> registry : ALL) {
+            hits += registry.getHitCount();
+            misses += registry.getMissCount();
+            negativeHits += registry.getNegativeHitCount();
+            negativeEntries += registry.getNegativeCacheSize();
+            if (worst == null || registry.getMissCount() + registry.getNegativeHitCount()
+                    > worst.getMissCount() + worst.getNegativeHitCount()) {
+                worst = registry;
+            }
+        }
+        String hottest = worst == null || worst.getMissCount() + worst.getNegativeHitCount() == 0L
+                ? "-"
+                : worst.getRegistryKey();
+        return String.format("hits=%d, fallbackLoads=%d, negativeHits=%d, negativeEntries=%d, sealed=%s, mostMissed=%s",
+                hits, misses, negativeHits, negativeEntries, PALETTES.isSealed(), hottest);
+    }
+
+    /**
+     * 获取加载进度
+     *
+     * @return 已完成加载的注册表占比（0-1）
+     */
+    public static double getLoadProgress() {
+        if (loaded) {
+            return 1.0;
+        }
+        int done = 0;
+        for (RegistryAssetRegistry<?, ?> registry : ALL) {
+            if (registry.isLoaded()) {
+                done++;
+            }
+        }
+        return (double) done / ALL.size();
+    }
+
     /**
      * 检查是否已加载
      * 
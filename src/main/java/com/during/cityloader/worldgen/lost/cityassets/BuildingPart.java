@@ -22,6 +22,7 @@ public class BuildingPart implements ILostCityAsset {
     private final String palette;
     private final Palette localPalette;
     private final Map<String, Object> metadata;
+    private final PartTemplate template;
 
     public BuildingPart(BuildingPartRE object) {
         this.name = object.getRegistryName();
@@ -32,6 +33,7 @@ public class BuildingPart implements ILostCityAsset {
         this.sliceLayers = object.getSliceLayers();
         this.palette = object.getPalette();
         this.metadata = object.getMetadata();
+        this.template = PartTemplate.compile(sliceLayers, width, height, depth);
 
         PaletteRE inline = object.getLocalPalette();
         if (inline != null) {
@@ -63,6 +65,15 @@ public class BuildingPart implements ILostCityAsset {
         return sliceLayers;
     }
 
+    /**
+     * 获取预编译的体素模板
+     *
+     * @return 模板
+     */
+    public PartTemplate getTemplate() {
+        return template;
+    }
+
     public int getWidth() {
         return width;
     }
@@ -1,6 +1,8 @@
 package com.during.cityloader.worldgen.lost.cityassets;
 
 import com.during.cityloader.util.ResourceLocation;
+import com.during.cityloader.worldgen.BlockDataInterner;
+import org.bukkit.block.data.BlockData;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -15,19 +17,27 @@ import java.util.Set;
 
 /**
  * 编译后的调色板类
+ * 条目按字符直接索引存放：常用的 Latin-1 字符落在定长数组中，
+ * 其余字符退回到溢出表。构造完成后不再修改，可在线程间共享。
  */
 public class CompiledPalette {
 
     private static final int RANDOM_TABLE_SIZE = 128;
+    private static final int DIRECT_RANGE = 256;
 
-    private final Map<Character, CompiledEntry> palette = new HashMap<>();
+    private final CompiledEntry[] direct = new CompiledEntry[DIRECT_RANGE];
+    private Map<Character, CompiledEntry> overflow;
+    private Set<Character> characters;
 
     public CompiledPalette() {
     }
 
     public CompiledPalette(CompiledPalette other, Palette... palettes) {
         if (other != null) {
-            this.palette.putAll(other.palette);
+            System.arraycopy(other.direct, 0, direct, 0, DIRECT_RANGE);
+            if (other.overflow != null) {
+                overflow = new HashMap<>(other.overflow);
+            }
         }
         addPalettes(palettes);
     }
@@ -54,7 +64,7 @@ public class CompiledPalette {
                         resolved.blocks(),
                         resolved.damaged(),
                         toInformation(resolved.info()));
-                palette.put(entry.getKey(), compiled);
+                put(entry.getKey(), compiled);
             }
         }
     }
@@ -83,7 +93,7 @@ public class CompiledPalette {
                     if (source != null) {
                         inherited = resolveEntry(owner, source, stack);
                     } else {
-                        CompiledEntry compiledInherited = palette.get(sourceChar);
+                        CompiledEntry compiledInherited = entry(sourceChar);
                         if (compiledInherited != null) {
                             inherited = toEntryFromCompiled(sourceChar, compiledInherited);
                         }
@@ -260,16 +270,48 @@ public class CompiledPalette {
                 information.tag());
     }
 
+    private void put(char c, CompiledEntry compiled) {
+        if (c < DIRECT_RANGE) {
+            direct[c] = compiled;
+            return;
+        }
+        if (overflow == null) {
+            overflow = new HashMap<>();
+        }
+        overflow.put(c, compiled);
+    }
+
+    private CompiledEntry entry(char c) {
+        if (c < DIRECT_RANGE) {
+            return direct[c];
+        }
+        return overflow == null ? null : overflow.get(c);
+    }
+
     public Set<Character> getCharacters() {
-        return palette.keySet();
+        Set<Character> result = characters;
+        if (result == null) {
+            Set<Character> collected = new LinkedHashSet<>();
+            for (int c = 0; c < DIRECT_RANGE; c++) {
+                if (direct[c] != null) {
+                    collected.add((char) c);
+                }
+            }
+            if (overflow != null) {
+                collected.addAll(overflow.keySet());
+            }
+            result = Collections.unmodifiableSet(collected);
+            characters = result;
+        }
+        return result;
     }
 
     public boolean isDefined(Character c) {
-        return c != null && palette.containsKey(c);
+        return c != null && entry(c) != null;
     }
 
     public String get(char c) {
-        CompiledEntry entry = palette.get(c);
+        CompiledEntry entry = entry(c);
         if (entry == null) {
             return null;
         }
@@ -277,7 +319,7 @@ public class CompiledPalette {
     }
 
     public String get(char c, Random rand) {
-        CompiledEntry entry = palette.get(c);
+        CompiledEntry entry = entry(c);
         if (entry == null) {
             return null;
         }
@@ -286,7 +328,7 @@ public class CompiledPalette {
     }
 
     public Set<String> getAll(char c) {
-        CompiledEntry entry = palette.get(c);
+        CompiledEntry entry = entry(c);
         if (entry == null) {
             return Collections.emptySet();
         }
@@ -295,30 +337,95 @@ public class CompiledPalette {
         return Collections.unmodifiableSet(unique);
     }
 
+    /**
+     * 获取调色板字符某个候选定义对应的驻留 BlockData
+     * 定义须为 {@link #get(char, Random)} 的返回值；解析结果按驻留表代数缓存在条目上。
+     *
+     * @param c 调色板字符
+     * @param definition 已选中的方块定义
+     * @return 共享的 BlockData，未定义或解析失败返回 null
+     */
+    public BlockData getBlockData(char c, String definition) {
+        CompiledEntry entry = entry(c);
+        if (entry == null || definition == null) {
+            return null;
+        }
+        return entry.resolve(definition);
+    }
+
     public String getDamaged(char c) {
-        CompiledEntry entry = palette.get(c);
+        CompiledEntry entry = entry(c);
         return entry == null ? null : entry.damaged;
     }
 
     public Information getInformation(char c) {
-        CompiledEntry entry = palette.get(c);
+        CompiledEntry entry = entry(c);
         return entry == null ? null : entry.information;
     }
 
     public record Information(String loot, String mob, boolean torch, Map<String, Object> tag) {
     }
 
+    private record ResolvedBlocks(int generation, BlockData[] blocks) {
+    }
+
     private static final class CompiledEntry {
         private final String[] randomTable;
+        private final String[] candidates;
         private final String damaged;
         private final Information information;
+        private volatile ResolvedBlocks resolved;
 
         private CompiledEntry(List<Palette.WeightedBlock> blocks, String damaged, Information information) {
             this.randomTable = buildRandomTable(blocks);
+            this.candidates = distinct(randomTable);
             this.damaged = damaged;
             this.information = information;
         }
 
+        private BlockData resolve(String definition) {
+            int slot = -1;
+            for (int i = 0; i < candidates.length; i++) {
+                if (candidates[i] == definition) {
+                    slot = i;
+                    break;
+                }
+            }
+            if (slot < 0) {
+                for (int i = 0; i < candidates.length; i++) {
+                    if (candidates[i].equals(definition)) {
+                        slot = i;
+                        break;
+                    }
+                }
+            }
+            if (slot < 0) {
+                return BlockDataInterner.intern(definition);
+            }
+
+            int generation = BlockDataInterner.generation();
+            ResolvedBlocks current = resolved;
+            if (current == null || current.generation() != generation) {
+                BlockData[] blocks = new BlockData[candidates.length];
+                for (int i = 0; i < candidates.length; i++) {
+                    blocks[i] = BlockDataInterner.intern(candidates[i]);
+                }
+                current = new ResolvedBlocks(generation, blocks);
+                resolved = current;
+            }
+            return current.blocks()[slot];
+        }
+
+        private static String[] distinct(String[] table) {
+            Set<String> unique = new LinkedHashSet<>();
+            for (String block : table) {
+                if (block != null) {
+                    unique.add(block);
+                }
+            }
+            return unique.toArray(new String[0]);
+        }
+
         private String lookup(int index) {
             if (index < 0 || index >= randomTable.length) {
                 return randomTable[0];
@@ -0,0 +1,125 @@
+package com.during.cityloader.worldgen.lost.cityassets;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 组合调色板缓存
+ * 以（基础调色板、追加调色板序列）的对象身份为键复用 {@link CompiledPalette}，
+ * 相同组合在一次资源加载周期内只编译一次。
+ *
+ * <p>编译结果构造后不再修改，可在生成线程间共享；
+ * 调色板对象随注册表重建而更换，因此在 {@link AssetRegistries#reset()} 时整体清空。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class ComposedPaletteCache {
+
+    private static final int MAX_ENTRIES = 8192;
+
+    private static final ConcurrentHashMap<Key, CompiledPalette> CACHE = new ConcurrentHashMap<>();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private ComposedPaletteCache() {
+    }
+
+    /**
+     * 编译（或复用）由若干调色板组成的调色板
+     *
+     * @param palettes 调色板，按覆盖顺序排列
+     * @return 共享的编译调色板
+     */
+    public static CompiledPalette compose(Palette... palettes) {
+        return compose(null, palettes);
+    }
+
+    /**
+     * 在基础调色板上追加若干调色板
+     *
+     * @param base 基础调色板，可为 null
+     * @param additions 追加的调色板，按覆盖顺序排列
+     * @return 共享的编译调色板；没有追加项时直接返回基础调色板
+     */
+    public static CompiledPalette compose(CompiledPalette base, Palette... additions) {
+        if (base != null && (additions == null || additions.length == 0)) {
+            return base;
+        }
+        Key key = new Key(base, additions == null ? new Palette[0] : additions.clone());
+        CompiledPalette cached = CACHE.get(key);
+        if (cached != null) {
+            HITS.increment();
+            return cached;
+        }
+
+        MISSES.increment();
+        CompiledPalette compiled = base == null
+                ? new CompiledPalette(key.additions)
+                : new CompiledPalette(base, key.additions);
+        if (CACHE.size() >= MAX_ENTRIES) {
+            CACHE.clear();
+        }
+        CompiledPalette existing = CACHE.putIfAbsent(key, compiled);
+        return existing != null ? existing : compiled;
+    }
+
+    /**
+     * 清空缓存（资源重载时调用）
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    public static long hits() {
+        return HITS.sum();
+    }
+
+    public static long misses() {
+        return MISSES.sum();
+    }
+
+    /**
+     * 按对象身份比较的组合键
+     */
+    private static final class Key {
+        private final CompiledPalette base;
+        private final Palette[] additions;
+        private final int hash;
+
+        private Key(CompiledPalette base, Palette[] additions) {
+            this.base = base;
+            this.additions = additions;
+            int h = System.identityHashCode(base);
+            for (Palette palette : additions) {
+                h = 31 * h + System.identityHashCode(palette);
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other) || other.base != base || other.additions.length != additions.length) {
+                return false;
+            }
+            for (int i = 0; i < additions.length; i++) {
+                if (other.additions[i] != additions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.during.cityloader.worldgen.lost.cityassets;
+
+import com.during.cityloader.worldgen.lost.Transform;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 建筑部件体素模板
+ * 资产加载时将切片字符串编译为紧凑字符网格；
+ * 每种变换方式（及是否裁剪到单区块）的映射结果按需生成并缓存，
+ * 渲染时不再逐格 charAt 与坐标变换。
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class PartTemplate {
+
+    /**
+     * 行长度不足时的空格子标记
+     */
+    static final char MISSING = '\0';
+
+    private static final Oriented EMPTY_ORIENTED = new Oriented(new int[0][], new char[0][]);
+
+    private final int width;
+    private final char[][] layers;
+    private final int[] layerRows;
+    private final AtomicReferenceArray<Oriented> oriented =
+            new AtomicReferenceArray<>(Transform.values().length * 2);
+
+    private PartTemplate(int width, char[][] layers, int[] layerRows) {
+        this.width = width;
+        this.layers = layers;
+        this.layerRows = layerRows;
+    }
+
+    /**
+     * 编译切片为字符网格
+     *
+     * @param sliceLayers 切片层（自下而上，每层为若干行）
+     * @param width 部件宽度（X）
+     * @param height 部件高度（Z 方向行数）
+     * @param depth 部件层数（Y）
+     * @return 模板
+     */
+    public static PartTemplate compile(List<List<String>> sliceLayers, int width, int height, int depth) {
+        if (sliceLayers == null || sliceLayers.isEmpty() || width <= 0) {
+            return new PartTemplate(Math.max(0, width), new char[0][], new int[0]);
+        }
+        int layerCount = Math.max(0, Math.min(depth, sliceLayers.size()));
+        char[][] layers = new char[layerCount][];
+        int[] layerRows = new int[layerCount];
+        for (int dy = 0; dy < layerCount; dy++) {
+            List<String> rows = sliceLayers.get(dy);
+            int rowCount = rows == null ? 0 : Math.max(0, Math.min(height, rows.size()));
+            char[] grid = new char[rowCount * width];
+            for (int z = 0; z < rowCount; z++) {
+                String row = rows.get(z);
+                int rowLength = row == null ? 0 : Math.min(width, row.length());
+                for (int x = 0; x < rowLength; x++) {
+                    grid[z * width + x] = row.charAt(x);
+                }
+            }
+            layers[dy] = grid;
+            layerRows[dy] = rowCount;
+        }
+        return new PartTemplate(width, layers, layerRows);
+    }
+
+    public int getLayerCount() {
+        return layers.length;
+    }
+
+    /**
+     * 获取按变换映射后的模板
+     *
+     * @param transform 变换方式
+     * @param clipToChunk 是否先将源范围裁剪到 16x16（单区块部件的渲染方式）
+     * @return 映射后的模板
+     */
+    public Oriented oriented(Transform transform, boolean clipToChunk) {
+        if (transform == null) {
+            transform = Transform.ROTATE_NONE;
+        }
+        int slot = transform.ordinal() * 2 + (clipToChunk ? 1 : 0);
+        Oriented cached = oriented.get(slot);
+        if (cached == null) {
+            cached = orient(transform, clipToChunk);
+            if (!oriented.compareAndSet(slot, null, cached)) {
+                cached = oriented.get(slot);
+            }
+        }
+        return cached;
+    }
+
+    private Oriented orient(Transform transform, boolean clipToChunk) {
+        if (layers.length == 0) {
+            return EMPTY_ORIENTED;
+        }
+        int sourceMaxX = clipToChunk ? Math.min(16, width) : width;
+        int[][] positions = new int[layers.length][];
+        char[][] tokens = new char[layers.length][];
+        for (int dy = 0; dy < layers.length; dy++) {
+            int sourceMaxZ = clipToChunk ? Math.min(16, layerRows[dy]) : layerRows[dy];
+            int boundX = sourceMaxX - 1;
+            int boundZ = sourceMaxZ - 1;
+            if (boundX < 0 || boundZ < 0) {
+                positions[dy] = new int[0];
+                tokens[dy] = new char[0];
+                continue;
+            }
+
+            char[] grid = layers[dy];
+            int count = 0;
+            for (int z = 0; z < sourceMaxZ; z++) {
+                for (int x = 0; x < sourceMaxX; x++) {
+                    if (grid[z * width + x] != MISSING) {
+                        count++;
+                    }
+                }
+            }
+
+            int[] layerPositions = new int[count];
+            char[] layerTokens = new char[count];
+            int i = 0;
+            // 保持源切片的遍历顺序（z 外层、x 内层），与逐格渲染的写入顺序一致
+            for (int z = 0; z < sourceMaxZ; z++) {
+                for (int x = 0; x < sourceMaxX; x++) {
+                    char token = grid[z * width + x];
+                    if (token == MISSING) {
+                        continue;
+                    }
+                    int mappedX = transform.mapX(x, z, boundX, boundZ);
+                    int mappedZ = transform.mapZ(x, z, boundX, boundZ);
+                    layerPositions[i] = pack(mappedX, mappedZ);
+                    layerTokens[i] = token;
+                    i++;
+                }
+            }
+            positions[dy] = layerPositions;
+            tokens[dy] = layerTokens;
+        }
+        return new Oriented(positions, tokens);
+    }
+
+    static int pack(int x, int z) {
+        return (x << 16) | (z & 0xFFFF);
+    }
+
+    /**
+     * 已映射的模板：每层按写入顺序保存目标坐标与字符
+     */
+    public static final class Oriented {
+        private final int[][] positions;
+        private final char[][] tokens;
+
+        private Oriented(int[][] positions, char[][] tokens) {
+            this.positions = positions;
+            this.tokens = tokens;
+        }
+
+        public int getLayerCount() {
+            return positions.length;
+        }
+
+        public int getCellCount(int dy) {
+            return positions[dy].length;
+        }
+
+        public int getX(int dy, int index) {
+            return positions[dy][index] >>> 16;
+        }
+
+        public int getZ(int dy, int index) {
+            return positions[dy][index] & 0xFFFF;
+        }
+
+        public char getToken(int dy, int index) {
+            return tokens[dy][index];
+        }
+    }
+}
@@ -8,9 +8,14 @@ import com.during.cityloader.util.ResourceLocation;
 import com.during.cityloader.worldgen.lost.regassets.IAsset;
 import org.bukkit.World;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
@@ -25,11 +30,21 @@ import java.util.function.Function;
  */
 public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
 
+    // 负缓存容量上限，超出后整体清空
+    private static final int MAX_NEGATIVE_ENTRIES = 4096;
+
     private final Map<ResourceLocation, T> cache = new ConcurrentHashMap<>();
+    // 已确认不存在（或无法解析）的资源位置，避免重复探测类路径与文件系统
+    private final Set<ResourceLocation> missing = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    // 封存后的不可变快照；非 null 时查询不再回退加载
+    private volatile Map<ResourceLocation, T> sealed;
     private final String registryKey;
     private final Function<R, T> constructor;
     private final Class<R> registryClass;
-    private boolean loaded = false;
+    private volatile boolean loaded = false;
     private int lastLoadSuccessCount = 0;
     private int lastLoadFailureCount = 0;
     
@@ -83,37 +98,70 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
         if (name == null) {
             return null;
         }
+
+        Map<ResourceLocation, T> snapshot = sealed;
+        if (snapshot != null) {
+            T asset = snapshot.get(name);
+            if (asset != null) {
+                hits.increment();
+            } else {
+                negativeHits.increment();
+            }
+            return asset;
+        }
         
         T asset = cache.get(name);
-        if (asset == null) {
-            // 尝试延迟加载
-            try {
-                asset = loadAsset(level, name);
-                if (asset != null) {
-                    cache.put(name, asset);
-                    if (logger != null) {
-                        logger.logAssetLoad(registryKey, name.toString(), "延迟加载");
-                    }
-                }
-            } catch (AssetParseException e) {
-                if (logger != null) {
-                    logger.logAssetError(registryKey, name.toString(), e.getFilePath(), 
-                            "解析失败", e);
+        if (asset != null) {
+            hits.increment();
+            return asset;
+        }
+        if (missing.contains(name)) {
+            negativeHits.increment();
+            return null;
+        }
+
+        misses.increment();
+        // 尝试延迟加载
+        try {
+            asset = loadAsset(level, name);
+            if (asset != null) {
+                T existing = cache.putIfAbsent(name, asset);
+                if (existing != null) {
+                    return existing;
                 }
-                // 返回null而不是抛出异常，允许系统继续运行
-                return null;
-            } catch (Exception e) {
                 if (logger != null) {
-                    logger.logAssetError(registryKey, name.toString(), name.toString(), 
-                            "加载失败: " + e.getMessage(), e);
+                    logger.logAssetLoad(registryKey, name.toString(), "延迟加载");
                 }
-                return null;
+            } else {
+                rememberMissing(name);
+            }
+        } catch (AssetParseException e) {
+            rememberMissing(name);
+            if (logger != null) {
+                logger.logAssetError(registryKey, name.toString(), e.getFilePath(), 
+                        "解析失败", e);
+            }
+            // 返回null而不是抛出异常，允许系统继续运行
+            return null;
+        } catch (Exception e) {
+            rememberMissing(name);
+            if (logger != null) {
+                logger.logAssetError(registryKey, name.toString(), name.toString(), 
+                        "加载失败: " + e.getMessage(), e);
             }
+            return null;
         }
         
         return asset;
     }
 
+    private void rememberMissing(ResourceLocation name) {
+        if (missing.size() >= MAX_NEGATIVE_ENTRIES) {
+            missing.clear();
+        }
+        missing.add(name);
+    }
+
     /**
      * 根据名称获取资产，如果不存在则抛出异常
      * 
@@ -139,7 +187,8 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
      * @return 资产集合
      */
     public Iterable<T> getIterable() {
-        return cache.values();
+        Map<ResourceLocation, T> snapshot = sealed;
+        return snapshot != null ? snapshot.values() : cache.values();
     }
 
     /**
@@ -148,6 +197,16 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
      * @param level 世界
      */
     public void loadAll(World level) {
+        loadAll(level, null);
+    }
+
+    /**
+     * 加载所有资产，JSON 解析与资产构造分发到给定线程池并行执行
+     *
+     * @param level 世界
+     * @param executor 解析线程池，为 null 时在当前线程顺序解析
+     */
+    public void loadAll(World level, Executor executor) {
         if (loaded) {
             return;
         }
@@ -156,10 +215,10 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
         int failureCount = 0;
         
         try {
-            // 扫描并加载所有命名空间资产（来源为插件内置/data目录与外部data目录）
+            // 从资产索引读取本类型描述（来源为插件内置/data目录与外部data目录）
             List<PaperResourceLoader.AssetDescriptor> assetDescriptors = PaperResourceLoader.scanAssets(level, registryKey);
             if (logger != null) {
-                List<PaperResourceLoader.AssetConflict> conflicts = PaperResourceLoader.getLastScanConflicts();
+                List<PaperResourceLoader.AssetConflict> conflicts = PaperResourceLoader.getScanConflicts(registryKey);
                 if (conflicts != null && !conflicts.isEmpty()) {
                     logger.logAssetConflictSummary(registryKey, conflicts.size());
                     for (PaperResourceLoader.AssetConflict conflict : conflicts) {
@@ -170,36 +229,37 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
                 }
             }
 
+            List<PaperResourceLoader.AssetDescriptor> pending = new ArrayList<>(assetDescriptors.size());
             for (PaperResourceLoader.AssetDescriptor descriptor : assetDescriptors) {
-                ResourceLocation name = descriptor.getLocation();
-                if (!cache.containsKey(name)) {
-                    try {
-                        T asset = loadAsset(descriptor);
-                        if (asset != null) {
-                            cache.put(name, asset);
-                            successCount++;
-                            if (logger != null) {
-                                logger.logAssetLoad(registryKey, name.toString(), 
-                                        descriptor.describeSource());
-                            }
-                        } else {
-                            failureCount++;
-                        }
-                    } catch (AssetParseException e) {
-                        failureCount++;
-                        if (logger != null) {
-                            logger.logAssetError(registryKey, name.toString(), e.getFilePath(), 
-                                    "解析失败", e);
-                        }
-                        // 继续加载其他资产
-                    } catch (Exception e) {
-                        failureCount++;
+                if (!cache.containsKey(descriptor.getLocation())) {
+                    pending.add(descriptor);
+                }
+            }
+
+            // 结果按描述顺序回收，注册与日志仍在当前线程完成
+            for (ParsedAsset<T> parsed : parseAll(pending, executor)) {
+                ResourceLocation name = parsed.descriptor().getLocation();
+                if (parsed.asset() != null) {
+                    cache.putIfAbsent(name, parsed.asset());
+                    missing.remove(name);
+                    successCount++;
+                    if (logger != null) {
+                        logger.logAssetLoad(registryKey, name.toString(), 
+                                parsed.descriptor().describeSource());
+                    }
+                } else {
+                    failureCount++;
+                    Exception e = parsed.error();
+                    if (e instanceof AssetParseException parseException) {
                         if (logger != null) {
-                            logger.logAssetError(registryKey, name.toString(), name.toString(), 
-                                    "加载失败: " + e.getMessage(), e);
+                            logger.logAssetError(registryKey, name.toString(), parseException.getFilePath(), 
+                                    "解析失败", parseException);
                         }
-                        // 继续加载其他资产
+                    } else if (e != null && logger != null) {
+                        logger.logAssetError(registryKey, name.toString(), name.toString(), 
+                                "加载失败: " + e.getMessage(), e);
                     }
+                    // 继续加载其他资产
                 }
             }
             
@@ -218,6 +278,33 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
         loaded = true;
     }
 
+    private List<ParsedAsset<T>> parseAll(List<PaperResourceLoader.AssetDescriptor> descriptors, Executor executor) {
+        List<ParsedAsset<T>> results = new ArrayList<>(descriptors.size());
+        if (executor == null || descriptors.size() < 2) {
+            for (PaperResourceLoader.AssetDescriptor descriptor : descriptors) {
+                results.add(parse(descriptor));
+            }
+            return results;
+        }
+
+        List<CompletableFuture<ParsedAsset<T>>> futures = new ArrayList<>(descriptors.size());
+        for (PaperResourceLoader.AssetDescriptor descriptor : descriptors) {
+            futures.add(CompletableFuture.supplyAsync(() -> parse(descriptor), executor));
+        }
+        for (CompletableFuture<ParsedAsset<T>> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private ParsedAsset<T> parse(PaperResourceLoader.AssetDescriptor descriptor) {
+        try {
+            return new ParsedAsset<>(descriptor, loadAsset(descriptor), null);
+        } catch (Exception e) {
+            return new ParsedAsset<>(descriptor, null, e);
+        }
+    }
+
     /**
      * 从数据包加载单个资产
      * 
@@ -305,7 +392,12 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
      * 重置注册表，清除所有缓存
      */
     public void reset() {
+        sealed = null;
         cache.clear();
+        missing.clear();
+        hits.reset();
+        misses.reset();
+        negativeHits.reset();
         loaded = false;
         lastLoadSuccessCount = 0;
         lastLoadFailureCount = 0;
@@ -322,6 +414,10 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
             registryEntity.setRegistryName(name);
             T asset = constructor.apply(registryEntity);
             cache.put(name, asset);
+            missing.remove(name);
+            if (sealed != null) {
+                sealed = Map.copyOf(cache);
+            }
             if (logger != null) {
                 logger.logAssetLoad(registryKey, name.toString(), "手动注册");
             }
@@ -352,6 +448,64 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
         return cache.size();
     }
 
+    /**
+     * 封存注册表
+     * 以当前缓存构建不可变快照，此后查询只读快照，未命中直接返回 null，
+     * 生成期间不再产生任何回退文件读取。{@link #reset()} 解除封存。
+     */
+    public void seal() {
+        sealed = Map.copyOf(cache);
+    }
+
+    /**
+     * 检查是否已封存
+     *
+     * @return 已封存返回true
+     */
+    public boolean isSealed() {
+        return sealed != null;
+    }
+
+    public String getRegistryKey() {
+        return registryKey;
+    }
+
+    /**
+     * 获取缓存命中次数
+     *
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 获取触发回退加载的未命中次数
+     *
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 获取由负缓存（或封存快照）直接拒绝的查询次数
+     *
+     * @return 负缓存命中次数
+     */
+    public long getNegativeHitCount() {
+        return negativeHits.sum();
+    }
+
+    /**
+     * 获取负缓存条目数
+     *
+     * @return 条目数
+     */
+    public int getNegativeCacheSize() {
+        return missing.size();
+    }
+
     public int getLastLoadSuccessCount() {
         return lastLoadSuccessCount;
     }
@@ -359,4 +513,7 @@ public class RegistryAssetRegistry<T extends ILostCityAsset, R extends IAsset> {
     public int getLastLoadFailureCount() {
         return lastLoadFailureCount;
     }
+
+    private record ParsedAsset<T>(PaperResourceLoader.AssetDescriptor descriptor, T asset, Exception error) {
+    }
 }
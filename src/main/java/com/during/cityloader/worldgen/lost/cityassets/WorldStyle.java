@@ -2,19 +2,21 @@ package com.during.cityloader.worldgen.lost.cityassets;
 
 import com.during.cityloader.util.ResourceLocation;
 import com.during.cityloader.worldgen.lost.regassets.WorldStyleRE;
-import com.during.cityloader.worldgen.lost.regassets.data.BiomeMatcher;
 import com.during.cityloader.worldgen.lost.regassets.data.CityBiomeMultiplier;
 import com.during.cityloader.worldgen.lost.regassets.data.CityStyleSelector;
+import com.during.cityloader.worldgen.lost.regassets.data.CompiledBiomeMatcher;
 import com.during.cityloader.worldgen.lost.regassets.data.MultiSettings;
 import com.during.cityloader.worldgen.lost.regassets.data.ScatteredSettings;
 import com.during.cityloader.worldgen.lost.regassets.data.WorldPartSettings;
 import com.during.cityloader.worldgen.lost.regassets.data.WorldSettings;
+import org.bukkit.block.Biome;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 import java.util.Random;
+import java.util.function.Predicate;
 
 /**
  * 世界样式类
@@ -29,6 +31,9 @@ public class WorldStyle implements ILostCityAsset {
     private final ScatteredSettings scatteredSettings;
     private final List<CityStyleSelector> cityStyleSelectors;
     private final List<CityBiomeMultiplier> cityBiomeMultipliers;
+    private final CompiledBiomeMatcher[] selectorMatchers;
+    private final float[] biomeMultipliers;
+    private final float unknownBiomeMultiplier;
 
     public WorldStyle(WorldStyleRE object) {
         this.name = object.getRegistryName();
@@ -43,6 +48,35 @@ public class WorldStyle implements ILostCityAsset {
         this.cityBiomeMultipliers = object.getCityBiomeMultipliers() == null
                 ? List.of()
                 : Collections.unmodifiableList(new ArrayList<>(object.getCityBiomeMultipliers()));
+
+        this.selectorMatchers = new CompiledBiomeMatcher[cityStyleSelectors.size()];
+        for (int i = 0; i < selectorMatchers.length; i++) {
+            CityStyleSelector selector = cityStyleSelectors.get(i);
+            selectorMatchers[i] = selector == null || selector.getBiomes() == null
+                    ? CompiledBiomeMatcher.ANY
+                    : selector.getBiomes().compiled();
+        }
+
+        // 乘数按生物群系预先相乘，查询时直接取数组
+        Biome[] biomes = Biome.values();
+        this.biomeMultipliers = new float[biomes.length];
+        Arrays.fill(biomeMultipliers, 1.0f);
+        float unknown = 1.0f;
+        for (CityBiomeMultiplier entry : cityBiomeMultipliers) {
+            if (entry == null || entry.getBiomes() == null) {
+                continue;
+            }
+            CompiledBiomeMatcher matcher = entry.getBiomes().compiled();
+            for (Biome biome : biomes) {
+                if (matcher.matchesPath(biome)) {
+                    biomeMultipliers[biome.ordinal()] *= entry.getMultiplier();
+                }
+            }
+            if (matcher.matchesPath(null)) {
+                unknown *= entry.getMultiplier();
+            }
+        }
+        this.unknownBiomeMultiplier = unknown;
     }
 
     @Override
@@ -84,13 +118,29 @@ public class WorldStyle implements ILostCityAsset {
     }
 
     public String pickCityStyle(Random random, String biomeName) {
+        return pickCityStyle(random, matcher -> matcher.matches(biomeName));
+    }
+
+    /**
+     * 按生物群系（{@code minecraft:<name>} 形式）选择城市样式
+     *
+     * @param random 随机数生成器
+     * @param biome  生物群系
+     * @return 城市样式名，或 null
+     */
+    public String pickCityStyle(Random random, Biome biome) {
+        return pickCityStyle(random, matcher -> matcher.matches(biome));
+    }
+
+    private String pickCityStyle(Random random, Predicate<CompiledBiomeMatcher> filter) {
         List<CityStyleSelector> candidates = new ArrayList<>();
         int total = 0;
-        for (CityStyleSelector selector : cityStyleSelectors) {
+        for (int i = 0; i < cityStyleSelectors.size(); i++) {
+            CityStyleSelector selector = cityStyleSelectors.get(i);
             if (selector == null || selector.getCityStyle() == null || selector.getCityStyle().isBlank()) {
                 continue;
             }
-            if (!matches(selector.getBiomes(), biomeName)) {
+            if (!filter.test(selectorMatchers[i])) {
                 continue;
             }
             int weight = Math.max(1, Math.round(selector.getFactor() * 100));
@@ -128,20 +178,9 @@ public class WorldStyle implements ILostCityAsset {
     public String getRandomCityStyle(com.during.cityloader.worldgen.IDimensionInfo provider,
                                      com.during.cityloader.util.ChunkCoord coord,
                                      Random random) {
-        // 获取区块中心的生物群系名称
-        String biomeName = null;
-        if (provider.getWorld() != null) {
-            try {
-                org.bukkit.block.Biome biome = provider.getBiome(
-                        coord.chunkX() * 16 + 8, 64, coord.chunkZ() * 16 + 8);
-                if (biome != null) {
-                    biomeName = biome.name().toLowerCase(Locale.ROOT);
-                }
-            } catch (Exception e) {
-                // 世界未加载时忽略
-            }
-        }
-        return pickCityStyle(random, biomeName);
+        // 区块中心的生物群系，按不带命名空间的名称匹配
+        Biome biome = sampleBiome(provider, coord);
+        return pickCityStyle(random, matcher -> matcher.matchesPath(biome));
     }
 
     /**
@@ -154,19 +193,21 @@ public class WorldStyle implements ILostCityAsset {
      */
     public float getCityChanceMultiplier(com.during.cityloader.worldgen.IDimensionInfo provider,
                                          com.during.cityloader.util.ChunkCoord coord) {
-        String biomeName = null;
-        if (provider.getWorld() != null) {
-            try {
-                org.bukkit.block.Biome biome = provider.getBiome(
-                        coord.chunkX() * 16 + 8, 64, coord.chunkZ() * 16 + 8);
-                if (biome != null) {
-                    biomeName = biome.name().toLowerCase(Locale.ROOT);
-                }
-            } catch (Exception e) {
-                // 世界未加载时忽略
-            }
+        Biome biome = sampleBiome(provider, coord);
+        return biome == null ? unknownBiomeMultiplier : biomeMultipliers[biome.ordinal()];
+    }
+
+    private Biome sampleBiome(com.during.cityloader.worldgen.IDimensionInfo provider,
+                              com.during.cityloader.util.ChunkCoord coord) {
+        if (provider.getWorld() == null) {
+            return null;
+        }
+        try {
+            return provider.getBiome(coord.chunkX() * 16 + 8, 64, coord.chunkZ() * 16 + 8);
+        } catch (Exception e) {
+            // 世界未加载时忽略
+            return null;
         }
-        return getCityBiomeMultiplier(biomeName);
     }
 
     public float getCityBiomeMultiplier(String biomeName) {
@@ -175,59 +216,10 @@ public class WorldStyle implements ILostCityAsset {
             if (entry == null || entry.getBiomes() == null) {
                 continue;
             }
-            if (matches(entry.getBiomes(), biomeName)) {
+            if (entry.getBiomes().compiled().matches(biomeName)) {
                 multiplier *= entry.getMultiplier();
             }
         }
         return multiplier;
     }
-
-    private boolean matches(BiomeMatcher matcher, String biomeName) {
-        if (matcher == null) {
-            return true;
-        }
-        String biome = biomeName == null ? "" : biomeName.toLowerCase(Locale.ROOT);
-
-        if (!matcher.getExcluding().isEmpty()) {
-            for (String token : matcher.getExcluding()) {
-                if (tokenMatches(token, biome)) {
-                    return false;
-                }
-            }
-        }
-
-        if (!matcher.getIfAll().isEmpty()) {
-            for (String token : matcher.getIfAll()) {
-                if (!tokenMatches(token, biome)) {
-                    return false;
-                }
-            }
-        }
-
-        if (!matcher.getIfAny().isEmpty()) {
-            for (String token : matcher.getIfAny()) {
-                if (tokenMatches(token, biome)) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        return true;
-    }
-
-    private boolean tokenMatches(String token, String biome) {
-        if (token == null || token.isBlank()) {
-            return false;
-        }
-        String normalized = token.toLowerCase(Locale.ROOT).trim();
-        if (normalized.startsWith("#")) {
-            String tail = normalized.substring(1);
-            int colon = tail.indexOf(':');
-            String simple = colon >= 0 ? tail.substring(colon + 1) : tail;
-            simple = simple.replace("is_", "").replace('_', ' ');
-            return biome.contains(simple.replace(" ", "_")) || biome.contains(simple.replace(" ", ""));
-        }
-        return biome.equals(normalized) || biome.endsWith(normalized);
-    }
 }
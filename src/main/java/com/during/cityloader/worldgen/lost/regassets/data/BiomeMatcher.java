@@ -19,12 +19,29 @@ public class BiomeMatcher {
     @SerializedName(value = "excluding", alternate = { "exclude" })
     private List<String> excluding = new ArrayList<>();
 
+    private transient volatile CompiledBiomeMatcher compiled;
+
+    /**
+     * 获取预编译的匹配器（首次调用时编译，修改规则后重新编译）
+     *
+     * @return 编译结果
+     */
+    public CompiledBiomeMatcher compiled() {
+        CompiledBiomeMatcher result = compiled;
+        if (result == null) {
+            result = CompiledBiomeMatcher.compile(this);
+            compiled = result;
+        }
+        return result;
+    }
+
     public List<String> getIfAny() {
         return ifAny;
     }
 
     public void setIfAny(List<String> ifAny) {
         this.ifAny = ifAny == null ? new ArrayList<>() : ifAny;
+        this.compiled = null;
     }
 
     public List<String> getIfAll() {
@@ -33,6 +50,7 @@ public class BiomeMatcher {
 
     public void setIfAll(List<String> ifAll) {
         this.ifAll = ifAll == null ? new ArrayList<>() : ifAll;
+        this.compiled = null;
     }
 
     public List<String> getExcluding() {
@@ -41,5 +59,6 @@ public class BiomeMatcher {
 
     public void setExcluding(List<String> excluding) {
         this.excluding = excluding == null ? new ArrayList<>() : excluding;
+        this.compiled = null;
     }
 }
@@ -0,0 +1,153 @@
+package com.during.cityloader.worldgen.lost.regassets.data;
+
+import org.bukkit.block.Biome;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 预编译的生物群系匹配规则
+ * 对生物群系注册表中的每一项各求值一次 {@link BiomeMatcher}，结果存为按序号索引的位集，
+ * 生成期间的匹配只需一次位测试。
+ *
+ * <p>资产中的条目可能写成 {@code minecraft:plains} 或 {@code plains}，
+ * 而各调用方历来以带命名空间或不带命名空间的名称参与匹配，两种形式各保存一份位集，
+ * 与逐条字符串比较的结果完全一致。</p>
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public final class CompiledBiomeMatcher {
+
+    /**
+     * 未配置规则时的匹配器：总是匹配
+     */
+    public static final CompiledBiomeMatcher ANY = new CompiledBiomeMatcher(null);
+
+    private static final Biome[] BIOMES = Biome.values();
+
+    private final BiomeMatcher source;
+    private final long[] namespaced;
+    private final long[] plain;
+    private final boolean matchesUnknown;
+
+    private CompiledBiomeMatcher(BiomeMatcher source) {
+        this.source = source;
+        this.namespaced = new long[(BIOMES.length + 63) >>> 6];
+        this.plain = new long[namespaced.length];
+        for (Biome biome : BIOMES) {
+            String path = biome.name().toLowerCase(Locale.ROOT);
+            int ordinal = biome.ordinal();
+            if (matchesName(source, "minecraft:" + path)) {
+                namespaced[ordinal >>> 6] |= 1L << ordinal;
+            }
+            if (matchesName(source, path)) {
+                plain[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        this.matchesUnknown = matchesName(source, "");
+    }
+
+    /**
+     * 编译匹配规则
+     *
+     * @param matcher 匹配规则，为null时返回 {@link #ANY}
+     * @return 编译结果
+     */
+    public static CompiledBiomeMatcher compile(BiomeMatcher matcher) {
+        return matcher == null ? ANY : new CompiledBiomeMatcher(matcher);
+    }
+
+    /**
+     * 以 {@code minecraft:<name>} 形式匹配
+     *
+     * @param biome 生物群系，为null时按空名称处理
+     * @return 是否匹配
+     */
+    public boolean matches(Biome biome) {
+        return biome == null ? matchesUnknown : test(namespaced, biome.ordinal());
+    }
+
+    /**
+     * 以不带命名空间的 {@code <name>} 形式匹配
+     *
+     * @param biome 生物群系，为null时按空名称处理
+     * @return 是否匹配
+     */
+    public boolean matchesPath(Biome biome) {
+        return biome == null ? matchesUnknown : test(plain, biome.ordinal());
+    }
+
+    /**
+     * 按名称匹配（未预编译的慢路径，供以字符串传入生物群系的调用方使用）
+     *
+     * @param biomeName 生物群系名
+     * @return 是否匹配
+     */
+    public boolean matches(String biomeName) {
+        return matchesName(source, biomeName);
+    }
+
+    /**
+     * 按字符串规则求值
+     * {@code #tag} 条目按简化后的标签名做包含判断，其余条目做相等或后缀判断。
+     *
+     * @param matcher   匹配规则，为null时总是匹配
+     * @param biomeName 生物群系名
+     * @return 是否匹配
+     */
+    public static boolean matchesName(BiomeMatcher matcher, String biomeName) {
+        if (matcher == null) {
+            return true;
+        }
+        String biome = biomeName == null ? "" : biomeName.toLowerCase(Locale.ROOT);
+
+        if (anyToken(matcher.getExcluding(), biome)) {
+            return false;
+        }
+        List<String> required = matcher.getIfAll();
+        if (required != null) {
+            for (String token : required) {
+                if (!tokenMatches(token, biome)) {
+                    return false;
+                }
+            }
+        }
+        List<String> options = matcher.getIfAny();
+        if (options != null && !options.isEmpty()) {
+            return anyToken(options, biome);
+        }
+        return true;
+    }
+
+    private static boolean anyToken(List<String> tokens, String biome) {
+        if (tokens == null) {
+            return false;
+        }
+        for (String token : tokens) {
+            if (tokenMatches(token, biome)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean tokenMatches(String token, String biome) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        String normalized = token.toLowerCase(Locale.ROOT).trim();
+        if (normalized.startsWith("#")) {
+            String tail = normalized.substring(1);
+            int colon = tail.indexOf(':');
+            String simple = colon >= 0 ? tail.substring(colon + 1) : tail;
+            simple = simple.replace("is_", "").replace('_', ' ');
+            return biome.contains(simple.replace(" ", "_")) || biome.contains(simple.replace(" ", ""));
+        }
+        return biome.equals(normalized) || biome.endsWith(normalized);
+    }
+
+    private static boolean test(long[] bits, int ordinal) {
+        return (bits[ordinal >>> 6] & (1L << ordinal)) != 0L;
+    }
+}
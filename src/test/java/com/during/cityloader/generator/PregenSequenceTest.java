@@ -0,0 +1,106 @@
+package com.during.cityloader.generator;
+
+import com.during.cityloader.util.ChunkMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PregenSequence测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class PregenSequenceTest {
+
+    private static List<Long> drain(PregenSequence sequence) {
+        List<Long> keys = new ArrayList<>();
+        while (sequence.hasNext()) {
+            keys.add(sequence.next());
+        }
+        return keys;
+    }
+
+    @Test
+    @DisplayName("两种顺序都恰好覆盖区域内每个区块一次")
+    public void testFullCoverageWithoutDuplicates() {
+        PregenArea area = new PregenArea(-37, 5, 40, 70);
+        for (PregenOrder order : PregenOrder.values()) {
+            List<Long> keys = drain(new PregenSequence(area, order, null));
+            Set<Long> unique = new HashSet<>(keys);
+
+            assertEquals(area.chunkCount(), keys.size(), order.name());
+            assertEquals(keys.size(), unique.size(), order.name());
+            for (long key : keys) {
+                assertTrue(area.contains(ChunkMap.chunkX(key), ChunkMap.chunkZ(key)), order.name());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("螺旋顺序从中心开始")
+    public void testSpiralStartsAtCenter() {
+        PregenSequence sequence = new PregenSequence(PregenArea.aroundChunk(3, -2, 4), PregenOrder.SPIRAL, null);
+
+        assertEquals(ChunkMap.key(3, -2), sequence.next());
+    }
+
+    @Test
+    @DisplayName("城市区域内的区块先于其余区块输出")
+    public void testCityRegionsFirst() {
+        PregenArea area = new PregenArea(-64, -64, 63, 63);
+        Set<Long> cityRegions = Set.of(ChunkMap.key(1, -2));
+        List<Long> keys = drain(new PregenSequence(area, PregenOrder.REGION, cityRegions));
+
+        assertEquals(area.chunkCount(), keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            long key = keys.get(i);
+            boolean inCity = cityRegions.contains(PregenSequence.regionKey(ChunkMap.chunkX(key), ChunkMap.chunkZ(key)));
+            assertEquals(i < 32 * 32, inCity);
+        }
+    }
+
+    @Test
+    @DisplayName("跳过已完成位置后与完整序列的剩余部分一致")
+    public void testSkipResumesAtSamePosition() {
+        PregenArea area = new PregenArea(0, 0, 50, 20);
+        Set<Long> cityRegions = Set.of(ChunkMap.key(1, 0));
+        List<Long> full = drain(new PregenSequence(area, PregenOrder.SPIRAL, cityRegions));
+
+        PregenSequence resumed = new PregenSequence(area, PregenOrder.SPIRAL, cityRegions);
+        assertEquals(400, resumed.skip(400));
+        assertEquals(400, resumed.position());
+        assertEquals(full.subList(400, full.size()), drain(resumed));
+    }
+
+    @Test
+    @DisplayName("MSPT 超过目标时并发度减半，空闲时逐步增加")
+    public void testAdaptiveConcurrency() {
+        AdaptiveConcurrency concurrency = new AdaptiveConcurrency(1, 8, 40.0);
+
+        assertEquals(1, concurrency.current());
+        for (int i = 0; i < 20; i++) {
+            concurrency.update(10.0);
+        }
+        assertEquals(8, concurrency.current());
+        assertEquals(4, concurrency.update(60.0));
+        assertEquals(4, concurrency.update(35.0));
+        assertEquals(2, concurrency.update(80.0));
+        assertEquals(1, concurrency.update(80.0));
+        assertEquals(1, concurrency.update(80.0));
+    }
+
+    @Test
+    @DisplayName("解析方块坐标矩形")
+    public void testParseBlockBounds() {
+        assertEquals(new PregenArea(-1, 0, 4, 6), PregenArea.parseBlockBounds("64, 100, -5, 0"));
+        assertNull(PregenArea.parseBlockBounds("1,2,3"));
+        assertNull(PregenArea.parseBlockBounds("a,b,c,d"));
+    }
+}
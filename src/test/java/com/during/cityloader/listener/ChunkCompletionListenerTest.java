@@ -0,0 +1,72 @@
+package com.during.cityloader.listener;
+
+import com.during.cityloader.generator.CityBlockPopulator;
+import com.during.cityloader.worldgen.ChunkCompletionMarkers;
+import com.during.cityloader.worldgen.IDimensionInfo;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ChunkCompletionListener 补全标记测试")
+class ChunkCompletionListenerTest {
+
+    private static final NamespacedKey KEY = new NamespacedKey("cityloader", "completion");
+
+    private CityBlockPopulator populator;
+    private World world;
+    private Chunk chunk;
+    private PersistentDataContainer container;
+    private ChunkCompletionListener listener;
+
+    @BeforeEach
+    void setUp() {
+        populator = mock(CityBlockPopulator.class);
+        world = mock(World.class);
+        chunk = mock(Chunk.class);
+        container = mock(PersistentDataContainer.class);
+        when(world.getName()).thenReturn("world");
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(chunk.getWorld()).thenReturn(world);
+        when(chunk.getX()).thenReturn(3);
+        when(chunk.getZ()).thenReturn(-2);
+        when(chunk.getPersistentDataContainer()).thenReturn(container);
+        listener = new ChunkCompletionListener(populator, ignored -> true, new ChunkCompletionMarkers(KEY));
+    }
+
+    @Test
+    @DisplayName("已完成的区块加载时不再构建维度信息与执行修复")
+    void shouldSkipCompletedChunk() {
+        when(container.get(KEY, PersistentDataType.BYTE)).thenReturn(ChunkCompletionMarkers.COMPLETE);
+
+        listener.onChunkLoad(new ChunkLoadEvent(chunk, false));
+
+        verify(populator, never()).getOrCreateDimensionInfo(any());
+        verify(container, never()).set(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("未标记的区块执行修复后写入结果标记")
+    void shouldMarkUnmarkedChunkAfterFix() {
+        IDimensionInfo dimensionInfo = mock(IDimensionInfo.class);
+        when(populator.getOrCreateDimensionInfo(world)).thenReturn(dimensionInfo);
+
+        listener.onChunkLoad(new ChunkLoadEvent(chunk, false));
+
+        verify(populator).getOrCreateDimensionInfo(world);
+        verify(container).set(KEY, PersistentDataType.BYTE, ChunkCompletionMarkers.PENDING);
+    }
+}
@@ -0,0 +1,130 @@
+package com.during.cityloader.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BoundedCache测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class BoundedCacheTest {
+
+    @Test
+    @DisplayName("超出段上限时淘汰最久未访问的条目")
+    public void testLruEviction() {
+        // 32 条上限 / 16 段 = 每段 2 条；16 的倍数落在同一段
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", 32, 0, 16, null);
+        cache.put(0, "a");
+        cache.put(16, "b");
+        assertEquals("a", cache.get(0));
+
+        cache.put(32, "c");
+
+        assertEquals("a", cache.get(0));
+        assertNull(cache.get(16));
+        assertEquals("c", cache.get(32));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("过期条目在读取与清理时移除")
+    public void testExpiry() {
+        AtomicLong now = new AtomicLong(1_000L);
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 64, 1, 16, null, now::get);
+        cache.put("k", "v");
+        now.addAndGet(1_000L);
+        assertEquals("v", cache.get("k"));
+
+        now.addAndGet(1L);
+
+        assertEquals(1, cache.cleanup());
+        assertNull(cache.get("k"));
+        assertEquals(1, cache.stats().expirations());
+    }
+
+    @Test
+    @DisplayName("按世界分区整体失效")
+    public void testInvalidatePartition() {
+        BoundedCache<ChunkCoord, Integer> cache = new BoundedCache<>("test", 64, 0, 16, ChunkCoord::dimension);
+        cache.put(new ChunkCoord("world", 0, 0), 1);
+        cache.put(new ChunkCoord("world", 1, 0), 2);
+        cache.put(new ChunkCoord("nether", 0, 0), 3);
+
+        assertEquals(2, cache.invalidatePartition("world"));
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.get(new ChunkCoord("nether", 0, 0)));
+    }
+
+    @Test
+    @DisplayName("computeIfAbsent 命中计数与空值不缓存")
+    public void testComputeIfAbsentCounters() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 64, 0, 16, null);
+        assertEquals("x", cache.computeIfAbsent("a", k -> "x"));
+        assertEquals("x", cache.computeIfAbsent("a", k -> "y"));
+        assertNull(cache.computeIfAbsent("b", k -> null));
+
+        BoundedCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.size());
+        assertEquals(0.5, stats.hitRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("缩小预算时立即收缩")
+    public void testResizeTrims() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>("test", 1024, 0, 16, null);
+        for (int i = 0; i < 512; i++) {
+            cache.put(i, i);
+        }
+        cache.resize(32, 0);
+        assertTrue(cache.size() <= 32);
+    }
+
+    @Test
+    @DisplayName("并发请求同一键时只计算一次")
+    public void testComputeIfAbsentSingleFlight() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 64, 0, 16, null);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = pool.submit(() -> cache.computeIfAbsent("a", k -> {
+                loads.incrementAndGet();
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "x";
+            }));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<String> second = pool.submit(() -> cache.computeIfAbsent("a", k -> {
+                loads.incrementAndGet();
+                return "y";
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("x", first.get(5, TimeUnit.SECONDS));
+            assertEquals("x", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.during.cityloader.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ChunkMap测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class ChunkMapTest {
+
+    @Test
+    @DisplayName("随机读写删除与 HashMap 结果一致")
+    public void testMatchesHashMap() {
+        ChunkMap<Integer> map = new ChunkMap<>("test", 1 << 20, 0, 16);
+        ChunkMap.Partition<Integer> partition = map.partition("world");
+        Map<Long, Integer> reference = new HashMap<>();
+        Random random = new Random(42L);
+
+        for (int i = 0; i < 200_000; i++) {
+            int x = random.nextInt(256) - 128;
+            int z = random.nextInt(256) - 128;
+            long key = ChunkMap.key(x, z);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    partition.put(x, z, i);
+                    reference.put(key, i);
+                }
+                case 1 -> {
+                    partition.remove(x, z);
+                    reference.remove(key);
+                }
+                default -> assertTrue(Objects.equals(reference.get(key), partition.get(x, z)));
+            }
+        }
+        assertEquals(reference.size(), map.size());
+    }
+
+    @Test
+    @DisplayName("坐标打包可还原负坐标")
+    public void testKeyRoundTrip() {
+        long key = ChunkMap.key(-30_000_000, 29_999_999);
+        assertEquals(-30_000_000, ChunkMap.chunkX(key));
+        assertEquals(29_999_999, ChunkMap.chunkZ(key));
+    }
+
+    @Test
+    @DisplayName("超出上限时按 CLOCK 淘汰")
+    public void testBoundedEviction() {
+        ChunkMap<Integer> map = new ChunkMap<>("test", 256, 0, 16);
+        for (int i = 0; i < 10_000; i++) {
+            map.put(new ChunkCoord("world", i, -i), i);
+        }
+        assertTrue(map.size() <= 256);
+        assertEquals(10_000 - map.size(), map.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("过期条目在读取时视为未命中并由清理移除")
+    public void testExpiry() throws InterruptedException {
+        ChunkMap<String> map = new ChunkMap<>("test", 64, 1, 16);
+        map.put(new ChunkCoord("world", 3, 4), "v");
+        assertEquals("v", map.get("world", 3, 4));
+
+        Thread.sleep(2100L);
+
+        assertNull(map.get("world", 3, 4));
+        assertEquals(1, map.cleanup());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    @DisplayName("淘汰、删除与替换条目时回调被移除的值")
+    public void testRemovalListener() {
+        ChunkMap<Integer> map = new ChunkMap<>("test", 16, 0, 16);
+        List<Integer> removed = new ArrayList<>();
+        map.onRemoval(removed::add);
+        for (int i = 0; i < 64; i++) {
+            map.put(new ChunkCoord("world", i, 0), i);
+        }
+        assertEquals(64 - map.size(), removed.size());
+
+        removed.clear();
+        map.put(new ChunkCoord("world", 100, 0), 1);
+        map.put(new ChunkCoord("world", 100, 0), 2);
+        map.remove(new ChunkCoord("world", 100, 0));
+        assertTrue(removed.containsAll(List.of(1, 2)));
+    }
+
+    @Test
+    @DisplayName("按世界分区整体失效")
+    public void testInvalidatePartition() {
+        ChunkMap<Integer> map = new ChunkMap<>("test", 64, 0, 16);
+        map.put(new ChunkCoord("world", 0, 0), 1);
+        map.put(new ChunkCoord("world", 1, 0), 2);
+        map.put(new ChunkCoord("nether", 0, 0), 3);
+
+        assertEquals(2, map.invalidatePartition("world"));
+        assertEquals(1, map.size());
+        assertEquals(3, map.get(new ChunkCoord("nether", 0, 0)));
+        assertNull(map.get("world", 0, 0));
+    }
+
+    @Test
+    @DisplayName("分区失效与清空时同样回调，且回调在锁外执行可访问缓存")
+    public void testRemovalListenerOnBulkRemovalOutsideLock() {
+        ChunkMap<Integer> map = new ChunkMap<>("test", 64, 0, 16);
+        List<Integer> removed = new ArrayList<>();
+        map.onRemoval(value -> {
+            map.get("world", 0, 0);
+            removed.add(value);
+        });
+        map.put(new ChunkCoord("world", 0, 0), 1);
+        map.put(new ChunkCoord("world", 0, 0), 2);
+        map.put(new ChunkCoord("world", 1, 0), 3);
+        map.put(new ChunkCoord("nether", 0, 0), 4);
+
+        assertEquals(2, map.invalidatePartition("world"));
+        map.clear();
+
+        assertEquals(List.of(1, 2, 3, 4), removed.stream().sorted().toList());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    @DisplayName("并发请求同一键时只计算一次")
+    public void testComputeIfAbsentSingleFlight() throws Exception {
+        ChunkMap<Integer> map = new ChunkMap<>("test", 64, 0, 16);
+        ChunkCoord coord = new ChunkCoord("world", 5, 5);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = pool.submit(() -> map.computeIfAbsent(coord, k -> {
+                loads.incrementAndGet();
+                entered.countDown();
+                awaitQuietly(release);
+                return 7;
+            }));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = pool.submit(() -> map.computeIfAbsent(coord, k -> {
+                loads.incrementAndGet();
+                return 8;
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(7, first.get(5, TimeUnit.SECONDS));
+            assertEquals(7, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.during.cityloader.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LatencyHistogram测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("任意取值都落在所属桶的上下界之内，相对误差不超过1/16")
+    public void testBucketBounds() {
+        Random random = new Random(7L);
+        for (int i = 0; i < 100_000; i++) {
+            long value = i < 1000 ? i : (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int index = LatencyHistogram.bucketIndex(value);
+            long low = LatencyHistogram.lowestEquivalent(index);
+            long high = LatencyHistogram.highestEquivalent(index);
+
+            assertTrue(value >= low && value <= high, "value=" + value);
+            assertTrue(high - low <= Math.max(0L, low / 16), "value=" + value);
+        }
+        assertEquals(Long.MAX_VALUE,
+                LatencyHistogram.highestEquivalent(LatencyHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    @Test
+    @DisplayName("分位数、均值与最大值")
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.percentileNanos(0.99));
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000L, histogram.count());
+        assertEquals(500_500.0, histogram.meanNanos(), 1e-9);
+        assertEquals(1_000_000L, histogram.maxNanos());
+        assertEquals(500_000.0, histogram.percentileNanos(0.5), 500_000.0 / 16);
+        assertEquals(990_000.0, histogram.percentileNanos(0.99), 990_000.0 / 16);
+        assertEquals(1_000_000L, histogram.percentileNanos(1.0));
+
+        histogram.reset();
+        assertEquals(0L, histogram.count());
+        assertEquals(0L, histogram.maxNanos());
+    }
+
+    @Test
+    @DisplayName("多线程并发记录不丢失计数")
+    public void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(40_000L, histogram.count());
+        assertEquals(9_999L, histogram.maxNanos());
+    }
+}
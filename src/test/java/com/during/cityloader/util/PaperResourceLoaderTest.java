@@ -2,10 +2,18 @@ package com.during.cityloader.util;
 
 import com.google.gson.JsonObject;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -52,6 +60,60 @@ class PaperResourceLoaderTest {
         assertNotNull(PaperResourceLoader.getLastScanConflicts(), "冲突列表应可读取");
     }
 
+    @Test
+    void scanAssetsShouldReuseIndexUntilInvalidated() {
+        List<PaperResourceLoader.AssetDescriptor> first = PaperResourceLoader.scanAssets(null, "variants");
+        assertSame(first, PaperResourceLoader.scanAssets(null, "variants"), "重复扫描应复用同一份索引");
+        assertNotNull(PaperResourceLoader.getScanConflicts("variants"), "按目录的冲突列表应可读取");
+
+        PaperResourceLoader.invalidateIndex();
+        List<PaperResourceLoader.AssetDescriptor> rebuilt = PaperResourceLoader.scanAssets(null, "variants");
+        assertNotSame(first, rebuilt, "索引失效后应重新扫描");
+        assertEquals(first.size(), rebuilt.size());
+    }
+
+    @Test
+    void bundleShouldServeAssetsAndRebuildWhenOverlayChanges(@TempDir Path tempDir) throws IOException {
+        Path overlay = tempDir.resolve("overlay");
+        Path variantFile = overlay.resolve("bundletest/variants/sample.json");
+        Files.createDirectories(variantFile.getParent());
+        Files.writeString(variantFile, "{ \"blocks\": [ { \"random\": 1, \"block\": \"minecraft:stone\" } ] }");
+        Path bundle = tempDir.resolve("cache/assets.bin");
+
+        try {
+            PaperResourceLoader.setExternalDataRoots(List.of(overlay));
+            PaperResourceLoader.setBundleFile(bundle);
+
+            PaperResourceLoader.AssetDescriptor descriptor = find(PaperResourceLoader.scanAssets(null, "variants"),
+                    "bundletest:sample");
+            assertTrue(Files.isRegularFile(bundle), "首次建立索引时应写出资产包");
+            assertTrue(descriptor.isBundled(), "资产内容应来自资产包");
+            JsonObject first = PaperResourceLoader.loadAsset(descriptor, JsonObject.class, "test");
+            assertEquals("minecraft:stone",
+                    first.getAsJsonArray("blocks").get(0).getAsJsonObject().get("block").getAsString());
+
+            Files.writeString(variantFile, "{ \"blocks\": [ { \"random\": 1, \"block\": \"minecraft:dirt\" } ] }");
+            Files.setLastModifiedTime(variantFile, FileTime.fromMillis(System.currentTimeMillis() + 60_000L));
+            PaperResourceLoader.invalidateIndex();
+
+            descriptor = find(PaperResourceLoader.scanAssets(null, "variants"), "bundletest:sample");
+            JsonObject second = PaperResourceLoader.loadAsset(descriptor, JsonObject.class, "test");
+            assertEquals("minecraft:dirt",
+                    second.getAsJsonArray("blocks").get(0).getAsJsonObject().get("block").getAsString(),
+                    "叠加目录变化后资产包应重建");
+        } finally {
+            PaperResourceLoader.setBundleFile(null);
+            PaperResourceLoader.setExternalDataRoots(List.of());
+        }
+    }
+
+    private PaperResourceLoader.AssetDescriptor find(List<PaperResourceLoader.AssetDescriptor> descriptors, String id) {
+        return descriptors.stream()
+                .filter(descriptor -> descriptor.getLocation().toString().equals(id))
+                .findFirst()
+                .orElseThrow();
+    }
+
     private boolean contains(List<PaperResourceLoader.AssetDescriptor> descriptors, String id) {
         return descriptors.stream().anyMatch(descriptor -> descriptor.getLocation().toString().equals(id));
     }
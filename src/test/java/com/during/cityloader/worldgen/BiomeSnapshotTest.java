@@ -0,0 +1,59 @@
+package com.during.cityloader.worldgen;
+
+import org.bukkit.block.Biome;
+import org.bukkit.generator.LimitedRegion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * BiomeSnapshot测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class BiomeSnapshotTest {
+
+    @Test
+    @DisplayName("每个 4x4x4 单元只从生成区域采样一次")
+    public void testSampleOncePerCell() {
+        LimitedRegion region = mock(LimitedRegion.class);
+        when(region.getBiome(anyInt(), anyInt(), anyInt())).thenReturn(Biome.PLAINS);
+        BiomeSnapshot snapshot = new BiomeSnapshot(region, -2, 3, -64, 320);
+
+        int baseX = -32;
+        int baseZ = 48;
+        for (int x = 0; x < 4; x++) {
+            for (int z = 0; z < 4; z++) {
+                assertEquals(Biome.PLAINS, snapshot.get(baseX + x, 64 + (x & 3), baseZ + z));
+            }
+        }
+        snapshot.get(baseX + 15, 64, baseZ + 15);
+        snapshot.get(baseX + 15, 66, baseZ + 12);
+
+        assertEquals(2, snapshot.sampledCells());
+        verify(region, times(2)).getBiome(anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("区块范围判定与高度越界钳制")
+    public void testBoundsAndClamp() {
+        LimitedRegion region = mock(LimitedRegion.class);
+        when(region.getBiome(anyInt(), anyInt(), anyInt())).thenReturn(Biome.DESERT);
+        BiomeSnapshot snapshot = new BiomeSnapshot(region, 0, 0, -64, 320);
+
+        assertTrue(snapshot.contains(0, 15));
+        assertFalse(snapshot.contains(16, 0));
+        assertFalse(snapshot.contains(-1, 0));
+
+        snapshot.get(0, 1000, 0);
+        snapshot.get(0, 319, 0);
+        snapshot.get(0, -500, 0);
+        verify(region).getBiome(0, 319, 0);
+        verify(region).getBiome(0, -64, 0);
+        assertEquals(2, snapshot.sampledCells());
+    }
+}
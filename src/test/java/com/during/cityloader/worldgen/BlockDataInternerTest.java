@@ -0,0 +1,125 @@
+package com.during.cityloader.worldgen;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.block.data.BlockData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("BlockDataInterner 驻留表测试")
+class BlockDataInternerTest {
+
+    private Field serverField;
+    private Server previousServer;
+    private Server server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = mockServer();
+        serverField = Bukkit.class.getDeclaredField("server");
+        serverField.setAccessible(true);
+        previousServer = (Server) serverField.get(null);
+        serverField.set(null, server);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        serverField.set(null, previousServer);
+        BlockDataInterner.clear();
+    }
+
+    @Test
+    @DisplayName("相同定义应返回同一实例且只解析一次")
+    void shouldReturnSameInstance() {
+        BlockData first = BlockDataInterner.intern("minecraft:stone");
+        BlockData second = BlockDataInterner.intern(" minecraft:stone ");
+
+        assertSame(first, second);
+        verify(server, times(1)).createBlockData("minecraft:stone");
+    }
+
+    @Test
+    @DisplayName("按材质驻留应共享默认状态实例，清空后重新创建")
+    void shouldInternMaterialDefaults() {
+        when(server.createBlockData(any(Material.class))).thenAnswer(invocation -> {
+            BlockData data = mock(BlockData.class);
+            when(data.getMaterial()).thenReturn(invocation.getArgument(0));
+            return data;
+        });
+
+        BlockData first = BlockDataInterner.intern(Material.GLASS);
+
+        assertSame(first, BlockDataInterner.intern(Material.GLASS));
+        assertEquals(Material.GLASS, first.getMaterial());
+        verify(server, times(1)).createBlockData(Material.GLASS);
+
+        BlockDataInterner.clear();
+        assertNotSame(first, BlockDataInterner.intern(Material.GLASS));
+    }
+
+    @Test
+    @DisplayName("解析失败的定义也应被缓存")
+    void shouldCacheUnresolvedDefinitions() {
+        assertNull(BlockDataInterner.intern("unknownmod:nothing_here"));
+        long misses = BlockDataInterner.misses();
+
+        assertNull(BlockDataInterner.intern("unknownmod:nothing_here"));
+        assertEquals(misses, BlockDataInterner.misses());
+    }
+
+    @Test
+    @DisplayName("清空后代数递增并重新解析")
+    void shouldBumpGenerationOnClear() {
+        BlockData before = BlockDataInterner.intern("minecraft:stone");
+        int generation = BlockDataInterner.generation();
+
+        BlockDataInterner.clear();
+
+        assertTrue(BlockDataInterner.generation() > generation);
+        assertNotSame(before, BlockDataInterner.intern("minecraft:stone"));
+    }
+
+    @Test
+    @DisplayName("服务器实例变化时驻留表应失效")
+    void shouldInvalidateWhenServerChanges() throws Exception {
+        BlockData before = BlockDataInterner.intern("minecraft:stone");
+        int generation = BlockDataInterner.generation();
+
+        serverField.set(null, mockServer());
+
+        assertNotSame(before, BlockDataInterner.intern("minecraft:stone"));
+        assertTrue(BlockDataInterner.generation() > generation);
+    }
+
+    private static Server mockServer() {
+        Server mocked = mock(Server.class);
+        when(mocked.createBlockData(anyString())).thenAnswer(invocation -> {
+            String definition = invocation.getArgument(0);
+            if ("minecraft:stone".equals(definition)) {
+                BlockData data = mock(BlockData.class);
+                when(data.getMaterial()).thenReturn(Material.STONE);
+                return data;
+            }
+            throw new IllegalArgumentException("invalid blockdata: " + definition);
+        });
+        when(mocked.createBlockData(any(Material.class))).thenThrow(new IllegalArgumentException("unsupported"));
+        return mocked;
+    }
+}
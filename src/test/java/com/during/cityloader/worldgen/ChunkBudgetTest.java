@@ -0,0 +1,52 @@
+package com.during.cityloader.worldgen;
+
+import com.during.cityloader.config.DeferredConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ChunkBudget测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class ChunkBudgetTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @AfterEach
+    public void tearDown() {
+        ChunkBudget.reset();
+    }
+
+    @Test
+    @DisplayName("MSPT 超过目标时预算减半直到下限，回落后逐步放宽到上限")
+    public void testAdaptsToMspt() {
+        ChunkBudget.configure(new DeferredConfig(true, 45.0, 4, 36, 5, 100));
+        assertEquals(36 * MS, ChunkBudget.budgetNanos());
+
+        assertEquals(18 * MS, ChunkBudget.update(60.0));
+        assertEquals(9 * MS, ChunkBudget.update(60.0));
+        assertEquals(4 * MS, ChunkBudget.update(60.0));
+        assertEquals(4 * MS, ChunkBudget.update(60.0));
+
+        assertEquals(4 * MS, ChunkBudget.update(40.0));
+        assertEquals(6 * MS, ChunkBudget.update(20.0));
+        for (int i = 0; i < 32; i++) {
+            ChunkBudget.update(20.0);
+        }
+        assertEquals(36 * MS, ChunkBudget.budgetNanos());
+    }
+
+    @Test
+    @DisplayName("禁用时不限制单区块预算")
+    public void testDisabled() {
+        ChunkBudget.configure(new DeferredConfig(false, 45.0, 4, 36, 5, 100));
+        assertEquals(0L, ChunkBudget.budgetNanos());
+    }
+}
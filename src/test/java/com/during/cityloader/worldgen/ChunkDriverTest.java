@@ -15,6 +15,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -140,15 +143,53 @@ class ChunkDriverTest {
         Object[] sections = (Object[]) sectionsField.get(cache);
         Object section0 = sections[0];
 
-        Field blocksField = section0.getClass().getDeclaredField("blocks");
-        blocksField.setAccessible(true);
-        BlockData[] blocks = (BlockData[]) blocksField.get(section0);
+        Method getMethod = section0.getClass().getDeclaredMethod("get", int.class);
+        getMethod.setAccessible(true);
 
         int expected = (3 << 8) + (2 << 4) + 4; // py-x-z
         int old = (2 << 8) + (3 << 4) + 4;      // x-py-z
 
-        assertSame(stone, blocks[expected]);
-        assertNull(blocks[old], "旧索引槽位应为空");
+        assertSame(stone, getMethod.invoke(section0, expected));
+        assertNull(getMethod.invoke(section0, old), "旧索引槽位应为空");
+        assertNull(sections[1], "未写入的区段不应分配");
+    }
+
+    @Test
+    @DisplayName("重复写入相同方块应跳过，已写出的方块不再重复下发")
+    void testDirtyBitsSkipUnchangedWrites() {
+        BlockData stone = Bukkit.createBlockData(Material.STONE);
+        int y = world.getMinHeight() + 5;
+
+        driver.current(1, y, 1).block(stone);
+        driver.current(1, y, 1).block(stone);
+        driver.actuallyGenerate();
+
+        assertEquals(1, driver.getRegionWriteCount());
+        assertEquals(1, driver.getSkippedWriteCount());
+        verify(region, times(1)).setBlockData(eq(1), eq(y), eq(1), eq(stone));
+
+        driver.actuallyGenerate();
+        assertEquals(1, driver.getRegionWriteCount());
+        verify(region, times(1)).setBlockData(anyInt(), anyInt(), anyInt(), any(BlockData.class));
+    }
+
+    @Test
+    @DisplayName("区段调色板超过 15 项后仍能正确读写")
+    void testSectionPaletteWidening() {
+        int y = world.getMinHeight() + 1;
+        BlockData[] distinct = new BlockData[40];
+        for (int i = 0; i < distinct.length; i++) {
+            distinct[i] = Bukkit.createBlockData(Material.STONE);
+            driver.current(i & 0xf, y + (i >> 4), 0).block(distinct[i]);
+        }
+
+        for (int i = 0; i < distinct.length; i++) {
+            assertSame(distinct[i], driver.getBlock(i & 0xf, y + (i >> 4), 0));
+        }
+
+        driver.actuallyGenerate();
+        verify(region).setBlockData(eq(5), eq(y), eq(0), eq(distinct[5]));
+        verify(region).setBlockData(eq(7), eq(y + 2), eq(0), eq(distinct[39]));
     }
 
     @Test
@@ -162,4 +203,80 @@ class ChunkDriverTest {
 
         verify(region, atLeastOnce()).setBlockData(eq(2), eq(y), eq(4), eq(stone));
     }
+
+    @Test
+    @DisplayName("缓冲层可读取下层内容，合并后按合并顺序覆盖")
+    void testOverlayMergeInOrder() {
+        BlockData stone = Bukkit.createBlockData(Material.STONE);
+        BlockData dirt = Bukkit.createBlockData(Material.DIRT);
+        BlockData glass = Bukkit.createBlockData(Material.GLASS);
+        int y = world.getMinHeight() + 5;
+        driver.current(1, y, 1).block(stone);
+
+        ChunkDriver first = driver.overlay();
+        ChunkDriver second = driver.overlay();
+        assertSame(stone, first.getBlock(1, y, 1));
+        first.current(1, y, 1).block(dirt);
+        first.current(2, y, 2).block(dirt);
+        second.current(2, y, 2).block(glass);
+        assertSame(stone, driver.getBlock(1, y, 1));
+        assertSame(stone, second.getBlock(1, y, 1));
+
+        driver.merge(first);
+        driver.merge(second);
+
+        assertSame(dirt, driver.getBlock(1, y, 1));
+        assertSame(glass, driver.getBlock(2, y, 2));
+        driver.actuallyGenerate();
+        verify(region).setBlockData(eq(2), eq(y), eq(2), eq(glass));
+    }
+
+    @Test
+    @DisplayName("体积扫描应跳过已全部写入且不含目标分类的区段")
+    void testSweepSkipsSectionsWithoutTargetClasses() {
+        BlockData stone = Bukkit.createBlockData(Material.STONE);
+        BlockData spawner = Bukkit.createBlockData(Material.SPAWNER);
+        int baseY = world.getMinHeight();
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                driver.setBlockRange(x, baseY, z, baseY + 32, stone);
+            }
+        }
+        driver.current(4, baseY + 20, 9).block(spawner);
+
+        List<int[]> visited = new ArrayList<>();
+        int examined = driver.sweep(baseY, baseY + 31, MaterialClasses.SPAWNER,
+                (x, y, z, data) -> visited.add(new int[]{x, y, z}));
+
+        assertEquals(16 * 16 * 16, examined);
+        assertEquals(1, visited.size());
+        assertEquals(4, visited.get(0)[0]);
+        assertEquals(baseY + 20, visited.get(0)[1]);
+        assertEquals(9, visited.get(0)[2]);
+    }
+
+    @Test
+    @DisplayName("部分写入的区段完整扫描一次后，按区域分类与调色板分类跳过后续扫描")
+    void testSweepSkipsPartiallyWrittenSectionAfterSampling() {
+        BlockData dirt = Bukkit.createBlockData(Material.DIRT);
+        BlockData spawner = Bukkit.createBlockData(Material.SPAWNER);
+        when(region.isInRegion(anyInt(), anyInt(), anyInt())).thenReturn(true);
+        when(region.getBlockData(anyInt(), anyInt(), anyInt())).thenReturn(dirt);
+        int baseY = world.getMinHeight();
+        driver.current(4, baseY + 5, 9).block(spawner);
+
+        assertEquals(16 * 16 * 16, driver.sweep(baseY, baseY + 15, MaterialClasses.SPAWNER, (x, y, z, data) -> {
+        }));
+        verify(region, times(16 * 16 * 16 - 1)).getBlockData(anyInt(), anyInt(), anyInt());
+
+        // 区域只有泥土、调色板只有刷怪笼：不含植被的区段不再读取
+        assertEquals(0, driver.sweep(baseY, baseY + 15, MaterialClasses.VEGETATION, (x, y, z, data) -> {
+        }));
+        verify(region, times(16 * 16 * 16 - 1)).getBlockData(anyInt(), anyInt(), anyInt());
+
+        // 区域分类含地形：仍需扫描
+        List<int[]> terrain = new ArrayList<>();
+        driver.sweep(baseY, baseY + 15, MaterialClasses.TERRAIN, (x, y, z, data) -> terrain.add(new int[]{x, y, z}));
+        assertEquals(16 * 16 * 16 - 1, terrain.size());
+    }
 }
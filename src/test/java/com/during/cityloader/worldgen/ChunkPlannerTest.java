@@ -0,0 +1,49 @@
+package com.during.cityloader.worldgen;
+
+import com.during.cityloader.util.ChunkMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ChunkPlanner测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class ChunkPlannerTest {
+
+    @Test
+    @DisplayName("沿移动方向从视距边缘开始预规划，每步含两侧区块")
+    public void testProjectAheadAlongAxis() {
+        long[] keys = ChunkPlanner.projectAhead(10, -4, 1.0, 0.0, 8, 2);
+
+        assertArrayEquals(new long[] {
+                ChunkMap.key(18, -4), ChunkMap.key(18, -3), ChunkMap.key(18, -5),
+                ChunkMap.key(19, -4), ChunkMap.key(19, -3), ChunkMap.key(19, -5)
+        }, keys);
+    }
+
+    @Test
+    @DisplayName("斜向移动时结果去重且不含起点")
+    public void testProjectAheadDiagonalDeduplicated() {
+        double d = Math.sqrt(0.5);
+        long[] keys = ChunkPlanner.projectAhead(0, 0, d, -d, 1, 4);
+
+        for (int i = 0; i < keys.length; i++) {
+            assertNotEquals(ChunkMap.key(0, 0), keys[i]);
+            for (int j = i + 1; j < keys.length; j++) {
+                assertNotEquals(keys[i], keys[j]);
+            }
+        }
+        assertEquals(0, ChunkPlanner.projectAhead(0, 0, 1.0, 0.0, 4, 0).length);
+    }
+
+    @Test
+    @DisplayName("命中率按生成时规划是否就绪统计")
+    public void testHitRate() {
+        assertEquals(0.0, new ChunkPlanner.Stats(false, 0, 0, 0, 0, 0, 0, 0, 0).hitRate());
+        assertEquals(0.75, new ChunkPlanner.Stats(true, 0, 4, 3, 1, 0, 0, 3, 1).hitRate(), 1e-9);
+    }
+}
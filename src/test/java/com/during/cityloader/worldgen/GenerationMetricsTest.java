@@ -0,0 +1,54 @@
+package com.during.cityloader.worldgen;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GenerationMetrics测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class GenerationMetricsTest {
+
+    @AfterEach
+    public void tearDown() {
+        GenerationMetrics.setEnabled(true);
+        GenerationMetrics.reset();
+    }
+
+    @Test
+    @DisplayName("按世界汇总阶段耗时，阶段按累计耗时降序")
+    public void testSnapshotPerWorld() {
+        GenerationMetrics.WorldMetrics metrics = GenerationMetrics.forWorld("world");
+        metrics.recordStage("CityCoreStage", 2_000_000L);
+        metrics.recordStage("PostProcessStage", 5_000_000L);
+        metrics.recordStage("CityCoreStage", 2_000_000L);
+        metrics.recordChunk(10_000_000L, 300, 20, false);
+        metrics.recordChunk(12_000_000L, 100, 0, true);
+
+        GenerationMetrics.WorldStats stats = GenerationMetrics.snapshot("world");
+
+        assertNotNull(stats);
+        assertEquals(2L, stats.chunks());
+        assertEquals(1L, stats.budgetCutoffs());
+        assertEquals(400L, stats.blockWrites());
+        assertEquals(20L, stats.skippedWrites());
+        assertEquals("PostProcessStage", stats.stages().get(0).stage());
+        assertEquals(2L, stats.stages().get(1).count());
+        assertEquals(2.0, stats.stages().get(1).meanMillis(), 1e-9);
+        assertNull(GenerationMetrics.snapshot("other"));
+    }
+
+    @Test
+    @DisplayName("禁用后不再返回记录器")
+    public void testDisabled() {
+        GenerationMetrics.setEnabled(false);
+
+        assertNull(GenerationMetrics.forWorld("world"));
+        assertTrue(GenerationMetrics.snapshot().isEmpty());
+    }
+}
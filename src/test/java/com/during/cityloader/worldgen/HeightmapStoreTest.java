@@ -0,0 +1,95 @@
+package com.during.cityloader.worldgen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HeightmapStore测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class HeightmapStoreTest {
+
+    @Test
+    @DisplayName("同一区块只生成一次，按世界名分区")
+    public void testLoadOncePerChunk() {
+        HeightmapStore store = new HeightmapStore("test");
+        store.resize(16, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        ChunkHeightmap first = store.get("world", -1, 33, (x, z) -> flat(64, loads));
+        ChunkHeightmap second = store.get("world", -1, 33, (x, z) -> flat(70, loads));
+        ChunkHeightmap other = store.get("world_nether", -1, 33, (x, z) -> flat(70, loads));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, loads.get());
+        assertEquals(64, first.getHeight());
+    }
+
+    @Test
+    @DisplayName("超出分块上限时淘汰最久未访问的分块")
+    public void testTileEviction() throws InterruptedException {
+        HeightmapStore store = new HeightmapStore("test");
+        store.resize(2, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        store.get("world", 0, 0, (x, z) -> flat(64, loads));
+        Thread.sleep(5L);
+        store.get("world", 32, 0, (x, z) -> flat(64, loads));
+        Thread.sleep(5L);
+        store.get("world", 0, 0, (x, z) -> flat(64, loads));
+        Thread.sleep(5L);
+        store.get("world", 64, 0, (x, z) -> flat(64, loads));
+
+        assertEquals(2, store.size());
+        assertNotNull(store.peek("world", 0, 0));
+        assertNull(store.peek("world", 32, 0));
+    }
+
+    @Test
+    @DisplayName("按世界失效")
+    public void testInvalidatePartition() {
+        HeightmapStore store = new HeightmapStore("test");
+        store.resize(16, 0);
+        AtomicInteger loads = new AtomicInteger();
+        store.get("world", 0, 0, (x, z) -> flat(64, loads));
+        store.get("other", 0, 0, (x, z) -> flat(64, loads));
+
+        assertEquals(1, store.invalidatePartition("world"));
+        assertNull(store.peek("world", 0, 0));
+        assertNotNull(store.peek("other", 0, 0));
+    }
+
+    @Test
+    @DisplayName("紧凑存储支持负高度且平均值随写入更新")
+    public void testPackedHeights() {
+        ChunkHeightmap heightmap = new ChunkHeightmap();
+        heightmap.setHeight(15, 15, -64);
+        assertEquals(-64, heightmap.getHeight(15, 15));
+        assertEquals(0, heightmap.getHeight());
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                heightmap.setHeight(x, z, 100);
+            }
+        }
+        assertEquals(100, heightmap.getHeight());
+    }
+
+    private static ChunkHeightmap flat(int height, AtomicInteger loads) {
+        loads.incrementAndGet();
+        ChunkHeightmap heightmap = new ChunkHeightmap();
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                heightmap.setHeight(x, z, height);
+            }
+        }
+        return heightmap;
+    }
+}
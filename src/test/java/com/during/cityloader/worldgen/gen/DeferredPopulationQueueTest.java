@@ -0,0 +1,71 @@
+package com.during.cityloader.worldgen.gen;
+
+import org.bukkit.World;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("DeferredPopulationQueue 延迟队列测试")
+class DeferredPopulationQueueTest {
+
+    @AfterEach
+    void tearDown() {
+        DeferredPopulationQueue.clear();
+    }
+
+    @Test
+    @DisplayName("同一区块重复记录只保留一次")
+    void shouldDeduplicateChunks() {
+        World world = mockWorld();
+        long before = DeferredPopulationQueue.totalDeferred();
+
+        DeferredPopulationQueue.record(world, 3, -7);
+        DeferredPopulationQueue.record(world, 3, -7);
+
+        assertEquals(1, DeferredPopulationQueue.pending(world));
+        assertEquals(before + 1, DeferredPopulationQueue.totalDeferred());
+    }
+
+    @Test
+    @DisplayName("取出后清空队列并还原区块坐标")
+    void shouldDrainAndDecodeKeys() {
+        World world = mockWorld();
+        DeferredPopulationQueue.record(world, -123456, 98765);
+
+        long[] drained = DeferredPopulationQueue.drain(world);
+
+        assertArrayEquals(new long[]{DeferredPopulationQueue.key(-123456, 98765)}, drained);
+        assertEquals(-123456, DeferredPopulationQueue.chunkX(drained[0]));
+        assertEquals(98765, DeferredPopulationQueue.chunkZ(drained[0]));
+        assertEquals(0, DeferredPopulationQueue.pending(world));
+    }
+
+    @Test
+    @DisplayName("补生成认领区块后不再出现在队列中，重复认领失败")
+    void shouldClaimChunkOnlyOnce() {
+        World world = mockWorld();
+        DeferredPopulationQueue.record(world, 1, 2);
+        DeferredPopulationQueue.record(world, 5, 6);
+
+        assertEquals(2, DeferredPopulationQueue.snapshot(world).length);
+        assertTrue(DeferredPopulationQueue.remove(world, 1, 2));
+        assertFalse(DeferredPopulationQueue.remove(world, 1, 2));
+        assertEquals(1, DeferredPopulationQueue.pending(world));
+        assertArrayEquals(new long[]{DeferredPopulationQueue.key(5, 6)}, DeferredPopulationQueue.snapshot(world));
+    }
+
+    private World mockWorld() {
+        World world = mock(World.class);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        return world;
+    }
+}
@@ -0,0 +1,190 @@
+package com.during.cityloader.worldgen.gen;
+
+import org.bukkit.Nameable;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@DisplayName("GlobalCompletionQueue 分桶与日志测试")
+class GlobalCompletionQueueTest {
+
+    @TempDir
+    Path worldFolder;
+
+    private World world;
+    private BlockState state;
+
+    @BeforeEach
+    void setUp() {
+        GlobalCompletionQueue.clear();
+        world = mock(World.class);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.getWorldFolder()).thenReturn(worldFolder.toFile());
+        state = mock(BlockState.class, withSettings().extraInterfaces(Nameable.class));
+        Block block = mock(Block.class);
+        when(block.getState()).thenReturn(state);
+        when(world.getBlockAt(anyInt(), anyInt(), anyInt())).thenReturn(block);
+    }
+
+    @AfterEach
+    void tearDown() {
+        GlobalCompletionQueue.clear();
+    }
+
+    @Test
+    @DisplayName("未加载区块的任务不参与每 tick 的执行，区块加载后才执行")
+    void shouldWaitForChunkLoadWithoutRescanning() {
+        AtomicInteger runs = new AtomicInteger();
+        GlobalCompletionQueue.enqueue(world, new GenerationContext.BlockStateTask(40, 64, 40, ignored -> {
+            runs.incrementAndGet();
+            return false;
+        }));
+
+        for (int tick = 0; tick < 5; tick++) {
+            assertEquals(0, GlobalCompletionQueue.drain(world, 64));
+        }
+        verify(world, times(1)).isChunkLoaded(2, 2);
+        assertEquals(1, GlobalCompletionQueue.snapshot(world).pending());
+        assertEquals(0, GlobalCompletionQueue.snapshot(world).readyBuckets());
+
+        when(world.isChunkLoaded(2, 2)).thenReturn(true);
+        GlobalCompletionQueue.markLoaded(world, 2, 2);
+
+        assertEquals(1, GlobalCompletionQueue.drain(world, 64));
+        assertEquals(1, runs.get());
+        assertEquals(0, GlobalCompletionQueue.snapshot(world).pending());
+    }
+
+    @Test
+    @DisplayName("已加载区块的任务按预算分批执行")
+    void shouldRespectTaskBudget() {
+        when(world.isChunkLoaded(0, 0)).thenReturn(true);
+        for (int i = 0; i < 5; i++) {
+            GlobalCompletionQueue.enqueue(world, new GenerationContext.BlockStateTask(i, 64, 0, ignored -> false));
+        }
+
+        assertEquals(3, GlobalCompletionQueue.drain(world, 3));
+        assertEquals(2, GlobalCompletionQueue.drain(world, 3));
+        assertEquals(0, GlobalCompletionQueue.snapshot(world).buckets());
+    }
+
+    @Test
+    @DisplayName("等待中的任务写入日志后可在重启后恢复执行")
+    void shouldRestoreJournaledTasks() throws Exception {
+        GlobalCompletionQueue.enqueue(world, new GenerationContext.BlockStateTask(
+                40, 64, 40, ignored -> true, CompletionJournal.KIND_TAG, Map.of("tag", Map.of("CustomName", "Vault"))));
+        GlobalCompletionQueue.enqueue(world, new GenerationContext.BlockStateTask(40, 65, 40, ignored -> true));
+
+        assertEquals(1, GlobalCompletionQueue.saveJournal(world));
+        Path journal = GlobalCompletionQueue.journalFile(world);
+        assertTrue(Files.exists(journal));
+
+        GlobalCompletionQueue.clear();
+        assertEquals(1, GlobalCompletionQueue.restoreJournal(world));
+        // 日志保留到下次保存改写，恢复后崩溃不会丢失任务
+        assertTrue(Files.exists(journal));
+
+        when(world.isChunkLoaded(2, 2)).thenReturn(true);
+        GlobalCompletionQueue.markLoaded(world, 2, 2);
+        assertEquals(1, GlobalCompletionQueue.drain(world, 64));
+        verify((Nameable) state).setCustomName("Vault");
+        verify(state).update(true, false);
+    }
+
+    @Test
+    @DisplayName("方块实体标签中的战利品种子经日志往返后不丢失精度")
+    void shouldKeepLootTableSeedPrecision() throws Exception {
+        long seed = 0x7fffffffffffff1bL;
+        GenerationContext.BlockStateTask task = new GenerationContext.BlockStateTask(
+                40, 64, 40, ignored -> true, CompletionJournal.KIND_TAG,
+                Map.of("tag", Map.of("LootTableSeed", Long.toString(seed))));
+        Path journal = GlobalCompletionQueue.journalFile(world);
+
+        CompletionJournal.save(journal, List.of(task));
+        List<GenerationContext.BlockStateTask> restored = CompletionJournal.load(journal);
+
+        assertEquals(1, restored.size());
+        Map<?, ?> tag = (Map<?, ?>) restored.get(0).data().get("tag");
+        assertEquals(Long.toString(seed), tag.get("LootTableSeed"));
+    }
+
+    @Test
+    @DisplayName("反复执行失败的任务达到上限后丢弃，不再重试或写入日志")
+    void shouldDropTaskAfterRepeatedFailures() throws Exception {
+        when(world.isChunkLoaded(2, 2)).thenReturn(true);
+        AtomicInteger runs = new AtomicInteger();
+        GlobalCompletionQueue.enqueue(world, new GenerationContext.BlockStateTask(
+                40, 64, 40, ignored -> {
+                    runs.incrementAndGet();
+                    throw new IllegalStateException("broken");
+                }, CompletionJournal.KIND_TAG, Map.of("tag", Map.of("CustomName", "Vault"))));
+
+        for (int attempt = 1; attempt < GlobalCompletionQueue.MAX_FAILURES; attempt++) {
+            assertEquals(0, GlobalCompletionQueue.drain(world, 64));
+            GlobalCompletionQueue.markLoaded(world, 2, 2);
+        }
+        assertEquals(1, GlobalCompletionQueue.snapshot(world).pending());
+        assertEquals(1, GlobalCompletionQueue.saveJournal(world));
+
+        assertEquals(0, GlobalCompletionQueue.drain(world, 64));
+        GlobalCompletionQueue.markLoaded(world, 2, 2);
+        assertEquals(0, GlobalCompletionQueue.drain(world, 64));
+
+        assertEquals(GlobalCompletionQueue.MAX_FAILURES, runs.get());
+        GlobalCompletionQueue.Snapshot snapshot = GlobalCompletionQueue.snapshot(world);
+        assertEquals(0, snapshot.pending());
+        assertEquals(0, snapshot.buckets());
+        assertEquals(1, snapshot.totalDropped());
+        assertEquals(0, GlobalCompletionQueue.saveJournal(world));
+    }
+
+    @Test
+    @DisplayName("失败次数随日志往返，重启后继续累计")
+    void shouldKeepFailureCountInJournal() throws Exception {
+        GenerationContext.BlockStateTask task = new GenerationContext.BlockStateTask(
+                40, 64, 40, ignored -> true, CompletionJournal.KIND_TAG,
+                Map.of("tag", Map.of("CustomName", "Vault"))).failed().failed();
+        Path journal = GlobalCompletionQueue.journalFile(world);
+
+        CompletionJournal.save(journal, List.of(task));
+        List<GenerationContext.BlockStateTask> restored = CompletionJournal.load(journal);
+
+        assertEquals(1, restored.size());
+        assertEquals(2, restored.get(0).failures());
+    }
+
+    @Test
+    @DisplayName("没有等待任务时保存会删除旧日志")
+    void shouldDeleteJournalWhenEmpty() throws Exception {
+        Path journal = GlobalCompletionQueue.journalFile(world);
+        Files.createDirectories(journal.getParent());
+        Files.writeString(journal, "{}");
+
+        assertEquals(0, GlobalCompletionQueue.saveJournal(world));
+        assertFalse(Files.exists(journal));
+        verify(world, never()).getBlockAt(anyInt(), anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,38 @@
+package com.during.cityloader.worldgen.gen;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.generator.LimitedRegion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("LoadedRegion 已加载区域视图测试")
+class LoadedRegionTest {
+
+    @Test
+    @DisplayName("续跑写入应经方块落地且不触发物理更新")
+    void shouldWriteThroughBlockWithoutPhysics() {
+        World world = mock(World.class);
+        Block block = mock(Block.class);
+        when(world.getBlockAt(17, 64, -3)).thenReturn(block);
+        BlockData stone = mock(BlockData.class);
+
+        LimitedRegion region = LoadedRegion.of(world, 1, 0);
+        region.setBlockData(17, 64, -3, stone);
+        region.setType(17, 64, -3, Material.GLASS);
+
+        verify(block).setBlockData(stone, false);
+        verify(block).setType(Material.GLASS, false);
+        verify(world, never()).setBlockData(anyInt(), anyInt(), anyInt(), any(BlockData.class));
+        verify(world, never()).setType(anyInt(), anyInt(), anyInt(), any(Material.class));
+    }
+}
@@ -0,0 +1,130 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.worldgen.IDimensionInfo;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.generator.LimitedRegion;
+import org.bukkit.generator.WorldInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ParallelStages测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+@DisplayName("ParallelStages 并行阶段执行测试")
+class ParallelStagesTest {
+
+    private static final int Y = 70;
+
+    private Field serverField;
+    private Server previousServer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Server server = mock(Server.class);
+        when(server.createBlockData(any(Material.class))).thenAnswer(invocation -> {
+            Material material = invocation.getArgument(0);
+            BlockData data = mock(BlockData.class);
+            when(data.getMaterial()).thenReturn(material);
+            return data;
+        });
+
+        serverField = Bukkit.class.getDeclaredField("server");
+        serverField.setAccessible(true);
+        previousServer = (Server) serverField.get(null);
+        serverField.set(null, server);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ParallelStages.shutdown();
+        serverField.set(null, previousServer);
+    }
+
+    @Test
+    @DisplayName("后一阶段读取了前一阶段写入的格子时应回退为顺序执行，结果与顺序执行一致")
+    void shouldFallBackToSequentialOnReadWriteConflict() {
+        List<GenerationStage> stages = List.of(new StoneWriter(), new StoneReader());
+
+        GenerationContext sequential = createContext();
+        for (GenerationStage stage : stages) {
+            sequential.useStageRandom(stage);
+            stage.generate(sequential);
+        }
+        GenerationContext parallel = createContext();
+        long conflicts = ParallelStages.conflicts();
+        ParallelStages.run(parallel, stages);
+
+        assertEquals(Material.GLASS, sequential.getBlockType(4, Y, 4));
+        assertEquals(Material.GLASS, parallel.getBlockType(4, Y, 4));
+        assertEquals(Material.STONE, parallel.getBlockType(3, Y, 3));
+        assertEquals(conflicts + 1, ParallelStages.conflicts());
+    }
+
+    @Test
+    @DisplayName("互不读取对方写入的阶段应并行执行并按顺序合并")
+    void shouldMergeIndependentStagesInOrder() {
+        List<GenerationStage> stages = List.of(new StoneReader(), new StoneWriter());
+
+        GenerationContext parallel = createContext();
+        long conflicts = ParallelStages.conflicts();
+        ParallelStages.run(parallel, stages);
+
+        // 读取方在前：顺序执行时同样读不到石头
+        assertEquals(Material.DIRT, parallel.getBlockType(4, Y, 4));
+        assertEquals(Material.STONE, parallel.getBlockType(3, Y, 3));
+        assertEquals(conflicts, ParallelStages.conflicts());
+    }
+
+    private GenerationContext createContext() {
+        World world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        when(world.getMinHeight()).thenReturn(-64);
+        when(world.getMaxHeight()).thenReturn(320);
+
+        WorldInfo worldInfo = mock(WorldInfo.class);
+        when(worldInfo.getMinHeight()).thenReturn(-64);
+        when(worldInfo.getMaxHeight()).thenReturn(320);
+
+        IDimensionInfo provider = mock(IDimensionInfo.class);
+        when(provider.getSeed()).thenReturn(2026L);
+        when(provider.getWorld()).thenReturn(world);
+
+        LimitedRegion region = mock(LimitedRegion.class);
+        when(region.isInRegion(anyInt(), anyInt(), anyInt())).thenReturn(true);
+        return new GenerationContext(worldInfo, region, provider, null, new Random(2026L), 0, 0);
+    }
+
+    private static final class StoneWriter implements GenerationStage {
+        @Override
+        public void generate(GenerationContext context) {
+            context.setBlock(3, Y, 3, Material.STONE);
+        }
+    }
+
+    private static final class StoneReader implements GenerationStage {
+        @Override
+        public void generate(GenerationContext context) {
+            Material below = context.getBlockType(3, Y, 3);
+            context.setBlock(4, Y, 4, below == Material.STONE ? Material.GLASS : Material.DIRT);
+        }
+    }
+}
@@ -208,6 +208,31 @@ class PostProcessStageTest {
         verify(fixture.region()).setBlockState(eq(3), eq(70), eq(3), eq(furnaceState));
     }
 
+    @Test
+    @DisplayName("融合扫描应按顺序移除刷怪笼与失去支撑的植被")
+    void shouldRemoveSpawnersAndFloatingVegetationInOneSweep() {
+        TestFixture fixture = createFixture(0.0f);
+        BuildingInfo info = fixture.info();
+        info.isCity = true;
+        info.hasBuilding = false;
+        info.groundLevel = 70;
+
+        int y = info.getCityGroundLevel() + 2;
+        fixture.context().setBlock(5, y, 5, Material.SPAWNER);
+        // 下方是刷怪笼：刷怪笼先被移除，蕨随之失去支撑
+        fixture.context().setBlock(6, y - 1, 6, Material.SPAWNER);
+        fixture.context().setBlock(6, y, 6, Material.FERN);
+        fixture.context().setBlock(7, y - 1, 7, Material.STONE);
+        fixture.context().setBlock(7, y, 7, Material.FERN);
+
+        new PostProcessStage().generate(fixture.context());
+
+        assertEquals(Material.AIR, fixture.context().getBlockType(5, y, 5));
+        assertEquals(Material.AIR, fixture.context().getBlockType(6, y - 1, 6));
+        assertEquals(Material.AIR, fixture.context().getBlockType(6, y, 6));
+        assertEquals(Material.FERN, fixture.context().getBlockType(7, y, 7));
+    }
+
     private TestFixture createFixture(float vineChance) {
         World world = mock(World.class);
         when(world.getName()).thenReturn("world");
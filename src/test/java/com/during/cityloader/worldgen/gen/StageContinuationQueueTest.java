@@ -0,0 +1,95 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.season.Season;
+import org.bukkit.World;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("StageContinuationQueue 背压与续跑日志测试")
+class StageContinuationQueueTest {
+
+    @TempDir
+    Path worldFolder;
+
+    private World world;
+
+    @BeforeEach
+    void setUp() {
+        StageContinuationQueue.clear();
+        world = mock(World.class);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.getWorldFolder()).thenReturn(worldFolder.toFile());
+    }
+
+    @AfterEach
+    void tearDown() {
+        StageContinuationQueue.clear();
+        StageContinuationQueue.setMaxPending(4096);
+    }
+
+    @Test
+    @DisplayName("达到上限后报告已满，已登记的任务不被丢弃")
+    void shouldReportFullWithoutDroppingTasks() {
+        StageContinuationQueue.setMaxPending(2);
+        long dropped = StageContinuationQueue.snapshot().dropped();
+
+        StageContinuationQueue.enqueue(world, continuation(0, 0));
+        assertFalse(StageContinuationQueue.isFull());
+        StageContinuationQueue.enqueue(world, continuation(1, 0));
+        StageContinuationQueue.enqueue(world, continuation(2, 0));
+
+        assertTrue(StageContinuationQueue.isFull());
+        assertEquals(3, StageContinuationQueue.snapshot().waiting());
+        assertEquals(dropped, StageContinuationQueue.snapshot().dropped());
+    }
+
+    @Test
+    @DisplayName("未续跑完的任务写入世界目录，重启后按原坐标、季节与阶段恢复")
+    void shouldRestoreContinuationsFromJournal() throws Exception {
+        StageContinuationQueue.enqueue(world, StageContinuation.restored(3, -4, Season.WINTER,
+                List.of("LootStage", "PostProcessStage")));
+
+        assertEquals(1, StageContinuationQueue.saveJournal(world));
+        StageContinuationQueue.clear();
+        assertEquals(1, StageContinuationQueue.restoreJournal(world));
+
+        assertEquals(1, StageContinuationQueue.snapshot().waiting());
+        List<StageContinuation> journaled = ContinuationJournal.load(StageContinuationQueue.journalFile(world));
+        assertEquals(1, journaled.size());
+        assertEquals(3, journaled.get(0).chunkX());
+        assertEquals(-4, journaled.get(0).chunkZ());
+        assertEquals(Season.WINTER, journaled.get(0).season());
+        assertEquals(List.of("LootStage", "PostProcessStage"), journaled.get(0).remainingStageNames());
+    }
+
+    @Test
+    @DisplayName("没有待续跑的任务时删除旧日志")
+    void shouldDeleteJournalWhenEmpty() throws Exception {
+        StageContinuationQueue.enqueue(world, continuation(0, 0));
+        StageContinuationQueue.saveJournal(world);
+        assertTrue(Files.exists(StageContinuationQueue.journalFile(world)));
+
+        StageContinuationQueue.forget(world);
+        assertEquals(0, StageContinuationQueue.saveJournal(world));
+        assertFalse(Files.exists(StageContinuationQueue.journalFile(world)));
+        assertFalse(StageContinuationQueue.isFull());
+    }
+
+    private static StageContinuation continuation(int chunkX, int chunkZ) {
+        return StageContinuation.restored(chunkX, chunkZ, Season.SPRING, List.of("LootStage"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.during.cityloader.worldgen.gen;
+
+import com.during.cityloader.worldgen.LostCityProfile;
+import com.during.cityloader.worldgen.LostCityTerrainFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StagePipeline测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class StagePipelineTest {
+
+    private final LootStage loot = new LootStage();
+    private final ParkStage park = new ParkStage();
+    private final SpawnerStage spawner = new SpawnerStage();
+    private final PostProcessStage post = new PostProcessStage();
+
+    @Test
+    @DisplayName("编译时移除在配置下永远不会执行的阶段")
+    public void testCompileDropsNeverStages() {
+        LostCityProfile profile = new LostCityProfile("test");
+        profile.setParkChance(0.0f);
+
+        StagePipeline pipeline = StagePipeline.compile(List.of(loot, park, spawner, post), profile);
+
+        assertEquals(List.of(loot, post), pipeline.getStages());
+    }
+
+    @Test
+    @DisplayName("按区块特征过滤阶段分派")
+    public void testAppliesByChunkTraits() {
+        LostCityProfile profile = new LostCityProfile("test");
+        profile.setParkChance(0.5f);
+
+        StagePipeline pipeline = StagePipeline.compile(List.of(loot, park, post), profile);
+        int building = ChunkTraits.CITY | ChunkTraits.BUILDING;
+        int street = ChunkTraits.CITY | ChunkTraits.STREET;
+
+        assertTrue(pipeline.applies(0, building));
+        assertFalse(pipeline.applies(0, street));
+        assertFalse(pipeline.applies(1, building));
+        assertTrue(pipeline.applies(1, street));
+        assertTrue(pipeline.applies(2, 0));
+        assertFalse(pipeline.applies(0, 0));
+    }
+
+    @Test
+    @DisplayName("没有配置时保留全部阶段且不过滤")
+    public void testNullProfileKeepsEverything() {
+        StagePipeline pipeline = StagePipeline.compile(List.of(loot, spawner), null);
+
+        assertEquals(2, pipeline.size());
+        assertTrue(pipeline.applies(0, 0));
+        assertTrue(pipeline.applies(1, 0));
+    }
+
+    @Test
+    @DisplayName("延后只能从最后一个核心阶段之后开始")
+    public void testFirstDeferrableFollowsLastCriticalStage() {
+        GenerationStage critical = new GenerationStage() {
+            @Override
+            public void generate(GenerationContext context) {
+            }
+
+            @Override
+            public StagePriority priority() {
+                return StagePriority.CRITICAL;
+            }
+        };
+
+        StagePipeline pipeline = StagePipeline.compile(List.of(critical, loot, critical, spawner, post), null);
+
+        assertEquals(3, pipeline.firstDeferrable());
+        assertEquals(0, StagePipeline.compile(List.of(loot, post), null).firstDeferrable());
+    }
+
+    @Test
+    @DisplayName("同一地形总控按地形类型编译出不同的流水线")
+    public void testPipelineDependsOnLandscape() {
+        LostCityProfile standard = new LostCityProfile("standard");
+        LostCityProfile space = new LostCityProfile("space");
+        space.setLandscapeType("space");
+
+        List<String> standardStages = stageNames(LostCityTerrainFeature.DEFAULT.pipelineFor(standard));
+        List<String> spaceStages = stageNames(LostCityTerrainFeature.DEFAULT.pipelineFor(space));
+
+        assertFalse(standardStages.contains("CitySphereStage"));
+        assertFalse(standardStages.contains("MonorailStage"));
+        assertTrue(spaceStages.contains("CitySphereStage"));
+        assertTrue(spaceStages.contains("MonorailStage"));
+    }
+
+    private static List<String> stageNames(StagePipeline pipeline) {
+        return pipeline.getStages().stream().map(GenerationStage::name).toList();
+    }
+}
@@ -0,0 +1,36 @@
+package com.during.cityloader.worldgen.gen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * StageRandom测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class StageRandomTest {
+
+    @Test
+    @DisplayName("相同的世界种子、区块与阶段派生出相同的随机数流")
+    public void testSameInputsSameStream() {
+        GenerationStage park = new ParkStage();
+
+        assertEquals(StageRandom.forStage(2026L, 3, -7, park).nextLong(),
+                StageRandom.forStage(2026L, 3, -7, park).nextLong());
+    }
+
+    @Test
+    @DisplayName("阶段、区块或世界种子不同时派生出不同的种子")
+    public void testDistinctInputsDistinctSeeds() {
+        long base = StageRandom.seed(2026L, 3, -7, "ParkStage");
+
+        assertNotEquals(base, StageRandom.seed(2026L, 3, -7, "LootStage"));
+        assertNotEquals(base, StageRandom.seed(2026L, -7, 3, "ParkStage"));
+        assertNotEquals(base, StageRandom.seed(2026L, 4, -7, "ParkStage"));
+        assertNotEquals(base, StageRandom.seed(2027L, 3, -7, "ParkStage"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.during.cityloader.worldgen.gen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * StageSchedule测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class StageScheduleTest {
+
+    @Test
+    @DisplayName("非独立阶段作为屏障，屏障之间的独立阶段按优先级稳定排序")
+    public void testIndependentRunsSortedBetweenBarriers() {
+        List<GenerationStage> declared = List.of(
+                stage("core", StagePriority.CRITICAL, false),
+                stage("scattered", StagePriority.NORMAL, true),
+                stage("park", StagePriority.NORMAL, true),
+                stage("loot", StagePriority.HIGH, true),
+                stage("damage", StagePriority.NORMAL, false),
+                stage("decor", StagePriority.LOW, true),
+                stage("spawner", StagePriority.HIGH, true),
+                stage("post", StagePriority.LOW, false));
+
+        assertEquals(List.of("core", "loot", "scattered", "park", "damage", "spawner", "decor", "post"),
+                names(StageSchedule.order(declared)));
+    }
+
+    @Test
+    @DisplayName("全部为非独立阶段时保持声明顺序")
+    public void testDependentStagesKeepOrder() {
+        List<GenerationStage> declared = List.of(
+                stage("a", StagePriority.LOW, false),
+                stage("b", StagePriority.CRITICAL, false),
+                stage("c", StagePriority.HIGH, false));
+
+        assertEquals(List.of("a", "b", "c"), names(StageSchedule.order(declared)));
+    }
+
+    @Test
+    @DisplayName("连续的可并行阶段归为一层，屏障各自成层")
+    public void testLayersGroupParallelRuns() {
+        List<GenerationStage> ordered = StageSchedule.order(List.of(
+                stage("core", StagePriority.CRITICAL, false),
+                stage("park", StagePriority.NORMAL, true),
+                stage("loot", StagePriority.HIGH, true),
+                stage("damage", StagePriority.NORMAL, false),
+                stage("fountain", StagePriority.NORMAL, true),
+                stage("post", StagePriority.LOW, false)));
+
+        List<List<GenerationStage>> layers = StageSchedule.layers(ordered);
+
+        assertEquals(5, layers.size());
+        assertEquals(List.of("core"), names(layers.get(0)));
+        assertEquals(List.of("loot", "park"), names(layers.get(1)));
+        assertEquals(List.of("damage"), names(layers.get(2)));
+        assertEquals(List.of("fountain"), names(layers.get(3)));
+        assertEquals(List.of("post"), names(layers.get(4)));
+    }
+
+    @Test
+    @DisplayName("战利品阶段作为屏障，始终排在前面放置方块的阶段之后")
+    public void testLootStaysAfterBlockPlacingStages() {
+        GenerationStage park = new ParkStage();
+        GenerationStage solar = new MegaSolarStage();
+        GenerationStage quarry = new QuarryStage();
+        GenerationStage loot = new LootStage();
+        GenerationStage spawner = new SpawnerStage();
+
+        assertEquals(List.of(park, solar, quarry, loot, spawner),
+                StageSchedule.order(List.of(park, solar, quarry, loot, spawner)));
+    }
+
+    private static List<String> names(List<GenerationStage> stages) {
+        List<String> names = new ArrayList<>();
+        for (GenerationStage stage : stages) {
+            names.add(stage.name());
+        }
+        return names;
+    }
+
+    private static GenerationStage stage(String name, StagePriority priority, boolean independent) {
+        return new GenerationStage() {
+            @Override
+            public void generate(GenerationContext context) {
+            }
+
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public StagePriority priority() {
+                return priority;
+            }
+
+            @Override
+            public boolean independent() {
+                return independent;
+            }
+        };
+    }
+}
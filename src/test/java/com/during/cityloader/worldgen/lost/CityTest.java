@@ -105,6 +105,38 @@ class CityTest {
         assertEquals(0.0f, factor, 0.0001f);
     }
 
+    @Test
+    @DisplayName("经典模式：城市中心索引应与逐区块扫描结果逐位一致")
+    void testCityCenterIndexMatchesFullScan() {
+        profile.setCityChance(0.02);
+        profile.setCityMinRadius(50);
+        profile.setCityMaxRadius(128);
+
+        // 覆盖负坐标与分块边界
+        for (int x = -40; x <= 40; x += 3) {
+            for (int z = -40; z <= 40; z += 5) {
+                ChunkCoord coord = new ChunkCoord("world", x, z);
+                float expected = 0;
+                int offset = (profile.getCityMaxRadius() + 15) / 16;
+                for (int cx = x - offset; cx <= x + offset; cx++) {
+                    for (int cz = z - offset; cz <= z + offset; cz++) {
+                        ChunkCoord c = new ChunkCoord("world", cx, cz);
+                        if (City.isCityCenter(c, provider)) {
+                            float radius = City.getCityRadius(c, provider);
+                            float sqdist = (cx * 16 - (x << 4)) * (cx * 16 - (x << 4))
+                                    + (cz * 16 - (z << 4)) * (cz * 16 - (z << 4));
+                            if (sqdist < radius * radius) {
+                                expected += (radius - (float) Math.sqrt(sqdist)) / radius;
+                            }
+                        }
+                    }
+                }
+                assertEquals(expected, CityCenterIndex.getRawFactor(coord, provider), 0.0f);
+                assertEquals(expected > 0, CityCenterIndex.isCovered(coord, provider));
+            }
+        }
+    }
+
     @Test
     @DisplayName("城市中心应受世界种子影响")
     void testCityCenterDependsOnSeed() {
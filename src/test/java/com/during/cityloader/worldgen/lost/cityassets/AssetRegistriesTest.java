@@ -256,4 +256,42 @@ public class AssetRegistriesTest {
         AssetRegistries.PALETTES.register(name, paletteRE2);
         assertEquals(1, AssetRegistries.PALETTES.size(), "重复注册不应该增加大小");
     }
+
+    /**
+     * 测试负缓存：同一缺失资产只回退加载一次
+     */
+    @Test
+    void testNegativeLookupCache() {
+        ResourceLocation name = new ResourceLocation("test", "missing_palette");
+
+        assertNull(AssetRegistries.PALETTES.get(mockWorld, name));
+        assertNull(AssetRegistries.PALETTES.get(mockWorld, name));
+        assertNull(AssetRegistries.PALETTES.get(mockWorld, name));
+
+        assertEquals(1, AssetRegistries.PALETTES.getMissCount(), "缺失资产只应回退加载一次");
+        assertEquals(2, AssetRegistries.PALETTES.getNegativeHitCount(), "后续查询应命中负缓存");
+
+        // 手动注册后负缓存失效
+        AssetRegistries.PALETTES.register(name, new PaletteRE());
+        assertNotNull(AssetRegistries.PALETTES.get(mockWorld, name));
+    }
+
+    /**
+     * 测试封存模式：查询只读快照，不再回退加载
+     */
+    @Test
+    void testSealedRegistry() {
+        ResourceLocation present = new ResourceLocation("test", "sealed_palette");
+        AssetRegistries.PALETTES.register(present, new PaletteRE());
+
+        AssetRegistries.PALETTES.seal();
+
+        assertTrue(AssetRegistries.PALETTES.isSealed());
+        assertNotNull(AssetRegistries.PALETTES.get(mockWorld, present));
+        assertNull(AssetRegistries.PALETTES.get(mockWorld, "test:not_indexed"));
+        assertEquals(0, AssetRegistries.PALETTES.getMissCount(), "封存后不应回退加载");
+
+        AssetRegistries.reset();
+        assertFalse(AssetRegistries.PALETTES.isSealed(), "重置应解除封存");
+    }
 }
@@ -131,4 +131,52 @@ class CompiledPaletteTest {
         assertEquals("minecraft:stone_bricks", merged.get('@'));
         assertEquals("minecraft:cracked_stone_bricks", merged.getDamaged('@'));
     }
+
+    @Test
+    @DisplayName("非 Latin-1 字符应走溢出表并出现在字符集合中")
+    void shouldSupportCharactersOutsideDirectRange() {
+        AssetRegistries.reset();
+
+        PaletteRE paletteRE = new PaletteRE();
+        paletteRE.setPaletteEntries(List.of(
+                PaletteEntry.simpleBlock("\u4E2D", "minecraft:stone"),
+                PaletteEntry.simpleBlock("a", "minecraft:dirt")));
+        paletteRE.setRegistryName(new ResourceLocation("test", "wide"));
+
+        CompiledPalette compiled = new CompiledPalette(new Palette(paletteRE));
+        CompiledPalette copied = new CompiledPalette(compiled);
+
+        assertEquals("minecraft:stone", copied.get('\u4E2D'));
+        assertEquals("minecraft:dirt", copied.get('a'));
+        assertFalse(copied.isDefined('b'));
+        assertEquals(2, copied.getCharacters().size());
+    }
+
+    @Test
+    @DisplayName("相同组合应复用同一编译调色板，重置后重新编译")
+    void shouldMemoizeComposedPalettes() {
+        AssetRegistries.reset();
+
+        PaletteRE baseRE = new PaletteRE();
+        baseRE.setPaletteEntries(List.of(PaletteEntry.simpleBlock("#", "minecraft:stone_bricks")));
+        baseRE.setRegistryName(new ResourceLocation("test", "compose_base"));
+        PaletteRE partRE = new PaletteRE();
+        partRE.setPaletteEntries(List.of(PaletteEntry.simpleBlock("P", "minecraft:oak_planks")));
+        partRE.setRegistryName(new ResourceLocation("test", "compose_part"));
+        Palette basePalette = new Palette(baseRE);
+        Palette partPalette = new Palette(partRE);
+
+        CompiledPalette base = ComposedPaletteCache.compose(basePalette);
+        assertSame(base, ComposedPaletteCache.compose(basePalette));
+        assertSame(base, ComposedPaletteCache.compose(base));
+
+        CompiledPalette composed = ComposedPaletteCache.compose(base, partPalette);
+        assertSame(composed, ComposedPaletteCache.compose(base, partPalette));
+        assertEquals("minecraft:stone_bricks", composed.get('#'));
+        assertEquals("minecraft:oak_planks", composed.get('P'));
+        assertFalse(base.isDefined('P'));
+
+        AssetRegistries.reset();
+        assertNotSame(composed, ComposedPaletteCache.compose(base, partPalette));
+    }
 }
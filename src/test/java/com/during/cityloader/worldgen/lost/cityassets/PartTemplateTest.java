@@ -0,0 +1,74 @@
+package com.during.cityloader.worldgen.lost.cityassets;
+
+import com.during.cityloader.worldgen.lost.Transform;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@DisplayName("PartTemplate 体素模板测试")
+class PartTemplateTest {
+
+    private static final List<List<String>> LAYERS = List.of(
+            List.of("abc", "de", "fgh"),
+            List.of("ijk", "lmn", "op"));
+
+    @Test
+    @DisplayName("各变换的映射结果应与逐格 Transform 计算一致且保持遍历顺序")
+    void shouldMatchPerCellTransform() {
+        PartTemplate template = PartTemplate.compile(LAYERS, 3, 3, 2);
+        for (Transform transform : Transform.values()) {
+            PartTemplate.Oriented oriented = template.oriented(transform, true);
+            assertEquals(2, oriented.getLayerCount());
+            for (int dy = 0; dy < LAYERS.size(); dy++) {
+                List<int[]> expected = expectedCells(LAYERS.get(dy), 3, transform);
+                assertEquals(expected.size(), oriented.getCellCount(dy), transform + " layer " + dy);
+                for (int i = 0; i < expected.size(); i++) {
+                    int[] cell = expected.get(i);
+                    assertEquals(cell[0], oriented.getX(dy, i));
+                    assertEquals(cell[1], oriented.getZ(dy, i));
+                    assertEquals((char) cell[2], oriented.getToken(dy, i));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("映射结果应按变换缓存")
+    void shouldCacheOrientedTemplates() {
+        PartTemplate template = PartTemplate.compile(LAYERS, 3, 3, 2);
+        assertSame(template.oriented(Transform.ROTATE_90, true), template.oriented(Transform.ROTATE_90, true));
+    }
+
+    @Test
+    @DisplayName("裁剪模式下超出 16 格的源范围应被截断")
+    void shouldClipSourceToChunk() {
+        String wide = "x".repeat(20);
+        PartTemplate template = PartTemplate.compile(List.of(List.of(wide)), 20, 1, 1);
+
+        assertEquals(16, template.oriented(Transform.ROTATE_NONE, true).getCellCount(0));
+        PartTemplate.Oriented full = template.oriented(Transform.MIRROR_X, false);
+        assertEquals(20, full.getCellCount(0));
+        assertEquals(19, full.getX(0, 0));
+    }
+
+    private static List<int[]> expectedCells(List<String> rows, int width, Transform transform) {
+        int boundX = Math.min(16, width) - 1;
+        int boundZ = Math.min(16, rows.size()) - 1;
+        List<int[]> cells = new ArrayList<>();
+        for (int z = 0; z < rows.size(); z++) {
+            String row = rows.get(z);
+            for (int x = 0; x < Math.min(width, row.length()); x++) {
+                cells.add(new int[]{
+                        transform.mapX(x, z, boundX, boundZ),
+                        transform.mapZ(x, z, boundX, boundZ),
+                        row.charAt(x)});
+            }
+        }
+        return cells;
+    }
+}
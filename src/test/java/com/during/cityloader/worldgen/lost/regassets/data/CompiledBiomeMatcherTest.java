@@ -0,0 +1,61 @@
+package com.during.cityloader.worldgen.lost.regassets.data;
+
+import org.bukkit.block.Biome;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CompiledBiomeMatcher测试
+ *
+ * @author During
+ * @since 1.4.1
+ */
+public class CompiledBiomeMatcherTest {
+
+    @Test
+    @DisplayName("位集匹配结果与逐条字符串匹配一致")
+    public void testBitsetMatchesStringRules() {
+        BiomeMatcher matcher = matcher(
+                List.of("#minecraft:is_ocean", "plains", "minecraft:desert"),
+                List.of(),
+                List.of("deep_frozen_ocean"));
+        CompiledBiomeMatcher compiled = matcher.compiled();
+
+        for (Biome biome : Biome.values()) {
+            String path = biome.name().toLowerCase(Locale.ROOT);
+            assertEquals(CompiledBiomeMatcher.matchesName(matcher, "minecraft:" + path), compiled.matches(biome), path);
+            assertEquals(CompiledBiomeMatcher.matchesName(matcher, path), compiled.matchesPath(biome), path);
+        }
+        assertTrue(compiled.matches(Biome.WARM_OCEAN));
+        assertFalse(compiled.matches(Biome.DEEP_FROZEN_OCEAN));
+        assertTrue(compiled.matches(Biome.DESERT));
+        // 带命名空间的条目不匹配不带命名空间的名称
+        assertFalse(compiled.matchesPath(Biome.DESERT));
+        assertFalse(compiled.matches((Biome) null));
+    }
+
+    @Test
+    @DisplayName("修改规则后重新编译")
+    public void testRecompileAfterChange() {
+        BiomeMatcher matcher = matcher(List.of("plains"), List.of(), List.of());
+        assertTrue(matcher.compiled().matches(Biome.PLAINS));
+
+        matcher.setExcluding(new ArrayList<>(List.of("plains")));
+        assertFalse(matcher.compiled().matches(Biome.PLAINS));
+        assertTrue(CompiledBiomeMatcher.ANY.matches(Biome.PLAINS));
+    }
+
+    private static BiomeMatcher matcher(List<String> ifAny, List<String> ifAll, List<String> excluding) {
+        BiomeMatcher matcher = new BiomeMatcher();
+        matcher.setIfAny(new ArrayList<>(ifAny));
+        matcher.setIfAll(new ArrayList<>(ifAll));
+        matcher.setExcluding(new ArrayList<>(excluding));
+        return matcher;
+    }
+}